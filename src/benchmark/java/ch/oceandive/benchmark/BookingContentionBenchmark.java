@@ -0,0 +1,179 @@
+package ch.oceandive.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import ch.oceandive.model.GuestUser;
+import ch.oceandive.model.PremiumUser;
+import ch.oceandive.model.Trip;
+import ch.oceandive.repository.BookingRepo;
+import ch.oceandive.repository.GuestUserRepo;
+import ch.oceandive.repository.PremiumUserRepo;
+import ch.oceandive.repository.TripRepo;
+import ch.oceandive.security.TokenService;
+import ch.oceandive.service.SeatInventory;
+import ch.oceandive.utils.BookingStatus;
+import ch.oceandive.utils.DiveCertification;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Booking throughput and latency under contention, measured over HTTP against the full stack on an
+ * in-memory H2 database. Compiled but not run by the regular build; run it with
+ * {@code mvn test -Pbenchmark} and tune the load through the {@link LoadProfile} system properties. Set
+ * {@code -Dbenchmark.seat-inventory=true} to measure the in-memory seat inventory instead of the
+ * guarded database updates.
+ * <p>
+ * Every scenario books fresh trips and fails if any trip accepted more bookings than it has
+ * seats, or if the stored booking counts disagree with the accepted requests.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "app.booking.seat-inventory.enabled=${benchmark.seat-inventory:false}",
+    "logging.level.ch.oceandive=WARN"
+})
+@ActiveProfiles("test")
+class BookingContentionBenchmark {
+
+  private static final Logger logger = LoggerFactory.getLogger(BookingContentionBenchmark.class);
+
+  @LocalServerPort
+  private int port;
+
+  @Autowired
+  private TripRepo tripRepo;
+
+  @Autowired
+  private BookingRepo bookingRepo;
+
+  @Autowired
+  private PremiumUserRepo premiumUserRepo;
+
+  @Autowired
+  private GuestUserRepo guestUserRepo;
+
+  @Autowired
+  private SeatInventory seatInventory;
+
+  @Autowired
+  private TokenService tokenService;
+
+  private final LoadProfile profile = LoadProfile.fromSystemProperties();
+  private final HttpClient client = HttpClient.newBuilder()
+      .version(HttpClient.Version.HTTP_1_1)
+      .connectTimeout(Duration.ofSeconds(5))
+      .build();
+  private String token;
+  private List<Long> guestIds;
+
+  @BeforeEach
+  void setUp() {
+    String username = "bench-" + System.nanoTime();
+    premiumUserRepo.save(new PremiumUser("Bench", "Diver", username + "@oceandive.local", "+41790000000",
+        DiveCertification.ADVANCED_OPEN_WATER, username, "Benchmark-Pass1!", "PREMIUM"));
+    token = tokenService.generateToken(new UsernamePasswordAuthenticationToken(username, null,
+        List.of(new SimpleGrantedAuthority("ROLE_PREMIUM"))));
+
+    guestIds = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      GuestUser guest = new GuestUser("Guest", "Diver" + i, "guest" + i + "-" + username + "@oceandive.local",
+          "+41790000000", DiveCertification.ADVANCED_OPEN_WATER, "GUEST");
+      guestIds.add(guestUserRepo.save(guest).getId());
+    }
+  }
+
+  // Ledger bookings through BookingService
+  @Test
+  void guestBookingsThroughBookingController() throws Exception {
+    List<Long> trips = createTrips("guest");
+    LoadDriver.Result result = new LoadDriver(profile).run("POST /api/bookings/trips/{id}/guest",
+        (trip, random) -> post("/api/bookings/trips/" + trips.get(trip) + "/guest?guestUserId="
+            + guestIds.get(random.nextInt(guestIds.size()))));
+    verify(result, trips, true);
+  }
+
+  // Ledger bookings of a premium user through BookingService
+  @Test
+  void premiumBookingsThroughBookingController() throws Exception {
+    List<Long> trips = createTrips("premium");
+    LoadDriver.Result result = new LoadDriver(profile).run("POST /api/bookings/trips/{id}/user",
+        (trip, random) -> post("/api/bookings/trips/" + trips.get(trip) + "/user"));
+    verify(result, trips, true);
+  }
+
+  // Seat counter only bookings through TripService
+  @Test
+  void seatBookingsThroughTripController() throws Exception {
+    List<Long> trips = createTrips("seat");
+    LoadDriver.Result result = new LoadDriver(profile).run("POST /api/trips/{id}/book",
+        (trip, random) -> post("/api/trips/" + trips.get(trip) + "/book"));
+    verify(result, trips, false);
+  }
+
+  private int post(String path) throws Exception {
+    HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+        .header("Authorization", "Bearer " + token)
+        .timeout(Duration.ofSeconds(30))
+        .POST(HttpRequest.BodyPublishers.noBody())
+        .build();
+    return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+  }
+
+  private List<Long> createTrips(String scenario) {
+    List<Long> ids = new ArrayList<>();
+    for (int i = 0; i < profile.trips(); i++) {
+      Trip trip = new Trip("Benchmark Reef " + i, "Trip used by the booking contention benchmark",
+          LocalDate.now().plusDays(30), LocalDate.now().plusDays(33), null, profile.capacity(),
+          DiveCertification.OPEN_WATER, new BigDecimal("450.00"));
+      trip.setSlug("benchmark-" + scenario + "-" + i + "-" + System.nanoTime());
+      ids.add(tripRepo.save(trip).getId());
+    }
+    return ids;
+  }
+
+  private void verify(LoadDriver.Result result, List<Long> trips, boolean ledger) {
+    logger.warn(result.report());
+    seatInventory.flush();
+
+    int violations = result.oversoldTrips(profile.capacity());
+    int mismatches = 0;
+    for (int i = 0; i < trips.size(); i++) {
+      Long tripId = trips.get(i);
+      int stored = tripRepo.findById(tripId).orElseThrow().getCurrentBookings();
+      int accepted = result.acceptedPerTrip()[i];
+      if (stored > profile.capacity()) {
+        violations++;
+      }
+      int recorded = ledger ? bookingRepo.findByTripIdAndStatus(tripId, BookingStatus.CONFIRMED).size() : stored;
+      if (stored != accepted || recorded != accepted) {
+        mismatches++;
+        logger.warn("Trip {} accepted {} bookings but stores {} seats and {} ledger rows", tripId, accepted,
+            stored, recorded);
+      }
+    }
+    logger.warn("oversell violations={} count mismatches={}", violations, mismatches);
+
+    assertEquals(0, violations, "Trips were oversold");
+    assertEquals(0, mismatches, "Stored booking counts disagree with accepted requests");
+    assertEquals(0, result.errors(), "Requests failed without an HTTP response");
+    assertTrue(result.acceptedBookings() > 0, "No booking was accepted");
+  }
+}
@@ -0,0 +1,138 @@
+package ch.oceandive.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load generator: a fixed number of clients each send their requests back to back,
+ * pausing for a random think time in between. The trip of every request is drawn from a Zipf
+ * distribution so a few trips run hot while the rest see little traffic.
+ */
+public class LoadDriver {
+
+  // One request against the trip at the given index, returns the HTTP status
+  @FunctionalInterface
+  public interface Request {
+
+    int send(int tripIndex, SplittableRandom random) throws Exception;
+  }
+
+  private final LoadProfile profile;
+
+  public LoadDriver(LoadProfile profile) {
+    this.profile = profile;
+  }
+
+  public Result run(String name, Request request) throws Exception {
+    ZipfSampler sampler = new ZipfSampler(profile.trips(), profile.zipfExponent());
+    LatencyHistogram latency = new LatencyHistogram();
+    Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+    AtomicIntegerArray accepted = new AtomicIntegerArray(profile.trips());
+    LongAdder errors = new LongAdder();
+    SplittableRandom seeds = new SplittableRandom(profile.seed());
+    CountDownLatch start = new CountDownLatch(1);
+
+    ExecutorService clients = Executors.newFixedThreadPool(profile.threads());
+    List<Future<?>> futures = new ArrayList<>();
+    long startedAt;
+    try {
+      for (int t = 0; t < profile.threads(); t++) {
+        SplittableRandom random = seeds.split();
+        futures.add(clients.submit(() -> {
+          start.await();
+          for (int i = 0; i < profile.requestsPerThread(); i++) {
+            int trip = sampler.sample(random);
+            long begin = System.nanoTime();
+            try {
+              int status = request.send(trip, random);
+              latency.recordNanos(System.nanoTime() - begin);
+              statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+              if (status / 100 == 2) {
+                accepted.incrementAndGet(trip);
+              }
+            } catch (Exception e) {
+              errors.increment();
+            }
+            thinkTime(random);
+          }
+          return null;
+        }));
+      }
+      startedAt = System.nanoTime();
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get(10, TimeUnit.MINUTES);
+      }
+    } finally {
+      clients.shutdownNow();
+    }
+    long elapsed = System.nanoTime() - startedAt;
+
+    Map<Integer, Long> statusCounts = new TreeMap<>();
+    statuses.forEach((status, count) -> statusCounts.put(status, count.sum()));
+    int[] acceptedPerTrip = new int[profile.trips()];
+    for (int i = 0; i < acceptedPerTrip.length; i++) {
+      acceptedPerTrip[i] = accepted.get(i);
+    }
+    return new Result(name, profile, elapsed, latency, statusCounts, errors.sum(), acceptedPerTrip);
+  }
+
+  private void thinkTime(SplittableRandom random) throws InterruptedException {
+    long mean = profile.meanThinkTime().toNanos();
+    if (mean > 0) {
+      long pause = (long) (-Math.log(1.0 - random.nextDouble()) * mean);
+      TimeUnit.NANOSECONDS.sleep(pause);
+    }
+  }
+
+  /**
+   * Outcome of one run.
+   *
+   * @param acceptedPerTrip successful (2xx) bookings per trip index, compared with the capacity
+   *                        to detect oversells
+   */
+  public record Result(String name, LoadProfile profile, long elapsedNanos, LatencyHistogram latency,
+                       Map<Integer, Long> statusCounts, long errors, int[] acceptedPerTrip) {
+
+    public double throughputPerSecond() {
+      return latency.count() / (elapsedNanos / 1e9);
+    }
+
+    public int acceptedBookings() {
+      int total = 0;
+      for (int count : acceptedPerTrip) {
+        total += count;
+      }
+      return total;
+    }
+
+    // Trips that accepted more bookings than they have seats
+    public int oversoldTrips(int capacity) {
+      int oversold = 0;
+      for (int count : acceptedPerTrip) {
+        if (count > capacity) {
+          oversold++;
+        }
+      }
+      return oversold;
+    }
+
+    public String report() {
+      return String.format("%n=== %s ===%n%s%nthroughput=%.1f req/s elapsed=%dms accepted=%d errors=%d statuses=%s%n"
+              + "latency: %s",
+          name, profile, throughputPerSecond(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos), acceptedBookings(),
+          errors, statusCounts, latency.summary());
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package ch.oceandive.benchmark;
+
+import java.time.Duration;
+
+/**
+ * Shape of one benchmark run. Every value can be overridden with a system property, e.g.
+ * {@code mvn test -Pbenchmark -Dbenchmark.threads=64 -Dbenchmark.zipf=1.2}.
+ *
+ * @param threads           concurrent clients
+ * @param requestsPerThread requests each client sends
+ * @param trips             number of trips the traffic is spread over
+ * @param capacity          seats per trip
+ * @param zipfExponent      skew of the trip popularity, 0 = uniform
+ * @param meanThinkTime     mean pause between two requests of a client (exponentially distributed)
+ * @param seed              random seed, fixed so runs are comparable
+ */
+public record LoadProfile(int threads, int requestsPerThread, int trips, int capacity, double zipfExponent,
+                          Duration meanThinkTime, long seed) {
+
+  public static LoadProfile fromSystemProperties() {
+    return new LoadProfile(
+        Integer.getInteger("benchmark.threads", 32),
+        Integer.getInteger("benchmark.requests-per-thread", 100),
+        Integer.getInteger("benchmark.trips", 20),
+        Integer.getInteger("benchmark.capacity", 40),
+        Double.parseDouble(System.getProperty("benchmark.zipf", "1.1")),
+        Duration.ofMillis(Long.getLong("benchmark.think-time-ms", 0L)),
+        Long.getLong("benchmark.seed", 42L));
+  }
+
+  public int totalRequests() {
+    return threads * requestsPerThread;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("threads=%d requests=%d trips=%d capacity=%d zipf=%.2f think=%dms seed=%d",
+        threads, totalRequests(), trips, capacity, zipfExponent, meanThinkTime.toMillis(), seed);
+  }
+}
@@ -0,0 +1,130 @@
+package ch.oceandive.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import ch.oceandive.OceandiveApplication;
+import ch.oceandive.model.PremiumUser;
+import ch.oceandive.model.Trip;
+import ch.oceandive.repository.PremiumUserRepo;
+import ch.oceandive.repository.TripRepo;
+import ch.oceandive.security.TokenService;
+import ch.oceandive.utils.DiveCertification;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Concurrent request capacity with platform threads versus virtual threads on the same machine.
+ * <p>
+ * Boots the application twice, once with Tomcat's platform thread pool
+ * ({@code benchmark.platform-threads}, default 200) and once with
+ * {@code spring.threads.virtual.enabled=true}, and drives both with the same closed-loop load:
+ * mostly availability lookups plus some bookings, from more clients than the platform pool has
+ * threads. Run with {@code mvn test -Pbenchmark -Dtest=ThreadModeCapacityBenchmark
+ * -Dbenchmark.threads=400}; raise {@code benchmark.think-time-ms} to model slower clients.
+ */
+@Tag("benchmark")
+class ThreadModeCapacityBenchmark {
+
+  private static final Logger logger = LoggerFactory.getLogger(ThreadModeCapacityBenchmark.class);
+
+  private final LoadProfile profile = withDefaultThreads(LoadProfile.fromSystemProperties(), 400);
+  private final HttpClient client = HttpClient.newBuilder()
+      .version(HttpClient.Version.HTTP_1_1)
+      .connectTimeout(Duration.ofSeconds(5))
+      .build();
+
+  @Test
+  void compareRequestCapacity() throws Exception {
+    LoadDriver.Result platform = run("platform threads", false);
+    LoadDriver.Result virtual = run("virtual threads", true);
+
+    logger.warn(String.format("%n=== thread mode comparison (%s) ===%n"
+            + "platform: %.1f req/s p99=%dus errors=%d%n"
+            + "virtual:  %.1f req/s p99=%dus errors=%d%n"
+            + "virtual/platform throughput: %.2fx",
+        profile, platform.throughputPerSecond(), platform.latency().percentileMicros(99), platform.errors(),
+        virtual.throughputPerSecond(), virtual.latency().percentileMicros(99), virtual.errors(),
+        virtual.throughputPerSecond() / platform.throughputPerSecond()));
+
+    assertEquals(0, platform.oversoldTrips(profile.capacity()), "Platform thread run oversold trips");
+    assertEquals(0, virtual.oversoldTrips(profile.capacity()), "Virtual thread run oversold trips");
+  }
+
+  private LoadDriver.Result run(String mode, boolean virtualThreads) throws Exception {
+    String database = "capacity-" + (virtualThreads ? "virtual" : "platform");
+    try (ConfigurableApplicationContext context = new SpringApplicationBuilder(OceandiveApplication.class)
+        .profiles("test")
+        .properties(
+            "server.port=0",
+            "spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+            "spring.threads.virtual.enabled=" + virtualThreads,
+            "server.tomcat.threads.max=" + Integer.getInteger("benchmark.platform-threads", 200),
+            "logging.level.ch.oceandive=WARN")
+        .run()) {
+      int port = Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+      String token = premiumToken(context);
+      List<Long> trips = createTrips(context.getBean(TripRepo.class));
+
+      // Nine lookups for every booking attempt, like visitors browsing before they book
+      return new LoadDriver(profile).run(mode, (trip, random) -> {
+        String base = "http://localhost:" + port + "/api/trips/" + trips.get(trip);
+        HttpRequest request = random.nextInt(10) == 0
+            ? HttpRequest.newBuilder(URI.create(base + "/book"))
+                .header("Authorization", "Bearer " + token)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .timeout(Duration.ofSeconds(30))
+                .build()
+            : HttpRequest.newBuilder(URI.create(base + "/availability"))
+                .GET()
+                .timeout(Duration.ofSeconds(30))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+      });
+    }
+  }
+
+  private String premiumToken(ConfigurableApplicationContext context) {
+    String username = "capacity-" + System.nanoTime();
+    context.getBean(PremiumUserRepo.class).save(new PremiumUser("Capacity", "Diver",
+        username + "@oceandive.local", "+41790000000", DiveCertification.ADVANCED_OPEN_WATER, username,
+        "Benchmark-Pass1!", "PREMIUM"));
+    return context.getBean(TokenService.class).generateToken(new UsernamePasswordAuthenticationToken(username,
+        null, List.of(new SimpleGrantedAuthority("ROLE_PREMIUM"))));
+  }
+
+  private List<Long> createTrips(TripRepo tripRepo) {
+    List<Long> ids = new ArrayList<>();
+    for (int i = 0; i < profile.trips(); i++) {
+      Trip trip = new Trip("Capacity Reef " + i, "Trip used by the thread mode capacity benchmark",
+          LocalDate.now().plusDays(30), LocalDate.now().plusDays(33), null, profile.capacity(),
+          DiveCertification.OPEN_WATER, new BigDecimal("450.00"));
+      trip.setSlug("capacity-" + i + "-" + System.nanoTime());
+      ids.add(tripRepo.save(trip).getId());
+    }
+    return ids;
+  }
+
+  // Capacity only shows with more clients than platform threads, unless benchmark.threads is set
+  private static LoadProfile withDefaultThreads(LoadProfile profile, int threads) {
+    if (System.getProperty("benchmark.threads") != null) {
+      return profile;
+    }
+    return new LoadProfile(threads, profile.requestsPerThread(), profile.trips(), profile.capacity(),
+        profile.zipfExponent(), profile.meanThinkTime(), profile.seed());
+  }
+}
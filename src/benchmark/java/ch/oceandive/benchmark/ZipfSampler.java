@@ -0,0 +1,39 @@
+package ch.oceandive.benchmark;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Draws ranks 0..n-1 with Zipf probabilities p(k) ~ 1 / (k + 1)^s, so rank 0 is the hottest trip.
+ * An exponent of 0 is uniform; around 1 a handful of trips receive most of the traffic.
+ */
+public class ZipfSampler {
+
+  private final double[] cumulative;
+
+  public ZipfSampler(int n, double exponent) {
+    if (n < 1) {
+      throw new IllegalArgumentException("Need at least one rank");
+    }
+    cumulative = new double[n];
+    double sum = 0;
+    for (int k = 0; k < n; k++) {
+      sum += 1.0 / Math.pow(k + 1, exponent);
+      cumulative[k] = sum;
+    }
+    for (int k = 0; k < n; k++) {
+      cumulative[k] /= sum;
+    }
+  }
+
+  public int sample(RandomGenerator random) {
+    int index = Arrays.binarySearch(cumulative, random.nextDouble());
+    int rank = index >= 0 ? index : -index - 1;
+    return Math.min(rank, cumulative.length - 1);
+  }
+
+  // Probability of the given rank, for reporting the configured skew
+  public double probability(int rank) {
+    return rank == 0 ? cumulative[0] : cumulative[rank] - cumulative[rank - 1];
+  }
+}
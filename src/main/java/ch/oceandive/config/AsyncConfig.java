@@ -0,0 +1,10 @@
+package ch.oceandive.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+// Turns on @Async listeners (waitlist notifications), run on Spring Boot's task executor
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+}
@@ -0,0 +1,133 @@
+package ch.oceandive.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Limits how many threads may hold a JDBC connection at the same time.
+ * <p>
+ * On JDK 21 a virtual thread that blocks on socket I/O inside a {@code synchronized} block, as
+ * JDBC drivers commonly do, stays pinned to its carrier thread. If every carrier is pinned this
+ * way, no other virtual thread can run, not even the ones that would return a connection. The
+ * permits are taken before a connection is borrowed; waiting on the semaphore unmounts the
+ * virtual thread instead of pinning it, so the number of pinned carriers never exceeds the
+ * number of permits.
+ * <p>
+ * A permit belongs to a thread, not to a connection: a thread pins at most one carrier however
+ * many connections it holds. A thread that already holds a connection, like an after-commit
+ * listener opening a {@code REQUIRES_NEW} read while the committing transaction still holds its
+ * connection, borrows the next one without a second permit, so nested access never waits on the
+ * bulkhead. The permit goes back when the last connection of the thread is closed.
+ */
+public class JdbcBulkheadDataSource extends DelegatingDataSource {
+
+  private final Semaphore permits;
+  private final int maxPermits;
+  private final Duration acquireTimeout;
+  // Open connections of the current thread; the thread holds a permit while this is above zero
+  private final ThreadLocal<AtomicInteger> openConnections = ThreadLocal.withInitial(AtomicInteger::new);
+
+  public JdbcBulkheadDataSource(DataSource target, int maxPermits, Duration acquireTimeout) {
+    super(target);
+    this.maxPermits = maxPermits;
+    this.permits = new Semaphore(maxPermits, true);
+    this.acquireTimeout = acquireTimeout;
+  }
+
+  public int getMaxPermits() {
+    return maxPermits;
+  }
+
+  // Threads currently holding a permit
+  public int getActiveConnections() {
+    return maxPermits - permits.availablePermits();
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    AtomicInteger open = acquire();
+    try {
+      return guard(super.getConnection(), open);
+    } catch (SQLException | RuntimeException e) {
+      release(open);
+      throw e;
+    }
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    AtomicInteger open = acquire();
+    try {
+      return guard(super.getConnection(username, password), open);
+    } catch (SQLException | RuntimeException e) {
+      release(open);
+      throw e;
+    }
+  }
+
+  // Counts the connection for the current thread, taking a permit for its first one
+  private AtomicInteger acquire() throws SQLException {
+    AtomicInteger open = openConnections.get();
+    if (open.getAndIncrement() > 0) {
+      return open;
+    }
+    try {
+      if (!permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+        open.decrementAndGet();
+        throw new SQLTransientConnectionException(
+            "No JDBC permit available within " + acquireTimeout.toMillis() + " ms (" + maxPermits + " in use)");
+      }
+      return open;
+    } catch (InterruptedException e) {
+      open.decrementAndGet();
+      Thread.currentThread().interrupt();
+      throw new SQLTransientConnectionException("Interrupted while waiting for a JDBC permit", e);
+    }
+  }
+
+  // Also when the connection is closed on another thread: the counter belongs to the borrowing one
+  private void release(AtomicInteger open) {
+    if (open.decrementAndGet() == 0) {
+      permits.release();
+    }
+  }
+
+  // The connection is uncounted when it is closed, exactly once
+  private Connection guard(Connection connection, AtomicInteger open) {
+    AtomicBoolean released = new AtomicBoolean();
+    InvocationHandler handler = (proxy, method, args) -> {
+      if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+        try {
+          return invoke(connection, method, args);
+        } finally {
+          if (released.compareAndSet(false, true)) {
+            release(open);
+          }
+        }
+      }
+      return invoke(connection, method, args);
+    };
+    return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+        new Class<?>[]{Connection.class}, handler);
+  }
+
+  private static Object invoke(Connection target, Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getTargetException();
+    }
+  }
+}
@@ -0,0 +1,10 @@
+package ch.oceandive.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Turns on the @Scheduled jobs (token cleanups, seat inventory flushes)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,58 @@
+package ch.oceandive.config;
+
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Extra wiring for {@code spring.threads.virtual.enabled=true}. Spring Boot itself then runs
+ * Tomcat requests, {@code @Async} listeners and {@code @Scheduled} jobs on virtual threads; this
+ * configuration puts a {@link JdbcBulkheadDataSource} in front of the connection pool so pinned
+ * JDBC calls cannot occupy every carrier thread. On hosts with few cores, set
+ * {@code app.virtual-threads.jdbc-permits} below the carrier count; the default follows the pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+  private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+  // Hikari's own default
+  private static final int DEFAULT_POOL_SIZE = 10;
+  private static final int MIN_PERMITS = 2;
+
+  @Bean
+  public static BeanPostProcessor jdbcBulkheadPostProcessor(Environment environment) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource) || bean instanceof JdbcBulkheadDataSource) {
+          return bean;
+        }
+        int permits = jdbcPermits(environment);
+        long timeoutMs = environment.getProperty("app.virtual-threads.jdbc-acquire-timeout-ms", Long.class, 30_000L);
+        logger.info("Virtual threads enabled, limiting JDBC access of '{}' to {} concurrent connections",
+            beanName, permits);
+        return new JdbcBulkheadDataSource(dataSource, permits, Duration.ofMillis(timeoutMs));
+      }
+    };
+  }
+
+  /**
+   * Configured permits, or by default the connection pool size. Never fewer than two: a single
+   * permit would leave the after-commit listeners of a write, which read in a transaction of their
+   * own, competing with the next write for the only connection slot.
+   */
+  static int jdbcPermits(Environment environment) {
+    int configured = environment.getProperty("app.virtual-threads.jdbc-permits", Integer.class, 0);
+    int permits = configured > 0
+        ? configured
+        : environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, DEFAULT_POOL_SIZE);
+    return Math.max(MIN_PERMITS, permits);
+  }
+}
@@ -3,6 +3,7 @@ package ch.oceandive.controller.rest;
 import ch.oceandive.dto.Response;
 import ch.oceandive.model.Course;
 import ch.oceandive.model.Trip;
+import ch.oceandive.service.AdminDashboardService;
 import ch.oceandive.service.AdminService;
 import ch.oceandive.service.CourseService;
 import ch.oceandive.service.GuestUserService;
@@ -42,15 +43,17 @@ public class AdminController {
   private final TripService tripService;
   private final PremiumUserService premiumUserService;
   private final GuestUserService guestUserService;
+  private final AdminDashboardService dashboardService;
 
   public AdminController(AdminService adminService, CourseService courseService,
       TripService tripService, PremiumUserService premiumUserService,
-      GuestUserService guestUserService) {
+      GuestUserService guestUserService, AdminDashboardService dashboardService) {
     this.adminService = adminService;
     this.courseService = courseService;
     this.tripService = tripService;
     this.premiumUserService = premiumUserService;
     this.guestUserService = guestUserService;
+    this.dashboardService = dashboardService;
   }
 //====================== Admin operations for managing courses, trips, and users ======================
   // Add dive course
@@ -85,6 +88,24 @@ public class AdminController {
           .body(new Response(false, "Error creating trip: " + e.getMessage(), null));
     }
   }
+  // Dashboard figures, the same snapshot as the admin dashboard page
+  @GetMapping("/dashboard")
+  @Operation(summary = "Get the admin dashboard figures")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Dashboard figures retrieved successfully"),
+      @ApiResponse(responseCode = "403", description = "Access denied"),
+      @ApiResponse(responseCode = "500", description = "Internal server error")
+  })
+  public ResponseEntity<Response> getDashboard() {
+    try {
+      return ResponseEntity.ok(new Response(true, "Dashboard figures retrieved successfully",
+          dashboardService.getSnapshot()));
+    } catch (Exception e) {
+      logger.error("Error retrieving dashboard figures", e);
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+          .body(new Response(false, "Error retrieving dashboard figures: " + e.getMessage(), null));
+    }
+  }
 // View all users with access to premium and guest users
   @GetMapping("/view-users")
   @Operation(summary = "Get all users with pagination")
@@ -95,15 +116,27 @@ public class AdminController {
   })
   public ResponseEntity<Response> getAllUsers(
       @Parameter(description = "Page number") @RequestParam(defaultValue = "0") int page,
-      @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size) {
+      @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size,
+      @Parameter(description = "Keyset pagination: page with cursors instead of page numbers") @RequestParam(defaultValue = "false") boolean keyset,
+      @Parameter(description = "nextCursor of the previous premium user page") @RequestParam(required = false) String premiumCursor,
+      @Parameter(description = "nextCursor of the previous guest user page") @RequestParam(required = false) String guestCursor,
+      @Parameter(description = "Count all users (keyset pagination)") @RequestParam(defaultValue = "true") boolean includeTotal) {
     try {
-      Pageable pageable = PageRequest.of(page, size);
       Map<String, Object> response = new HashMap<>();
-      response.put("premiumUsers", premiumUserService.getAllPremiumUsers(pageable));
-      response.put("guestUsers", guestUserService.getAllGuestUsers(pageable));
-      response.put("currentPage", page);
+      if (keyset || premiumCursor != null || guestCursor != null) {
+        response.put("premiumUsers", premiumUserService.getAllPremiumUsers(premiumCursor, size, includeTotal));
+        response.put("guestUsers", guestUserService.getAllGuestUsers(guestCursor, size, includeTotal));
+      } else {
+        Pageable pageable = PageRequest.of(page, size);
+        response.put("premiumUsers", premiumUserService.getAllPremiumUsers(pageable));
+        response.put("guestUsers", guestUserService.getAllGuestUsers(pageable));
+        response.put("currentPage", page);
+      }
       response.put("pageSize", size);
       return ResponseEntity.ok(new Response(true, "Users retrieved successfully", response));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+          .body(new Response(false, e.getMessage(), null));
     } catch (Exception e) {
       logger.error("Error retrieving users", e);
       return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -120,16 +153,28 @@ public class AdminController {
   })
   public ResponseEntity<Response> getBookingInformation(
       @Parameter(description = "Page number") @RequestParam(defaultValue = "0") int page,
-      @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size) {
+      @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size,
+      @Parameter(description = "Keyset pagination: page with cursors instead of page numbers") @RequestParam(defaultValue = "false") boolean keyset,
+      @Parameter(description = "nextCursor of the previous course page") @RequestParam(required = false) String courseCursor,
+      @Parameter(description = "nextCursor of the previous trip page") @RequestParam(required = false) String tripCursor,
+      @Parameter(description = "Count all courses and trips (keyset pagination)") @RequestParam(defaultValue = "true") boolean includeTotal) {
     try {
-      Pageable pageable = PageRequest.of(page, size);
       Map<String, Object> response = new HashMap<>();
-      response.put("courses", courseService.findAll(pageable));
-      response.put("trips", tripService.getAllTrips(pageable));
-      response.put("currentPage", page);
+      if (keyset || courseCursor != null || tripCursor != null) {
+        response.put("courses", courseService.getAllCoursesForAdmin(courseCursor, size, includeTotal));
+        response.put("trips", tripService.getAllTrips(tripCursor, size, includeTotal, true));
+      } else {
+        Pageable pageable = PageRequest.of(page, size);
+        response.put("courses", courseService.findAll(pageable));
+        response.put("trips", tripService.getAllTrips(pageable));
+        response.put("currentPage", page);
+      }
       response.put("pageSize", size);
       return ResponseEntity.ok(
           new Response(true, "Booking information retrieved successfully", response));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+          .body(new Response(false, e.getMessage(), null));
     } catch (Exception e) {
       logger.error("Error retrieving booking information", e);
       return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -1,5 +1,8 @@
 package ch.oceandive.controller.rest;
 
+import ch.oceandive.dto.GroupBookingRequest;
+import ch.oceandive.exceptionHandler.ResourceNotFoundException;
+import ch.oceandive.model.Booking;
 import ch.oceandive.model.Course;
 import ch.oceandive.model.GuestUser;
 import ch.oceandive.model.PremiumUser;
@@ -9,20 +12,29 @@ import ch.oceandive.service.CourseService;
 import ch.oceandive.service.GuestUserService;
 import ch.oceandive.service.PremiumUserService;
 import ch.oceandive.service.TripService;
+import ch.oceandive.utils.BookingStatus;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -30,12 +42,15 @@ import org.springframework.web.bind.annotation.RestController;
 
 /**
  * Controller for handling booking operations for courses and trips.
- * Supports both premium users and guest users.
+ * Supports both premium users and guest users. Clients may send an Idempotency-Key header,
+ * a retried request with the same key returns the original booking without booking another seat.
  */
 @RestController
 @RequestMapping("/api/bookings")
 public class BookingController {
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final BookingService bookingService;
     private final CourseService courseService;
     private final TripService tripService;
@@ -56,12 +71,13 @@ public class BookingController {
     // Book a course for a logged-in user, The course ID is for the backend to identify the course
     @PostMapping("/courses/{courseId}/user")
     public ResponseEntity<Map<String, String>> bookCourseForUser(
-        @Parameter(description = "Course ID") @PathVariable Long courseId) {
+        @Parameter(description = "Course ID") @PathVariable Long courseId,
+        @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String username = authentication.getName();
         PremiumUser premiumUser = premiumUserService.getPremiumUserEntityByUsername(username);
         Course course = courseService.getCourseById(courseId);
-        return bookCourseForEntity(course, premiumUser);
+        return bookCourseForEntity(course, premiumUser, idempotencyKey);
     }
     // Book a trip for a logged-in user the trip ID is for the backend to identify the trip
     @PostMapping("/trips/{tripId}/user")
@@ -74,44 +90,55 @@ public class BookingController {
         @ApiResponse(responseCode = "409", description = "Business rule violation")
     })
     public ResponseEntity<Map<String, String>> bookTripForUser(
-        @Parameter(description = "Trip ID") @PathVariable Long tripId) {
+        @Parameter(description = "Trip ID") @PathVariable Long tripId,
+        @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String username = authentication.getName();
         PremiumUser premiumUser = premiumUserService.getPremiumUserEntityByUsername(username);
 
         Trip trip = tripService.getTripById(tripId);
-        return bookTripForEntity(trip, premiumUser);
+        return bookTripForEntity(trip, premiumUser, idempotencyKey);
     }
 
  // Helper method to book a course for any user type
-    private ResponseEntity<Map<String, String>> bookCourseForEntity(Course course, Object entity) {
-        String bookingReference;
-        if (entity instanceof PremiumUser) {
-            bookingReference = bookingService.bookCourse(course, (PremiumUser) entity);
-        } else if (entity instanceof GuestUser) {
-            bookingReference = bookingService.bookCourse(course, (GuestUser) entity);
+    private ResponseEntity<Map<String, String>> bookCourseForEntity(Course course, Object entity, String idempotencyKey) {
+        Booking booking;
+        if (entity instanceof PremiumUser premiumUser) {
+            booking = bookingService.bookCourse(course, premiumUser, idempotencyKey);
+        } else if (entity instanceof GuestUser guestUser) {
+            booking = bookingService.bookCourse(course, guestUser, idempotencyKey);
         } else {
             throw new IllegalArgumentException("Unsupported user type");
         }
-        Map<String, String> response = new HashMap<>();
-        response.put("bookingReference", bookingReference);
-        response.put("message", "Course booked successfully");
-        return ResponseEntity.status(201).body(response);
+        return ResponseEntity.status(201).body(toResponse(booking, "Course booked successfully"));
     }
    // Helper method to book a trip for any user type
-    private ResponseEntity<Map<String, String>> bookTripForEntity(Trip trip, Object entity) {
-        String bookingReference;
-        if (entity instanceof PremiumUser) {
-            bookingReference = bookingService.bookTrip(trip, (PremiumUser) entity);
-        } else if (entity instanceof GuestUser) {
-            bookingReference = bookingService.bookTrip(trip, (GuestUser) entity);
+    private ResponseEntity<Map<String, String>> bookTripForEntity(Trip trip, Object entity, String idempotencyKey) {
+        Booking booking;
+        if (entity instanceof PremiumUser premiumUser) {
+            booking = bookingService.bookTrip(trip, premiumUser, idempotencyKey);
+        } else if (entity instanceof GuestUser guestUser) {
+            booking = bookingService.bookTrip(trip, guestUser, idempotencyKey);
         } else {
             throw new IllegalArgumentException("Unsupported user type");
         }
+        return ResponseEntity.status(201).body(toResponse(booking, "Trip booked successfully"));
+    }
+
+    private Map<String, String> toResponse(Booking booking, String message) {
         Map<String, String> response = new HashMap<>();
-        response.put("bookingReference", bookingReference);
-        response.put("message", "Trip booked successfully");
-        return ResponseEntity.status(201).body(response);
+        response.put("bookingReference", booking.getReference());
+        response.put("status", booking.getStatus().name());
+        response.put("seats", String.valueOf(booking.getSeats()));
+        if (booking.getExpiresAt() != null) {
+            response.put("expiresAt", booking.getExpiresAt().toString());
+        }
+        if (booking.getStatus() == BookingStatus.HELD && booking.getGuestUserId() != null) {
+            // Guests have no account the hold belongs to, they confirm or release it with this key
+            response.put("idempotencyKey", booking.getIdempotencyKey());
+        }
+        response.put("message", message);
+        return response;
     }
 
     // Book a course or trip for guest users, and the same (Course ID or Trip ID) is used to identify the course or trip
@@ -124,10 +151,11 @@ public class BookingController {
     })
     public ResponseEntity<Map<String, String>> bookCourseForGuestUser(
         @Parameter(description = "Course ID") @PathVariable Long courseId,
-        @Parameter(description = "Guest user ID") @RequestParam Long guestUserId) {
+        @Parameter(description = "Guest user ID") @RequestParam Long guestUserId,
+        @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         GuestUser guestUser = guestUserService.getGuestUserEntityById(guestUserId);
         Course course = courseService.getCourseById(courseId);
-        return bookCourseForEntity(course, guestUser);
+        return bookCourseForEntity(course, guestUser, idempotencyKey);
     }
     @PostMapping("/trips/{tripId}/guest")
     @Operation(summary = "Book trip for guest")
@@ -138,10 +166,219 @@ public class BookingController {
     })
     public ResponseEntity<Map<String, String>> bookTripForGuestUser(
         @Parameter(description = "Trip ID") @PathVariable Long tripId,
-        @Parameter(description = "Guest user ID") @RequestParam Long guestUserId) {
+        @Parameter(description = "Guest user ID") @RequestParam Long guestUserId,
+        @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         GuestUser guestUser = guestUserService.getGuestUserEntityById(guestUserId);
         Trip trip = tripService.getTripById(tripId);
 
-        return bookTripForEntity(trip, guestUser);
+        return bookTripForEntity(trip, guestUser, idempotencyKey);
+    }
+
+    // Book one seat per participant on a trip for the logged-in user, or for a guest when guestUserId is given.
+    // All participants are validated together and all seats are reserved at once, or nothing is booked
+    @PostMapping("/trips/{tripId}/group")
+    @Operation(summary = "Group booking for a trip")
+    @SecurityRequirement(name = "bearerAuth")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Group booked successfully"),
+        @ApiResponse(responseCode = "400", description = "Participants failed validation"),
+        @ApiResponse(responseCode = "404", description = "Trip or guest not found"),
+        @ApiResponse(responseCode = "409", description = "Not enough seats left")
+    })
+    public ResponseEntity<Map<String, String>> bookTripForGroup(
+        @Parameter(description = "Trip ID") @PathVariable Long tripId,
+        @Parameter(description = "Guest user ID") @RequestParam(required = false) Long guestUserId,
+        @Valid @RequestBody GroupBookingRequest request,
+        @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        Trip trip = tripService.getTripById(tripId);
+        Booking booking;
+        if (guestUserId != null) {
+            GuestUser guestUser = guestUserService.getGuestUserEntityById(guestUserId);
+            booking = bookingService.bookTripGroup(trip, guestUser, request.getParticipants(), idempotencyKey);
+        } else {
+            PremiumUser premiumUser = currentPremiumUser();
+            booking = bookingService.bookTripGroup(trip, premiumUser, request.getParticipants(), idempotencyKey);
+        }
+        return ResponseEntity.status(201).body(toResponse(booking, "Group booked successfully"));
+    }
+
+    // Book one seat per participant on a course for the logged-in user, or for a guest when guestUserId is given
+    @PostMapping("/courses/{courseId}/group")
+    @Operation(summary = "Group booking for a course")
+    @SecurityRequirement(name = "bearerAuth")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Group booked successfully"),
+        @ApiResponse(responseCode = "400", description = "Participants failed validation"),
+        @ApiResponse(responseCode = "404", description = "Course or guest not found"),
+        @ApiResponse(responseCode = "409", description = "Not enough seats left")
+    })
+    public ResponseEntity<Map<String, String>> bookCourseForGroup(
+        @Parameter(description = "Course ID") @PathVariable Long courseId,
+        @Parameter(description = "Guest user ID") @RequestParam(required = false) Long guestUserId,
+        @Valid @RequestBody GroupBookingRequest request,
+        @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        Course course = courseService.getCourseById(courseId);
+        Booking booking;
+        if (guestUserId != null) {
+            GuestUser guestUser = guestUserService.getGuestUserEntityById(guestUserId);
+            booking = bookingService.bookCourseGroup(course, guestUser, request.getParticipants(), idempotencyKey);
+        } else {
+            PremiumUser premiumUser = currentPremiumUser();
+            booking = bookingService.bookCourseGroup(course, premiumUser, request.getParticipants(), idempotencyKey);
+        }
+        return ResponseEntity.status(201).body(toResponse(booking, "Group booked successfully"));
+    }
+
+    // Hold a seat on a trip for the logged-in user, or for a guest when guestUserId is given.
+    // The hold expires unless it is confirmed in time
+    @PostMapping("/trips/{tripId}/hold")
+    @Operation(summary = "Hold a seat on a trip")
+    @SecurityRequirement(name = "bearerAuth")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Seat held"),
+        @ApiResponse(responseCode = "404", description = "Trip or guest not found"),
+        @ApiResponse(responseCode = "409", description = "Business rule violation")
+    })
+    public ResponseEntity<Map<String, String>> holdTrip(
+        @Parameter(description = "Trip ID") @PathVariable Long tripId,
+        @Parameter(description = "Guest user ID") @RequestParam(required = false) Long guestUserId,
+        @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        Trip trip = tripService.getTripById(tripId);
+        Booking hold;
+        if (guestUserId != null) {
+            GuestUser guestUser = guestUserService.getGuestUserEntityById(guestUserId);
+            String holdKey = guestHoldKey(idempotencyKey);
+            hold = bookingService.holdTrip(trip, guestUser, holdKey);
+        } else {
+            PremiumUser premiumUser = currentPremiumUser();
+            hold = bookingService.holdTrip(trip, premiumUser, idempotencyKey);
+        }
+        return ResponseEntity.status(201).body(toResponse(hold, "Seat held, please confirm before it expires"));
+    }
+
+    // Hold a seat on a course for the logged-in user, or for a guest when guestUserId is given
+    @PostMapping("/courses/{courseId}/hold")
+    @Operation(summary = "Hold a seat on a course")
+    @SecurityRequirement(name = "bearerAuth")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Seat held"),
+        @ApiResponse(responseCode = "404", description = "Course or guest not found"),
+        @ApiResponse(responseCode = "409", description = "Business rule violation")
+    })
+    public ResponseEntity<Map<String, String>> holdCourse(
+        @Parameter(description = "Course ID") @PathVariable Long courseId,
+        @Parameter(description = "Guest user ID") @RequestParam(required = false) Long guestUserId,
+        @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        Course course = courseService.getCourseById(courseId);
+        Booking hold;
+        if (guestUserId != null) {
+            GuestUser guestUser = guestUserService.getGuestUserEntityById(guestUserId);
+            String holdKey = guestHoldKey(idempotencyKey);
+            hold = bookingService.holdCourse(course, guestUser, holdKey);
+        } else {
+            PremiumUser premiumUser = currentPremiumUser();
+            hold = bookingService.holdCourse(course, premiumUser, idempotencyKey);
+        }
+        return ResponseEntity.status(201).body(toResponse(hold, "Seat held, please confirm before it expires"));
+    }
+
+    // Confirm a seat hold, turning it into a booking. A guest's hold is confirmed with the
+    // Idempotency-Key it was created with
+    @PostMapping("/{reference}/confirm")
+    @Operation(summary = "Confirm a seat hold")
+    @SecurityRequirement(name = "bearerAuth")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Booking confirmed"),
+        @ApiResponse(responseCode = "404", description = "Booking not found"),
+        @ApiResponse(responseCode = "409", description = "Hold expired or released")
+    })
+    public ResponseEntity<Map<String, String>> confirmHold(
+        @Parameter(description = "Booking reference") @PathVariable String reference,
+        @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        requireAccessibleBooking(reference, idempotencyKey);
+        Booking confirmed = bookingService.confirmHold(reference);
+        return ResponseEntity.ok(toResponse(confirmed, "Booking confirmed successfully"));
+    }
+
+    // Release a seat hold before it expires, a guest's hold with its Idempotency-Key
+    @PostMapping("/{reference}/release")
+    @Operation(summary = "Release a seat hold")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<Map<String, String>> releaseHold(
+        @Parameter(description = "Booking reference") @PathVariable String reference,
+        @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        requireAccessibleBooking(reference, idempotencyKey);
+        Booking released = bookingService.cancelBooking(reference);
+        return ResponseEntity.ok(toResponse(released, "Seat hold released"));
+    }
+
+    // Bookings of the logged-in user, newest first
+    @GetMapping("/my")
+    @Operation(summary = "List bookings of the logged-in user")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<List<Booking>> getMyBookings(
+        @Parameter(description = "Maximum number of bookings") @RequestParam(defaultValue = "50") int limit) {
+        PremiumUser premiumUser = currentPremiumUser();
+        return ResponseEntity.ok(bookingService.getBookingsForUser(premiumUser, Math.min(Math.max(limit, 1), 200)));
+    }
+
+    // Look up a booking by its reference, only the owner or an admin may see it
+    @GetMapping("/{reference}")
+    @Operation(summary = "Get booking by reference")
+    @SecurityRequirement(name = "bearerAuth")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Booking found"),
+        @ApiResponse(responseCode = "404", description = "Booking not found")
+    })
+    public ResponseEntity<Booking> getBooking(
+        @Parameter(description = "Booking reference") @PathVariable String reference) {
+        return ResponseEntity.ok(requireAccessibleBooking(reference, null));
+    }
+
+    // Cancel a booking by its reference and release the seats it holds
+    @PostMapping("/{reference}/cancel")
+    @Operation(summary = "Cancel booking by reference")
+    @SecurityRequirement(name = "bearerAuth")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Booking cancelled"),
+        @ApiResponse(responseCode = "404", description = "Booking not found")
+    })
+    public ResponseEntity<Map<String, String>> cancelBooking(
+        @Parameter(description = "Booking reference") @PathVariable String reference) {
+        requireAccessibleBooking(reference, null);
+        Booking cancelled = bookingService.cancelBooking(reference);
+        return ResponseEntity.ok(toResponse(cancelled, "Booking cancelled successfully"));
+    }
+
+    // Other users' bookings are reported as missing so references cannot be probed. References are
+    // time-ordered and guessable, so a guest's booking also needs the key it was created with
+    private Booking requireAccessibleBooking(String reference, String guestKey) {
+        Booking booking = bookingService.getBookingByReference(reference);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        boolean isAdmin = authentication.getAuthorities().stream()
+            .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+        if (isAdmin || isGuestKey(booking, guestKey)) {
+            return booking;
+        }
+        if (booking.getGuestUserId() != null || !booking.isOwnedBy(currentPremiumUser())) {
+            throw ResourceNotFoundException.create("Booking", "reference", reference);
+        }
+        return booking;
+    }
+
+    private static boolean isGuestKey(Booking booking, String guestKey) {
+        return booking.getGuestUserId() != null && guestKey != null && booking.getIdempotencyKey() != null
+            && MessageDigest.isEqual(guestKey.getBytes(StandardCharsets.UTF_8),
+                booking.getIdempotencyKey().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // A guest hold always gets a key, it is what the guest confirms the hold with
+    private static String guestHoldKey(String idempotencyKey) {
+        return idempotencyKey != null ? idempotencyKey : UUID.randomUUID().toString();
+    }
+
+    private PremiumUser currentPremiumUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return premiumUserService.getPremiumUserEntityByUsername(authentication.getName());
     }
-}
\ No newline at end of file
+}
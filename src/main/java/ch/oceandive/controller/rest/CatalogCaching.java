@@ -0,0 +1,89 @@
+package ch.oceandive.controller.rest;
+
+import ch.oceandive.service.CatalogVersions;
+import jakarta.servlet.http.HttpServletResponse;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * Conditional GET support for the public trip and course endpoints.
+ * <p>
+ * Each check sets a strong ETag and Last-Modified from {@link CatalogVersions} plus the configured
+ * public {@code Cache-Control}, and answers whether the client's copy is still current. When it is,
+ * the response already is a 304 and the endpoint returns null without loading anything:
+ * <pre>
+ * if (catalogCaching.tripsNotModified(request)) {
+ *   return null;
+ * }
+ * </pre>
+ * The checks are for published data only. Responses with drafts or archived items, and error
+ * responses, are marked {@link #doNotStore} so that no shared cache keeps them.
+ */
+@Component
+public class CatalogCaching {
+
+  private static final String DO_NOT_STORE = CacheControl.noStore().cachePrivate().getHeaderValue();
+
+  private final CatalogVersions versions;
+  private final String cacheControl;
+
+  public CatalogCaching(CatalogVersions versions,
+      @Value("${app.http.catalog-cache.max-age-seconds:10}") long maxAgeSeconds,
+      @Value("${app.http.catalog-cache.stale-while-revalidate-seconds:60}") long staleWhileRevalidateSeconds) {
+    this.versions = versions;
+    this.cacheControl = CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS)
+        .cachePublic()
+        .staleWhileRevalidate(staleWhileRevalidateSeconds, TimeUnit.SECONDS)
+        .getHeaderValue();
+  }
+
+  // Lists of the published trips
+  public boolean tripsNotModified(ServletWebRequest request) {
+    return notModified(request, versions.tripsTag(), versions.tripsLastModified());
+  }
+
+  // A trip by slug, checked only when it is a published trip; other slugs are not stored
+  public boolean tripNotModified(ServletWebRequest request, String slug) {
+    return tripNotModified(request, versions.tripTag(slug));
+  }
+
+  // A trip by id, checked only when it is a published trip; other ids are not stored
+  public boolean tripNotModified(ServletWebRequest request, Long id) {
+    return tripNotModified(request, versions.tripTag(id));
+  }
+
+  // Published courses
+  public boolean coursesNotModified(ServletWebRequest request) {
+    return notModified(request, versions.coursesTag(), versions.coursesLastModified());
+  }
+
+  // Replaces the public Cache-Control of an earlier check, e.g. when the trip turned out to be a draft
+  public void doNotStore(ServletWebRequest request) {
+    setCacheControl(request, DO_NOT_STORE);
+  }
+
+  private boolean tripNotModified(ServletWebRequest request, String tag) {
+    if (tag == null) {
+      doNotStore(request);
+      return false;
+    }
+    return notModified(request, tag, versions.tripsLastModified());
+  }
+
+  private boolean notModified(ServletWebRequest request, String etag, long lastModified) {
+    setCacheControl(request, cacheControl);
+    return request.checkNotModified("\"" + etag + "\"", lastModified);
+  }
+
+  private static void setCacheControl(ServletWebRequest request, String value) {
+    HttpServletResponse response = request.getResponse();
+    if (response != null) {
+      // Set before the body is written, so Spring Security keeps it instead of its no-cache default
+      response.setHeader(HttpHeaders.CACHE_CONTROL, value);
+    }
+  }
+}
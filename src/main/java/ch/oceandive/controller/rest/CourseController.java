@@ -1,7 +1,10 @@
 package ch.oceandive.controller.rest;
 
+import ch.oceandive.dto.CourseCard;
+import ch.oceandive.dto.SeatAvailability;
 import ch.oceandive.model.Course;
 import ch.oceandive.service.CourseService;
+import ch.oceandive.utils.PublicationStatus;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -16,9 +19,11 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 
 /*
   * REST API controller for course management operations.
+  * List endpoints return CourseCards, the full course is served by /courses/{id}.
  */
 
 @RestController
@@ -27,9 +32,11 @@ import org.springframework.web.bind.annotation.RestController;
 public class CourseController {
 
     private final CourseService courseService;
+    private final CatalogCaching catalogCaching;
 
-    public CourseController(CourseService courseService) {
+    public CourseController(CourseService courseService, CatalogCaching catalogCaching) {
         this.courseService = courseService;
+        this.catalogCaching = catalogCaching;
     }
 
     // Endpoint to get all courses (public access)
@@ -38,8 +45,10 @@ public class CourseController {
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Courses retrieved successfully")
     })
-    public ResponseEntity<List<Course>> getAllCourses() {
-        List<Course> courses = courseService.getAllCourses();
+    public ResponseEntity<List<CourseCard>> getAllCourses(ServletWebRequest request) {
+        // The list also has draft and archived courses, not for shared caches
+        catalogCaching.doNotStore(request);
+        List<CourseCard> courses = courseService.getAllCourseCards();
         return ResponseEntity.ok(courses);
     }
     // Endpoint to get a course by its ID (public access) the course ID is for the backend to identify the course
@@ -50,11 +59,28 @@ public class CourseController {
         @ApiResponse(responseCode = "404", description = "Course not found")
     })
     public ResponseEntity<Course> getCourseById(
-        @Parameter(description = "Course ID") @PathVariable Long id) {
+        @Parameter(description = "Course ID") @PathVariable Long id, ServletWebRequest request) {
+        // Not found responses and unpublished courses are not for shared caches
+        catalogCaching.doNotStore(request);
         Course course = courseService.getCourseById(id);
+        if (course.getStatus() == PublicationStatus.PUBLISHED && catalogCaching.coursesNotModified(request)) {
+            return null;
+        }
         return ResponseEntity.ok(course);
     }
 
+    // Endpoint to get the seat availability of a course, seats on hold count as booked (public access)
+    @GetMapping("/courses/{id}/availability")
+    @Operation(summary = "Get course seat availability")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Availability retrieved successfully"),
+        @ApiResponse(responseCode = "404", description = "Course not found")
+    })
+    public ResponseEntity<SeatAvailability> getCourseAvailability(
+        @Parameter(description = "Course ID") @PathVariable Long id) {
+        return ResponseEntity.ok(courseService.getCourseAvailability(id));
+    }
+
     // Endpoint to get upcoming courses (public access)
     @GetMapping("/courses/upcoming")
     @Operation(summary = "Get upcoming courses")
@@ -62,7 +88,7 @@ public class CourseController {
         @ApiResponse(responseCode = "200", description = "Upcoming courses retrieved successfully")
     })
     public ResponseEntity<?> getUpcomingCourses() {
-        List<Course> courses = courseService.getCoursesByStartDateAfter(LocalDate.now());
+        List<CourseCard> courses = courseService.getCourseCardsByStartDateAfter(LocalDate.now());
         if (courses.isEmpty()) {
             return ResponseEntity.ok("coming soon");
         }
@@ -75,8 +101,8 @@ public class CourseController {
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Available courses retrieved successfully")
     })
-    public ResponseEntity<List<Course>> getAvailableCourses() {
-        List<Course> courses = courseService.getAllCourses();
+    public ResponseEntity<List<CourseCard>> getAvailableCourses() {
+        List<CourseCard> courses = courseService.getAllCourseCards();
         return ResponseEntity.ok(courses);
     }
 
@@ -86,9 +112,9 @@ public class CourseController {
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Courses retrieved successfully")
     })
-    public ResponseEntity<List<Course>> getCoursesByName(
+    public ResponseEntity<List<CourseCard>> getCoursesByName(
         @Parameter(description = "Course name") @PathVariable String name) {
-        List<Course> courses = courseService.getCoursesByName(name);
+        List<CourseCard> courses = courseService.getCourseCardsByName(name);
         return ResponseEntity.ok(courses);
     }
     // Endpoint to get courses by date range (public access)
@@ -98,10 +124,10 @@ public class CourseController {
         @ApiResponse(responseCode = "200", description = "Courses retrieved successfully"),
         @ApiResponse(responseCode = "400", description = "Invalid date format")
     })
-    public ResponseEntity<List<Course>> getCoursesByDateRange(
+    public ResponseEntity<List<CourseCard>> getCoursesByDateRange(
         @Parameter(description = "Start date") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
         @Parameter(description = "End date") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        List<Course> courses = courseService.getCoursesByStartDateBetween(startDate, endDate);
+        List<CourseCard> courses = courseService.getCourseCardsByStartDateBetween(startDate, endDate);
         return ResponseEntity.ok(courses);
     }
 }
\ No newline at end of file
@@ -175,6 +175,21 @@ public class DiveLogController {
     }
   }
 
+  // Endpoint for dive site autocomplete, most dived sites first
+  @GetMapping("/locations/suggest")
+  public ResponseEntity<?> suggestUserLocations(@RequestParam(defaultValue = "") String q,
+      @RequestParam(defaultValue = "8") int limit) {
+    try {
+      PremiumUser currentUser = getCurrentUser();
+      List<String> suggestions = diveLogService.suggestUserLocations(currentUser, q, limit);
+      return ResponseEntity.ok(suggestions);
+    } catch (Exception e) {
+      logger.error("Error suggesting locations", e);
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+          .body(Map.of("error", "Failed to suggest locations"));
+    }
+  }
+
   // Helper method to get the current logged-in user
   private PremiumUser getCurrentUser() {
     Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
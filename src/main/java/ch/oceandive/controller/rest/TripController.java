@@ -1,7 +1,13 @@
 package ch.oceandive.controller.rest;
 
+import ch.oceandive.dto.SeatAvailability;
+import ch.oceandive.dto.TripCalendar;
+import ch.oceandive.dto.TripCard;
 import ch.oceandive.dto.TripDTO;
+import ch.oceandive.dto.TripSearchCriteria;
+import ch.oceandive.dto.TripSearchResult;
 import ch.oceandive.utils.DiveCertification;
+import ch.oceandive.utils.PublicationStatus;
 import ch.oceandive.model.Trip;
 import ch.oceandive.service.TripService;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -16,9 +22,11 @@ import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -27,6 +35,7 @@ import java.util.stream.Collectors;
 /*
   * REST API controller for trip management operations.
   * That Part of the project is not yet fully implemented.
+  * List endpoints return TripCards, the full trip is served by /{id} and /slug/{slug}.
  */
 
 @RestController
@@ -35,62 +44,108 @@ public class TripController {
 
     private static final Logger logger = LoggerFactory.getLogger(TripController.class);
     private final TripService tripService;
+    private final CatalogCaching catalogCaching;
 
     @Autowired
-    public TripController(TripService tripService) {
+    public TripController(TripService tripService, CatalogCaching catalogCaching) {
         this.tripService = tripService;
+        this.catalogCaching = catalogCaching;
     }
 //   // Endpoint to get all trips for public access
     @GetMapping
     public ResponseEntity<?> getAllTrips(
         @Parameter(description = "Page number") @RequestParam(defaultValue = "0") int page,
         @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size,
-        @Parameter(description = "Include unpublished trips") @RequestParam(defaultValue = "false") boolean includeUnpublished,
-        @Parameter(description = "Enable pagination") @RequestParam(defaultValue = "false") boolean paginated) {
+        @Parameter(description = "Include unpublished trips (admins only)") @RequestParam(defaultValue = "false") boolean includeUnpublished,
+        @Parameter(description = "Enable pagination") @RequestParam(defaultValue = "false") boolean paginated,
+        @Parameter(description = "Keyset pagination: page with cursors instead of page numbers") @RequestParam(defaultValue = "false") boolean keyset,
+        @Parameter(description = "nextCursor of the previous page, implies keyset pagination") @RequestParam(required = false) String cursor,
+        @Parameter(description = "Count all trips (keyset pagination)") @RequestParam(defaultValue = "true") boolean includeTotal,
+        ServletWebRequest request) {
         logger.debug("Getting all trips - page: {}, size: {}, includeUnpublished: {}",
             page, size, includeUnpublished);
+        // Drafts and archived trips are listed for admins only, whatever the other parameters
+        boolean withUnpublished = includeUnpublished && request.getRequest().isUserInRole("ADMIN");
+        // Unpublished trips are not for shared caches
+        if (withUnpublished) {
+            catalogCaching.doNotStore(request);
+        } else if (catalogCaching.tripsNotModified(request)) {
+            return null;
+        }
         try {
-            if (paginated) {
+            if (keyset || cursor != null) {
+                return ResponseEntity.ok(tripService.getAllTripCards(cursor, size, includeTotal, withUnpublished));
+            } else if (paginated) {
                 Pageable pageable = PageRequest.of(page, size);
-                Page<Trip> trips = tripService.getAllTrips(pageable);
+                Page<TripCard> trips = tripService.getAllTripCards(pageable, withUnpublished);
                 return ResponseEntity.ok(trips);
             } else {
-                List<Trip> trips = includeUnpublished ?
-                    tripService.getAllTripsIncludingUnpublished() :
-                    tripService.getAllTrips();
+                List<TripCard> trips = withUnpublished ?
+                    tripService.getAllTripCardsIncludingUnpublished() :
+                    tripService.getAllTripCards();
                 return ResponseEntity.ok(trips);
             }
+        } catch (IllegalArgumentException e) {
+            logger.debug("Invalid trip list request: {}", e.getMessage());
+            catalogCaching.doNotStore(request);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         } catch (Exception e) {
             logger.error("Error getting trips", e);
+            catalogCaching.doNotStore(request);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body("Error retrieving trips: " + e.getMessage());
         }
     }
 
-    // Endpoint to get a trip by its ID for Admin level
+    // Endpoint to get a trip by its ID, published trips are served from the catalog and admins also
+    // see drafts and archived trips
     @GetMapping("/{id}")
-    public ResponseEntity<?> getTripById(@Parameter(description = "Trip ID") @PathVariable Long id) {
+    public ResponseEntity<?> getTripById(@Parameter(description = "Trip ID") @PathVariable Long id,
+        ServletWebRequest request) {
         logger.debug("Getting trip by ID: {}", id);
+        if (catalogCaching.tripNotModified(request, id)) {
+            return null;
+        }
 
         try {
-            Trip trip = tripService.getTripById(id);
+            Trip trip = tripService.getTripById(id, request.getRequest().isUserInRole("ADMIN"));
+            if (trip.getStatus() != PublicationStatus.PUBLISHED) {
+                catalogCaching.doNotStore(request);
+            }
             return ResponseEntity.ok(trip);
         } catch (Exception e) {
             logger.error("Error getting trip by ID: {}", id, e);
+            catalogCaching.doNotStore(request);
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                 .body("Trip not found with ID: " + id);
         }
     }
 
+    // Endpoint to get the seat availability of a trip, seats on hold count as booked
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<SeatAvailability> getTripAvailability(@Parameter(description = "Trip ID") @PathVariable Long id) {
+        logger.debug("Getting availability of trip ID: {}", id);
+        return ResponseEntity.ok(tripService.getTripAvailability(id));
+    }
+
     // End point to get a trip by its slug (stored in the database) for Admin Level
     @GetMapping("/slug/{slug}")
-    public ResponseEntity<?> getTripBySlug(@Parameter(description = "Trip slug") @PathVariable String slug) {
+    public ResponseEntity<?> getTripBySlug(@Parameter(description = "Trip slug") @PathVariable String slug,
+        ServletWebRequest request) {
         logger.debug("Getting trip by slug: {}", slug);
+        if (catalogCaching.tripNotModified(request, slug)) {
+            return null;
+        }
         try {
-            Trip trip = tripService.getTripBySlug(slug);
+            // Drafts and archived trips are found for admins only
+            Trip trip = tripService.getTripBySlug(slug, request.getRequest().isUserInRole("ADMIN"));
+            if (trip.getStatus() != PublicationStatus.PUBLISHED) {
+                catalogCaching.doNotStore(request);
+            }
             return ResponseEntity.ok(trip);
         } catch (Exception e) {
             logger.error("Error getting trip by slug: {}", slug, e);
+            catalogCaching.doNotStore(request);
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                 .body("Trip not found with slug: " + slug);
         }
@@ -170,7 +225,7 @@ public class TripController {
 
     // Endpoint to search trips with various filters for public access
     @GetMapping("/search")
-    public ResponseEntity<List<Trip>> searchTrips(
+    public ResponseEntity<List<TripCard>> searchTrips(
         @Parameter(description = "Location filter") @RequestParam(required = false) String location,
         @Parameter(description = "Start date filter") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
         @Parameter(description = "End date filter") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
@@ -183,17 +238,37 @@ public class TripController {
                 "certification: {}, availableOnly: {}, minPrice: {}, maxPrice: {}",
             location, startDate, endDate, certification, availableOnly, minPrice, maxPrice);
 
-        List<Trip> trips = tripService.searchTrips(location, startDate, endDate,
+        List<TripCard> trips = tripService.searchTripCards(location, startDate, endDate,
             certification, availableOnly, minPrice, maxPrice);
         return ResponseEntity.ok(trips);
     }
 
+    // Endpoint for faceted trip search: a page of trips plus counts per location, certification, price band and month
+    @GetMapping("/search/faceted")
+    public ResponseEntity<TripSearchResult<TripCard>> searchTripsFaceted(
+        @Parameter(description = "Full-text search") @RequestParam(required = false) String q,
+        @Parameter(description = "Exact location") @RequestParam(required = false) String location,
+        @Parameter(description = "Start date filter") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+        @Parameter(description = "End date filter") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+        @Parameter(description = "Certification level filter") @RequestParam(required = false) DiveCertification certification,
+        @Parameter(description = "Available spots only") @RequestParam(defaultValue = "false") boolean availableOnly,
+        @Parameter(description = "Minimum price") @RequestParam(required = false) BigDecimal minPrice,
+        @Parameter(description = "Maximum price") @RequestParam(required = false) BigDecimal maxPrice,
+        @Parameter(description = "Page number") @RequestParam(defaultValue = "0") int page,
+        @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size) {
+
+        TripSearchCriteria criteria = new TripSearchCriteria(q, location, startDate, endDate,
+            certification, availableOnly, minPrice, maxPrice);
+        logger.debug("Faceted trip search: {} (page {}, size {})", criteria, page, size);
+        return ResponseEntity.ok(tripService.searchTripCardsFaceted(criteria, page, size));
+    }
+
     // Endpoint to get upcoming trips for public access
     @GetMapping("/upcoming")
     public ResponseEntity<?> getUpcomingTrips() {
         logger.debug("Getting upcoming trips");
 
-        List<Trip> trips = tripService.getUpcomingTrips();
+        List<TripCard> trips = tripService.getUpcomingTripCards();
         if (trips.isEmpty()) {
             return ResponseEntity.ok(Map.of("message", "coming soon"));
         }
@@ -202,62 +277,82 @@ public class TripController {
 
     // Endpoint to get available trips, with an option for upcoming trips only
     @GetMapping("/available")
-    public ResponseEntity<List<Trip>> getAvailableTrips(
+    public ResponseEntity<List<TripCard>> getAvailableTrips(
         @Parameter(description = "Upcoming trips only") @RequestParam(defaultValue = "false") boolean upcomingOnly) {
         logger.debug("Getting available trips - upcomingOnly: {}", upcomingOnly);
-        List<Trip> trips = upcomingOnly ?
-            tripService.getAvailableUpcomingTrips() :
-            tripService.getAvailableTrips();
+        List<TripCard> trips = tripService.getAvailableTripCards(upcomingOnly);
         return ResponseEntity.ok(trips);
     }
 
+    // Endpoint for the availability calendar: trips running and trips with seats left per day of a month
+    @GetMapping("/calendar")
+    public ResponseEntity<TripCalendar> getTripCalendar(
+        @Parameter(description = "Month (yyyy-MM), defaults to the current month") @RequestParam(required = false) YearMonth month,
+        @Parameter(description = "Diver certification level") @RequestParam(required = false) DiveCertification certification) {
+        YearMonth shown = month == null ? YearMonth.now() : month;
+        logger.debug("Getting trip calendar for {} - certification: {}", shown, certification);
+
+        return ResponseEntity.ok(tripService.getTripCalendar(shown, certification));
+    }
+
+    // Endpoint to get the trips with seats left running within a date window, for a calendar selection
+    @GetMapping("/calendar/available")
+    public ResponseEntity<List<TripCard>> getAvailableTripsBetween(
+        @Parameter(description = "First day") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @Parameter(description = "Last day") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+        @Parameter(description = "Diver certification level") @RequestParam(required = false) DiveCertification certification) {
+        logger.debug("Getting available trips from {} to {} - certification: {}", from, to, certification);
+
+        return ResponseEntity.ok(tripService.getAvailableTripCardsBetween(from, to, certification));
+    }
+
     // Endpoint to get featured trips, with a limit on the number of results (Featured are (Special offers, Seasonal trips, etc.))
     @GetMapping("/featured")
-    public ResponseEntity<List<Trip>> getFeaturedTrips(
+    public ResponseEntity<List<TripCard>> getFeaturedTrips(
         @Parameter(description = "Maximum results") @RequestParam(defaultValue = "6") int limit) {
         logger.debug("Getting featured trips - limit: {}", limit);
-        List<Trip> trips = tripService.getFeaturedTrips(limit);
+        List<TripCard> trips = tripService.getFeaturedTripCards(limit);
         return ResponseEntity.ok(trips);
     }
 
     // Endpoint to get trips by location
     @GetMapping("/location/{location}")
-    public ResponseEntity<List<Trip>> getTripsByLocation(
+    public ResponseEntity<List<TripCard>> getTripsByLocation(
         @Parameter(description = "Location name") @PathVariable String location) {
         logger.debug("Getting trips by location: {}", location);
-        List<Trip> trips = tripService.getTripsByLocation(location);
+        List<TripCard> trips = tripService.getTripCardsByLocation(location);
         return ResponseEntity.ok(trips);
     }
 
     // Endpoint to get trips by date range public access
     @GetMapping("/date-range")
-    public ResponseEntity<List<Trip>> getTripsByDateRange(
+    public ResponseEntity<List<TripCard>> getTripsByDateRange(
         @Parameter(description = "Start date") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
         @Parameter(description = "End date") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
 
         logger.debug("Getting trips by date range: {} to {}", startDate, endDate);
 
-        List<Trip> trips = tripService.getTripsByStartDateBetween(startDate, endDate);
+        List<TripCard> trips = tripService.getTripCardsByStartDateBetween(startDate, endDate);
         return ResponseEntity.ok(trips);
     }
 
     // Endpoint to get trips for specific certification level public access
     @GetMapping("/certification/{level}")
-    public ResponseEntity<List<Trip>> getTripsForCertification(
+    public ResponseEntity<List<TripCard>> getTripsForCertification(
         @Parameter(description = "Certification level") @PathVariable DiveCertification level) {
         logger.debug("Getting trips for certification level: {}", level);
 
-        List<Trip> trips = tripService.getTripsForCertificationLevel(level);
+        List<TripCard> trips = tripService.getTripCardsForCertificationLevel(level);
         return ResponseEntity.ok(trips);
     }
 
     // Endpoint to get trips by price range public access
     @GetMapping("/price-range")
-    public ResponseEntity<List<Trip>> getTripsByPriceRange(
+    public ResponseEntity<List<TripCard>> getTripsByPriceRange(
         @Parameter(description = "Minimum price") @RequestParam BigDecimal minPrice,
         @Parameter(description = "Maximum price") @RequestParam BigDecimal maxPrice) {
         logger.debug("Getting trips by price range: {} to {}", minPrice, maxPrice);
-        List<Trip> trips = tripService.getTripsByPriceRange(minPrice, maxPrice);
+        List<TripCard> trips = tripService.getTripCardsByPriceRange(minPrice, maxPrice);
         return ResponseEntity.ok(trips);
     }
 
@@ -268,8 +363,7 @@ public class TripController {
         @Parameter(description = "Maximum results") @RequestParam(defaultValue = "5") int limit) {
         logger.debug("Getting similar trips for trip ID: {}, limit: {}", id, limit);
         try {
-            Trip trip = tripService.getTripById(id);
-            List<Trip> similarTrips = tripService.getSimilarTrips(trip, limit);
+            List<TripCard> similarTrips = tripService.getSimilarTripCards(id, limit);
             return ResponseEntity.ok(similarTrips);
         } catch (Exception e) {
             logger.error("Error getting similar trips for ID: {}", id, e);
@@ -363,20 +457,20 @@ public class TripController {
 
     // Endpoints to get the most booked trips  for ADMIN Dashboard
     @GetMapping("/analytics/most-booked")
-    public ResponseEntity<List<Trip>> getMostBookedTrips(
+    public ResponseEntity<List<TripCard>> getMostBookedTrips(
         @Parameter(description = "Maximum results") @RequestParam(defaultValue = "10") int limit) {
         logger.debug("Getting most booked trips - limit: {}", limit);
 
-        List<Trip> trips = tripService.getMostBookedTrips(limit);
+        List<TripCard> trips = tripService.getMostBookedTripCards(limit);
         return ResponseEntity.ok(trips);
     }
 
     // Endpoint to get trips with low bookings for analytics  for ADMIN Dashboard
     @GetMapping("/analytics/low-bookings")
-    public ResponseEntity<List<Trip>> getTripsWithLowBookings() {
+    public ResponseEntity<List<TripCard>> getTripsWithLowBookings() {
         logger.debug("Getting trips with low bookings");
 
-        List<Trip> trips = tripService.getTripsWithLowBookings();
+        List<TripCard> trips = tripService.getTripCardsWithLowBookings();
         return ResponseEntity.ok(trips);
     }
 
@@ -389,21 +483,31 @@ public class TripController {
         return ResponseEntity.ok(locations);
     }
 
+    // Endpoint for destination autocomplete, most popular destinations first
+    @GetMapping("/locations/suggest")
+    public ResponseEntity<List<String>> suggestLocations(
+        @Parameter(description = "Typed prefix") @RequestParam(defaultValue = "") String q,
+        @Parameter(description = "Maximum suggestions") @RequestParam(defaultValue = "8") int limit) {
+        logger.debug("Suggesting destinations - prefix: {}, limit: {}", q, limit);
+
+        List<String> suggestions = tripService.suggestDestinations(q, limit);
+        return ResponseEntity.ok(suggestions);
+    }
+
     // Endpoints to get active and past trips for ADMIN Dashboard
     @GetMapping("/active")
-    public ResponseEntity<List<Trip>> getActiveTrips() {
+    public ResponseEntity<List<TripCard>> getActiveTrips() {
         logger.debug("Getting active trips");
 
-        List<Trip> trips = tripService.getActiveTrips();
+        List<TripCard> trips = tripService.getActiveTripCards();
         return ResponseEntity.ok(trips);
     }
 
     @GetMapping("/past")
-    public ResponseEntity<List<Trip>> getPastTrips(
+    public ResponseEntity<List<TripCard>> getPastTrips(
         @Parameter(description = "Maximum results") @RequestParam(defaultValue = "20") int limit) {
         logger.debug("Getting past trips - limit: {}", limit);
 
-        List<Trip> trips = tripService.getPastTrips();
-        return ResponseEntity.ok(trips.stream().limit(limit).collect(Collectors.toList()));
+        return ResponseEntity.ok(tripService.getPastTripCards(limit));
     }
 }
\ No newline at end of file
@@ -0,0 +1,133 @@
+package ch.oceandive.controller.rest;
+
+import ch.oceandive.exceptionHandler.ResourceNotFoundException;
+import ch.oceandive.model.PremiumUser;
+import ch.oceandive.model.WaitlistEntry;
+import ch.oceandive.service.CourseService;
+import ch.oceandive.service.PremiumUserService;
+import ch.oceandive.service.TripService;
+import ch.oceandive.service.WaitlistService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Waitlists of fully booked trips and courses for premium users. Entries are promoted into
+ * bookings automatically when seats are released; clients poll the position endpoint.
+ */
+@RestController
+@RequestMapping("/api/waitlist")
+@Tag(name = "Waitlist", description = "Waitlists of fully booked trips and courses")
+@SecurityRequirement(name = "bearerAuth")
+public class WaitlistController {
+
+  private final WaitlistService waitlistService;
+  private final TripService tripService;
+  private final CourseService courseService;
+  private final PremiumUserService premiumUserService;
+
+  public WaitlistController(WaitlistService waitlistService, TripService tripService,
+      CourseService courseService, PremiumUserService premiumUserService) {
+    this.waitlistService = waitlistService;
+    this.tripService = tripService;
+    this.courseService = courseService;
+    this.premiumUserService = premiumUserService;
+  }
+
+  @PostMapping("/trips/{tripId}")
+  @Operation(summary = "Join the waitlist of a fully booked trip")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "201", description = "Waitlist joined"),
+      @ApiResponse(responseCode = "409", description = "Trip has free seats or user is not certified")
+  })
+  public ResponseEntity<Map<String, Object>> joinTripWaitlist(
+      @Parameter(description = "Trip ID") @PathVariable Long tripId) {
+    WaitlistEntry entry = waitlistService.joinTrip(tripService.getTripById(tripId), currentPremiumUser());
+    return ResponseEntity.status(201).body(toResponse(entry));
+  }
+
+  @PostMapping("/courses/{courseId}")
+  @Operation(summary = "Join the waitlist of a fully booked course")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "201", description = "Waitlist joined"),
+      @ApiResponse(responseCode = "409", description = "Course has free seats or user is not certified")
+  })
+  public ResponseEntity<Map<String, Object>> joinCourseWaitlist(
+      @Parameter(description = "Course ID") @PathVariable Long courseId) {
+    WaitlistEntry entry = waitlistService.joinCourse(courseService.getCourseById(courseId), currentPremiumUser());
+    return ResponseEntity.status(201).body(toResponse(entry));
+  }
+
+  @GetMapping("/my")
+  @Operation(summary = "Waitlists the current user is waiting on")
+  public ResponseEntity<List<Map<String, Object>>> getMyEntries() {
+    return ResponseEntity.ok(waitlistService.getWaitingEntriesForUser(currentPremiumUser()).stream()
+        .map(this::toResponse)
+        .toList());
+  }
+
+  // Cheap enough to poll: the rank comes from the in-memory index, not a COUNT query
+  @GetMapping("/{entryId}/position")
+  @Operation(summary = "Current place in the queue")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Position returned, null once promoted or cancelled"),
+      @ApiResponse(responseCode = "404", description = "Entry not found")
+  })
+  public ResponseEntity<Map<String, Object>> getPosition(
+      @Parameter(description = "Waitlist entry ID") @PathVariable Long entryId) {
+    return ResponseEntity.ok(toResponse(requireOwnEntry(entryId)));
+  }
+
+  @DeleteMapping("/{entryId}")
+  @Operation(summary = "Leave a waitlist")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Waitlist left"),
+      @ApiResponse(responseCode = "404", description = "Entry not found")
+  })
+  public ResponseEntity<Map<String, Object>> leave(
+      @Parameter(description = "Waitlist entry ID") @PathVariable Long entryId) {
+    requireOwnEntry(entryId);
+    return ResponseEntity.ok(toResponse(waitlistService.leave(entryId)));
+  }
+
+  private Map<String, Object> toResponse(WaitlistEntry entry) {
+    Map<String, Object> response = new LinkedHashMap<>();
+    response.put("entryId", entry.getId());
+    response.put("type", entry.getType());
+    response.put("itemId", entry.getItemId());
+    response.put("status", entry.getStatus());
+    response.put("position", waitlistService.getPosition(entry));
+    response.put("bookingReference", entry.getBookingReference());
+    return response;
+  }
+
+  // Other users' entries are reported as missing so ids cannot be probed
+  private WaitlistEntry requireOwnEntry(Long entryId) {
+    WaitlistEntry entry = waitlistService.getEntry(entryId);
+    if (!Objects.equals(entry.getPremiumUserId(), currentPremiumUser().getId())) {
+      throw ResourceNotFoundException.create("Waitlist entry", "id", entryId);
+    }
+    return entry;
+  }
+
+  private PremiumUser currentPremiumUser() {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    return premiumUserService.getPremiumUserEntityByUsername(authentication.getName());
+  }
+}
@@ -1,6 +1,9 @@
 package ch.oceandive.controller.web;
 
+import ch.oceandive.dto.BulkActionReport;
+import ch.oceandive.dto.KeysetPage;
 import ch.oceandive.model.Course;
+import ch.oceandive.utils.BulkAction;
 import ch.oceandive.utils.PublicationStatus;
 import ch.oceandive.utils.DiveCertification;
 import ch.oceandive.service.CourseService;
@@ -10,6 +13,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -18,6 +22,8 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Web-based admin controller for managing courses
@@ -44,9 +50,23 @@ public class AdminCourseController {
       @RequestParam(defaultValue = "0") int page,
       @RequestParam(defaultValue = DEFAULT_PAGE_SIZE + "") int size,
       @RequestParam(required = false) String search,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "true") boolean includeTotal,
       Model model) {
 
     try {
+      if (cursor != null && (search == null || search.trim().isEmpty())) {
+        // Keyset page: no OFFSET scan, and the count only when asked for
+        KeysetPage<Course> coursePage = courseService.getAllCoursesForAdmin(cursor, size, includeTotal);
+        model.addAttribute("courses", coursePage.content());
+        model.addAttribute("cursor", cursor);
+        model.addAttribute("nextCursor", coursePage.nextCursor());
+        model.addAttribute("totalElements", coursePage.totalElements());
+        model.addAttribute("pageSize", size);
+        addSummary(model);
+        return "admin/courses/list";
+      }
+
       Pageable pageable = PageRequest.of(page, size);
       Page<Course> coursePage;
 
@@ -63,12 +83,12 @@ public class AdminCourseController {
       model.addAttribute("totalPages", coursePage.getTotalPages());
       model.addAttribute("totalElements", coursePage.getTotalElements());
       model.addAttribute("pageSize", size);
-
-      // Add summary statistics
-      model.addAttribute("publishedCount", courseService.getPublishedCourseCount());
-      model.addAttribute("availableSpots", courseService.getAvailableSpotsCount());
-
-      model.addAttribute("pageTitle", "Course Management - Admin Dashboard");
+      if (coursePage.hasNext() && (search == null || search.trim().isEmpty())) {
+        // Lets the "next" link continue with cursors instead of ever deeper offsets
+        Course last = coursePage.getContent().get(coursePage.getNumberOfElements() - 1);
+        model.addAttribute("nextCursor", courseService.cursorAfter(last));
+      }
+      addSummary(model);
 
       return "admin/courses/list";
 
@@ -79,6 +99,14 @@ public class AdminCourseController {
     }
   }
 
+  // Summary statistics and title of the course list
+  private void addSummary(Model model) {
+    model.addAttribute("publishedCount", courseService.getPublishedCourseCount());
+    model.addAttribute("availableSpots", courseService.getAvailableSpotsCount());
+
+    model.addAttribute("pageTitle", "Course Management - Admin Dashboard");
+  }
+
   /**
    * Show form to create a new course.
    */
@@ -311,7 +339,8 @@ public class AdminCourseController {
   }
 
   /**
-   * Bulk operations (future enhancement).
+   * Bulk operations: publish, unpublish, archive, feature, unfeature or delete the selected
+   * courses in one transaction.
    */
   @PostMapping("/bulk-action")
   public String bulkAction(
@@ -320,46 +349,13 @@ public class AdminCourseController {
       RedirectAttributes redirectAttributes) {
 
     try {
-      int successCount = 0;
-
-      switch (action) {
-        case "publish":
-          for (Long id : courseIds) {
-            courseService.changeStatus(id, PublicationStatus.PUBLISHED);
-            successCount++;
-          }
-          redirectAttributes.addFlashAttribute("successMessage",
-              successCount + " courses published successfully!");
-          break;
-
-        case "archive":
-          for (Long id : courseIds) {
-            courseService.changeStatus(id, PublicationStatus.ARCHIVED);
-            successCount++;
-          }
-          redirectAttributes.addFlashAttribute("successMessage",
-              successCount + " courses archived successfully!");
-          break;
-
-        case "feature":
-          for (Long id : courseIds) {
-            Course course = courseService.getCourseById(id);
-            if (!course.getFeatured()) {
-              courseService.toggleFeaturedStatus(id);
-              successCount++;
-            }
-          }
-          redirectAttributes.addFlashAttribute("successMessage",
-              successCount + " courses added to featured list!");
-          break;
-
-        default:
-          redirectAttributes.addFlashAttribute("errorMessage",
-              "Unknown bulk action: " + action);
-      }
-
+      BulkActionReport report = courseService.bulkAction(BulkAction.fromString(action), Arrays.asList(courseIds));
+      redirectAttributes.addFlashAttribute("successMessage", report.summary("courses"));
       return "redirect:/admin/courses";
 
+    } catch (IllegalArgumentException e) {
+      redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+      return "redirect:/admin/courses";
     } catch (Exception e) {
       logger.error("Error performing bulk action: {}", action, e);
       redirectAttributes.addFlashAttribute("errorMessage",
@@ -368,6 +364,20 @@ public class AdminCourseController {
     }
   }
 
+  /**
+   * Drag-and-drop reordering: the course IDs in their new display order, answered with the
+   * outcome per course.
+   */
+  @PostMapping("/reorder")
+  @ResponseBody
+  public ResponseEntity<BulkActionReport> reorderCourses(@RequestBody List<Long> courseIds) {
+    try {
+      return ResponseEntity.ok(courseService.reorderCourses(courseIds));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
   /**
    * Course statistics dashboard.
    */
@@ -1,6 +1,9 @@
 package ch.oceandive.controller.web;
 
+import ch.oceandive.dto.BulkActionReport;
+import ch.oceandive.dto.KeysetPage;
 import ch.oceandive.model.Trip;
+import ch.oceandive.utils.BulkAction;
 import ch.oceandive.utils.DiveCertification;
 import ch.oceandive.service.TripService;
 import jakarta.validation.Valid;
@@ -9,6 +12,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -17,6 +21,8 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * MVC admin controller for managing trips from the admin dashboard.
@@ -44,9 +50,23 @@ public class AdminTripController {
       @RequestParam(defaultValue = "0") int page,
       @RequestParam(defaultValue = DEFAULT_PAGE_SIZE + "") int size,
       @RequestParam(required = false) String search,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "true") boolean includeTotal,
       Model model) {
 
     try {
+      if (cursor != null) {
+        // Keyset page: no OFFSET scan, and the count only when asked for
+        KeysetPage<Trip> tripPage = tripService.getAllTrips(cursor, size, includeTotal, true);
+        model.addAttribute("trips", tripPage.content());
+        model.addAttribute("cursor", cursor);
+        model.addAttribute("nextCursor", tripPage.nextCursor());
+        model.addAttribute("totalElements", tripPage.totalElements());
+        model.addAttribute("pageSize", size);
+        addSummary(model);
+        return "admin/trips/list";
+      }
+
       Pageable pageable = PageRequest.of(page, size);
       Page<Trip> tripPage;
 
@@ -63,13 +83,11 @@ public class AdminTripController {
       model.addAttribute("totalPages", tripPage.getTotalPages());
       model.addAttribute("totalElements", tripPage.getTotalElements());
       model.addAttribute("pageSize", size);
-
-      // Add summary statistics
-      model.addAttribute("totalTrips", tripService.getAllTrips().size());
-      model.addAttribute("availableTrips", tripService.getAvailableTrips().size());
-      model.addAttribute("upcomingTrips", tripService.getUpcomingTrips().size());
-
-      model.addAttribute("pageTitle", "Trip Management - Admin Dashboard");
+      if (tripPage.hasNext()) {
+        Trip last = tripPage.getContent().get(tripPage.getNumberOfElements() - 1);
+        model.addAttribute("nextCursor", tripService.cursorAfter(last));
+      }
+      addSummary(model);
 
       return "admin/trips/list";
 
@@ -80,6 +98,15 @@ public class AdminTripController {
     }
   }
 
+  // Summary statistics and title of the trip list
+  private void addSummary(Model model) {
+    model.addAttribute("totalTrips", tripService.getAllTrips().size());
+    model.addAttribute("availableTrips", tripService.getAvailableTrips().size());
+    model.addAttribute("upcomingTrips", tripService.getUpcomingTrips().size());
+
+    model.addAttribute("pageTitle", "Trip Management - Admin Dashboard");
+  }
+
   /**
    * Show form to create a new trip.
    */
@@ -254,7 +281,8 @@ public class AdminTripController {
   }
 
   /**
-   * Bulk operations for trips.
+   * Bulk operations for trips: publish, unpublish, archive, feature, unfeature or delete the
+   * selected trips in one transaction.
    */
   @PostMapping("/bulk-action")
   public String bulkAction(
@@ -263,25 +291,13 @@ public class AdminTripController {
       RedirectAttributes redirectAttributes) {
 
     try {
-      int successCount = 0;
-
-      if (action.equals("delete")) {
-        for (Long id : tripIds) {
-          Trip trip = tripService.getTripById(id);
-          if (trip.getCurrentBookings() == 0) {
-            tripService.deleteTrip(id);
-            successCount++;
-          }
-        }
-        redirectAttributes.addFlashAttribute("successMessage",
-            successCount + " trips deleted successfully!");
-      } else {
-        redirectAttributes.addFlashAttribute("errorMessage",
-            "Unknown bulk action: " + action);
-      }
-
+      BulkActionReport report = tripService.bulkAction(BulkAction.fromString(action), Arrays.asList(tripIds));
+      redirectAttributes.addFlashAttribute("successMessage", report.summary("trips"));
       return "redirect:/admin/trips";
 
+    } catch (IllegalArgumentException e) {
+      redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+      return "redirect:/admin/trips";
     } catch (Exception e) {
       logger.error("Error performing bulk action: {}", action, e);
       redirectAttributes.addFlashAttribute("errorMessage",
@@ -290,6 +306,20 @@ public class AdminTripController {
     }
   }
 
+  /**
+   * Drag-and-drop reordering: the trip IDs in their new display order, answered with the outcome
+   * per trip.
+   */
+  @PostMapping("/reorder")
+  @ResponseBody
+  public ResponseEntity<BulkActionReport> reorderTrips(@RequestBody List<Long> tripIds) {
+    try {
+      return ResponseEntity.ok(tripService.reorderTrips(tripIds));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
   /**
    * Trip statistics dashboard.
    */
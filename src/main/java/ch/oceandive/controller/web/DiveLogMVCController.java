@@ -33,14 +33,20 @@ public class DiveLogMVCController {
   private static final Logger logger = LoggerFactory.getLogger(DiveLogMVCController.class);
   private static final String PAGE_TITLE_DIVE_LOG = "My Dive Log - OceanDive";
   private static final String PAGE_TITLE_ADD_DIVE = "Add New Dive - OceanDive";
+  // Shown when the statistics section fails, the dive list still renders
+  private static final Map<String, Object> EMPTY_STATISTICS = Map.of(
+      "totalDives", 0L, "totalHours", 0.0, "uniqueLocations", 0L);
 
   private final DiveLogService diveLogService;
   private final PremiumUserService premiumUserService;
+  private final PageAssembler pageAssembler;
 
   @Autowired
-  public DiveLogMVCController(DiveLogService diveLogService, PremiumUserService premiumUserService) {
+  public DiveLogMVCController(DiveLogService diveLogService, PremiumUserService premiumUserService,
+      PageAssembler pageAssembler) {
     this.diveLogService = diveLogService;
     this.premiumUserService = premiumUserService;
+    this.pageAssembler = pageAssembler;
   }
 
   // Get the current logged-in user
@@ -95,20 +101,25 @@ public class DiveLogMVCController {
 
       // Regular premium user flow - use service directly for page rendering
       List<DiveLogDTO> diveLogs;
+      Map<String, Object> statistics;
+      List<String> locations;
       String diveLocation = "";
-      if (location != null && !location.trim().isEmpty()) {
-        diveLocation = location.trim();
-        diveLogs = diveLogService.findByUserAndLocation(currentUser, diveLocation);
-        model.addAttribute("selectedLocation", diveLocation);
-      } else {
-        diveLogs = diveLogService.findByUserOrderByDiveDateDesc(currentUser);
-        model.addAttribute("selectedLocation", "");
+      try (PageAssembler.Scope sections = pageAssembler.open()) {
+        // The statistics queries run next to the dive list query
+        PageAssembler.Section<Map<String, Object>> statisticsSection = sections.fork("dive statistics",
+            () -> diveLogService.getUserStatistics(currentUser), EMPTY_STATISTICS);
+        // The filter dropdown comes from the user's in-memory dive site trie, not worth a thread
+        locations = diveLogService.getUserLocations(currentUser);
+        if (location != null && !location.trim().isEmpty()) {
+          diveLocation = location.trim();
+          diveLogs = diveLogService.findByUserAndLocation(currentUser, diveLocation);
+          model.addAttribute("selectedLocation", diveLocation);
+        } else {
+          diveLogs = diveLogService.findByUserOrderByDiveDateDesc(currentUser);
+          model.addAttribute("selectedLocation", "");
+        }
+        statistics = statisticsSection.get();
       }
-
-      // Get statistics of the user's dive logs
-      Map<String, Object> statistics = diveLogService.getUserStatistics(currentUser);
-      // Get locations for filter dropdown
-      List<String> locations = diveLogService.getUserLocations(currentUser);
       model.addAttribute("pageTitle", PAGE_TITLE_DIVE_LOG);
       model.addAttribute("diveLogs", diveLogs);
       model.addAttribute("totalDives", statistics.get("totalDives"));
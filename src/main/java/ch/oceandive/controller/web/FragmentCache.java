@@ -0,0 +1,109 @@
+package ch.oceandive.controller.web;
+
+import ch.oceandive.event.CourseChangedEvent;
+import ch.oceandive.event.TripChangedEvent;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.support.RequestContextUtils;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.spring6.ISpringTemplateEngine;
+import org.thymeleaf.spring6.expression.ThymeleafEvaluationContext;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+/**
+ * Rendered markup of Thymeleaf fragments that look the same for every visitor, so a page includes
+ * them with {@code th:utext} instead of rendering them on every hit.
+ * <p>
+ * An entry is keyed by template, fragment and locale and holds one version of the data it was
+ * rendered from; asking for a newer version renders it again and replaces the entry. Course and
+ * trip edits drop all entries. Fragments rendered here only see the variables passed in, never the
+ * visitor: anything personal (the header with the login state and CSRF token) stays out of it.
+ */
+@Component
+public class FragmentCache {
+
+  private static final Logger logger = LoggerFactory.getLogger(FragmentCache.class);
+
+  private final ISpringTemplateEngine templateEngine;
+  private final ApplicationContext applicationContext;
+  private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+  private volatile JakartaServletWebApplication webApplication;
+
+  public FragmentCache(ISpringTemplateEngine templateEngine, ApplicationContext applicationContext) {
+    this.templateEngine = templateEngine;
+    this.applicationContext = applicationContext;
+  }
+
+  /**
+   * The markup of the fragment for the given data version, rendered with the variables on a miss.
+   * Concurrent misses of the same fragment render it once.
+   *
+   * @param version version of the data in the variables, a lower version never replaces a higher one
+   */
+  public String render(String template, String fragment, long version, Map<String, Object> variables,
+      HttpServletRequest request, HttpServletResponse response) {
+    Key key = new Key(template, fragment, RequestContextUtils.getLocale(request));
+    Entry cached = entries.get(key);
+    if (cached != null && cached.version() >= version) {
+      return cached.html();
+    }
+    return entries.compute(key, (k, current) -> current != null && current.version() >= version ? current
+        : new Entry(version, renderNow(k, variables, request, response))).html();
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onCourseChanged(CourseChangedEvent event) {
+    entries.clear();
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onTripChanged(TripChangedEvent event) {
+    entries.clear();
+  }
+
+  private String renderNow(Key key, Map<String, Object> variables, HttpServletRequest request,
+      HttpServletResponse response) {
+    long started = System.nanoTime();
+    Map<String, Object> context = new HashMap<>(variables);
+    context.put(ThymeleafEvaluationContext.THYMELEAF_EVALUATION_CONTEXT_CONTEXT_VARIABLE_NAME,
+        new ThymeleafEvaluationContext(applicationContext, null));
+    // Links without a session id: the markup is shared by every visitor
+    HttpServletResponse shared = new HttpServletResponseWrapper(response) {
+      @Override
+      public String encodeURL(String url) {
+        return url;
+      }
+    };
+    String html = templateEngine.process(key.template(), Set.of(key.fragment()),
+        new WebContext(webApplication(request).buildExchange(request, shared), key.locale(), context));
+    logger.debug("Fragment {} :: {} rendered in {} ms", key.template(), key.fragment(),
+        (System.nanoTime() - started) / 1_000_000);
+    return html;
+  }
+
+  private JakartaServletWebApplication webApplication(HttpServletRequest request) {
+    JakartaServletWebApplication application = webApplication;
+    if (application == null) {
+      application = JakartaServletWebApplication.buildApplication(request.getServletContext());
+      webApplication = application;
+    }
+    return application;
+  }
+
+  private record Key(String template, String fragment, Locale locale) {
+  }
+
+  private record Entry(long version, String html) {
+  }
+}
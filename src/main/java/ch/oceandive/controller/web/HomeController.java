@@ -1,14 +1,16 @@
 package ch.oceandive.controller.web;
 
+import ch.oceandive.dto.HomepageData;
 import ch.oceandive.model.Course;
-import ch.oceandive.model.Trip;
 import ch.oceandive.service.CourseService;
-import ch.oceandive.service.TripService;
+import ch.oceandive.service.HomepageCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.ArrayList;
-import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Controller;
@@ -41,15 +43,13 @@ public class HomeController {
 
   private static final Logger logger = LoggerFactory.getLogger(HomeController.class);
   private final CourseService courseService;
-  private final TripService tripService;
-  private final AdminDashboardController adminDashboardController;
+  private final HomepageCache homepageCache;
+  private final FragmentCache fragmentCache;
 
-  public HomeController(CourseService courseService,
-      TripService tripService,
-      AdminDashboardController adminDashboardController) {
+  public HomeController(CourseService courseService, HomepageCache homepageCache, FragmentCache fragmentCache) {
     this.courseService = courseService;
-    this.tripService = tripService;
-    this.adminDashboardController = adminDashboardController;
+    this.homepageCache = homepageCache;
+    this.fragmentCache = fragmentCache;
   }
 
   // For all pages if needed and mainly for the footer
@@ -60,69 +60,20 @@ public class HomeController {
   }
 
   @GetMapping("/")
-  public String home(Model model) {
+  public String home(Model model, HttpServletRequest request, HttpServletResponse response) {
     try {
-      logger.info("HomeController.home() - Loading homepage");
-      // Initialize with empty lists to prevent null pointer exceptions
-      List<Course> featuredCourses;
-      List<Trip> featuredTrips;
-      List<Trip> upcomingTrips;
-
-      try {
-        // Get featured courses for the homepage (limit to 3)
-        // Note: The template shows only 3, but we fetch 6 to allow for future expansion
-        // Futured means the course is highlighted to fire in the homepage
-        featuredCourses = courseService.getFeaturedCourses(3);
-        logger.info("HomeController: Retrieved {} featured courses", featuredCourses.size());
-      } catch (Exception e) {
-        logger.error("Error getting featured courses", e);
-        featuredCourses = new ArrayList<>();
-      }
-
-      try {
-        featuredTrips = tripService.getFeaturedTrips(6);
-        logger.info("HomeController: Retrieved {} featured trips", featuredTrips.size());
-      } catch (Exception e) {
-        logger.error("Error getting featured trips", e);
-        featuredTrips = new ArrayList<>();
-      }
-
-      try {
-        // Get upcoming trips
-        upcomingTrips = tripService.getUpcomingTrips();
-        logger.info("HomeController: Retrieved {} upcoming trips", upcomingTrips.size());
-      } catch (Exception e) {
-        logger.error("Error getting upcoming trips", e);
-        upcomingTrips = new ArrayList<>();
-      }
-      model.addAttribute("featuredCourses", featuredCourses);
-      model.addAttribute("featuredTrips", featuredTrips);
-      model.addAttribute("upcomingTrips", upcomingTrips.stream().limit(4).collect(Collectors.toList()));
+      // Served from memory, the cache reloads it in the background when stale
+      HomepageData data = homepageCache.get();
+      model.addAttribute("featuredCourses", data.featuredCourses());
+      model.addAttribute("featuredTrips", data.featuredTrips());
+      model.addAttribute("upcomingTrips", data.upcomingTrips());
+      model.addAttribute("totalCourses", data.totalCourses());
+      model.addAttribute("totalTrips", data.totalTrips());
+      model.addAttribute("totalUsers", data.totalUsers());
       model.addAttribute("pageTitle", "OceanDive - Discover the Depths");
-
-      // Add homepage data using the admin dashboard controller (for additional statistics)
-      try {
-        adminDashboardController.addHomepageData(model);
-        logger.info("Added homepage data successfully");
-      } catch (Exception e) {
-        logger.error("Error adding homepage data", e);
-        // Add safe defaults for stats
-        model.addAttribute("totalCourses", 0);
-        model.addAttribute("totalTrips", 0);
-        model.addAttribute("totalUsers", 0);
-      }
-
-      // I used debug level for detailed information about the courses and trips
-      logger.info("Featured courses count: {}", featuredCourses.size());
-      for (Course course : featuredCourses) {
-        logger.info("Course: {} - Featured: {} - ID: {} - Status: {}",
-            course.getName(), course.getFeatured(), course.getId(), course.getStatus());
-      }
-      logger.info("Featured trips count: {}", featuredTrips.size());
-      for (Trip trip : featuredTrips) {
-        logger.info("Trip: {} - Featured: {} - ID: {}", trip.getLocation(), trip.getFeatured(), trip.getId());
-      }
-      logger.info("Homepage loaded successfully");
+      addCachedFragments(model, data, request, response);
+      logger.debug("Homepage served with {} featured courses and {} featured trips, loaded at {}",
+          data.featuredCourses().size(), data.featuredTrips().size(), data.loadedAt());
       return "index";
 
     } catch (Exception e) {
@@ -141,6 +92,23 @@ public class HomeController {
     }
   }
 
+  // Markup shared by all visitors; without it the page renders the fragments itself
+  private void addCachedFragments(Model model, HomepageData data, HttpServletRequest request,
+      HttpServletResponse response) {
+    try {
+      long version = data.loadedAt().toEpochMilli();
+      model.addAttribute("featuredCoursesHtml", fragmentCache.render("fragments/home", "featured-courses",
+          version, Map.of("featuredCourses", data.featuredCourses()), request, response));
+      model.addAttribute("featuredTripsHtml", fragmentCache.render("fragments/home", "featured-trips",
+          version, Map.of("featuredTrips", data.featuredTrips()), request, response));
+      int year = Year.now().getValue();
+      model.addAttribute("footerHtml", fragmentCache.render("fragments/footer", "footer", year,
+          Map.of("currentYear", year, "companyName", COMPANY_NAME), request, response));
+    } catch (Exception e) {
+      logger.warn("Cached homepage fragments not available, rendering them in place", e);
+    }
+  }
+
   @GetMapping("/courses")
   public String coursesList(Model model) {
     try {
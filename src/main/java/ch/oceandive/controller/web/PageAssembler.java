@@ -0,0 +1,136 @@
+package ch.oceandive.controller.web;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Loads the independent sections of a page concurrently, each on its own virtual thread, so the
+ * page waits for its slowest section instead of the sum of all of them.
+ * <p>
+ * Sections are forked in a try-with-resources scope; closing the scope cancels whatever is still
+ * running, so no loader outlives the request. A section waits at most its timeout (counted from the
+ * fork) and then, like a failed loader, yields its fallback, so a slow or broken section only
+ * leaves its part of the page empty. Required data stays on the request thread.
+ * <pre>
+ * try (PageAssembler.Scope scope = pageAssembler.open()) {
+ *   Section&lt;Map&lt;String, Object&gt;&gt; stats = scope.fork("statistics", service::statistics, Map.of());
+ *   ... // the main query on the request thread
+ *   model.addAttribute("statistics", stats.get());
+ * }
+ * </pre>
+ * Loaders run with the caller's security context. Each section borrows its own database connection
+ * (under the JDBC bulkhead when virtual threads are enabled), so only fork sections that block on
+ * the database; reads served from memory are cheaper inline than on a thread of their own.
+ */
+@Component
+public class PageAssembler {
+
+  private static final Logger logger = LoggerFactory.getLogger(PageAssembler.class);
+
+  private final ExecutorService executor =
+      Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("page-section-", 0).factory());
+  private final Duration defaultTimeout;
+
+  public PageAssembler(@Value("${app.web.page-sections.timeout-ms:2000}") long timeoutMs) {
+    this.defaultTimeout = Duration.ofMillis(timeoutMs);
+  }
+
+  // A scope for the sections of one page, to be closed when the page is assembled
+  public Scope open() {
+    return new Scope();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  public final class Scope implements AutoCloseable {
+
+    private final List<Section<?>> sections = new ArrayList<>();
+
+    private Scope() {
+    }
+
+    // Section with the default timeout
+    public <T> Section<T> fork(String name, Callable<T> loader, T fallback) {
+      return fork(name, loader, fallback, defaultTimeout);
+    }
+
+    public <T> Section<T> fork(String name, Callable<T> loader, T fallback, Duration timeout) {
+      Section<T> section = new Section<>(name, executor.submit(new DelegatingSecurityContextCallable<>(loader)),
+          fallback, System.nanoTime() + timeout.toNanos());
+      sections.add(section);
+      return section;
+    }
+
+    // Cancels the sections that are still running
+    @Override
+    public void close() {
+      for (Section<?> section : sections) {
+        section.future.cancel(true);
+      }
+    }
+  }
+
+  public static final class Section<T> {
+
+    private final String name;
+    private final Future<T> future;
+    private final T fallback;
+    private final long deadline;
+
+    private Section(String name, Future<T> future, T fallback, long deadline) {
+      this.name = name;
+      this.future = future;
+      this.fallback = fallback;
+      this.deadline = deadline;
+    }
+
+    /**
+     * The loaded value, waiting until the section's deadline at most.
+     *
+     * @return the value, or the fallback if the loader failed or timed out
+     */
+    public T get() {
+      try {
+        return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+      } catch (TimeoutException e) {
+        future.cancel(true);
+        return failed("timed out", null);
+      } catch (ExecutionException e) {
+        return failed("failed", e.getCause());
+      } catch (CancellationException e) {
+        return failed("was cancelled", null);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        future.cancel(true);
+        return failed("was interrupted", null);
+      }
+    }
+
+    private T failed(String what, Throwable cause) {
+      if (cause != null) {
+        logger.warn("Page section '{}' {}, using its fallback", name, what, cause);
+      } else {
+        logger.warn("Page section '{}' {}, using its fallback", name, what);
+      }
+      return fallback;
+    }
+  }
+}
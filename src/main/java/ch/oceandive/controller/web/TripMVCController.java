@@ -1,6 +1,9 @@
 package ch.oceandive.controller.web;
 
+import ch.oceandive.dto.KeysetPage;
 import ch.oceandive.dto.TripDTO;
+import ch.oceandive.dto.TripSearchCriteria;
+import ch.oceandive.dto.TripSearchResult;
 import ch.oceandive.utils.PublicationStatus;
 import ch.oceandive.utils.DiveCertification;
 import ch.oceandive.model.Trip;
@@ -58,6 +61,8 @@ public class TripMVCController {
       @RequestParam(defaultValue = "false") boolean availableOnly,
       @RequestParam(required = false) BigDecimal minPrice,
       @RequestParam(required = false) BigDecimal maxPrice,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "true") boolean includeTotal,
       Model model) {
 
     logger.debug("Listing trips - page: {}, size: {}, filters applied", page, size);
@@ -65,9 +70,26 @@ public class TripMVCController {
     try {
       List<Trip> trips;
       if (hasFilters(location, startDate, endDate, certification, availableOnly, minPrice, maxPrice)) {
-        trips = tripService.searchTrips(location, startDate, endDate, certification,
-            availableOnly, minPrice, maxPrice);
+        // One pass returns the page and the counts per location, certification, price band and month
+        TripSearchResult<Trip> result = tripService.searchTripsFaceted(new TripSearchCriteria(location, null,
+            startDate, endDate, certification, availableOnly, minPrice, maxPrice), page, size);
+        trips = result.trips();
         model.addAttribute("searchApplied", true);
+        model.addAttribute("facets", result.facets());
+        model.addAttribute("currentPage", page);
+        model.addAttribute("totalPages", result.totalPages());
+        model.addAttribute("totalItems", result.totalElements());
+        model.addAttribute("hasNext", page + 1 < result.totalPages());
+        model.addAttribute("hasPrevious", page > 0);
+      } else if (cursor != null) {
+        // Keyset page: no OFFSET scan, and the count only when asked for
+        KeysetPage<Trip> tripPage = tripService.getAllTrips(cursor, size, includeTotal, false);
+        trips = tripPage.content();
+        model.addAttribute("cursor", cursor);
+        model.addAttribute("nextCursor", tripPage.nextCursor());
+        model.addAttribute("totalItems", tripPage.totalElements());
+        model.addAttribute("hasNext", tripPage.hasNext());
+        model.addAttribute("hasPrevious", true);
       } else {
         Pageable pageable = PageRequest.of(page, size);
         Page<Trip> tripPage = tripService.getAllTrips(pageable);
@@ -77,10 +99,15 @@ public class TripMVCController {
         model.addAttribute("totalItems", tripPage.getTotalElements());
         model.addAttribute("hasNext", tripPage.hasNext());
         model.addAttribute("hasPrevious", tripPage.hasPrevious());
+        // Lets the "next" link continue with cursors instead of ever deeper offsets
+        if (tripPage.hasNext()) {
+          model.addAttribute("nextCursor", tripService.cursorAfter(trips.get(trips.size() - 1)));
+        }
       }
 
       // Add trips and filter options to the model
       model.addAttribute("trips", trips);
+      // The filter dropdown is served from the in-memory catalog, nothing to load concurrently
       model.addAttribute("locations", tripService.getDistinctLocations());
       model.addAttribute("certifications", DiveCertification.values());
 
@@ -107,11 +134,11 @@ public class TripMVCController {
    * GET /trips/{id}
    */
   @GetMapping("/{id}")
-  public String viewTrip(@PathVariable Long id, Model model) {
+  public String viewTrip(@PathVariable Long id, Model model, HttpServletRequest request) {
     logger.debug("Viewing trip details for ID: {}", id);
 
     try {
-      Trip trip = tripService.getTripById(id);
+      Trip trip = tripService.getTripById(id, request.isUserInRole("ADMIN"));
       List<Trip> similarTrips = tripService.getSimilarTrips(trip, 4);
 
       model.addAttribute("trip", trip);
@@ -140,11 +167,12 @@ public class TripMVCController {
    * GET /trips/slug/{slug}
    */
   @GetMapping("/slug/{slug}")
-  public String viewTripBySlug(@PathVariable String slug, Model model) {
+  public String viewTripBySlug(@PathVariable String slug, Model model, HttpServletRequest request) {
     logger.debug("Viewing trip details for slug: {}", slug);
 
     try {
-      Trip trip = tripService.getTripBySlug(slug);
+      // Admins also preview drafts and archived trips
+      Trip trip = tripService.getTripBySlug(slug, request.isUserInRole("ADMIN"));
       return "redirect:/trips/" + trip.getId();
     } catch (Exception e) {
       logger.error("Error viewing trip with slug: {}", slug, e);
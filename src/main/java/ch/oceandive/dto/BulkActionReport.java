@@ -0,0 +1,51 @@
+package ch.oceandive.dto;
+
+import ch.oceandive.utils.BulkAction;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a bulk action per selected id, in the order the ids were selected.
+ */
+public record BulkActionReport(BulkAction action, Map<Long, Outcome> outcomes) {
+
+  public enum Outcome {
+    // Changed (or deleted)
+    APPLIED,
+    // Already in the requested state
+    UNCHANGED,
+    NOT_FOUND,
+    // Not deleted, it still has bookings
+    HAS_BOOKINGS
+  }
+
+  public BulkActionReport {
+    outcomes = Collections.unmodifiableMap(new LinkedHashMap<>(outcomes));
+  }
+
+  public int count(Outcome outcome) {
+    return (int) outcomes.values().stream().filter(outcome::equals).count();
+  }
+
+  public List<Long> ids(Outcome outcome) {
+    return outcomes.entrySet().stream().filter(entry -> entry.getValue() == outcome).map(Map.Entry::getKey).toList();
+  }
+
+  // Flash message, e.g. "3 trips published, 1 skipped because it has bookings"
+  public String summary(String items) {
+    StringBuilder summary = new StringBuilder()
+        .append(count(Outcome.APPLIED)).append(' ').append(items).append(' ').append(action.getPastTense());
+    if (count(Outcome.UNCHANGED) > 0) {
+      summary.append(", ").append(count(Outcome.UNCHANGED)).append(" already ").append(action.getPastTense());
+    }
+    if (count(Outcome.HAS_BOOKINGS) > 0) {
+      summary.append(", ").append(count(Outcome.HAS_BOOKINGS)).append(" skipped because of active bookings");
+    }
+    if (count(Outcome.NOT_FOUND) > 0) {
+      summary.append(", ").append(count(Outcome.NOT_FOUND)).append(" not found");
+    }
+    return summary.toString();
+  }
+}
@@ -0,0 +1,12 @@
+package ch.oceandive.dto;
+
+import java.time.LocalDate;
+
+/**
+ * One day of the trip availability calendar.
+ *
+ * @param trips          trips running that day
+ * @param availableTrips those of them with seats left
+ */
+public record CalendarDay(LocalDate date, int trips, int availableTrips) {
+}
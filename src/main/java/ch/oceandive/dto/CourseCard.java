@@ -0,0 +1,31 @@
+package ch.oceandive.dto;
+
+import ch.oceandive.model.Course;
+import ch.oceandive.utils.DiveCertification;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * What a course list shows of a course: no description, image, timestamps or admin fields. Lists
+ * return cards, the full course is only served by the single course endpoint.
+ */
+public record CourseCard(Long id, String slug, String name, String shortDescription,
+                         LocalDate startDate, LocalDate endDate, BigDecimal price,
+                         DiveCertification minCertificationRequired, int capacity, int currentBookings,
+                         int availableSpots) {
+
+  // Used by the JPQL constructor expressions, which select only these columns
+  public CourseCard(Long id, String slug, String name, String shortDescription,
+      LocalDate startDate, LocalDate endDate, BigDecimal price, DiveCertification minCertificationRequired,
+      Integer capacity, Integer currentBookings) {
+    this(id, slug, name, shortDescription, startDate, endDate, price, minCertificationRequired,
+        capacity == null ? 0 : capacity, currentBookings == null ? 0 : currentBookings,
+        Math.max(0, (capacity == null ? 0 : capacity) - (currentBookings == null ? 0 : currentBookings)));
+  }
+
+  public static CourseCard of(Course course) {
+    return new CourseCard(course.getId(), course.getSlug(), course.getName(), course.getShortDescription(),
+        course.getStartDate(), course.getEndDate(), course.getPrice(),
+        course.getMinCertificationRequired(), course.getCapacity(), course.getCurrentBookings());
+  }
+}
@@ -0,0 +1,37 @@
+package ch.oceandive.dto;
+
+import ch.oceandive.model.Course;
+import ch.oceandive.model.Trip;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Key figures of the admin dashboard at one point in time. Courses count every status, trips only
+ * the published ones.
+ *
+ * @param availableCourses published upcoming courses with seats left
+ * @param availableTrips published trips with seats left
+ * @param recentCourses newest courses, newest first
+ * @param recentTrips newest published trips, newest first
+ */
+public record DashboardSnapshot(long totalCourses, long availableCourses, long upcomingCourses, long courseBookings,
+                                long totalTrips, long availableTrips, long upcomingTrips, long tripBookings,
+                                long premiumUsers, long guestUsers, List<Course> recentCourses,
+                                List<Trip> recentTrips, Instant generatedAt) {
+
+  @JsonProperty
+  public long totalUsers() {
+    return premiumUsers + guestUsers;
+  }
+
+  @JsonProperty
+  public long totalBookings() {
+    return courseBookings + tripBookings;
+  }
+
+  @JsonProperty
+  public long totalOfferings() {
+    return totalCourses + totalTrips;
+  }
+}
@@ -0,0 +1,86 @@
+package ch.oceandive.dto;
+
+import ch.oceandive.model.BookingParticipant;
+import ch.oceandive.utils.DiveCertification;
+import ch.oceandive.utils.DiveCertificationHolder;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Request to book one seat per participant on a trip or course, e.g. for a dive club.
+ */
+public class GroupBookingRequest {
+
+  @NotEmpty(message = "At least one participant is required")
+  @Size(max = 50, message = "A group booking cannot exceed 50 participants")
+  @Valid
+  private List<Participant> participants = new ArrayList<>();
+
+  public List<Participant> getParticipants() {
+    return participants;
+  }
+
+  public void setParticipants(List<Participant> participants) {
+    this.participants = participants;
+  }
+
+  // A diver on the group booking, validated against the certification rules like a single booking
+  public static class Participant implements DiveCertificationHolder {
+
+    @NotBlank(message = "First name is required")
+    @Size(max = 100, message = "First name cannot exceed 100 characters")
+    private String firstName;
+
+    @NotBlank(message = "Last name is required")
+    @Size(max = 100, message = "Last name cannot exceed 100 characters")
+    private String lastName;
+
+    @NotNull(message = "Dive certification is required")
+    private DiveCertification diveCertification;
+
+    public Participant() {
+    }
+
+    public Participant(String firstName, String lastName, DiveCertification diveCertification) {
+      this.firstName = firstName;
+      this.lastName = lastName;
+      this.diveCertification = diveCertification;
+    }
+
+    public BookingParticipant toEntity() {
+      return new BookingParticipant(firstName, lastName, diveCertification);
+    }
+
+    @Override
+    public String getFirstName() {
+      return firstName;
+    }
+
+    public void setFirstName(String firstName) {
+      this.firstName = firstName;
+    }
+
+    public String getLastName() {
+      return lastName;
+    }
+
+    public void setLastName(String lastName) {
+      this.lastName = lastName;
+    }
+
+    @Override
+    public DiveCertification getDiveCertification() {
+      return diveCertification;
+    }
+
+    @Override
+    public void setDiveCertification(DiveCertification diveCertification) {
+      this.diveCertification = diveCertification;
+    }
+  }
+}
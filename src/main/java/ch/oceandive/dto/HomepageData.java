@@ -0,0 +1,20 @@
+package ch.oceandive.dto;
+
+import ch.oceandive.model.Course;
+import ch.oceandive.model.Trip;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Everything the homepage shows, loaded together in the background. Shared by all requests, so
+ * the lists are read-only.
+ *
+ * @param loadedAt when the data was read, the cache refreshes it once it is too old
+ */
+public record HomepageData(List<Course> featuredCourses, List<Trip> featuredTrips, List<Trip> upcomingTrips,
+                           int totalCourses, int totalTrips, long totalUsers, Instant loadedAt) {
+
+  public static HomepageData empty() {
+    return new HomepageData(List.of(), List.of(), List.of(), 0, 0, 0, Instant.EPOCH);
+  }
+}
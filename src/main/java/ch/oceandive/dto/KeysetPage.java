@@ -0,0 +1,31 @@
+package ch.oceandive.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing. Pass {@code nextCursor} back to get the following page;
+ * it is null on the last page. {@code totalElements} is null when the count was skipped.
+ */
+public record KeysetPage<T>(List<T> content, int size, String nextCursor, boolean hasNext,
+                            Long totalElements) {
+
+  /**
+   * Page from rows read with a limit of {@code size + 1}: the extra row only tells that there is a
+   * next page, so no count query is needed for that.
+   *
+   * @param cursorOf cursor of a row, the last row of the page becomes the next cursor
+   */
+  public static <T> KeysetPage<T> of(List<T> rows, int size, Function<T, String> cursorOf,
+      Long totalElements) {
+    boolean hasNext = rows.size() > size;
+    List<T> content = hasNext ? rows.subList(0, size) : rows;
+    String nextCursor = hasNext ? cursorOf.apply(content.get(content.size() - 1)) : null;
+    return new KeysetPage<>(List.copyOf(content), size, nextCursor, hasNext, totalElements);
+  }
+
+  public <R> KeysetPage<R> map(Function<T, R> mapper) {
+    return new KeysetPage<>(content.stream().map(mapper).toList(), size, nextCursor, hasNext,
+        totalElements);
+  }
+}
@@ -0,0 +1,16 @@
+package ch.oceandive.dto;
+
+import ch.oceandive.utils.BookingType;
+
+/**
+ * Seat availability of a trip or course. Held seats are included in bookedSeats and also
+ * reported on their own.
+ */
+public record SeatAvailability(Long id, BookingType type, int capacity, int bookedSeats,
+                               int heldSeats, int availableSeats, boolean fullyBooked) {
+
+  public SeatAvailability(Long id, BookingType type, int capacity, int bookedSeats, int heldSeats) {
+    this(id, type, capacity, bookedSeats, heldSeats, Math.max(0, capacity - bookedSeats),
+        bookedSeats >= capacity);
+  }
+}
@@ -0,0 +1,16 @@
+package ch.oceandive.dto;
+
+import ch.oceandive.utils.DiveCertification;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Trip availability per day of one month.
+ *
+ * @param certification  the diver's level, only trips they may join are counted (null: all trips)
+ * @param availableTrips distinct trips with seats left running on at least one day of the month
+ * @param days           every day of the month, in order
+ */
+public record TripCalendar(YearMonth month, DiveCertification certification, int availableTrips,
+                           List<CalendarDay> days) {
+}
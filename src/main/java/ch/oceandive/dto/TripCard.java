@@ -0,0 +1,33 @@
+package ch.oceandive.dto;
+
+import ch.oceandive.model.Trip;
+import ch.oceandive.utils.DiveCertification;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * What a trip list shows of a trip: no description, image, timestamps or version. Lists return
+ * cards, the full trip is only served by the single trip endpoints.
+ */
+public record TripCard(Long id, String slug, String location, String shortDescription,
+                       LocalDate startDate, LocalDate endDate, BigDecimal price,
+                       DiveCertification minCertificationRequired, int capacity, int currentBookings,
+                       int availableSpots, boolean featured, int displayOrder) {
+
+  // Used by the JPQL constructor expressions, which select only these columns
+  public TripCard(Long id, String slug, String location, String shortDescription,
+      LocalDate startDate, LocalDate endDate, BigDecimal price, DiveCertification minCertificationRequired,
+      Integer capacity, Integer currentBookings, Boolean featured, Integer displayOrder) {
+    this(id, slug, location, shortDescription, startDate, endDate, price, minCertificationRequired,
+        capacity == null ? 0 : capacity, currentBookings == null ? 0 : currentBookings,
+        Math.max(0, (capacity == null ? 0 : capacity) - (currentBookings == null ? 0 : currentBookings)),
+        Boolean.TRUE.equals(featured), displayOrder == null ? 0 : displayOrder);
+  }
+
+  public static TripCard of(Trip trip) {
+    return new TripCard(trip.getId(), trip.getSlug(), trip.getLocation(), trip.getShortDescription(),
+        trip.getStartDate(), trip.getEndDate(), trip.getPrice(),
+        trip.getMinCertificationRequired(), trip.getCapacity(), trip.getCurrentBookings(), trip.getFeatured(),
+        trip.getDisplayOrder());
+  }
+}
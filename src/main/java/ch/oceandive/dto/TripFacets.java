@@ -0,0 +1,18 @@
+package ch.oceandive.dto;
+
+import ch.oceandive.utils.DiveCertification;
+import java.time.YearMonth;
+import java.util.Map;
+
+/**
+ * Trip counts per facet value. A facet is counted with every filter applied except its own, so
+ * the counts tell how many trips selecting that value instead would return.
+ *
+ * @param locations      trips per location, most trips first
+ * @param certifications trips per required certification level, in level order
+ * @param priceBands     trips per price band ("0-500", ..., "5000+"), cheapest band first
+ * @param startMonths    trips per start month, earliest first
+ */
+public record TripFacets(Map<String, Integer> locations, Map<DiveCertification, Integer> certifications,
+                         Map<String, Integer> priceBands, Map<YearMonth, Integer> startMonths) {
+}
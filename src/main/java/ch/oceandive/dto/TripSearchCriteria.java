@@ -0,0 +1,22 @@
+package ch.oceandive.dto;
+
+import ch.oceandive.utils.DiveCertification;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Filters of a faceted trip search, every one is optional.
+ *
+ * @param text          full-text search over location and descriptions
+ * @param location      exact location (a value of the location facet)
+ * @param startDate     earliest start date
+ * @param endDate       latest start date
+ * @param certification certification of the diver, only trips they may join match
+ * @param availableOnly only trips with seats left
+ * @param minPrice      minimum price
+ * @param maxPrice      maximum price
+ */
+public record TripSearchCriteria(String text, String location, LocalDate startDate, LocalDate endDate,
+                                 DiveCertification certification, boolean availableOnly,
+                                 BigDecimal minPrice, BigDecimal maxPrice) {
+}
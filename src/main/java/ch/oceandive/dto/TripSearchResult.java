@@ -0,0 +1,12 @@
+package ch.oceandive.dto;
+
+import java.util.List;
+
+/**
+ * One page of a faceted trip search together with the facet counts of all matching trips.
+ *
+ * @param <T> trip representation of the page, {@link TripCard} for the API
+ */
+public record TripSearchResult<T>(List<T> trips, int page, int size, long totalElements, int totalPages,
+                                  TripFacets facets) {
+}
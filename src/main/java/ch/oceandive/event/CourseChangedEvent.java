@@ -0,0 +1,8 @@
+package ch.oceandive.event;
+
+/**
+ * Published when an admin created, edited, re-published or deleted a course. The course id is null
+ * when a bulk action changed several courses at once.
+ */
+public record CourseChangedEvent(Long courseId) {
+}
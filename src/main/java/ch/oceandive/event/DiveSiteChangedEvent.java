@@ -0,0 +1,8 @@
+package ch.oceandive.event;
+
+/**
+ * Published when a dive log of a premium user was created, deleted or moved to another location.
+ * Either location is null when the write did not remove or add one.
+ */
+public record DiveSiteChangedEvent(Long userId, String removedLocation, String addedLocation) {
+}
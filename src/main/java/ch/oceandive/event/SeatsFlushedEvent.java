@@ -0,0 +1,8 @@
+package ch.oceandive.event;
+
+/**
+ * Published by the seat inventory after it wrote buffered seat changes to the database, so the
+ * stored booking counts of the flagged kinds changed.
+ */
+public record SeatsFlushedEvent(boolean trips, boolean courses) {
+}
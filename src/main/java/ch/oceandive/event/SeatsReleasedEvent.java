@@ -0,0 +1,10 @@
+package ch.oceandive.event;
+
+import ch.oceandive.utils.BookingType;
+
+/**
+ * Published by the seat inventory whenever seats of a trip or course become free again
+ * (cancellation, released or expired hold). Listeners run inside the releasing transaction.
+ */
+public record SeatsReleasedEvent(BookingType type, Long itemId, int seats) {
+}
@@ -0,0 +1,10 @@
+package ch.oceandive.event;
+
+import ch.oceandive.utils.BookingType;
+
+/**
+ * Published by the seat inventory whenever seats of a trip or course were reserved (booking,
+ * seat hold or waitlist promotion). Published inside the reserving transaction.
+ */
+public record SeatsReservedEvent(BookingType type, Long itemId, int seats) {
+}
@@ -0,0 +1,8 @@
+package ch.oceandive.event;
+
+/**
+ * Published when an admin created, edited, archived or deleted a trip. The trip id is null when a
+ * bulk action changed several trips at once.
+ */
+public record TripChangedEvent(Long tripId) {
+}
@@ -0,0 +1,10 @@
+package ch.oceandive.event;
+
+import ch.oceandive.utils.BookingType;
+
+/**
+ * Published when a waitlist entry received a seat and was turned into a confirmed booking.
+ */
+public record WaitlistPromotedEvent(Long entryId, BookingType type, Long itemId, Long premiumUserId,
+                                    String bookingReference) {
+}
@@ -14,7 +14,7 @@ public class ApiExceptionHandler {
   @ExceptionHandler(ValidationException.class)
   @ResponseStatus(HttpStatus.BAD_REQUEST)
   public Response handleValidation(ValidationException e) {
-    return new Response(false, e.getMessage(), null);
+    return new Response(false, e.getMessage(), e.getErrors().isEmpty() ? null : e.getErrors());
   }
 
   @ExceptionHandler(DuplicateResourceException.class)
@@ -23,6 +23,18 @@ public class ApiExceptionHandler {
     return new Response(false, e.getMessage(), null);
   }
 
+  @ExceptionHandler(BusinessRuleViolationException.class)
+  @ResponseStatus(HttpStatus.CONFLICT)
+  public Response handleBusinessRule(BusinessRuleViolationException e) {
+    return new Response(false, e.getMessage(), null);
+  }
+
+  @ExceptionHandler(ResourceNotFoundException.class)
+  @ResponseStatus(HttpStatus.NOT_FOUND)
+  public Response handleNotFound(ResourceNotFoundException e) {
+    return new Response(false, e.getMessage(), null);
+  }
+
   @ExceptionHandler(Exception.class)
   @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
   public Response handleAll(Exception e) {
@@ -0,0 +1,252 @@
+package ch.oceandive.model;
+
+import ch.oceandive.utils.BookingStatus;
+import ch.oceandive.utils.BookingType;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
+import org.hibernate.annotations.UpdateTimestamp;
+
+/**
+ * Ledger entry for seats reserved on a trip or a course by a premium user or a guest.
+ */
+@Entity
+@Table(name = "bookings", indexes = {
+    @Index(name = "idx_booking_reference", columnList = "reference", unique = true),
+    @Index(name = "idx_booking_idempotency_key", columnList = "idempotency_key", unique = true),
+    @Index(name = "idx_booking_premium_user", columnList = "premium_user_id, created_at"),
+    @Index(name = "idx_booking_guest_user", columnList = "guest_user_id, created_at"),
+    @Index(name = "idx_booking_trip", columnList = "trip_id, status"),
+    @Index(name = "idx_booking_course", columnList = "course_id, status"),
+    @Index(name = "idx_booking_status_expiry", columnList = "status, expires_at")
+})
+public class Booking {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false, length = 32)
+  private String reference;
+
+  // Client supplied key that makes retried booking requests return the original booking
+  @Column(name = "idempotency_key", length = 100)
+  @Size(max = 100, message = "Idempotency key cannot exceed 100 characters")
+  private String idempotencyKey;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 20)
+  @NotNull
+  private BookingType type;
+
+  @Column(name = "trip_id")
+  private Long tripId;
+
+  @Column(name = "course_id")
+  private Long courseId;
+
+  @Column(name = "premium_user_id")
+  private Long premiumUserId;
+
+  @Column(name = "guest_user_id")
+  private Long guestUserId;
+
+  @Column(nullable = false)
+  @Min(value = 1, message = "A booking needs at least one seat")
+  private Integer seats = 1;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 20)
+  @NotNull
+  private BookingStatus status = BookingStatus.CONFIRMED;
+
+  // Divers on a group booking, one per seat (empty for a single booking)
+  @ElementCollection(fetch = FetchType.EAGER)
+  @CollectionTable(name = "booking_participants", joinColumns = @JoinColumn(name = "booking_id"))
+  @OrderColumn(name = "position")
+  @Fetch(FetchMode.SUBSELECT)
+  private List<BookingParticipant> participants = new ArrayList<>();
+
+  // End of the hold period, only set while the booking is HELD
+  @Column(name = "expires_at")
+  private LocalDateTime expiresAt;
+
+  @Column(name = "created_at", nullable = false, updatable = false)
+  @CreationTimestamp
+  private LocalDateTime createdAt;
+
+  @Column(name = "updated_at")
+  @UpdateTimestamp
+  private LocalDateTime updatedAt;
+
+  public Booking() {
+  }
+
+  public Booking(BookingType type, Long itemId, int seats) {
+    this.type = type;
+    if (type == BookingType.TRIP) {
+      this.tripId = itemId;
+    } else {
+      this.courseId = itemId;
+    }
+    this.seats = seats;
+  }
+
+  // Id of the trip or course depending on the booking type
+  public Long getItemId() {
+    return type == BookingType.TRIP ? tripId : courseId;
+  }
+
+  public boolean isOwnedBy(PremiumUser user) {
+    return user != null && premiumUserId != null && premiumUserId.equals(user.getId());
+  }
+
+  public boolean isOwnedBy(GuestUser guest) {
+    return guest != null && guestUserId != null && guestUserId.equals(guest.getId());
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public String getReference() {
+    return reference;
+  }
+
+  public void setReference(String reference) {
+    this.reference = reference;
+  }
+
+  public String getIdempotencyKey() {
+    return idempotencyKey;
+  }
+
+  public void setIdempotencyKey(String idempotencyKey) {
+    this.idempotencyKey = idempotencyKey;
+  }
+
+  public BookingType getType() {
+    return type;
+  }
+
+  public void setType(BookingType type) {
+    this.type = type;
+  }
+
+  public Long getTripId() {
+    return tripId;
+  }
+
+  public void setTripId(Long tripId) {
+    this.tripId = tripId;
+  }
+
+  public Long getCourseId() {
+    return courseId;
+  }
+
+  public void setCourseId(Long courseId) {
+    this.courseId = courseId;
+  }
+
+  public Long getPremiumUserId() {
+    return premiumUserId;
+  }
+
+  public void setPremiumUserId(Long premiumUserId) {
+    this.premiumUserId = premiumUserId;
+  }
+
+  public Long getGuestUserId() {
+    return guestUserId;
+  }
+
+  public void setGuestUserId(Long guestUserId) {
+    this.guestUserId = guestUserId;
+  }
+
+  public Integer getSeats() {
+    return seats;
+  }
+
+  public void setSeats(Integer seats) {
+    this.seats = seats;
+  }
+
+  public BookingStatus getStatus() {
+    return status;
+  }
+
+  public void setStatus(BookingStatus status) {
+    this.status = status;
+  }
+
+  public List<BookingParticipant> getParticipants() {
+    return participants;
+  }
+
+  public void setParticipants(List<BookingParticipant> participants) {
+    this.participants = participants;
+  }
+
+  public LocalDateTime getExpiresAt() {
+    return expiresAt;
+  }
+
+  public void setExpiresAt(LocalDateTime expiresAt) {
+    this.expiresAt = expiresAt;
+  }
+
+  public boolean isHoldExpired() {
+    return status == BookingStatus.HELD && expiresAt != null && !expiresAt.isAfter(LocalDateTime.now());
+  }
+
+  public LocalDateTime getCreatedAt() {
+    return createdAt;
+  }
+
+  public LocalDateTime getUpdatedAt() {
+    return updatedAt;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    Booking booking = (Booking) o;
+    return Objects.equals(reference, booking.reference);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(reference);
+  }
+
+  @Override
+  public String toString() {
+    return "Booking{" +
+        "id=" + id +
+        ", reference='" + reference + '\'' +
+        ", type=" + type +
+        ", itemId=" + getItemId() +
+        ", seats=" + seats +
+        ", status=" + status +
+        '}';
+  }
+}
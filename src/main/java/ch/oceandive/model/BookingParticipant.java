@@ -0,0 +1,57 @@
+package ch.oceandive.model;
+
+import ch.oceandive.utils.DiveCertification;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+
+/**
+ * A diver travelling on a group booking.
+ */
+@Embeddable
+public class BookingParticipant {
+
+  @Column(name = "first_name", nullable = false, length = 100)
+  private String firstName;
+
+  @Column(name = "last_name", nullable = false, length = 100)
+  private String lastName;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "dive_certification", nullable = false)
+  private DiveCertification diveCertification;
+
+  public BookingParticipant() {
+  }
+
+  public BookingParticipant(String firstName, String lastName, DiveCertification diveCertification) {
+    this.firstName = firstName;
+    this.lastName = lastName;
+    this.diveCertification = diveCertification;
+  }
+
+  public String getFirstName() {
+    return firstName;
+  }
+
+  public void setFirstName(String firstName) {
+    this.firstName = firstName;
+  }
+
+  public String getLastName() {
+    return lastName;
+  }
+
+  public void setLastName(String lastName) {
+    this.lastName = lastName;
+  }
+
+  public DiveCertification getDiveCertification() {
+    return diveCertification;
+  }
+
+  public void setDiveCertification(DiveCertification diveCertification) {
+    this.diveCertification = diveCertification;
+  }
+}
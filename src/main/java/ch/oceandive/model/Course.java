@@ -10,6 +10,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -17,7 +18,9 @@ import org.hibernate.annotations.UpdateTimestamp;
  * Each course represents a certification training program.
  */
 @Entity
-@Table(name = "courses")
+@Table(name = "courses", indexes = {
+    @Index(name = "idx_course_admin_order", columnList = "createdAt, id")
+})
 public class Course {
 
   @Id
@@ -91,6 +94,13 @@ public class Course {
   @UpdateTimestamp
   private LocalDateTime updatedAt;
 
+  // Optimistic lock: bumped by every entity update and by the guarded seat updates
+  @JsonIgnore
+  @Version
+  @Column(nullable = false)
+  @ColumnDefault("0")
+  private Long version;
+
   // Constructors
   public Course() {
     this.createdAt = LocalDateTime.now();
@@ -248,6 +258,8 @@ public class Course {
   public LocalDateTime getUpdatedAt() { return updatedAt; }
   public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
 
+  public Long getVersion() { return version; }
+
   @Override
   public String toString() {
     return "Course{" +
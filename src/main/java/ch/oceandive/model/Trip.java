@@ -8,6 +8,7 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import java.math.BigDecimal;
 import java.time.temporal.ChronoUnit;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDate;
@@ -23,7 +24,8 @@ import org.hibernate.annotations.UpdateTimestamp;
     @Index(name = "idx_trip_availability", columnList = "currentBookings, capacity"),
     @Index(name = "idx_trip_status", columnList = "status"),
     @Index(name = "idx_trip_featured", columnList = "featured"),
-    @Index(name = "idx_trip_slug", columnList = "slug")
+    @Index(name = "idx_trip_slug", columnList = "slug"),
+    @Index(name = "idx_trip_listing_order", columnList = "displayOrder, startDate, id")
 })
 public class Trip {
 
@@ -110,6 +112,13 @@ public class Trip {
   @UpdateTimestamp
   private LocalDateTime updatedAt;
 
+  // Optimistic lock: bumped by every entity update and by the guarded seat updates
+  @JsonIgnore
+  @Version
+  @Column(nullable = false)
+  @ColumnDefault("0")
+  private Long version;
+
   // Constructor with required fields
   public Trip() {
     this.createdAt = LocalDateTime.now();
@@ -436,6 +445,10 @@ public class Trip {
     return this;
   }
 
+  public Long getVersion() {
+    return version;
+  }
+
   public String getShortDescription() {
     return shortDescription;
   }
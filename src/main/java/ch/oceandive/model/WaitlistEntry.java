@@ -0,0 +1,125 @@
+package ch.oceandive.model;
+
+import ch.oceandive.utils.BookingType;
+import ch.oceandive.utils.WaitlistStatus;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import org.hibernate.annotations.CreationTimestamp;
+
+/**
+ * A place in the FIFO waitlist of a fully booked trip or course.
+ */
+@Entity
+@Table(name = "waitlist_entries",
+    uniqueConstraints = @UniqueConstraint(name = "uk_waitlist_queue_position",
+        columnNames = {"type", "item_id", "position"}),
+    indexes = {
+        @Index(name = "idx_waitlist_queue", columnList = "type, item_id, status, position"),
+        @Index(name = "idx_waitlist_premium_user", columnList = "premium_user_id, status")
+    })
+public class WaitlistEntry {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 20)
+  @NotNull
+  private BookingType type;
+
+  @Column(name = "item_id", nullable = false)
+  @NotNull
+  private Long itemId;
+
+  // Monotonic sequence within the queue of one trip or course, never reused
+  @Column(nullable = false)
+  private Long position;
+
+  @Column(name = "premium_user_id", nullable = false)
+  private Long premiumUserId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 20)
+  private WaitlistStatus status = WaitlistStatus.WAITING;
+
+  // Reference of the booking created when the entry was promoted
+  @Column(name = "booking_reference", length = 32)
+  private String bookingReference;
+
+  @Column(name = "created_at", nullable = false, updatable = false)
+  @CreationTimestamp
+  private LocalDateTime createdAt;
+
+  public WaitlistEntry() {
+  }
+
+  public WaitlistEntry(BookingType type, Long itemId, Long position, Long premiumUserId) {
+    this.type = type;
+    this.itemId = itemId;
+    this.position = position;
+    this.premiumUserId = premiumUserId;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public BookingType getType() {
+    return type;
+  }
+
+  public Long getItemId() {
+    return itemId;
+  }
+
+  public Long getPosition() {
+    return position;
+  }
+
+  public Long getPremiumUserId() {
+    return premiumUserId;
+  }
+
+  public WaitlistStatus getStatus() {
+    return status;
+  }
+
+  public WaitlistEntry setStatus(WaitlistStatus status) {
+    this.status = status;
+    return this;
+  }
+
+  public String getBookingReference() {
+    return bookingReference;
+  }
+
+  public WaitlistEntry setBookingReference(String bookingReference) {
+    this.bookingReference = bookingReference;
+    return this;
+  }
+
+  public LocalDateTime getCreatedAt() {
+    return createdAt;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    WaitlistEntry that = (WaitlistEntry) o;
+    return Objects.equals(type, that.type) && Objects.equals(itemId, that.itemId)
+        && Objects.equals(position, that.position);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(type, itemId, position);
+  }
+}
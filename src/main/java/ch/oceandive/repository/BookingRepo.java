@@ -0,0 +1,74 @@
+package ch.oceandive.repository;
+
+import ch.oceandive.model.Booking;
+import ch.oceandive.utils.BookingStatus;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+// Bookings hold personal data, so they are only reachable through BookingController
+@Repository
+@RepositoryRestResource(exported = false)
+public interface BookingRepo extends JpaRepository<Booking, Long> {
+
+  Optional<Booking> findByReference(String reference);
+
+  Optional<Booking> findByIdempotencyKey(String idempotencyKey);
+
+  List<Booking> findByPremiumUserIdOrderByCreatedAtDesc(Long premiumUserId, Pageable pageable);
+
+  List<Booking> findByGuestUserIdOrderByCreatedAtDesc(Long guestUserId, Pageable pageable);
+
+  List<Booking> findByTripIdAndStatus(Long tripId, BookingStatus status);
+
+  List<Booking> findByCourseIdAndStatus(Long courseId, BookingStatus status);
+
+  // Seats held per trip according to the ledger: (tripId, seats)
+  @Query("SELECT b.tripId, SUM(b.seats) FROM Booking b WHERE b.type = 'TRIP' AND b.status IN :statuses GROUP BY b.tripId")
+  List<Object[]> sumSeatsPerTrip(@Param("statuses") Collection<BookingStatus> statuses);
+
+  // Seats held per course according to the ledger: (courseId, seats)
+  @Query("SELECT b.courseId, SUM(b.seats) FROM Booking b WHERE b.type = 'COURSE' AND b.status IN :statuses GROUP BY b.courseId")
+  List<Object[]> sumSeatsPerCourse(@Param("statuses") Collection<BookingStatus> statuses);
+
+  // Trip pairs booked by the same premium users ({tripId, otherTripId, users}), lower id first
+  @Query("SELECT a.tripId, b.tripId, COUNT(DISTINCT a.premiumUserId) FROM Booking a, Booking b " +
+      "WHERE a.type = 'TRIP' AND b.type = 'TRIP' AND a.premiumUserId = b.premiumUserId " +
+      "AND a.tripId < b.tripId AND a.status IN :statuses AND b.status IN :statuses " +
+      "GROUP BY a.tripId, b.tripId")
+  List<Object[]> countTripsBookedTogether(@Param("statuses") Collection<BookingStatus> statuses);
+
+  // Holds that still reserve seats, used to re-arm their expiry timers after a restart
+  List<Booking> findByStatus(BookingStatus status);
+
+  // Seats currently on hold for a trip or course
+  @Query("SELECT COALESCE(SUM(b.seats), 0) FROM Booking b WHERE b.tripId = :tripId AND b.status = 'HELD'")
+  long sumHeldSeatsForTrip(@Param("tripId") Long tripId);
+
+  @Query("SELECT COALESCE(SUM(b.seats), 0) FROM Booking b WHERE b.courseId = :courseId AND b.status = 'HELD'")
+  long sumHeldSeatsForCourse(@Param("courseId") Long courseId);
+
+  // Confirm a hold that has not expired yet; 0 rows means it expired or was released meanwhile
+  @Transactional
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE Booking b SET b.status = 'CONFIRMED', b.expiresAt = NULL, b.updatedAt = :now " +
+      "WHERE b.reference = :reference AND b.status = 'HELD' AND b.expiresAt > :now")
+  int confirmHold(@Param("reference") String reference, @Param("now") LocalDateTime now);
+
+  // Move a booking from one status to another; 0 rows means another request changed it first
+  @Transactional
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE Booking b SET b.status = :to, b.expiresAt = NULL, b.updatedAt = :now " +
+      "WHERE b.reference = :reference AND b.status = :from")
+  int transition(@Param("reference") String reference, @Param("from") BookingStatus from,
+      @Param("to") BookingStatus to, @Param("now") LocalDateTime now);
+}
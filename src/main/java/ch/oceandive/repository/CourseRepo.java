@@ -1,22 +1,53 @@
 package ch.oceandive.repository;
 
+import ch.oceandive.dto.CourseCard;
 import ch.oceandive.model.Course;
 import ch.oceandive.utils.PublicationStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.rest.core.annotation.RestResource;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CourseRepo extends JpaRepository<Course, Long> {
 
+  // Selects only the columns of a CourseCard, for the list endpoints
+  String SELECT_CARD = "SELECT new ch.oceandive.dto.CourseCard(c.id, c.slug, c.name, c.shortDescription, "
+      + "c.startDate, c.endDate, c.price, c.minCertificationRequired, c.capacity, c.currentBookings) "
+      + "FROM Course c ";
+
+  // All courses as list cards, by start date.
+  @Query(SELECT_CARD + "ORDER BY c.startDate ASC, c.id ASC")
+  @RestResource(exported = false)
+  List<CourseCard> findAllCards();
+
+  // Courses starting after the given date as list cards, by start date.
+  @Query(SELECT_CARD + "WHERE c.startDate > :date ORDER BY c.startDate ASC, c.id ASC")
+  @RestResource(exported = false)
+  List<CourseCard> findCardsByStartDateAfter(@Param("date") LocalDate date);
+
+  // Courses starting between the given dates as list cards, by start date.
+  @Query(SELECT_CARD + "WHERE c.startDate BETWEEN :startDate AND :endDate ORDER BY c.startDate ASC, c.id ASC")
+  @RestResource(exported = false)
+  List<CourseCard> findCardsByStartDateBetween(@Param("startDate") LocalDate startDate,
+      @Param("endDate") LocalDate endDate);
+
+  // Courses with the given ids as list cards, in no particular order.
+  @Query(SELECT_CARD + "WHERE c.id IN :ids")
+  @RestResource(exported = false)
+  List<CourseCard> findCardsByIdIn(@Param("ids") Collection<Long> ids);
+
   //Find courses with a start date after the given date.
   List<Course> findByStartDateAfter(LocalDate date);
 
@@ -76,30 +107,113 @@ public interface CourseRepo extends JpaRepository<Course, Long> {
   Long countAvailableSpots(@Param("status") PublicationStatus status,
       @Param("currentDate") LocalDate currentDate);
 
-  // Search courses by name, description, or short description and order by creation day (case-insensitive, partial match).
-  @Query("SELECT c FROM Course c WHERE " +
-      "(LOWER(c.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
-      "OR LOWER(c.description) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
-      "OR LOWER(c.shortDescription) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) " +
-      "AND c.status = :status " +
-      "ORDER BY c.createdAt DESC")
-  Page<Course> searchCourses(@Param("searchTerm") String searchTerm,
-      @Param("status") PublicationStatus status,
-      Pageable pageable);
+  // Dashboard counts in one pass: {all courses, published upcoming courses with seats left,
+  // published upcoming courses, stored bookings of all courses}
+  @Query("SELECT COUNT(c), "
+      + "COALESCE(SUM(CASE WHEN c.status = :status AND c.startDate > :currentDate "
+      + "AND c.currentBookings < c.capacity THEN 1 ELSE 0 END), 0), "
+      + "COALESCE(SUM(CASE WHEN c.status = :status AND c.startDate > :currentDate THEN 1 ELSE 0 END), 0), "
+      + "COALESCE(SUM(c.currentBookings), 0) FROM Course c")
+  @RestResource(exported = false)
+  List<Object[]> summarizeForDashboard(@Param("status") PublicationStatus status,
+      @Param("currentDate") LocalDate currentDate);
 
   // Find all courses for admin (regardless of status) with search capability.
   @Query("SELECT c FROM Course c WHERE " +
       "(:searchTerm IS NULL OR " +
       "LOWER(c.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
       "OR LOWER(c.description) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) " +
-      "ORDER BY c.createdAt DESC")
+      "ORDER BY c.createdAt DESC, c.id DESC")
   Page<Course> findAllForAdmin(@Param("searchTerm") String searchTerm, Pageable pageable);
 
+  // First keyset page of all courses for admin, newest first (the pageable only sets the limit).
+  @Query("SELECT c FROM Course c ORDER BY c.createdAt DESC, c.id DESC")
+  List<Course> findFirstForAdmin(Pageable limit);
+
+  // Keyset page of all courses for admin created before the (createdAt, id) position of the last course seen.
+  @Query("SELECT c FROM Course c WHERE c.createdAt < :createdAt "
+      + "OR (c.createdAt = :createdAt AND c.id < :id) "
+      + "ORDER BY c.createdAt DESC, c.id DESC")
+  List<Course> findForAdminAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+      Pageable limit);
+
+  // Slugs equal to the base slug or starting with "base-", except the one of the given course (null for none).
+  @Query("SELECT c.slug FROM Course c WHERE (c.slug = :base OR c.slug LIKE CONCAT(:base, '-%')) "
+      + "AND (:excludeId IS NULL OR c.id <> :excludeId)")
+  @RestResource(exported = false)
+  List<String> findSlugsWithBase(@Param("base") String base, @Param("excludeId") Long excludeId);
+
+  // {slug, id} of every course with a slug in the given status.
+  @Query("SELECT c.slug, c.id FROM Course c WHERE c.status = :status AND c.slug IS NOT NULL")
+  @RestResource(exported = false)
+  List<Object[]> findSlugIds(@Param("status") PublicationStatus status);
+
   // Check if a slug exists (for validation).
   boolean existsBySlug(String slug);
 
   //Check if slug exists for a different course (for updates).
   boolean existsBySlugAndIdNot(String slug, Long id);
 
-
-}
\ No newline at end of file
+  // Atomically reserve seats, guarded by capacity inside the UPDATE (1 = reserved, 0 = full or unknown).
+  @Transactional
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @RestResource(exported = false)
+  @Query("UPDATE Course c SET c.currentBookings = c.currentBookings + :seats, c.version = c.version + 1 " +
+      "WHERE c.id = :id AND c.currentBookings + :seats <= c.capacity")
+  int reserveSeats(@Param("id") Long id, @Param("seats") int seats);
+
+  // Atomically release previously reserved seats, never going below zero.
+  @Transactional
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @RestResource(exported = false)
+  @Query("UPDATE Course c SET c.currentBookings = c.currentBookings - :seats, c.version = c.version + 1 " +
+      "WHERE c.id = :id AND c.currentBookings >= :seats")
+  int releaseSeats(@Param("id") Long id, @Param("seats") int seats);
+
+  // Seat counter snapshot (id, capacity, currentBookings) of all courses
+  @RestResource(exported = false)
+  @Query("SELECT c.id, c.capacity, c.currentBookings FROM Course c")
+  List<Object[]> findSeatCounters();
+
+  // Seat counter snapshot (id, capacity, currentBookings) of a single course
+  @RestResource(exported = false)
+  @Query("SELECT c.id, c.capacity, c.currentBookings FROM Course c WHERE c.id = :id")
+  List<Object[]> findSeatCounter(@Param("id") Long id);
+
+  // Apply seat changes that were already checked against capacity in memory (write-behind flush)
+  @Transactional
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @RestResource(exported = false)
+  @Query("UPDATE Course c SET c.currentBookings = c.currentBookings + :delta, c.version = c.version + 1 WHERE c.id = :id")
+  int applyBookingDelta(@Param("id") Long id, @Param("delta") int delta);
+
+  // Bulk action state (id, status, featured, currentBookings) of the selected courses
+  @RestResource(exported = false)
+  @Query("SELECT c.id, c.status, c.featured, c.currentBookings FROM Course c WHERE c.id IN :ids")
+  List<Object[]> findBulkStates(@Param("ids") Collection<Long> ids);
+
+  // Set the status of the selected courses in one statement, skipping the ones already in it
+  @Transactional
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @RestResource(exported = false)
+  @Query("UPDATE Course c SET c.status = :status, c.updatedAt = :now, c.version = c.version + 1 " +
+      "WHERE c.id IN :ids AND c.status <> :status")
+  int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") PublicationStatus status,
+      @Param("now") LocalDateTime now);
+
+  // Feature or unfeature the selected courses in one statement
+  @Transactional
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @RestResource(exported = false)
+  @Query("UPDATE Course c SET c.featured = :featured, c.updatedAt = :now, c.version = c.version + 1 " +
+      "WHERE c.id IN :ids AND c.featured <> :featured")
+  int updateFeatured(@Param("ids") Collection<Long> ids, @Param("featured") boolean featured,
+      @Param("now") LocalDateTime now);
+
+  // Delete the selected courses in one statement; courses with bookings stay
+  @Transactional
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @RestResource(exported = false)
+  @Query("DELETE FROM Course c WHERE c.id IN :ids AND c.currentBookings = 0")
+  int deleteUnbooked(@Param("ids") Collection<Long> ids);
+}
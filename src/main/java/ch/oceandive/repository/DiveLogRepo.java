@@ -41,4 +41,8 @@ public interface DiveLogRepo extends JpaRepository<DiveLog, Long> {
     // Get distinct locations for dropdown
     @Query("SELECT DISTINCT d.location FROM DiveLog d WHERE d.user = :user ORDER BY d.location")
     List<String> findDistinctLocationsByUser(@Param("user") PremiumUser user);
+
+    // Dive sites of a user with their number of dives ({location, count}), for the autocomplete
+    @Query("SELECT d.location, COUNT(d) FROM DiveLog d WHERE d.user.id = :userId AND d.location IS NOT NULL GROUP BY d.location")
+    List<Object[]> countDivesPerLocationByUser(@Param("userId") Long userId);
 }
\ No newline at end of file
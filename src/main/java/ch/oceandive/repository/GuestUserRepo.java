@@ -2,6 +2,7 @@ package ch.oceandive.repository;
 
 import ch.oceandive.model.GuestUser;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -20,4 +21,7 @@ public interface GuestUserRepo extends JpaRepository<GuestUser, Long> {
   // Find a GuestUser by their email address and exclude ID.
   List<GuestUser> findByEmailAndIdNot(String email, Long id);
 
+  // Keyset page of guests by id (the pageable only sets the limit).
+  List<GuestUser> findByIdGreaterThanOrderByIdAsc(Long id, Pageable limit);
+
 }
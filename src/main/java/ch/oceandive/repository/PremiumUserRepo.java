@@ -3,6 +3,7 @@ package ch.oceandive.repository;
 import ch.oceandive.model.PremiumUser;
 import java.time.LocalDateTime;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -32,6 +33,9 @@ public interface PremiumUserRepo extends JpaRepository<PremiumUser, Long> {
       + " u.passwordResetTokenExpiry = null WHERE u.passwordResetTokenExpiry <= :now")
   int clearExpiredPasswordResetTokens(LocalDateTime now);
 
+  // Keyset page of users by id (the pageable only sets the limit).
+  List<PremiumUser> findByIdGreaterThanOrderByIdAsc(Long id, Pageable limit);
+
   // Find a PremiumUser by their password reset token.
   PremiumUser findByPasswordResetToken(String token);
 }
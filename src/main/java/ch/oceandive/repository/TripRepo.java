@@ -1,17 +1,23 @@
 package ch.oceandive.repository;
 
+import ch.oceandive.dto.TripCard;
 import ch.oceandive.utils.PublicationStatus;
 import ch.oceandive.utils.DiveCertification;
 import ch.oceandive.model.Trip;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RestResource;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,17 +25,74 @@ import java.util.Optional;
 @Repository
 public interface TripRepo extends JpaRepository<Trip, Long> {
 
+  // Selects only the columns of a TripCard, for the list endpoints
+  String SELECT_CARD = "SELECT new ch.oceandive.dto.TripCard(t.id, t.slug, t.location, t.shortDescription, "
+      + "t.startDate, t.endDate, t.price, t.minCertificationRequired, t.capacity, t.currentBookings, "
+      + "t.featured, t.displayOrder) FROM Trip t ";
 
   // Find a trip by slug.
   Optional<Trip> findBySlug(String slug);
 
+  // Slugs equal to the base slug or starting with "base-", except the one of the given trip (null for none).
+  @Query("SELECT t.slug FROM Trip t WHERE (t.slug = :base OR t.slug LIKE CONCAT(:base, '-%')) "
+      + "AND (:excludeId IS NULL OR t.id <> :excludeId)")
+  @RestResource(exported = false)
+  List<String> findSlugsWithBase(@Param("base") String base, @Param("excludeId") Long excludeId);
+
   //Find published trips by their ascending display order.
   List<Trip> findByStatusOrderByDisplayOrderAsc(PublicationStatus status);
 
   // Get all trips with pagination.
-  @Query("SELECT t FROM Trip t ORDER BY t.displayOrder ASC, t.startDate ASC")
+  @Query("SELECT t FROM Trip t ORDER BY t.displayOrder ASC, t.startDate ASC, t.id ASC")
   Page<Trip> getAllTrips(Pageable pageable);
 
+  // All trips (any status) as list cards, same order as getAllTrips.
+  @Query(SELECT_CARD + "ORDER BY t.displayOrder ASC, t.startDate ASC, t.id ASC")
+  @RestResource(exported = false)
+  List<TripCard> findAllCards();
+
+  // Page of the trips in the given status (null for all) as list cards, same order as getAllTrips.
+  @Query(value = SELECT_CARD + "WHERE (:status IS NULL OR t.status = :status) "
+      + "ORDER BY t.displayOrder ASC, t.startDate ASC, t.id ASC",
+      countQuery = "SELECT COUNT(t) FROM Trip t WHERE (:status IS NULL OR t.status = :status)")
+  @RestResource(exported = false)
+  Page<TripCard> getAllTripCards(@Param("status") PublicationStatus status, Pageable pageable);
+
+  // First keyset page of the trips in the given status (null for all) as list cards (the pageable only sets the limit).
+  @Query(SELECT_CARD + "WHERE (:status IS NULL OR t.status = :status) "
+      + "ORDER BY t.displayOrder ASC, t.startDate ASC, t.id ASC")
+  @RestResource(exported = false)
+  List<TripCard> findFirstTripCards(@Param("status") PublicationStatus status, Pageable limit);
+
+  // Keyset page of the trips in the given status (null for all) as list cards, after the (displayOrder, startDate, id) position.
+  @Query(SELECT_CARD + "WHERE (:status IS NULL OR t.status = :status) AND (t.displayOrder > :displayOrder "
+      + "OR (t.displayOrder = :displayOrder AND (t.startDate > :startDate "
+      + "OR (t.startDate = :startDate AND t.id > :id)))) "
+      + "ORDER BY t.displayOrder ASC, t.startDate ASC, t.id ASC")
+  @RestResource(exported = false)
+  List<TripCard> findTripCardsAfter(@Param("status") PublicationStatus status,
+      @Param("displayOrder") Integer displayOrder, @Param("startDate") LocalDate startDate, @Param("id") Long id,
+      Pageable limit);
+
+  // First keyset page of the trips in the given status (null for all), same order as getAllTrips (the pageable only sets the limit).
+  @Query("SELECT t FROM Trip t WHERE (:status IS NULL OR t.status = :status) "
+      + "ORDER BY t.displayOrder ASC, t.startDate ASC, t.id ASC")
+  @RestResource(exported = false)
+  List<Trip> findFirstTrips(@Param("status") PublicationStatus status, Pageable limit);
+
+  // Keyset page of the trips in the given status (null for all) after the (displayOrder, startDate, id) position of the last trip seen.
+  @Query("SELECT t FROM Trip t WHERE (:status IS NULL OR t.status = :status) AND (t.displayOrder > :displayOrder "
+      + "OR (t.displayOrder = :displayOrder AND (t.startDate > :startDate "
+      + "OR (t.startDate = :startDate AND t.id > :id)))) "
+      + "ORDER BY t.displayOrder ASC, t.startDate ASC, t.id ASC")
+  @RestResource(exported = false)
+  List<Trip> findTripsAfter(@Param("status") PublicationStatus status, @Param("displayOrder") Integer displayOrder,
+      @Param("startDate") LocalDate startDate, @Param("id") Long id, Pageable limit);
+
+  // Count the trips in a status.
+  @RestResource(exported = false)
+  long countByStatus(PublicationStatus status);
+
   // Find trips starting after a specific date.
   List<Trip> findByStartDateAfter(LocalDate date);
 
@@ -51,10 +114,6 @@ public interface TripRepo extends JpaRepository<Trip, Long> {
   @Query("SELECT t FROM Trip t WHERE t.endDate < CURRENT_DATE ORDER BY t.endDate DESC")
   List<Trip> findPastTrips();
 
-  // Find trips by location
-  @Query("SELECT t FROM Trip t WHERE LOWER(t.location) LIKE LOWER(CONCAT('%', :location, '%')) AND t.status = 'PUBLISHED' ORDER BY t.startDate ASC")
-  List<Trip> findByLocationContaining(@Param("location") String location);
-
   //Find trips that are not fully booked.
   @Query("SELECT t FROM Trip t WHERE t.currentBookings < t.capacity AND t.status = 'PUBLISHED'")
   List<Trip> findAvailableTrips();
@@ -67,6 +126,11 @@ public interface TripRepo extends JpaRepository<Trip, Long> {
   @Query("SELECT t FROM Trip t WHERE (t.currentBookings * 100.0 / t.capacity) < 50.0 AND t.status = 'PUBLISHED'")
   List<Trip> findTripsWithLowBookings();
 
+  // Trips with low booking rates as list cards.
+  @Query(SELECT_CARD + "WHERE (t.currentBookings * 100.0 / t.capacity) < 50.0 AND t.status = 'PUBLISHED'")
+  @RestResource(exported = false)
+  List<TripCard> findTripCardsWithLowBookings();
+
   // Find trips by minimum certification required
   List<Trip> findByMinCertificationRequired(DiveCertification certification);
 
@@ -83,36 +147,9 @@ public interface TripRepo extends JpaRepository<Trip, Long> {
   //Find featured trips. (Like PUBLISHED, ARCHIVED, etc.)
   List<Trip> findByFeaturedTrueAndStatusOrderByDisplayOrderAsc(PublicationStatus status);
 
-  //Advanced search with multiple criteria. (location, date range, certification, availability, price range)
-  @Query("SELECT t FROM Trip t WHERE " +
-      "(:location IS NULL OR LOWER(t.location) LIKE LOWER(CONCAT('%', :location, '%'))) AND " +
-      "(:startDate IS NULL OR t.startDate >= :startDate) AND " +
-      "(:endDate IS NULL OR t.startDate <= :endDate) AND " +
-      "(:minCertification IS NULL OR t.minCertificationRequired <= :minCertification) AND " +
-      "(:availableOnly = false OR t.currentBookings < t.capacity) AND " +
-      "(:minPrice IS NULL OR t.price >= :minPrice) AND " +
-      "(:maxPrice IS NULL OR t.price <= :maxPrice) AND " +
-      "t.status = 'PUBLISHED' " +
-      "ORDER BY t.startDate ASC")
-  List<Trip> searchTrips(@Param("location") String location,
-      @Param("startDate") LocalDate startDate,
-      @Param("endDate") LocalDate endDate,
-      @Param("minCertification") DiveCertification minCertification,
-      @Param("availableOnly") boolean availableOnly,
-      @Param("minPrice") BigDecimal minPrice,
-      @Param("maxPrice") BigDecimal maxPrice);
-
-  //Find similar trips based on location and certification.
-  @Query("SELECT t FROM Trip t WHERE " +
-      "t.id != :excludeId AND " +
-      "(LOWER(t.location) LIKE LOWER(CONCAT('%', :location, '%')) OR " +
-      "t.minCertificationRequired = :certification) AND " +
-      "t.status = 'PUBLISHED' " +
-      "ORDER BY t.startDate ASC")
-  List<Trip> findSimilarTrips(@Param("excludeId") Long excludeId,
-      @Param("location") String location,
-      @Param("certification") DiveCertification certification,
-      Pageable pageable);
+  // Newest trips with the given status (the pageable only sets the limit).
+  @RestResource(exported = false)
+  List<Trip> findByStatusOrderByCreatedAtDescIdDesc(PublicationStatus status, Pageable limit);
 
   //Get total capacity across all trips.
   @Query("SELECT SUM(t.capacity) FROM Trip t WHERE t.status = 'PUBLISHED'")
@@ -156,4 +193,79 @@ public interface TripRepo extends JpaRepository<Trip, Long> {
   @Query("SELECT t FROM Trip t WHERE t.status = 'PUBLISHED' ORDER BY (t.currentBookings * 100.0 / t.capacity) DESC")
   List<Trip> findMostBookedTrips(Pageable pageable);
 
-}
\ No newline at end of file
+  // The most booked trips as list cards.
+  @Query(SELECT_CARD + "WHERE t.status = 'PUBLISHED' ORDER BY (t.currentBookings * 100.0 / t.capacity) DESC")
+  @RestResource(exported = false)
+  List<TripCard> findMostBookedTripCards(Pageable pageable);
+
+  // Atomically reserve seats on a trip that has not ended yet. The capacity guard runs inside the
+  // UPDATE itself, so concurrent bookings can never push current bookings above capacity.
+  // Returns the number of updated rows (1 = reserved, 0 = full, ended or unknown trip).
+  @Transactional
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @RestResource(exported = false)
+  @Query("UPDATE Trip t SET t.currentBookings = t.currentBookings + :seats, t.version = t.version + 1 " +
+      "WHERE t.id = :id AND t.endDate >= CURRENT_DATE AND t.currentBookings + :seats <= t.capacity")
+  int reserveSeats(@Param("id") Long id, @Param("seats") int seats);
+
+  // Atomically release previously reserved seats, never going below zero.
+  @Transactional
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @RestResource(exported = false)
+  @Query("UPDATE Trip t SET t.currentBookings = t.currentBookings - :seats, t.version = t.version + 1 " +
+      "WHERE t.id = :id AND t.currentBookings >= :seats")
+  int releaseSeats(@Param("id") Long id, @Param("seats") int seats);
+
+  // Seat counter snapshot (id, capacity, currentBookings, endDate) of trips that can still be booked
+  @RestResource(exported = false)
+  @Query("SELECT t.id, t.capacity, t.currentBookings, t.endDate FROM Trip t WHERE t.endDate >= CURRENT_DATE")
+  List<Object[]> findSeatCounters();
+
+  // Seat counter snapshot (id, capacity, currentBookings, endDate) of a single trip
+  @RestResource(exported = false)
+  @Query("SELECT t.id, t.capacity, t.currentBookings, t.endDate FROM Trip t WHERE t.id = :id")
+  List<Object[]> findSeatCounter(@Param("id") Long id);
+
+  // Stored booked seats of one trip, null for an unknown trip
+  @Query("SELECT t.currentBookings FROM Trip t WHERE t.id = :id")
+  @RestResource(exported = false)
+  Integer findCurrentBookings(@Param("id") Long id);
+
+  // Apply seat changes that were already checked against capacity in memory (write-behind flush)
+  @Transactional
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @RestResource(exported = false)
+  @Query("UPDATE Trip t SET t.currentBookings = t.currentBookings + :delta, t.version = t.version + 1 WHERE t.id = :id")
+  int applyBookingDelta(@Param("id") Long id, @Param("delta") int delta);
+
+  // Bulk action state (id, status, featured, currentBookings) of the selected trips
+  @RestResource(exported = false)
+  @Query("SELECT t.id, t.status, t.featured, t.currentBookings FROM Trip t WHERE t.id IN :ids")
+  List<Object[]> findBulkStates(@Param("ids") Collection<Long> ids);
+
+  // Set the status of the selected trips in one statement, skipping the ones already in it
+  @Transactional
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @RestResource(exported = false)
+  @Query("UPDATE Trip t SET t.status = :status, t.updatedAt = :now, t.version = t.version + 1 " +
+      "WHERE t.id IN :ids AND t.status <> :status")
+  int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") PublicationStatus status,
+      @Param("now") LocalDateTime now);
+
+  // Feature or unfeature the selected trips in one statement
+  @Transactional
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @RestResource(exported = false)
+  @Query("UPDATE Trip t SET t.featured = :featured, t.updatedAt = :now, t.version = t.version + 1 " +
+      "WHERE t.id IN :ids AND t.featured <> :featured")
+  int updateFeatured(@Param("ids") Collection<Long> ids, @Param("featured") boolean featured,
+      @Param("now") LocalDateTime now);
+
+  // Delete the selected trips in one statement; trips with bookings stay
+  @Transactional
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @RestResource(exported = false)
+  @Query("DELETE FROM Trip t WHERE t.id IN :ids AND t.currentBookings = 0")
+  int deleteUnbooked(@Param("ids") Collection<Long> ids);
+
+}
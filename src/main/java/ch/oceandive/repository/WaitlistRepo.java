@@ -0,0 +1,55 @@
+package ch.oceandive.repository;
+
+import ch.oceandive.model.WaitlistEntry;
+import ch.oceandive.utils.BookingType;
+import ch.oceandive.utils.WaitlistStatus;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+// Waitlist entries are only reachable through WaitlistController
+@Repository
+@RepositoryRestResource(exported = false)
+public interface WaitlistRepo extends JpaRepository<WaitlistEntry, Long> {
+
+  // Head of the queue: the waiting entry with the lowest position
+  Optional<WaitlistEntry> findFirstByTypeAndItemIdAndStatusOrderByPositionAsc(BookingType type, Long itemId,
+      WaitlistStatus status);
+
+  Optional<WaitlistEntry> findFirstByTypeAndItemIdAndPremiumUserIdAndStatus(BookingType type, Long itemId,
+      Long premiumUserId, WaitlistStatus status);
+
+  List<WaitlistEntry> findByPremiumUserIdAndStatusOrderByCreatedAtDesc(Long premiumUserId, WaitlistStatus status);
+
+  // Positions of waiting entries, used to build the in-memory rank index of a queue
+  @Query("SELECT w.position FROM WaitlistEntry w WHERE w.type = :type AND w.itemId = :itemId AND w.status = 'WAITING'")
+  List<Long> findWaitingPositions(@Param("type") BookingType type, @Param("itemId") Long itemId);
+
+  @Query("SELECT COALESCE(MAX(w.position), 0) FROM WaitlistEntry w WHERE w.type = :type AND w.itemId = :itemId")
+  long findMaxPosition(@Param("type") BookingType type, @Param("itemId") Long itemId);
+
+  // Move an entry between statuses; 0 rows means another request changed it first
+  @Transactional
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE WaitlistEntry w SET w.status = :to WHERE w.id = :id AND w.status = :from")
+  int transition(@Param("id") Long id, @Param("from") WaitlistStatus from, @Param("to") WaitlistStatus to);
+
+  @Transactional
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE WaitlistEntry w SET w.bookingReference = :reference WHERE w.id = :id")
+  int recordBooking(@Param("id") Long id, @Param("reference") String reference);
+
+  // Cancel the waiting entries of the given trips or courses, e.g. when they are deleted
+  @Transactional
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE WaitlistEntry w SET w.status = 'CANCELLED' "
+      + "WHERE w.type = :type AND w.itemId IN :itemIds AND w.status = 'WAITING'")
+  int cancelWaiting(@Param("type") BookingType type, @Param("itemIds") Collection<Long> itemIds);
+}
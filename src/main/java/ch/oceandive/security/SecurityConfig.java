@@ -94,6 +94,7 @@ public class SecurityConfig {
             .requestMatchers(HttpMethod.GET,
                 "/api/courses",
                 "/api/courses/{id}",
+                "/api/courses/{id}/availability",
                 "/api/courses/upcoming",
                 "/api/courses/available",
                 "/api/courses/name/{name}",
@@ -103,8 +104,10 @@ public class SecurityConfig {
             .requestMatchers(HttpMethod.GET,
                 "/api/trips",
                 "/api/trips/{id}",
+                "/api/trips/{id}/availability",
                 "/api/trips/slug/{slug}",
                 "/api/trips/search",
+                "/api/trips/search/faceted",
                 "/api/trips/upcoming",
                 "/api/trips/available",
                 "/api/trips/featured",
@@ -115,6 +118,9 @@ public class SecurityConfig {
                 "/api/trips/{id}/similar",
                 "/api/trips/analytics/popular-destinations",
                 "/api/trips/locations",
+                "/api/trips/locations/suggest",
+                "/api/trips/calendar",
+                "/api/trips/calendar/available",
                 "/api/trips/active",
                 "/api/trips/past"
             ).permitAll()
@@ -128,6 +134,7 @@ public class SecurityConfig {
             ).permitAll()
             // Protected endpoints
             .requestMatchers("/api/dive-logs/**").hasAnyRole("PREMIUM", "ADMIN")
+            .requestMatchers("/api/waitlist/**").hasRole("PREMIUM")
             .requestMatchers(HttpMethod.POST, "/api/trips/{id}/book").hasAnyRole("PREMIUM", "ADMIN")
             .requestMatchers(HttpMethod.POST, "/api/trips/{id}/cancel-booking")
             .hasAnyRole("PREMIUM", "ADMIN")
@@ -186,6 +193,7 @@ public class SecurityConfig {
             .requestMatchers("/h2-console/**").permitAll() // uncomment if you need H2 console
             // Health check endpoints
             .requestMatchers("/health", "/actuator/health").permitAll()
+            .requestMatchers("/actuator/**").hasRole("ADMIN")
 
             // Protected areas
             .requestMatchers("/admin/**").hasRole("ADMIN")
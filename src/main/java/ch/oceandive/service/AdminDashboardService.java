@@ -0,0 +1,142 @@
+package ch.oceandive.service;
+
+import ch.oceandive.dto.DashboardSnapshot;
+import ch.oceandive.event.CourseChangedEvent;
+import ch.oceandive.event.TripChangedEvent;
+import ch.oceandive.model.Course;
+import ch.oceandive.model.Trip;
+import ch.oceandive.repository.CourseRepo;
+import ch.oceandive.repository.GuestUserRepo;
+import ch.oceandive.repository.PremiumUserRepo;
+import ch.oceandive.repository.TripRepo;
+import ch.oceandive.utils.PublicationStatus;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Admin dashboard figures, computed with aggregate queries and the running trip totals instead of
+ * loading courses, trips and users, and cached for a short time.
+ * <p>
+ * Within the TTL every caller gets the same {@link DashboardSnapshot}. Once it expired, one caller
+ * computes the next one while concurrent callers wait for it instead of running the queries too.
+ * Course and trip edits drop the cached snapshot; a snapshot whose load overlapped an edit is
+ * returned to its caller but not cached, since its queries may have run before the edit committed.
+ */
+@Service
+public class AdminDashboardService {
+
+  private static final Logger logger = LoggerFactory.getLogger(AdminDashboardService.class);
+
+  // Newest courses and trips shown on the dashboard
+  static final int RECENT_ITEMS = 3;
+
+  private final CourseRepo courseRepo;
+  private final TripRepo tripRepo;
+  private final PremiumUserRepo premiumUserRepo;
+  private final GuestUserRepo guestUserRepo;
+  private final TripStatistics tripStatistics;
+  private final TransactionTemplate readTransaction;
+  private final Duration ttl;
+  private final ReentrantLock loadLock = new ReentrantLock();
+  // Bumped by every course or trip edit
+  private final AtomicLong generation = new AtomicLong();
+  private volatile DashboardSnapshot snapshot;
+
+  public AdminDashboardService(CourseRepo courseRepo, TripRepo tripRepo, PremiumUserRepo premiumUserRepo,
+      GuestUserRepo guestUserRepo, TripStatistics tripStatistics, PlatformTransactionManager transactionManager,
+      @Value("${app.admin.dashboard.ttl-ms:15000}") long ttlMs) {
+    this.courseRepo = courseRepo;
+    this.tripRepo = tripRepo;
+    this.premiumUserRepo = premiumUserRepo;
+    this.guestUserRepo = guestUserRepo;
+    this.tripStatistics = tripStatistics;
+    // All queries of a snapshot in one read-only transaction
+    this.readTransaction = new TransactionTemplate(transactionManager);
+    this.readTransaction.setReadOnly(true);
+    this.ttl = Duration.ofMillis(ttlMs);
+  }
+
+  /**
+   * The dashboard figures, at most the configured TTL old.
+   */
+  public DashboardSnapshot getSnapshot() {
+    DashboardSnapshot current = snapshot;
+    if (isFresh(current)) {
+      return current;
+    }
+    loadLock.lock();
+    try {
+      // Another caller may have loaded it while this one waited
+      current = snapshot;
+      if (!isFresh(current)) {
+        long loadedGeneration = generation.get();
+        current = load();
+        snapshot = current;
+        // Re-checked after publishing: an edit that bumps the generation after this check also
+        // clears the snapshot after this write
+        if (generation.get() != loadedGeneration) {
+          snapshot = null;
+        }
+      }
+      return current;
+    } finally {
+      loadLock.unlock();
+    }
+  }
+
+  // An admin who just edited a course or trip sees it on the dashboard right away
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onCourseChanged(CourseChangedEvent event) {
+    invalidate();
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onTripChanged(TripChangedEvent event) {
+    invalidate();
+  }
+
+  // Bump first, then clear: a load running right now sees the new generation and drops its result
+  private void invalidate() {
+    generation.incrementAndGet();
+    snapshot = null;
+  }
+
+  private boolean isFresh(DashboardSnapshot current) {
+    return current != null && current.generatedAt().plus(ttl).isAfter(Instant.now());
+  }
+
+  private DashboardSnapshot load() {
+    long started = System.nanoTime();
+    LocalDate today = LocalDate.now();
+    TripStatistics.Totals trips = tripStatistics.totals();
+    long upcomingTrips = tripStatistics.upcomingTrips(today);
+    DashboardSnapshot loaded = readTransaction.execute(status -> {
+      Object[] courses = courseRepo.summarizeForDashboard(PublicationStatus.PUBLISHED, today).get(0);
+      List<Course> recentCourses = courseRepo.findFirstForAdmin(PageRequest.of(0, RECENT_ITEMS));
+      List<Trip> recentTrips = tripRepo.findByStatusOrderByCreatedAtDescIdDesc(PublicationStatus.PUBLISHED,
+          PageRequest.of(0, RECENT_ITEMS));
+      return new DashboardSnapshot(count(courses[0]), count(courses[1]), count(courses[2]), count(courses[3]),
+          trips.trips(), trips.availableTrips(), upcomingTrips, trips.booked(),
+          premiumUserRepo.count(), guestUserRepo.count(), List.copyOf(recentCourses), List.copyOf(recentTrips),
+          Instant.now());
+    });
+    logger.debug("Dashboard snapshot computed in {} ms", (System.nanoTime() - started) / 1_000_000);
+    return loaded;
+  }
+
+  private static long count(Object value) {
+    return value == null ? 0 : ((Number) value).longValue();
+  }
+}
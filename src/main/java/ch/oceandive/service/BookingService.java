@@ -1,88 +1,199 @@
 package ch.oceandive.service;
 
+import ch.oceandive.dto.GroupBookingRequest;
 import ch.oceandive.exceptionHandler.BusinessRuleViolationException;
+import ch.oceandive.exceptionHandler.DuplicateResourceException;
+import ch.oceandive.exceptionHandler.ResourceNotFoundException;
+import ch.oceandive.exceptionHandler.ValidationException;
 import ch.oceandive.model.*;
-import ch.oceandive.repository.*;
+import ch.oceandive.repository.BookingRepo;
+import ch.oceandive.utils.BookingReferenceGenerator;
+import ch.oceandive.utils.BookingStatus;
+import ch.oceandive.utils.BookingType;
+import ch.oceandive.utils.DiveCertification;
 import ch.oceandive.utils.DiveCertificationHolder;
 import ch.oceandive.validation.ValidationResult;
-import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-// Service for handling bookings of courses and trips. which is not active
+// Service for handling bookings of courses and trips, every booking is recorded in the booking ledger
 @Service
 public class BookingService {
     private static final Logger logger = LoggerFactory.getLogger(BookingService.class);
-    private final SecureRandom random = new SecureRandom();
-    private final CourseRepo courseRepo;
-    private final TripRepo tripRepo;
+    private final BookingRepo bookingRepo;
+    private final SeatInventory seatInventory;
+    private final SeatHoldService seatHoldService;
     private final CertificationValidationService certificationValidator;
+    private final BookingReferenceGenerator referenceGenerator;
+    private final WriteRetryExecutor writeRetry;
 
     @Autowired
-    public BookingService(CourseRepo courseRepo, TripRepo tripRepo,
-        CertificationValidationService certificationValidator) {
-        this.courseRepo = courseRepo;
-        this.tripRepo = tripRepo;
+    public BookingService(BookingRepo bookingRepo, SeatInventory seatInventory,
+        SeatHoldService seatHoldService, CertificationValidationService certificationValidator,
+        WriteRetryExecutor writeRetry, @Value("${app.booking.node-id:0}") int nodeId) {
+        this.bookingRepo = bookingRepo;
+        this.seatInventory = seatInventory;
+        this.seatHoldService = seatHoldService;
         this.certificationValidator = certificationValidator;
+        this.writeRetry = writeRetry;
+        this.referenceGenerator = new BookingReferenceGenerator(nodeId);
     }
 
-    public String generateBookingReference(String name, String personName) {
-        // some logic for null checks
-        name = name == null ? "COURSE" : name;
-        personName = personName == null ? "USER" : personName;
-        int randomInt = 100 + random.nextInt(900);
-        return name.replaceAll("\\s+", "").toUpperCase() + "_" +
-            personName.replaceAll("\\s+", "").toUpperCase() + "_" + randomInt;
+    // Unique, time-ordered reference such as TR-01HZX3K7QP9AB
+    public String generateBookingReference(BookingType type) {
+        return referenceGenerator.nextReference(type);
     }
 
     /**
      * Method that contains the common booking logic for courses.
      */
-    private String performCourseBooking(Course course, DiveCertificationHolder user) {
-        if (course.isFullyBooked()) {
-            throw new BusinessRuleViolationException("Course is fully booked.");
+    private Booking performCourseBooking(Course course, List<? extends DiveCertificationHolder> participants,
+        Booking booking) {
+        Optional<Booking> original = findOriginal(booking);
+        if (original.isPresent()) {
+            logger.info("Replaying course booking {} for idempotency key", original.get().getReference());
+            return original.get();
         }
 
         // Use the validation service
-        ValidationResult validationResult = certificationValidator.validateCourseEnrollment(user.getDiveCertification(), course);
-        if (!validationResult.isValid()) {
-            throw new BusinessRuleViolationException(
-                validationResult.getFirstMessage().isEmpty() ?
-                    "User does not have the required certification level for this course." :
-                    validationResult.getFirstMessage()
-            );
+        requireCertification(participants,
+            certification -> certificationValidator.validateCourseEnrollment(certification, course),
+            "User does not have the required certification level for this course.");
+
+        // The seat inventory checks capacity atomically, so concurrent bookings cannot oversell the course
+        if (!seatInventory.reserve(BookingType.COURSE, course.getId(), booking.getSeats())) {
+            throw new BusinessRuleViolationException("Course is fully booked.");
         }
 
-        String bookingReference = generateBookingReference(course.getName(), user.getFirstName());
-        course.incrementBookings();
-        courseRepo.save(course);
-        logger.info("Course booked with reference: {}", bookingReference);
-        return bookingReference;
+        booking.setReference(generateBookingReference(BookingType.COURSE));
+        Booking saved = bookingRepo.save(booking);
+        if (saved.getStatus() == BookingStatus.HELD) {
+            seatHoldService.track(saved);
+            logger.info("Course seat held with reference: {} until {}", saved.getReference(), saved.getExpiresAt());
+        } else {
+            logger.info("Course booked with reference: {}", saved.getReference());
+        }
+        return saved;
     }
 
-    private String performTripBooking(Trip trip, DiveCertificationHolder user) {
-        if (trip.isFullyBooked()) {
-            throw new BusinessRuleViolationException("Trip is fully booked.");
+    private Booking performTripBooking(Trip trip, List<? extends DiveCertificationHolder> participants,
+        Booking booking) {
+        Optional<Booking> original = findOriginal(booking);
+        if (original.isPresent()) {
+            logger.info("Replaying trip booking {} for idempotency key", original.get().getReference());
+            return original.get();
         }
 
         // Use the validation service
-        ValidationResult validationResult = certificationValidator.validateTripBooking(user.getDiveCertification(), trip);
-        if (!validationResult.isValid()) {
+        requireCertification(participants,
+            certification -> certificationValidator.validateTripBooking(certification, trip),
+            "User does not have the required certification level for this trip.");
+
+        // The seat inventory checks capacity atomically, so concurrent bookings cannot oversell the trip
+        if (!seatInventory.reserve(BookingType.TRIP, trip.getId(), booking.getSeats())) {
             throw new BusinessRuleViolationException(
-                validationResult.getFirstMessage().isEmpty() ?
-                    "User does not have the required certification level for this trip." :
-                    validationResult.getFirstMessage()
-            );
+                trip.isPastTrip() ? "Cannot book a trip that has already ended." : "Trip is fully booked.");
+        }
+
+        booking.setReference(generateBookingReference(BookingType.TRIP));
+        Booking saved = bookingRepo.save(booking);
+        if (saved.getStatus() == BookingStatus.HELD) {
+            seatHoldService.track(saved);
+            logger.info("Trip seat held with reference: {} until {}", saved.getReference(), saved.getExpiresAt());
+        } else {
+            logger.info("Trip booked with reference: {}", saved.getReference());
+        }
+        return saved;
+    }
+
+    /**
+     * Validate the certification of every participant in one pass. A single participant fails with
+     * the validator's message; a group fails with the problems of all participants at once.
+     *
+     * @throws BusinessRuleViolationException if a single participant is not certified
+     * @throws ValidationException if one or more participants of a group are not certified
+     */
+    private void requireCertification(List<? extends DiveCertificationHolder> participants,
+        Function<DiveCertification, ValidationResult> rule, String defaultMessage) {
+        Map<String, String> errors = new LinkedHashMap<>();
+        String firstFailure = null;
+        for (int i = 0; i < participants.size(); i++) {
+            ValidationResult result = rule.apply(participants.get(i).getDiveCertification());
+            if (!result.isValid()) {
+                String message = result.getFirstMessage() == null || result.getFirstMessage().isEmpty()
+                    ? defaultMessage : result.getFirstMessage();
+                firstFailure = firstFailure == null ? message : firstFailure;
+                errors.put("participants[" + i + "]", participants.get(i).getFirstName() + ": " + message);
+            }
+        }
+        if (errors.isEmpty()) {
+            return;
+        }
+        if (participants.size() == 1) {
+            throw new BusinessRuleViolationException(firstFailure);
+        }
+        throw new ValidationException(errors.size() + " of " + participants.size()
+            + " participants do not meet the certification requirement.", errors);
+    }
+
+    /**
+     * Find the booking previously stored under the idempotency key of the given request.
+     *
+     * @throws DuplicateResourceException if the key was used for a different booking
+     * @throws ValidationException if the key is blank or too long
+     */
+    public Optional<Booking> findOriginal(Booking request) {
+        String key = request.getIdempotencyKey();
+        if (key == null) {
+            return Optional.empty();
+        }
+        if (key.isBlank() || key.length() > 100) {
+            throw new ValidationException("Idempotency key must be between 1 and 100 characters.");
         }
+        return bookingRepo.findByIdempotencyKey(key).map(existing -> {
+            boolean sameRequest = existing.getType() == request.getType()
+                && Objects.equals(existing.getItemId(), request.getItemId())
+                && Objects.equals(existing.getPremiumUserId(), request.getPremiumUserId())
+                && Objects.equals(existing.getGuestUserId(), request.getGuestUserId());
+            if (!sameRequest) {
+                throw new DuplicateResourceException("Idempotency key was already used for a different booking.");
+            }
+            return existing;
+        });
+    }
 
-        String bookingReference = generateBookingReference(trip.getLocation(), user.getFirstName());
-        trip.incrementBookings();
-        tripRepo.save(trip);
-        logger.info("Trip booked with reference: {}", bookingReference);
-        return bookingReference;
+    /**
+     * Run a keyed booking in its own transaction, retried when it loses a lock race. Two concurrent
+     * retries with the same key both find no original; the second insert then hits the unique
+     * idempotency key index and rolls back together with its seat reservation, and replays the
+     * booking of the first one instead.
+     *
+     * @param request creates the booking to store, once per attempt
+     * @throws DuplicateResourceException if the key was used for a different booking
+     */
+    private Booking bookOnce(String entity, Supplier<Booking> request, Function<Booking, Booking> booking) {
+        try {
+            return writeRetry.execute(entity, () -> booking.apply(request.get()));
+        } catch (DataIntegrityViolationException e) {
+            return findOriginal(request.get()).orElseThrow(() -> e);
+        }
     }
 
     /**
@@ -93,8 +204,8 @@ public class BookingService {
      *                                        certification
      */
     @Transactional
-    public String bookCourse(Course course, DiveCertificationHolder user) {
-        return performCourseBooking(course, user);
+    public Booking bookCourse(Course course, DiveCertificationHolder user) {
+        return performCourseBooking(course, List.of(user), new Booking(BookingType.COURSE, course.getId(), 1));
     }
 
     /**
@@ -105,27 +216,201 @@ public class BookingService {
      *                                        certification
      */
     @Transactional
-    public String bookTrip(Trip trip, DiveCertificationHolder user) {
-        return performTripBooking(trip, user);
+    public Booking bookTrip(Trip trip, DiveCertificationHolder user) {
+        return performTripBooking(trip, List.of(user), new Booking(BookingType.TRIP, trip.getId(), 1));
     }
-    // book course and trip for premium and guest users
-    @Transactional
-    public String bookCourse(Course course, PremiumUser user) {
-        return performCourseBooking(course, user);
+    // book course and trip for premium and guest users, a repeated idempotency key returns the original booking.
+    // Each booking commits in a transaction of its own, see bookOnce
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Booking bookCourse(Course course, PremiumUser user, String idempotencyKey) {
+        return bookOnce("course",
+            () -> ownedBy(new Booking(BookingType.COURSE, course.getId(), 1), user, idempotencyKey),
+            request -> performCourseBooking(course, List.of(user), request));
     }
 
-    @Transactional
-    public String bookCourse(Course course, GuestUser guest) {
-        return performCourseBooking(course, guest);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Booking bookCourse(Course course, GuestUser guest, String idempotencyKey) {
+        return bookOnce("course",
+            () -> ownedBy(new Booking(BookingType.COURSE, course.getId(), 1), guest, idempotencyKey),
+            request -> performCourseBooking(course, List.of(guest), request));
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Booking bookTrip(Trip trip, PremiumUser user, String idempotencyKey) {
+        return bookOnce("trip",
+            () -> ownedBy(new Booking(BookingType.TRIP, trip.getId(), 1), user, idempotencyKey),
+            request -> performTripBooking(trip, List.of(user), request));
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Booking bookTrip(Trip trip, GuestUser guest, String idempotencyKey) {
+        return bookOnce("trip",
+            () -> ownedBy(new Booking(BookingType.TRIP, trip.getId(), 1), guest, idempotencyKey),
+            request -> performTripBooking(trip, List.of(guest), request));
+    }
+
+    // ===== GROUP BOOKINGS =====
+    // One booking with one seat per participant: all seats are reserved by a single atomic
+    // capacity update and the booking succeeds or fails as a unit
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Booking bookTripGroup(Trip trip, PremiumUser user, List<GroupBookingRequest.Participant> participants,
+        String idempotencyKey) {
+        return bookOnce("trip",
+            () -> ownedBy(newGroupBooking(BookingType.TRIP, trip.getId(), participants), user, idempotencyKey),
+            request -> performTripBooking(trip, participants, request));
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Booking bookTripGroup(Trip trip, GuestUser guest, List<GroupBookingRequest.Participant> participants,
+        String idempotencyKey) {
+        return bookOnce("trip",
+            () -> ownedBy(newGroupBooking(BookingType.TRIP, trip.getId(), participants), guest, idempotencyKey),
+            request -> performTripBooking(trip, participants, request));
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Booking bookCourseGroup(Course course, PremiumUser user, List<GroupBookingRequest.Participant> participants,
+        String idempotencyKey) {
+        return bookOnce("course",
+            () -> ownedBy(newGroupBooking(BookingType.COURSE, course.getId(), participants), user, idempotencyKey),
+            request -> performCourseBooking(course, participants, request));
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Booking bookCourseGroup(Course course, GuestUser guest, List<GroupBookingRequest.Participant> participants,
+        String idempotencyKey) {
+        return bookOnce("course",
+            () -> ownedBy(newGroupBooking(BookingType.COURSE, course.getId(), participants), guest, idempotencyKey),
+            request -> performCourseBooking(course, participants, request));
+    }
+
+    private Booking newGroupBooking(BookingType type, Long itemId, List<GroupBookingRequest.Participant> participants) {
+        if (participants == null || participants.isEmpty()) {
+            throw new ValidationException("At least one participant is required.");
+        }
+        Booking booking = new Booking(type, itemId, participants.size());
+        booking.setParticipants(participants.stream().map(GroupBookingRequest.Participant::toEntity)
+            .collect(Collectors.toCollection(ArrayList::new)));
+        return booking;
+    }
+
+    private static Booking ownedBy(Booking booking, PremiumUser user, String idempotencyKey) {
+        booking.setPremiumUserId(user.getId());
+        booking.setIdempotencyKey(idempotencyKey);
+        return booking;
+    }
+
+    private static Booking ownedBy(Booking booking, GuestUser guest, String idempotencyKey) {
+        booking.setGuestUserId(guest.getId());
+        booking.setIdempotencyKey(idempotencyKey);
+        return booking;
+    }
+
+    // ===== SEAT HOLDS =====
+    // A hold reserves the seat like a booking but expires unless it is confirmed in time
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Booking holdCourse(Course course, PremiumUser user, String idempotencyKey) {
+        return bookOnce("course",
+            () -> ownedBy(newHold(BookingType.COURSE, course.getId()), user, idempotencyKey),
+            request -> performCourseBooking(course, List.of(user), request));
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Booking holdCourse(Course course, GuestUser guest, String idempotencyKey) {
+        return bookOnce("course",
+            () -> ownedBy(newHold(BookingType.COURSE, course.getId()), guest, idempotencyKey),
+            request -> performCourseBooking(course, List.of(guest), request));
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Booking holdTrip(Trip trip, PremiumUser user, String idempotencyKey) {
+        return bookOnce("trip", () -> ownedBy(newHold(BookingType.TRIP, trip.getId()), user, idempotencyKey),
+            request -> performTripBooking(trip, List.of(user), request));
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Booking holdTrip(Trip trip, GuestUser guest, String idempotencyKey) {
+        return bookOnce("trip", () -> ownedBy(newHold(BookingType.TRIP, trip.getId()), guest, idempotencyKey),
+            request -> performTripBooking(trip, List.of(guest), request));
+    }
+
+    /**
+     * Confirm a seat hold.
+     *
+     * @throws BusinessRuleViolationException if the hold expired or was released
+     */
+    public Booking confirmHold(String reference) {
+        return seatHoldService.confirm(reference);
+    }
+
+    private Booking newHold(BookingType type, Long itemId) {
+        Booking hold = new Booking(type, itemId, 1);
+        hold.setStatus(BookingStatus.HELD);
+        hold.setExpiresAt(seatHoldService.newExpiry());
+        return hold;
+    }
+
+    // ===== WAITLIST PROMOTION =====
+
+    /**
+     * Book one freed seat for a premium user promoted from the waitlist. Certification was
+     * checked when the user joined the waitlist.
+     *
+     * @return the confirmed booking, or empty if the seat was taken in the meantime
+     */
     @Transactional
-    public String bookTrip(Trip trip, PremiumUser user) {
-        return performTripBooking(trip, user);
+    public Optional<Booking> bookFromWaitlist(BookingType type, Long itemId, Long premiumUserId) {
+        if (!seatInventory.reserve(type, itemId, 1)) {
+            return Optional.empty();
+        }
+        Booking booking = new Booking(type, itemId, 1);
+        booking.setPremiumUserId(premiumUserId);
+        booking.setReference(generateBookingReference(type));
+        Booking saved = bookingRepo.save(booking);
+        logger.info("{} booked from the waitlist with reference: {}", type.getDisplayName(), saved.getReference());
+        return Optional.of(saved);
+    }
+
+    // ===== BOOKING LEDGER =====
+
+    @Transactional(readOnly = true)
+    public Booking getBookingByReference(String reference) {
+        return bookingRepo.findByReference(reference)
+            .orElseThrow(() -> ResourceNotFoundException.create("Booking", "reference", reference));
+    }
+
+    @Transactional(readOnly = true)
+    public Booking getBookingByIdempotencyKey(String idempotencyKey) {
+        return bookingRepo.findByIdempotencyKey(idempotencyKey)
+            .orElseThrow(() -> ResourceNotFoundException.create("Booking", "idempotency key", idempotencyKey));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Booking> getBookingsForUser(PremiumUser user, int limit) {
+        return bookingRepo.findByPremiumUserIdOrderByCreatedAtDesc(user.getId(), PageRequest.of(0, limit));
     }
 
+    /**
+     * Cancel a booking or release a hold by its reference, releasing exactly the seats it holds.
+     * Cancelling an already cancelled or expired booking is a no-op.
+     */
     @Transactional
-    public String bookTrip(Trip trip, GuestUser guest) {
-        return performTripBooking(trip, guest);
+    public Booking cancelBooking(String reference) {
+        Booking booking = getBookingByReference(reference);
+        BookingStatus previous = booking.getStatus();
+        // Conditional status change, so a concurrent expiry or cancel cannot release the seats twice
+        if (!previous.holdsSeats()
+            || bookingRepo.transition(reference, previous, BookingStatus.CANCELLED, LocalDateTime.now()) == 0) {
+            return getBookingByReference(reference);
+        }
+
+        seatInventory.release(booking.getType(), booking.getItemId(), booking.getSeats());
+        if (previous == BookingStatus.HELD) {
+            seatHoldService.untrack(reference);
+        }
+        logger.info("Booking {} cancelled, {} seat(s) released", reference, booking.getSeats());
+        return getBookingByReference(reference);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,72 @@
+package ch.oceandive.service;
+
+import ch.oceandive.dto.BulkActionReport.Outcome;
+import ch.oceandive.utils.BulkAction;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.ToIntFunction;
+
+/**
+ * Planning shared by the trip and course bulk actions: which of the selected ids the set-based
+ * statement has to touch, and the outcome of the others, decided from one state query.
+ */
+final class BulkActions {
+
+  private BulkActions() {
+  }
+
+  // Selected ids without nulls and duplicates, in selection order
+  static List<Long> selection(Collection<Long> ids) {
+    List<Long> selected = ids == null ? List.of()
+        : new ArrayList<>(new LinkedHashSet<>(ids.stream().filter(Objects::nonNull).toList()));
+    if (selected.isEmpty()) {
+      throw new IllegalArgumentException("No items selected");
+    }
+    return selected;
+  }
+
+  /**
+   * Outcome per selected id; the ids to change are the {@link Outcome#APPLIED} ones.
+   *
+   * @param states         rows of (id, status, featured, currentBookings) of the selected ids
+   * @param inMemoryBooked seats booked on an id per the seat inventory, ahead of the stored
+   *                       count until the next flush (0 when not tracked); for the delete action
+   */
+  static Map<Long, Outcome> plan(BulkAction action, List<Long> selected, List<Object[]> states,
+      ToIntFunction<Long> inMemoryBooked) {
+    if (action == BulkAction.REORDER) {
+      throw new IllegalArgumentException("Reordering needs the new order of the items");
+    }
+    Map<Long, Object[]> stateById = new HashMap<>();
+    for (Object[] row : states) {
+      stateById.put(((Number) row[0]).longValue(), row);
+    }
+    Map<Long, Outcome> outcomes = new LinkedHashMap<>();
+    for (Long id : selected) {
+      Object[] state = stateById.get(id);
+      outcomes.put(id, state == null ? Outcome.NOT_FOUND : outcome(action, id, state, inMemoryBooked));
+    }
+    return outcomes;
+  }
+
+  static List<Long> applied(Map<Long, Outcome> outcomes) {
+    return outcomes.entrySet().stream().filter(entry -> entry.getValue() == Outcome.APPLIED)
+        .map(Map.Entry::getKey).toList();
+  }
+
+  private static Outcome outcome(BulkAction action, Long id, Object[] state, ToIntFunction<Long> inMemoryBooked) {
+    return switch (action) {
+      case FEATURE, UNFEATURE -> Boolean.valueOf(action == BulkAction.FEATURE).equals(state[2])
+          ? Outcome.UNCHANGED : Outcome.APPLIED;
+      case DELETE -> ((Number) state[3]).intValue() > 0 || inMemoryBooked.applyAsInt(id) > 0
+          ? Outcome.HAS_BOOKINGS : Outcome.APPLIED;
+      default -> action.getTargetStatus() == state[1] ? Outcome.UNCHANGED : Outcome.APPLIED;
+    };
+  }
+}
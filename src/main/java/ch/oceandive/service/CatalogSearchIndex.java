@@ -0,0 +1,207 @@
+package ch.oceandive.service;
+
+import ch.oceandive.event.CourseChangedEvent;
+import ch.oceandive.event.TripChangedEvent;
+import ch.oceandive.model.Course;
+import ch.oceandive.model.Trip;
+import ch.oceandive.repository.CourseRepo;
+import ch.oceandive.repository.TripRepo;
+import ch.oceandive.utils.InvertedIndex;
+import ch.oceandive.utils.InvertedIndex.Hits;
+import ch.oceandive.utils.PublicationStatus;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Full-text search over trips and courses, replacing the {@code LIKE '%term%'} queries.
+ * <p>
+ * Trips are indexed by location, short description and description (published trips only, like
+ * the public catalog), courses by name, short description and description (every status, the
+ * admin search needs drafts too). The indexes are loaded once at startup and then updated one
+ * document at a time from the {@link TripChangedEvent}s and {@link CourseChangedEvent}s of the
+ * admin writes, after their transaction committed; an event of a bulk action reindexes its type.
+ */
+@Component
+public class CatalogSearchIndex {
+
+  private static final Logger logger = LoggerFactory.getLogger(CatalogSearchIndex.class);
+
+  // Field positions, location and name weigh most
+  private static final int TRIP_LOCATION = 0;
+  private static final int COURSE_NAME = 0;
+
+  private final TripRepo tripRepo;
+  private final CourseRepo courseRepo;
+  private final TransactionTemplate readTransaction;
+  private final InvertedIndex trips = new InvertedIndex(3f, 2f, 1f);
+  private final InvertedIndex courses = new InvertedIndex(3f, 2f, 1f);
+  private final Map<Long, PublicationStatus> courseStatus = new HashMap<>();
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private volatile boolean loaded;
+
+  public CatalogSearchIndex(TripRepo tripRepo, CourseRepo courseRepo,
+      PlatformTransactionManager transactionManager) {
+    this.tripRepo = tripRepo;
+    this.courseRepo = courseRepo;
+    // Own transaction: updates run from after-commit callbacks of admin writes
+    this.readTransaction = new TransactionTemplate(transactionManager);
+    this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.readTransaction.setReadOnly(true);
+  }
+
+  // Published trips matching the text in any field, best match first
+  public Hits searchTrips(String text, int limit) {
+    return search(trips, text, -1, null, limit);
+  }
+
+  // Published trips whose location matches the text, best match first
+  public Hits searchTripLocations(String text, int limit) {
+    return search(trips, text, InvertedIndex.fields(TRIP_LOCATION), null, limit);
+  }
+
+  /**
+   * Courses matching the text, best match first.
+   *
+   * @param publishedOnly skip drafts and archived courses
+   * @param nameOnly      match the course name only
+   */
+  public Hits searchCourses(String text, boolean publishedOnly, boolean nameOnly, int limit) {
+    return search(courses, text, nameOnly ? InvertedIndex.fields(COURSE_NAME) : -1,
+        publishedOnly ? this::isPublishedCourse : null, limit);
+  }
+
+  private Hits search(InvertedIndex index, String text, int fieldMask, LongPredicate filter, int limit) {
+    ensureLoaded();
+    lock.readLock().lock();
+    try {
+      return index.search(text, fieldMask, filter, limit);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  // Called under the read lock
+  private boolean isPublishedCourse(long id) {
+    return courseStatus.get(id) == PublicationStatus.PUBLISHED;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Order(1)
+  public void warmUp() {
+    ensureLoaded();
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onTripChanged(TripChangedEvent event) {
+    ensureLoaded();
+    if (event.tripId() == null) {
+      reloadTrips();
+      return;
+    }
+    Trip trip = readTransaction.execute(status -> tripRepo.findById(event.tripId()).orElse(null));
+    lock.writeLock().lock();
+    try {
+      if (trip != null && trip.getStatus() == PublicationStatus.PUBLISHED) {
+        indexTrip(trip);
+      } else {
+        trips.remove(event.tripId());
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onCourseChanged(CourseChangedEvent event) {
+    ensureLoaded();
+    if (event.courseId() == null) {
+      reloadCourses();
+      return;
+    }
+    Course course = readTransaction.execute(status -> courseRepo.findById(event.courseId()).orElse(null));
+    lock.writeLock().lock();
+    try {
+      if (course != null) {
+        indexCourse(course);
+      } else {
+        courses.remove(event.courseId());
+        courseStatus.remove(event.courseId());
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void ensureLoaded() {
+    if (loaded) {
+      return;
+    }
+    lock.writeLock().lock();
+    try {
+      if (loaded) {
+        return;
+      }
+      long started = System.nanoTime();
+      readTransaction.executeWithoutResult(status -> {
+        List<Trip> published = tripRepo.findByStatusOrderByDisplayOrderAsc(PublicationStatus.PUBLISHED);
+        published.forEach(this::indexTrip);
+        courseRepo.findAll().forEach(this::indexCourse);
+      });
+      loaded = true;
+      logger.info("Search index loaded with {} trips and {} courses in {} ms", trips.size(), courses.size(),
+          (System.nanoTime() - started) / 1_000_000);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  // Several trips changed at once (bulk action): index the published trips again
+  private void reloadTrips() {
+    List<Trip> published = readTransaction.execute(status ->
+        tripRepo.findByStatusOrderByDisplayOrderAsc(PublicationStatus.PUBLISHED));
+    lock.writeLock().lock();
+    try {
+      trips.clear();
+      published.forEach(this::indexTrip);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  // Several courses changed at once (bulk action): index all courses again
+  private void reloadCourses() {
+    List<Course> all = readTransaction.execute(status -> courseRepo.findAll());
+    lock.writeLock().lock();
+    try {
+      courses.clear();
+      courseStatus.clear();
+      all.forEach(this::indexCourse);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  // Called under the write lock
+  private void indexTrip(Trip trip) {
+    trips.put(trip.getId(), trip.getLocation(), trip.getShortDescription(), trip.getDescription());
+  }
+
+  // Called under the write lock
+  private void indexCourse(Course course) {
+    courses.put(course.getId(), course.getName(), course.getShortDescription(), course.getDescription());
+    courseStatus.put(course.getId(), course.getStatus());
+  }
+}
@@ -0,0 +1,102 @@
+package ch.oceandive.service;
+
+import ch.oceandive.event.CourseChangedEvent;
+import ch.oceandive.event.SeatsFlushedEvent;
+import ch.oceandive.event.SeatsReleasedEvent;
+import ch.oceandive.event.SeatsReservedEvent;
+import ch.oceandive.utils.BookingType;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Versions of the public trip and course data, for HTTP validators (ETag, Last-Modified) that are
+ * checked before any repository call.
+ * <p>
+ * Trips use the version of the {@link TripCatalog}. Courses have a counter of their own, bumped
+ * after every committed course write, seat change and seat flush. Tags carry a random id of this
+ * application start, so a restarted or second instance never hands out a tag it did not issue.
+ */
+@Component
+public class CatalogVersions {
+
+  private final String instance = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+  private final TripCatalog tripCatalog;
+  private final AtomicLong courses = new AtomicLong();
+  private volatile long coursesLastModified = System.currentTimeMillis();
+
+  public CatalogVersions(TripCatalog tripCatalog) {
+    this.tripCatalog = tripCatalog;
+  }
+
+  // Changes with any trip
+  public String tripsTag() {
+    return "t-" + instance + "-" + tripCatalog.version();
+  }
+
+  public long tripsLastModified() {
+    return tripCatalog.lastModified();
+  }
+
+  // Changes with the published trip only, null if the slug is not a published trip
+  public String tripTag(String slug) {
+    String version = tripCatalog.tripVersion(slug);
+    return version == null ? null : "t-" + instance + "-" + version;
+  }
+
+  // Same as tripTag(String), by id
+  public String tripTag(Long id) {
+    String version = tripCatalog.tripVersion(id);
+    return version == null ? null : "t-" + instance + "-" + version;
+  }
+
+  // Changes with any course
+  public String coursesTag() {
+    return "c-" + instance + "-" + courses.get();
+  }
+
+  public long coursesLastModified() {
+    return coursesLastModified;
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onCourseChanged(CourseChangedEvent event) {
+    coursesChanged();
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSeatsReserved(SeatsReservedEvent event) {
+    if (event.type() == BookingType.COURSE) {
+      coursesChanged();
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSeatsReleased(SeatsReleasedEvent event) {
+    if (event.type() == BookingType.COURSE) {
+      coursesChanged();
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSeatsFlushed(SeatsFlushedEvent event) {
+    if (event.courses()) {
+      coursesChanged();
+    }
+  }
+
+  // Safety net for course changes that bypass the course service (other instances, manual SQL)
+  @Scheduled(fixedDelayString = "${app.catalog.refresh-interval-ms:300000}",
+      initialDelayString = "${app.catalog.refresh-interval-ms:300000}")
+  public void expireCourses() {
+    coursesChanged();
+  }
+
+  // Runs after the change committed, so a reader that sees the new tag also reads the new data
+  private void coursesChanged() {
+    coursesLastModified = System.currentTimeMillis();
+    courses.incrementAndGet();
+  }
+}
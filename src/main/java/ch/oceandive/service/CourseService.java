@@ -1,22 +1,43 @@
 package ch.oceandive.service;
 
+import ch.oceandive.dto.BulkActionReport;
+import ch.oceandive.dto.BulkActionReport.Outcome;
+import ch.oceandive.dto.CourseCard;
+import ch.oceandive.dto.KeysetPage;
+import ch.oceandive.dto.SeatAvailability;
+import ch.oceandive.event.CourseChangedEvent;
 import ch.oceandive.exceptionHandler.ResourceNotFoundException;
 import ch.oceandive.model.Course;
+import ch.oceandive.utils.BookingType;
+import ch.oceandive.utils.BulkAction;
+import ch.oceandive.utils.PageCursor;
 import ch.oceandive.utils.PublicationStatus;
+import ch.oceandive.utils.SlugAllocator;
 import ch.oceandive.utils.DiveCertification;
 import ch.oceandive.repository.CourseRepo;
+import ch.oceandive.utils.InvertedIndex.Hits;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 
 @Service
@@ -27,10 +48,24 @@ public class CourseService {
 
     private final CourseRepo courseRepo;
     private final CertificationValidationService certificationValidator;
-
-    public CourseService(CourseRepo courseRepo, CertificationValidationService certificationValidator) {
+    private final SeatInventory seatInventory;
+    private final WriteRetryExecutor writeRetry;
+    private final CatalogSearchIndex searchIndex;
+    private final SlugRegistry slugRegistry;
+    private final WaitlistService waitlistService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public CourseService(CourseRepo courseRepo, CertificationValidationService certificationValidator,
+        SeatInventory seatInventory, WriteRetryExecutor writeRetry, CatalogSearchIndex searchIndex,
+        SlugRegistry slugRegistry, WaitlistService waitlistService, ApplicationEventPublisher eventPublisher) {
         this.courseRepo = courseRepo;
         this.certificationValidator = certificationValidator;
+        this.seatInventory = seatInventory;
+        this.writeRetry = writeRetry;
+        this.searchIndex = searchIndex;
+        this.slugRegistry = slugRegistry;
+        this.waitlistService = waitlistService;
+        this.eventPublisher = eventPublisher;
     }
 
 
@@ -82,9 +117,10 @@ public class CourseService {
     }
 
 
-    //  Get courses by name (case-insensitive, partial match).
+    //  Get courses by name (full-text: case and accent insensitive, words match as prefixes), best match first.
     public List<Course> getCoursesByName(String name) {
-        return courseRepo.findByNameContainingIgnoreCase(name);
+        Hits hits = searchIndex.searchCourses(name, false, true, Integer.MAX_VALUE);
+        return findInOrder(hits.ids());
     }
 
 
@@ -103,7 +139,7 @@ public class CourseService {
 
 
      // Book a course if the user has adequate certification.
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Course enrollInCourseWithCertification(Long courseId, DiveCertification userCertification) {
         if (!canEnrollInCourse(courseId, userCertification)) {
             throw new IllegalStateException("User does not have required certification for this course");
@@ -111,16 +147,30 @@ public class CourseService {
         return enrollInCourse(courseId);
     }
      // Enroll in a course.
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Course enrollInCourse(Long courseId) {
-        Course course = getCourseById(courseId);
+        return writeRetry.execute("course", () -> {
+            // Atomic check-and-reserve, so concurrent enrollments cannot oversell the course
+            if (!seatInventory.reserve(BookingType.COURSE, courseId, 1)) {
+                getCourseById(courseId);
+                throw new IllegalStateException("Course is fully booked");
+            }
+            return getCourseById(courseId);
+        });
+    }
 
-        if (course.getCurrentBookings() >= course.getCapacity()) {
-            throw new IllegalStateException("Course is fully booked");
-        }
+    // Seat availability of a course, including seats currently on hold.
+    public SeatAvailability getCourseAvailability(Long courseId) {
+        return seatInventory.availability(BookingType.COURSE, courseId);
+    }
 
-        course.setCurrentBookings(course.getCurrentBookings() + 1);
-        return courseRepo.save(course);
+    // Release an enrollment seat on a course.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Course cancelEnrollment(Long courseId) {
+        return writeRetry.execute("course", () -> {
+            seatInventory.release(BookingType.COURSE, courseId, 1);
+            return getCourseById(courseId);
+        });
     }
 
 
@@ -130,7 +180,9 @@ public class CourseService {
         if (course == null) {
             throw new IllegalArgumentException("Course cannot be null");
         }
-        return courseRepo.save(course);
+        Course savedCourse = courseRepo.save(course);
+        eventPublisher.publishEvent(new CourseChangedEvent(savedCourse.getId()));
+        return savedCourse;
     }
 
     // Delete a course by ID.
@@ -138,6 +190,9 @@ public class CourseService {
     public void deleteCourse(Long id) {
         Course course = getCourseById(id);
         courseRepo.delete(course);
+        seatInventory.evict(BookingType.COURSE, id);
+        waitlistService.closeQueues(BookingType.COURSE, List.of(id));
+        eventPublisher.publishEvent(new CourseChangedEvent(id));
     }
     // Get featured courses for homepage display.
     public List<Course> getFeaturedCourses(int limit) {
@@ -146,9 +201,14 @@ public class CourseService {
             PublicationStatus.PUBLISHED, true, pageable).getContent();
     }
 
-    // Get course by slug for SEO-friendly URLs.
+    // Get course by slug for SEO-friendly URLs. The slug resolves in memory, unknown slugs never reach the database.
     public Optional<Course> getCourseBySlug(String slug) {
-        return courseRepo.findBySlugAndStatus(slug, PublicationStatus.PUBLISHED);
+        if (!slugRegistry.isLoaded()) {
+            return courseRepo.findBySlugAndStatus(slug, PublicationStatus.PUBLISHED);
+        }
+        Long id = slugRegistry.courseId(slug);
+        return id == null ? Optional.empty() : courseRepo.findById(id)
+            .filter(course -> course.getStatus() == PublicationStatus.PUBLISHED && slug.equals(course.getSlug()));
     }
    //  Get available courses (published, not full, future dates).
   public List<Course> getAvailableCourses() {
@@ -163,9 +223,9 @@ public class CourseService {
     public List<Course> getUpcomingCourses() {
         return courseRepo.findUpcomingCourses(PublicationStatus.PUBLISHED, LocalDate.now());
     }
-     // Search published courses.
+     // Search published courses (full-text over name and descriptions), best match first.
     public Page<Course> searchPublishedCourses(String searchTerm, Pageable pageable) {
-        return courseRepo.searchCourses(searchTerm, PublicationStatus.PUBLISHED, pageable);
+        return searchPage(searchTerm, true, pageable);
     }
 
 
@@ -174,10 +234,88 @@ public class CourseService {
         return courseRepo.findAllForAdmin(null, pageable);
     }
 
+    /**
+     * Get all courses for admin one keyset page at a time, newest first.
+     * @param cursor nextCursor of the previous page, null for the first page
+     * @param withTotal also count all courses
+     * @throws IllegalArgumentException if the cursor is not one of ours
+     */
+    public KeysetPage<Course> getAllCoursesForAdmin(String cursor, int size, boolean withTotal) {
+        int pageSize = Math.max(1, size);
+        // One extra row tells whether there is a next page
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<Course> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = courseRepo.findFirstForAdmin(limit);
+        } else {
+            CoursePosition after = PageCursor.decode(cursor, 2, keys ->
+                new CoursePosition(LocalDateTime.parse(keys[0]), Long.parseLong(keys[1])));
+            rows = courseRepo.findForAdminAfter(after.createdAt(), after.id(), limit);
+        }
+        return KeysetPage.of(rows, pageSize, this::cursorAfter, withTotal ? courseRepo.count() : null);
+    }
+
+    // Cursor of the admin course list position right after the given course
+    public String cursorAfter(Course course) {
+        return PageCursor.encode(course.getCreatedAt(), course.getId());
+    }
+
 
-     // Search all courses for admin.
+     // Search all courses for admin (full-text over name and descriptions), best match first.
     public Page<Course> searchCoursesForAdmin(String searchTerm, Pageable pageable) {
-        return courseRepo.findAllForAdmin(searchTerm, pageable);
+        return searchPage(searchTerm, false, pageable);
+    }
+
+    // Rank with the search index, then load only the courses of the requested page
+    private Page<Course> searchPage(String searchTerm, boolean publishedOnly, Pageable pageable) {
+        int limit = pageable.isPaged()
+            ? (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize())
+            : Integer.MAX_VALUE;
+        Hits hits = searchIndex.searchCourses(searchTerm, publishedOnly, false, limit);
+        List<Long> ids = hits.ids();
+        List<Long> pageIds = pageable.isPaged()
+            ? ids.subList((int) Math.min(pageable.getOffset(), ids.size()), ids.size())
+            : ids;
+        return new PageImpl<>(findInOrder(pageIds), pageable, hits.total());
+    }
+
+    // ===== LIST CARDS =====
+    // The list endpoints return CourseCards, selected from the database without the other columns.
+
+    public List<CourseCard> getAllCourseCards() {
+        return courseRepo.findAllCards();
+    }
+
+    public List<CourseCard> getCourseCardsByStartDateAfter(LocalDate date) {
+        if (date == null) {
+            throw new IllegalArgumentException("Date cannot be null");
+        }
+        return courseRepo.findCardsByStartDateAfter(date);
+    }
+
+    public List<CourseCard> getCourseCardsByStartDateBetween(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null) {
+            throw new IllegalArgumentException("Start and end dates cannot be null");
+        }
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date must be before end date");
+        }
+        return courseRepo.findCardsByStartDateBetween(startDate, endDate);
+    }
+
+    // Courses whose name matches (full-text), best match first
+    public List<CourseCard> getCourseCardsByName(String name) {
+        List<Long> ids = searchIndex.searchCourses(name, false, true, Integer.MAX_VALUE).ids();
+        Map<Long, CourseCard> byId = courseRepo.findCardsByIdIn(ids).stream()
+            .collect(Collectors.toMap(CourseCard::id, Function.identity()));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    // Courses by id, in the order of the ids (search rank)
+    private List<Course> findInOrder(List<Long> ids) {
+        Map<Long, Course> byId = courseRepo.findAllById(ids).stream()
+            .collect(Collectors.toMap(Course::getId, Function.identity()));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
     }
 
 
@@ -203,71 +341,79 @@ public class CourseService {
         }
 
         logger.info("Creating new course: {} with slug: {}", course.getName(), course.getSlug());
-        return courseRepo.save(course);
+        Course savedCourse = courseRepo.save(course);
+        eventPublisher.publishEvent(new CourseChangedEvent(savedCourse.getId()));
+        return savedCourse;
     }
 
-// Update an existing course by ID.
-    @Transactional
+// Update an existing course by ID. Each attempt runs in its own transaction and re-reads the
+// course, so an edit that raced with a booking is re-applied instead of overwriting the seat count.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Course adminUpdateCourse(Long id, Course courseDetails) {
-        Course existingCourse = getCourseById(id);
-
-        // Update fields that are provided
-        if (courseDetails.getName() != null) {
-            existingCourse.setName(courseDetails.getName());
-            // Update slug if name changed
-            if (courseDetails.getSlug() == null) {
-                existingCourse.setSlug(ensureUniqueSlug(
-                    existingCourse.generateSlug(courseDetails.getName()), id));
+        return writeRetry.execute("course", () -> {
+            Course existingCourse = getCourseById(id);
+
+            // Update fields that are provided
+            if (courseDetails.getName() != null) {
+                existingCourse.setName(courseDetails.getName());
+                // Update slug if name changed
+                if (courseDetails.getSlug() == null) {
+                    existingCourse.setSlug(ensureUniqueSlug(
+                        existingCourse.generateSlug(courseDetails.getName()), id));
+                }
             }
-        }
 
-        if (courseDetails.getDescription() != null) {
-            existingCourse.setDescription(courseDetails.getDescription());
-        }
+            if (courseDetails.getDescription() != null) {
+                existingCourse.setDescription(courseDetails.getDescription());
+            }
 
-        if (courseDetails.getShortDescription() != null) {
-            existingCourse.setShortDescription(courseDetails.getShortDescription());
-        }
+            if (courseDetails.getShortDescription() != null) {
+                existingCourse.setShortDescription(courseDetails.getShortDescription());
+            }
 
-        if (courseDetails.getPrice() != null) {
-            existingCourse.setPrice(courseDetails.getPrice());
-        }
+            if (courseDetails.getPrice() != null) {
+                existingCourse.setPrice(courseDetails.getPrice());
+            }
 
-        if (courseDetails.getStartDate() != null) {
-            existingCourse.setStartDate(courseDetails.getStartDate());
-        }
+            if (courseDetails.getStartDate() != null) {
+                existingCourse.setStartDate(courseDetails.getStartDate());
+            }
 
-        if (courseDetails.getEndDate() != null) {
-            existingCourse.setEndDate(courseDetails.getEndDate());
-        }
+            if (courseDetails.getEndDate() != null) {
+                existingCourse.setEndDate(courseDetails.getEndDate());
+            }
 
-        if (courseDetails.getCapacity() != null) {
-            validateCapacityChange(existingCourse, courseDetails.getCapacity());
-            existingCourse.setCapacity(courseDetails.getCapacity());
-        }
+            if (courseDetails.getCapacity() != null) {
+                validateCapacityChange(existingCourse, courseDetails.getCapacity());
+                existingCourse.setCapacity(courseDetails.getCapacity());
+            }
 
-        if (courseDetails.getImageUrl() != null) {
-            existingCourse.setImageUrl(courseDetails.getImageUrl());
-        }
+            if (courseDetails.getImageUrl() != null) {
+                existingCourse.setImageUrl(courseDetails.getImageUrl());
+            }
 
-        if (courseDetails.getMinCertificationRequired() != null) {
-            existingCourse.setMinCertificationRequired(courseDetails.getMinCertificationRequired());
-        }
+            if (courseDetails.getMinCertificationRequired() != null) {
+                existingCourse.setMinCertificationRequired(courseDetails.getMinCertificationRequired());
+            }
 
-        if (courseDetails.getStatus() != null) {
-            existingCourse.setStatus(courseDetails.getStatus());
-        }
+            if (courseDetails.getStatus() != null) {
+                existingCourse.setStatus(courseDetails.getStatus());
+            }
 
-        if (courseDetails.getFeatured() != null) {
-            existingCourse.setFeatured(courseDetails.getFeatured());
-        }
+            if (courseDetails.getFeatured() != null) {
+                existingCourse.setFeatured(courseDetails.getFeatured());
+            }
 
-        if (courseDetails.getDisplayOrder() != null) {
-            existingCourse.setDisplayOrder(courseDetails.getDisplayOrder());
-        }
+            if (courseDetails.getDisplayOrder() != null) {
+                existingCourse.setDisplayOrder(courseDetails.getDisplayOrder());
+            }
 
-        logger.info("Updating course: {} (ID: {})", existingCourse.getName(), id);
-        return courseRepo.save(existingCourse);
+            logger.info("Updating course: {} (ID: {})", existingCourse.getName(), id);
+            Course savedCourse = courseRepo.saveAndFlush(existingCourse);
+            seatInventory.refresh(BookingType.COURSE, id);
+            eventPublisher.publishEvent(new CourseChangedEvent(id));
+            return savedCourse;
+        });
     }
 
 
@@ -290,8 +436,82 @@ public class CourseService {
         course.setStatus(status);
         logger.info("Changed course status: {} (ID: {}) from {} to {}",
             course.getName(), courseId, oldStatus, status);
-        return courseRepo.save(course);
+        Course savedCourse = courseRepo.save(course);
+        eventPublisher.publishEvent(new CourseChangedEvent(courseId));
+        return savedCourse;
+    }
+
+    // Apply a bulk action to the selected courses in one transaction: one query reads their state and
+    // one set-based statement changes the ones that need it. Courses with bookings are not deleted.
+    @Transactional
+    public BulkActionReport bulkAction(BulkAction action, Collection<Long> ids) {
+        List<Long> selected = BulkActions.selection(ids);
+        Map<Long, Outcome> outcomes = BulkActions.plan(action, selected, courseRepo.findBulkStates(selected),
+            id -> Objects.requireNonNullElse(seatInventory.bookedSeats(BookingType.COURSE, id), 0));
+        List<Long> targets = BulkActions.applied(outcomes);
+
+        if (!targets.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            int changed = switch (action) {
+                case FEATURE, UNFEATURE -> courseRepo.updateFeatured(targets, action == BulkAction.FEATURE, now);
+                case DELETE -> courseRepo.deleteUnbooked(targets);
+                default -> courseRepo.updateStatus(targets, action.getTargetStatus(), now);
+            };
+            if (action == BulkAction.DELETE) {
+                // Courses booked since the state query are still there
+                if (changed < targets.size()) {
+                    courseRepo.findBulkStates(targets).forEach(row ->
+                        outcomes.put(((Number) row[0]).longValue(), Outcome.HAS_BOOKINGS));
+                }
+                List<Long> deleted = BulkActions.applied(outcomes);
+                deleted.forEach(id -> seatInventory.evict(BookingType.COURSE, id));
+                waitlistService.closeQueues(BookingType.COURSE, deleted);
+            }
+            // One event for the whole batch: the listeners reload once instead of once per course
+            eventPublisher.publishEvent(new CourseChangedEvent(targets.size() == 1 ? targets.get(0) : null));
+        }
+
+        BulkActionReport report = new BulkActionReport(action, outcomes);
+        logger.info("Bulk action {} on {} courses: {}", action, selected.size(), report.summary("courses"));
+        return report;
+    }
+
+    // Rewrite the display order of the given courses to their position in the list (1, 2, ...), the
+    // changed courses in one JDBC batch. Versioned updates: a racing booking makes the attempt retry.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkActionReport reorderCourses(List<Long> orderedIds) {
+        List<Long> selected = BulkActions.selection(orderedIds);
+        return writeRetry.execute("course", () -> {
+            Map<Long, Course> coursesById = courseRepo.findAllById(selected).stream()
+                .collect(Collectors.toMap(Course::getId, Function.identity()));
+
+            Map<Long, Outcome> outcomes = new LinkedHashMap<>();
+            int position = 1;
+            for (Long id : selected) {
+                Course course = coursesById.get(id);
+                if (course == null) {
+                    outcomes.put(id, Outcome.NOT_FOUND);
+                    continue;
+                }
+                if (course.getDisplayOrder() != null && course.getDisplayOrder() == position) {
+                    outcomes.put(id, Outcome.UNCHANGED);
+                } else {
+                    course.setDisplayOrder(position);
+                    outcomes.put(id, Outcome.APPLIED);
+                }
+                position++;
+            }
+            courseRepo.flush();
+
+            List<Long> moved = BulkActions.applied(outcomes);
+            if (!moved.isEmpty()) {
+                eventPublisher.publishEvent(new CourseChangedEvent(moved.size() == 1 ? moved.get(0) : null));
+            }
+            logger.info("Reordered courses: {} of {} moved", moved.size(), selected.size());
+            return new BulkActionReport(BulkAction.REORDER, outcomes);
+        });
     }
+
     // Helper methods for validation and slug management.
     private void validateCourseData(Course course) {
         if (course.getName() == null || course.getName().trim().isEmpty()) {
@@ -331,25 +551,19 @@ public class CourseService {
         }
     }
 
+    // The slug, or the slug with the lowest free "-n" suffix, found with one prefix query
     private String ensureUniqueSlug(String baseSlug, Long excludeId) {
         if (baseSlug == null) return null;
+        return SlugAllocator.firstFree(baseSlug, courseRepo.findSlugsWithBase(baseSlug, excludeId));
+    }
 
-        String slug = baseSlug;
-        int counter = 1;
-
-        boolean exists = excludeId != null
-            ? courseRepo.existsBySlugAndIdNot(slug, excludeId)
-            : courseRepo.existsBySlug(slug);
-
-        while (exists) {
-            slug = baseSlug + "-" + counter;
-            exists = excludeId != null
-                ? courseRepo.existsBySlugAndIdNot(slug, excludeId)
-                : courseRepo.existsBySlug(slug);
-            counter++;
-        }
+    // Most recently created courses, for the homepage when none are featured.
+    public List<Course> getNewestCourses(int limit) {
+        return courseRepo.findFirstForAdmin(PageRequest.of(0, limit));
+    }
 
-        return slug;
+    public long getCourseCount() {
+        return courseRepo.count();
     }
 
     // Methods for the admin dashboard.
@@ -361,4 +575,8 @@ public class CourseService {
         Long spots = courseRepo.countAvailableSpots(PublicationStatus.PUBLISHED, LocalDate.now());
         return spots != null ? spots : 0L;
     }
-}
\ No newline at end of file
+
+    // Sort key of a course in the admin list
+    private record CoursePosition(LocalDateTime createdAt, long id) {
+    }
+}
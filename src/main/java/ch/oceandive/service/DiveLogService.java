@@ -44,6 +44,9 @@ public interface DiveLogService {
   // Get all unique locations for a user
   List<String> getUserLocations(PremiumUser user);
 
+  // Autocomplete the user's dive sites, most dived first
+  List<String> suggestUserLocations(PremiumUser user, String prefix, int limit);
+
   // Validate a dive log DTO
   String validate(DiveLogDTO diveLogDTO, PremiumUser user, boolean isUpdate);
 }
\ No newline at end of file
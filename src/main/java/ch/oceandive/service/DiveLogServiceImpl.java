@@ -1,6 +1,7 @@
 package ch.oceandive.service;
 
 import ch.oceandive.dto.DiveLogDTO;
+import ch.oceandive.event.DiveSiteChangedEvent;
 import ch.oceandive.exceptionHandler.*;
 import ch.oceandive.exceptionHandler.ResourceNotFoundException.UnauthorizedException;
 import ch.oceandive.model.DiveLog;
@@ -9,6 +10,7 @@ import ch.oceandive.repository.DiveLogRepo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,10 +31,15 @@ public class DiveLogServiceImpl implements DiveLogService {
   private static final Logger logger = LoggerFactory.getLogger(DiveLogServiceImpl.class);
 
   private final DiveLogRepo diveLogRepo;
+  private final DiveSiteSuggestions diveSiteSuggestions;
+  private final ApplicationEventPublisher eventPublisher;
 
   @Autowired
-  public DiveLogServiceImpl(DiveLogRepo diveLogRepo) {
+  public DiveLogServiceImpl(DiveLogRepo diveLogRepo, DiveSiteSuggestions diveSiteSuggestions,
+      ApplicationEventPublisher eventPublisher) {
     this.diveLogRepo = diveLogRepo;
+    this.diveSiteSuggestions = diveSiteSuggestions;
+    this.eventPublisher = eventPublisher;
   }
 
   @Override
@@ -101,8 +108,8 @@ public class DiveLogServiceImpl implements DiveLogService {
     }
 
     try {
-      // Use the new repository method if available, otherwise fall back to the original
-      return diveLogRepo.findDistinctLocationsByUser(user);
+      // Served from the user's dive site trie, loaded once and kept in sync with the writes
+      return diveSiteSuggestions.locations(user.getId());
     } catch (Exception e) {
       // Fallback to the original implementation
       logger.warn("Using fallback method for getUserLocations due to: {}", e.getMessage());
@@ -114,6 +121,16 @@ public class DiveLogServiceImpl implements DiveLogService {
           .collect(Collectors.toList());
     }
   }
+
+  @Override
+  @Transactional(readOnly = true)
+  public List<String> suggestUserLocations(PremiumUser user, String prefix, int limit) {
+    if (user == null) {
+      throw new IllegalArgumentException("User cannot be null");
+    }
+    return diveSiteSuggestions.suggest(user.getId(), prefix, limit);
+  }
+
   @Override
   public DiveLogDTO findByDiveNumberAndUser(Integer diveNumber, PremiumUser user) {
     try {
@@ -151,6 +168,7 @@ public class DiveLogServiceImpl implements DiveLogService {
 
       // Save and return
       DiveLog savedDiveLog = diveLogRepo.save(diveLog);
+      publishSiteChange(user, null, savedDiveLog.getLocation());
       logger.info("Created dive log #{} for user: {}", savedDiveLog.getDiveNumber(), user.getUsername());
 
       return convertToDto(savedDiveLog);
@@ -184,6 +202,7 @@ public class DiveLogServiceImpl implements DiveLogService {
       }
 
       // Update fields
+      String previousLocation = existingDiveLog.getLocation();
       updateEntityFromDTO(existingDiveLog, diveLogDTO);
 
       // Calculate derived properties
@@ -191,6 +210,7 @@ public class DiveLogServiceImpl implements DiveLogService {
 
       // Save and return
       DiveLog updatedDiveLog = diveLogRepo.save(existingDiveLog);
+      publishSiteChange(user, previousLocation, updatedDiveLog.getLocation());
       logger.info("Updated dive log #{} for user: {}", updatedDiveLog.getDiveNumber(), user.getUsername());
 
       return convertToDto(updatedDiveLog);
@@ -219,6 +239,7 @@ public class DiveLogServiceImpl implements DiveLogService {
       }
 
       // Update fields
+      String previousLocation = existingDiveLog.getLocation();
       updateEntityFromDTO(existingDiveLog, diveLogDTO);
 
       // Calculate derived properties
@@ -226,6 +247,7 @@ public class DiveLogServiceImpl implements DiveLogService {
 
       // Save and return
       DiveLog updatedDiveLog = diveLogRepo.save(existingDiveLog);
+      publishSiteChange(user, previousLocation, updatedDiveLog.getLocation());
       logger.info("Updated dive log #{} for user: {}", updatedDiveLog.getDiveNumber(), user.getUsername());
 
       return convertToDto(updatedDiveLog);
@@ -250,6 +272,7 @@ public class DiveLogServiceImpl implements DiveLogService {
       }
 
       diveLogRepo.delete(diveLog);
+      publishSiteChange(user, diveLog.getLocation(), null);
       logger.info("Deleted dive log #{} for user: {}", diveLog.getDiveNumber(), user.getUsername());
     } catch (ResourceNotFoundException | UnauthorizedException e) {
       throw e; // Re-throw these specific exceptions
@@ -268,6 +291,7 @@ public class DiveLogServiceImpl implements DiveLogService {
           .orElseThrow(() -> new ResourceNotFoundException("Dive log not found with dive number: " + diveNumber));
 
       diveLogRepo.delete(diveLog);
+      publishSiteChange(user, diveLog.getLocation(), null);
       logger.info("Deleted dive log #{} for user: {}", diveLog.getDiveNumber(), user.getUsername());
     } catch (ResourceNotFoundException e) {
       throw e; // Re-throw these specific exceptions
@@ -386,6 +410,13 @@ public class DiveLogServiceImpl implements DiveLogService {
 
   // ===== PRIVATE HELPER METHODS =====
 
+  // Tell the dive site autocomplete about a moved, new or removed dive, unless the site stayed
+  private void publishSiteChange(PremiumUser user, String removedLocation, String addedLocation) {
+    if (!Objects.equals(removedLocation, addedLocation)) {
+      eventPublisher.publishEvent(new DiveSiteChangedEvent(user.getId(), removedLocation, addedLocation));
+    }
+  }
+
   /**
    * Safely convert a list of DiveLog entities to DTOs, skipping any that fail conversion
    */
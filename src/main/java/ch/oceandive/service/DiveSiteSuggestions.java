@@ -0,0 +1,149 @@
+package ch.oceandive.service;
+
+import ch.oceandive.event.DiveSiteChangedEvent;
+import ch.oceandive.repository.DiveLogRepo;
+import ch.oceandive.utils.RadixTrie;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Per-user dive site autocomplete, replacing the {@code SELECT DISTINCT location} query per
+ * request.
+ * <p>
+ * Each user's sites live in a {@link RadixTrie} weighted by the number of dives there. A trie is
+ * loaded with one grouped query the first time the user needs it and then kept up to date from
+ * the {@link DiveSiteChangedEvent}s of the dive log writes, after their transaction committed.
+ * Only the most recently used users are kept in memory.
+ */
+@Component
+public class DiveSiteSuggestions {
+
+  private static final Logger logger = LoggerFactory.getLogger(DiveSiteSuggestions.class);
+
+  // Suggestions kept per trie node, the most one autocomplete request returns
+  static final int MAX_SUGGESTIONS = 10;
+  private static final int MAX_CACHED_USERS = 1_000;
+
+  private final DiveLogRepo diveLogRepo;
+  private final TransactionTemplate readTransaction;
+  // Access ordered, so the least recently used user is evicted first
+  private final Map<Long, RadixTrie> sitesByUser = new LinkedHashMap<>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Long, RadixTrie> eldest) {
+      return size() > MAX_CACHED_USERS;
+    }
+  };
+  private final ReentrantLock lock = new ReentrantLock();
+  // Bumped by every change of a user that is not cached, see load()
+  private long changes;
+
+  public DiveSiteSuggestions(DiveLogRepo diveLogRepo, PlatformTransactionManager transactionManager) {
+    this.diveLogRepo = diveLogRepo;
+    // Joins the caller's transaction if there is one
+    this.readTransaction = new TransactionTemplate(transactionManager);
+    this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRED);
+    this.readTransaction.setReadOnly(true);
+  }
+
+  // The user's dive sites in alphabetical order
+  public List<String> locations(Long userId) {
+    RadixTrie sites = sites(userId);
+    lock.lock();
+    try {
+      return sites.values();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  // The user's dive sites starting with the prefix (case and accent insensitive), most dives first
+  public List<String> suggest(Long userId, String prefix, int limit) {
+    RadixTrie sites = sites(userId);
+    lock.lock();
+    try {
+      return sites.suggest(prefix, Math.min(limit, MAX_SUGGESTIONS));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onDiveSiteChanged(DiveSiteChangedEvent event) {
+    lock.lock();
+    try {
+      RadixTrie sites = sitesByUser.get(event.userId());
+      if (sites == null) {
+        // Nothing to update, but a load running right now may have read the old locations
+        changes++;
+        return;
+      }
+      if (event.removedLocation() != null) {
+        sites.add(event.removedLocation(), -1);
+      }
+      if (event.addedLocation() != null) {
+        sites.add(event.addedLocation(), 1);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private RadixTrie sites(Long userId) {
+    lock.lock();
+    try {
+      RadixTrie sites = sitesByUser.get(userId);
+      if (sites != null) {
+        return sites;
+      }
+    } finally {
+      lock.unlock();
+    }
+    return load(userId);
+  }
+
+  /**
+   * Load the user's sites without holding the lock. The trie is cached only if no dive log changed
+   * in the meantime, otherwise it may miss a change that was committed while the query ran.
+   */
+  private RadixTrie load(Long userId) {
+    long changesBefore;
+    lock.lock();
+    try {
+      changesBefore = changes;
+    } finally {
+      lock.unlock();
+    }
+
+    List<Object[]> rows = readTransaction.execute(status -> diveLogRepo.countDivesPerLocationByUser(userId));
+    RadixTrie sites = new RadixTrie(MAX_SUGGESTIONS);
+    if (rows != null) {
+      for (Object[] row : rows) {
+        sites.add((String) row[0], ((Number) row[1]).longValue());
+      }
+    }
+
+    lock.lock();
+    try {
+      RadixTrie cached = sitesByUser.get(userId);
+      if (cached != null) {
+        return cached;
+      }
+      if (changes == changesBefore) {
+        sitesByUser.put(userId, sites);
+      }
+    } finally {
+      lock.unlock();
+    }
+    logger.debug("Loaded {} dive sites of user {}", sites.size(), userId);
+    return sites;
+  }
+}
@@ -1,14 +1,17 @@
 package ch.oceandive.service;
 
 import ch.oceandive.dto.GuestUserDTO;
+import ch.oceandive.dto.KeysetPage;
 import ch.oceandive.exceptionHandler.DuplicateResourceException;
 import ch.oceandive.exceptionHandler.ResourceNotFoundException;
 import ch.oceandive.model.GuestUser;
+import ch.oceandive.utils.PageCursor;
 import ch.oceandive.repository.GuestUserRepo;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -163,4 +166,17 @@ public class GuestUserService {
         return guestUserRepo.findAll(pageable)
                 .map(this::convertToDTO);
     }
+
+    // Get guest users one keyset page at a time, by id; cursor is the nextCursor of the previous page.
+    public KeysetPage<GuestUserDTO> getAllGuestUsers(String cursor, int size, boolean withTotal) {
+        int pageSize = Math.max(1, size);
+        long afterId = cursor == null || cursor.isBlank()
+            ? 0L
+            : PageCursor.decode(cursor, 1, keys -> Long.parseLong(keys[0]));
+        // One extra row tells whether there is a next page
+        List<GuestUser> rows = guestUserRepo.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, pageSize + 1));
+        return KeysetPage.of(rows, pageSize, user -> PageCursor.encode(user.getId()),
+                withTotal ? guestUserRepo.count() : null)
+            .map(this::convertToDTO);
+    }
 }
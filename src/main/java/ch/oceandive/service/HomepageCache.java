@@ -0,0 +1,193 @@
+package ch.oceandive.service;
+
+import ch.oceandive.dto.HomepageData;
+import ch.oceandive.event.CourseChangedEvent;
+import ch.oceandive.event.TripChangedEvent;
+import ch.oceandive.model.Course;
+import ch.oceandive.model.Trip;
+import ch.oceandive.repository.GuestUserRepo;
+import ch.oceandive.repository.PremiumUserRepo;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * The homepage data, served from memory with stale-while-revalidate semantics.
+ * <p>
+ * Requests always get the last loaded {@link HomepageData}, however old; a request that finds it
+ * older than the refresh interval only starts a reload. Loads run on the application task
+ * executor, never on the request thread, and concurrent refreshes share one load. Besides the
+ * interval, trip and course writes (publishing, featuring) trigger a reload once committed; a write
+ * committed while a load is running marks the data dirty, and one more load follows that one.
+ * Only the very first request after startup, before the warm-up load finished, waits for it.
+ */
+@Component
+public class HomepageCache {
+
+  private static final Logger logger = LoggerFactory.getLogger(HomepageCache.class);
+
+  static final int FEATURED_COURSES = 3;
+  static final int FEATURED_TRIPS = 6;
+  static final int UPCOMING_TRIPS = 4;
+  // Newest items shown when nothing is featured
+  private static final int RECENT_ITEMS = 3;
+  private static final long FIRST_LOAD_TIMEOUT_SECONDS = 10;
+
+  private final CourseService courseService;
+  private final TripService tripService;
+  private final PremiumUserRepo premiumUserRepo;
+  private final GuestUserRepo guestUserRepo;
+  private final Executor executor;
+  private final Duration maxAge;
+  private final AtomicReference<CompletableFuture<HomepageData>> inFlight = new AtomicReference<>();
+  // Set by writes, cleared by the load that starts reading after them
+  private final AtomicBoolean dirty = new AtomicBoolean();
+  private volatile HomepageData data;
+
+  public HomepageCache(CourseService courseService, TripService tripService,
+      PremiumUserRepo premiumUserRepo, GuestUserRepo guestUserRepo,
+      @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor executor,
+      @Value("${app.homepage.refresh-interval-ms:60000}") long refreshIntervalMs) {
+    this.courseService = courseService;
+    this.tripService = tripService;
+    this.premiumUserRepo = premiumUserRepo;
+    this.guestUserRepo = guestUserRepo;
+    this.executor = executor;
+    this.maxAge = Duration.ofMillis(refreshIntervalMs);
+  }
+
+  /**
+   * The current homepage data, possibly stale. Starts a background reload when it is older than
+   * the refresh interval.
+   */
+  public HomepageData get() {
+    HomepageData current = data;
+    if (current == null) {
+      return awaitFirstLoad();
+    }
+    if (current.loadedAt().plus(maxAge).isBefore(Instant.now())) {
+      refresh();
+    }
+    return current;
+  }
+
+  /**
+   * Start a background reload, or join the one in flight. Never throws: a failed load keeps the
+   * previous data.
+   */
+  public CompletableFuture<HomepageData> refresh() {
+    CompletableFuture<HomepageData> load = new CompletableFuture<>();
+    CompletableFuture<HomepageData> running = inFlight.compareAndExchange(null, load);
+    if (running != null) {
+      return running;
+    }
+    try {
+      executor.execute(() -> {
+        try {
+          dirty.set(false);
+          HomepageData loaded = load();
+          data = loaded;
+          load.complete(loaded);
+        } catch (RuntimeException e) {
+          logger.error("Failed to load the homepage data, keeping the previous data", e);
+          load.complete(current());
+        } finally {
+          inFlight.compareAndSet(load, null);
+        }
+        // A write joined this load after it had started reading
+        if (dirty.get()) {
+          refresh();
+        }
+      });
+    } catch (RuntimeException e) {
+      // Executor rejected the task (shutting down): let the next request try again
+      inFlight.compareAndSet(load, null);
+      load.complete(current());
+    }
+    return load;
+  }
+
+  // Load before the first visitor, once the catalog is warm
+  @EventListener(ApplicationReadyEvent.class)
+  @Order(3)
+  public void warmUp() {
+    refresh();
+  }
+
+  @Scheduled(fixedDelayString = "${app.homepage.refresh-interval-ms:60000}",
+      initialDelayString = "${app.homepage.refresh-interval-ms:60000}")
+  public void scheduledRefresh() {
+    refresh();
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  @Order(10)
+  public void onTripChanged(TripChangedEvent event) {
+    invalidate();
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onCourseChanged(CourseChangedEvent event) {
+    invalidate();
+  }
+
+  // Flag first: a load already reading sees the flag when it is done and loads once more
+  private void invalidate() {
+    dirty.set(true);
+    refresh();
+  }
+
+  private HomepageData current() {
+    HomepageData current = data;
+    return current != null ? current : HomepageData.empty();
+  }
+
+  private HomepageData awaitFirstLoad() {
+    try {
+      return refresh().get(FIRST_LOAD_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return HomepageData.empty();
+    } catch (Exception e) {
+      logger.warn("Homepage data not loaded yet: {}", e.getMessage());
+      return HomepageData.empty();
+    }
+  }
+
+  // Featured items (newest ones if none are featured) and the totals, from limited and count queries
+  private HomepageData load() {
+    long started = System.nanoTime();
+    List<Course> featuredCourses = courseService.getFeaturedCourses(FEATURED_COURSES);
+    if (featuredCourses.isEmpty()) {
+      featuredCourses = courseService.getNewestCourses(RECENT_ITEMS);
+    }
+    List<Trip> featuredTrips = tripService.getFeaturedTrips(FEATURED_TRIPS);
+    if (featuredTrips.isEmpty()) {
+      featuredTrips = tripService.getNewestTrips(RECENT_ITEMS);
+    }
+    List<Trip> upcomingTrips = tripService.getUpcomingTrips().stream().limit(UPCOMING_TRIPS).toList();
+    long totalUsers = premiumUserRepo.count() + guestUserRepo.count();
+
+    HomepageData loaded = new HomepageData(List.copyOf(featuredCourses), List.copyOf(featuredTrips),
+        upcomingTrips, (int) courseService.getCourseCount(), (int) tripService.getPublishedTripCount(),
+        totalUsers, Instant.now());
+    logger.debug("Homepage data loaded in {} ms", (System.nanoTime() - started) / 1_000_000);
+    return loaded;
+  }
+}
@@ -1,13 +1,16 @@
 package ch.oceandive.service;
 
 import ch.oceandive.dto.PremiumUserDTO;
+import ch.oceandive.dto.KeysetPage;
 import ch.oceandive.exceptionHandler.DuplicateResourceException;
 import ch.oceandive.exceptionHandler.ResourceNotFoundException;
 import ch.oceandive.model.PremiumUser;
+import ch.oceandive.utils.PageCursor;
 import ch.oceandive.repository.PremiumUserRepo;
 import java.util.List;
 import java.util.stream.Collectors;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -47,6 +50,19 @@ public class PremiumUserService {
                 .map(this::convertToDTO);
     }
 
+    // Get premium users one keyset page at a time, by id; cursor is the nextCursor of the previous page.
+    public KeysetPage<PremiumUserDTO> getAllPremiumUsers(String cursor, int size, boolean withTotal) {
+        int pageSize = Math.max(1, size);
+        long afterId = cursor == null || cursor.isBlank()
+            ? 0L
+            : PageCursor.decode(cursor, 1, keys -> Long.parseLong(keys[0]));
+        // One extra row tells whether there is a next page
+        List<PremiumUser> rows = premiumUserRepo.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, pageSize + 1));
+        return KeysetPage.of(rows, pageSize, user -> PageCursor.encode(user.getId()),
+                withTotal ? premiumUserRepo.count() : null)
+            .map(this::convertToDTO);
+    }
+
     /**
      * Get a premium user by ID.
      *
@@ -0,0 +1,160 @@
+package ch.oceandive.service;
+
+import ch.oceandive.exceptionHandler.BusinessRuleViolationException;
+import ch.oceandive.exceptionHandler.ResourceNotFoundException;
+import ch.oceandive.model.Booking;
+import ch.oceandive.repository.BookingRepo;
+import ch.oceandive.utils.BookingStatus;
+import ch.oceandive.utils.HashedTimerWheel;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Expiry and confirmation of time-limited seat holds.
+ * <p>
+ * A hold is a booking in status HELD. Its seats are reserved like a confirmed booking, so it
+ * counts against isFullyBooked(). Each hold arms a timeout on a hashed timer wheel; when the
+ * timeout fires the hold becomes EXPIRED and its seats are released. Confirm, release and expiry
+ * are conditional status updates, so only one of them can win for a given hold.
+ */
+@Service
+public class SeatHoldService {
+
+  private static final Logger logger = LoggerFactory.getLogger(SeatHoldService.class);
+
+  private final BookingRepo bookingRepo;
+  private final SeatInventory seatInventory;
+  private final TransactionTemplate transactionTemplate;
+  private final Duration holdDuration;
+  private final ExecutorService expiryExecutor;
+  private final HashedTimerWheel timerWheel;
+  private final Map<String, HashedTimerWheel.Timeout> timers = new ConcurrentHashMap<>();
+
+  public SeatHoldService(BookingRepo bookingRepo, SeatInventory seatInventory,
+      PlatformTransactionManager transactionManager,
+      @Value("${app.booking.hold-minutes:10}") long holdMinutes) {
+    this.bookingRepo = bookingRepo;
+    this.seatInventory = seatInventory;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.holdDuration = Duration.ofMinutes(holdMinutes);
+    this.expiryExecutor = Executors.newSingleThreadExecutor(
+        Thread.ofPlatform().name("seat-hold-expiry").daemon().factory());
+    // One-second ticks; 1024 buckets cover 17 minutes per round
+    this.timerWheel = new HashedTimerWheel(Duration.ofSeconds(1), 1024, expiryExecutor, "seat-hold-timer");
+  }
+
+  // Expiry time for a hold created now
+  public LocalDateTime newExpiry() {
+    return LocalDateTime.now().plus(holdDuration);
+  }
+
+  // Arm the expiry timer of a new hold once its transaction has committed
+  public void track(Booking hold) {
+    String reference = hold.getReference();
+    LocalDateTime expiresAt = hold.getExpiresAt();
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          schedule(reference, expiresAt);
+        }
+      });
+    } else {
+      schedule(reference, expiresAt);
+    }
+  }
+
+  // Disarm the expiry timer of a hold that was confirmed or released
+  public void untrack(String reference) {
+    HashedTimerWheel.Timeout timeout = timers.remove(reference);
+    if (timeout != null) {
+      timeout.cancel();
+    }
+  }
+
+  /**
+   * Turn a hold into a confirmed booking. Confirming twice returns the confirmed booking.
+   *
+   * @throws BusinessRuleViolationException if the hold expired or was released
+   */
+  @Transactional
+  public Booking confirm(String reference) {
+    if (bookingRepo.confirmHold(reference, LocalDateTime.now()) == 0) {
+      Booking booking = getBooking(reference);
+      if (booking.getStatus() != BookingStatus.CONFIRMED) {
+        throw new BusinessRuleViolationException("The seat hold has expired or was released.");
+      }
+      return booking;
+    }
+    untrack(reference);
+    logger.info("Seat hold {} confirmed", reference);
+    return getBooking(reference);
+  }
+
+  // Number of holds waiting for their timer (for monitoring)
+  public int activeHoldCount() {
+    return timers.size();
+  }
+
+  // Re-arm the timers of holds that were open when the application stopped
+  @EventListener(ApplicationReadyEvent.class)
+  @Order(10)
+  public void rescheduleOpenHolds() {
+    List<Booking> holds = bookingRepo.findByStatus(BookingStatus.HELD);
+    holds.forEach(hold -> schedule(hold.getReference(), hold.getExpiresAt()));
+    if (!holds.isEmpty()) {
+      logger.info("Re-armed expiry timers for {} seat holds", holds.size());
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    timerWheel.close();
+    expiryExecutor.shutdown();
+  }
+
+  private void schedule(String reference, LocalDateTime expiresAt) {
+    Duration delay = expiresAt == null ? Duration.ZERO : Duration.between(LocalDateTime.now(), expiresAt);
+    timers.put(reference, timerWheel.schedule(() -> expire(reference), delay));
+  }
+
+  private void expire(String reference) {
+    timers.remove(reference);
+    try {
+      transactionTemplate.executeWithoutResult(status -> {
+        if (bookingRepo.transition(reference, BookingStatus.HELD, BookingStatus.EXPIRED, LocalDateTime.now()) == 0) {
+          return; // confirmed or released in the meantime
+        }
+        Booking hold = getBooking(reference);
+        seatInventory.release(hold.getType(), hold.getItemId(), hold.getSeats());
+        logger.info("Seat hold {} expired, {} seat(s) released", reference, hold.getSeats());
+      });
+    } catch (RuntimeException e) {
+      logger.error("Failed to expire seat hold {}, retrying in one minute", reference, e);
+      schedule(reference, LocalDateTime.now().plusMinutes(1));
+    }
+  }
+
+  private Booking getBooking(String reference) {
+    return bookingRepo.findByReference(reference)
+        .orElseThrow(() -> ResourceNotFoundException.create("Booking", "reference", reference));
+  }
+}
@@ -0,0 +1,364 @@
+package ch.oceandive.service;
+
+import ch.oceandive.dto.SeatAvailability;
+import ch.oceandive.event.SeatsFlushedEvent;
+import ch.oceandive.event.SeatsReleasedEvent;
+import ch.oceandive.event.SeatsReservedEvent;
+import ch.oceandive.exceptionHandler.ResourceNotFoundException;
+import ch.oceandive.repository.BookingRepo;
+import ch.oceandive.repository.CourseRepo;
+import ch.oceandive.repository.TripRepo;
+import ch.oceandive.utils.BookingStatus;
+import ch.oceandive.utils.BookingType;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Single entry point for reserving and releasing seats on trips and courses.
+ * <p>
+ * When {@code app.booking.seat-inventory.enabled} is false (the default) every call is a guarded
+ * UPDATE on the trip or course row. When enabled, the remaining seats are kept in memory and
+ * checked with a CAS loop, so hot trips no longer contend on their database row; the accepted
+ * changes are written back to {@code current_bookings} in batches every flush interval. The
+ * in-memory mode assumes a single application instance, and the stored booking counts trail
+ * the counters by at most one flush interval.
+ * <p>
+ * Every successful release publishes a {@link SeatsReleasedEvent} so the waitlist can hand the
+ * freed seats to the next people in line within the same transaction. Every successful reserve
+ * publishes a {@link SeatsReservedEvent}, the trip catalog uses both to keep its seat counts current.
+ */
+@Service
+public class SeatInventory {
+
+  private static final Logger logger = LoggerFactory.getLogger(SeatInventory.class);
+
+  private final TripRepo tripRepo;
+  private final CourseRepo courseRepo;
+  private final BookingRepo bookingRepo;
+  private final TransactionTemplate transactionTemplate;
+  private final ApplicationEventPublisher eventPublisher;
+  private final boolean enabled;
+  private final Map<SeatKey, SeatCounter> counters = new ConcurrentHashMap<>();
+
+  public SeatInventory(TripRepo tripRepo, CourseRepo courseRepo, BookingRepo bookingRepo,
+      PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher,
+      @Value("${app.booking.seat-inventory.enabled:false}") boolean enabled) {
+    this.tripRepo = tripRepo;
+    this.courseRepo = courseRepo;
+    this.bookingRepo = bookingRepo;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.eventPublisher = eventPublisher;
+    this.enabled = enabled;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Reserve seats on a trip or course. Trips that already ended cannot be reserved.
+   * If the surrounding transaction rolls back, the seats are returned automatically.
+   *
+   * @return true if the seats were reserved, false if there is not enough room or the item is unknown
+   */
+  public boolean reserve(BookingType type, Long id, int seats) {
+    if (!reserveSeats(type, id, seats)) {
+      return false;
+    }
+    eventPublisher.publishEvent(new SeatsReservedEvent(type, id, seats));
+    return true;
+  }
+
+  private boolean reserveSeats(BookingType type, Long id, int seats) {
+    if (!enabled) {
+      return type == BookingType.TRIP
+          ? tripRepo.reserveSeats(id, seats) > 0
+          : courseRepo.reserveSeats(id, seats) > 0;
+    }
+    SeatCounter counter = counterFor(type, id);
+    if (counter == null || !counter.tryReserve(seats)) {
+      return false;
+    }
+    afterRollback(() -> counter.release(seats));
+    return true;
+  }
+
+  /**
+   * Release previously reserved seats, never going below zero. Waiting users are promoted into
+   * the freed seats before this method returns.
+   *
+   * @return true if seats were released
+   */
+  public boolean release(BookingType type, Long id, int seats) {
+    if (!releaseSeats(type, id, seats)) {
+      return false;
+    }
+    eventPublisher.publishEvent(new SeatsReleasedEvent(type, id, seats));
+    return true;
+  }
+
+  private boolean releaseSeats(BookingType type, Long id, int seats) {
+    if (!enabled) {
+      return type == BookingType.TRIP
+          ? tripRepo.releaseSeats(id, seats) > 0
+          : courseRepo.releaseSeats(id, seats) > 0;
+    }
+    SeatCounter counter = counterFor(type, id);
+    if (counter == null || !counter.release(seats)) {
+      return false;
+    }
+    afterRollback(() -> counter.restore(seats));
+    return true;
+  }
+
+  // Booked seats including changes not yet written back, or null when the item is not tracked
+  public Integer bookedSeats(BookingType type, Long id) {
+    SeatCounter counter = enabled ? counters.get(new SeatKey(type, id)) : null;
+    return counter == null ? null : counter.booked.get();
+  }
+
+  /**
+   * Seat availability of a trip or course. Held seats are part of the booked seats, they are
+   * reported separately so clients can show "n seats on hold".
+   *
+   * @throws ResourceNotFoundException if the trip or course does not exist
+   */
+  @Transactional(readOnly = true)
+  public SeatAvailability availability(BookingType type, Long id) {
+    List<Object[]> rows = type == BookingType.TRIP ? tripRepo.findSeatCounter(id) : courseRepo.findSeatCounter(id);
+    if (rows.isEmpty()) {
+      throw ResourceNotFoundException.create(type.getDisplayName(), "id", id);
+    }
+    Object[] row = rows.get(0);
+    int capacity = (Integer) row[1];
+    Integer inMemory = bookedSeats(type, id);
+    int booked = inMemory != null ? inMemory : (Integer) row[2];
+    long held = type == BookingType.TRIP ? bookingRepo.sumHeldSeatsForTrip(id) : bookingRepo.sumHeldSeatsForCourse(id);
+    return new SeatAvailability(id, type, capacity, booked, (int) held);
+  }
+
+  /**
+   * Reload capacity and end date after a trip or course was edited. Seats booked in the
+   * meantime are kept, only the limits change.
+   */
+  public void refresh(BookingType type, Long id) {
+    if (!enabled) {
+      return;
+    }
+    SeatCounter counter = counters.get(new SeatKey(type, id));
+    if (counter == null) {
+      return;
+    }
+    List<Object[]> rows = type == BookingType.TRIP ? tripRepo.findSeatCounter(id) : courseRepo.findSeatCounter(id);
+    if (rows.isEmpty()) {
+      evict(type, id);
+      return;
+    }
+    Object[] row = rows.get(0);
+    counter.capacity = (Integer) row[1];
+    counter.endDate = type == BookingType.TRIP ? (LocalDate) row[3] : null;
+  }
+
+  // Forget a deleted trip or course, pending changes are dropped with it
+  public void evict(BookingType type, Long id) {
+    counters.remove(new SeatKey(type, id));
+  }
+
+  // Load the counters once the application is up, repairing bookings lost by an unclean shutdown
+  @EventListener(ApplicationReadyEvent.class)
+  @Order(0)
+  public void rebuildFromDatabase() {
+    if (!enabled) {
+      return;
+    }
+    transactionTemplate.executeWithoutResult(status -> {
+      List<BookingStatus> holding = BookingStatus.seatHoldingStatuses();
+      Map<Long, Integer> tripLedger = toSeatMap(bookingRepo.sumSeatsPerTrip(holding));
+      Map<Long, Integer> courseLedger = toSeatMap(bookingRepo.sumSeatsPerCourse(holding));
+      counters.clear();
+      for (Object[] row : tripRepo.findSeatCounters()) {
+        load(BookingType.TRIP, row, tripLedger);
+      }
+      for (Object[] row : courseRepo.findSeatCounters()) {
+        load(BookingType.COURSE, row, courseLedger);
+      }
+    });
+    logger.info("Seat inventory rebuilt with {} counters", counters.size());
+  }
+
+  // Write the accepted seat changes back to the database in one batch
+  @Scheduled(fixedDelayString = "${app.booking.seat-inventory.flush-interval-ms:500}")
+  public void flush() {
+    if (!enabled) {
+      return;
+    }
+    Map<SeatKey, Integer> batch = new HashMap<>();
+    counters.forEach((key, counter) -> {
+      int delta = counter.pending.getAndSet(0);
+      if (delta != 0) {
+        batch.put(key, delta);
+      }
+    });
+    if (batch.isEmpty()) {
+      return;
+    }
+    try {
+      transactionTemplate.executeWithoutResult(status -> batch.forEach((key, delta) -> {
+        if (key.type() == BookingType.TRIP) {
+          tripRepo.applyBookingDelta(key.id(), delta);
+        } else {
+          courseRepo.applyBookingDelta(key.id(), delta);
+        }
+      }));
+      logger.debug("Flushed seat changes for {} trips/courses", batch.size());
+    } catch (RuntimeException e) {
+      // Keep the deltas for the next flush
+      batch.forEach((key, delta) -> {
+        SeatCounter counter = counters.get(key);
+        if (counter != null) {
+          counter.pending.addAndGet(delta);
+        }
+      });
+      logger.error("Failed to flush seat changes, will retry", e);
+      return;
+    }
+    eventPublisher.publishEvent(new SeatsFlushedEvent(
+        batch.keySet().stream().anyMatch(key -> key.type() == BookingType.TRIP),
+        batch.keySet().stream().anyMatch(key -> key.type() == BookingType.COURSE)));
+  }
+
+  @PreDestroy
+  public void flushOnShutdown() {
+    flush();
+  }
+
+  private SeatCounter counterFor(BookingType type, Long id) {
+    SeatKey key = new SeatKey(type, id);
+    SeatCounter counter = counters.get(key);
+    if (counter != null) {
+      return counter;
+    }
+    // Read outside computeIfAbsent so a slow query does not block other keys in the same bin
+    List<Object[]> rows = type == BookingType.TRIP ? tripRepo.findSeatCounter(id) : courseRepo.findSeatCounter(id);
+    if (rows.isEmpty()) {
+      return null;
+    }
+    return counters.computeIfAbsent(key, k -> newCounter(type, rows.get(0), 0));
+  }
+
+  private void load(BookingType type, Object[] row, Map<Long, Integer> ledger) {
+    Long id = (Long) row[0];
+    int stored = (Integer) row[2];
+    int ledgerSeats = ledger.getOrDefault(id, 0);
+    // Ledger rows are committed with the booking, so they win over a stale write-behind count
+    int missing = Math.max(0, ledgerSeats - stored);
+    if (missing > 0) {
+      logger.warn("{} {} was missing {} booked seats, repairing from the booking ledger", type.getDisplayName(), id, missing);
+      if (type == BookingType.TRIP) {
+        tripRepo.applyBookingDelta(id, missing);
+      } else {
+        courseRepo.applyBookingDelta(id, missing);
+      }
+    }
+    counters.put(new SeatKey(type, id), newCounter(type, row, missing));
+  }
+
+  private SeatCounter newCounter(BookingType type, Object[] row, int extraBooked) {
+    LocalDate endDate = type == BookingType.TRIP ? (LocalDate) row[3] : null;
+    return new SeatCounter((Integer) row[1], (Integer) row[2] + extraBooked, endDate);
+  }
+
+  private static Map<Long, Integer> toSeatMap(List<Object[]> rows) {
+    Map<Long, Integer> seats = new HashMap<>();
+    for (Object[] row : rows) {
+      seats.put((Long) row[0], ((Number) row[1]).intValue());
+    }
+    return seats;
+  }
+
+  private static void afterRollback(Runnable compensation) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        if (status == STATUS_ROLLED_BACK) {
+          compensation.run();
+        }
+      }
+    });
+  }
+
+  private record SeatKey(BookingType type, Long id) {
+  }
+
+  // Booked seats (stored + not yet flushed) and the delta still to be written back
+  private static final class SeatCounter {
+
+    private final AtomicInteger booked;
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile int capacity;
+    private volatile LocalDate endDate;
+
+    private SeatCounter(int capacity, int booked, LocalDate endDate) {
+      this.capacity = capacity;
+      this.booked = new AtomicInteger(booked);
+      this.endDate = endDate;
+    }
+
+    private boolean tryReserve(int seats) {
+      if (endDate != null && endDate.isBefore(LocalDate.now())) {
+        return false;
+      }
+      while (true) {
+        int current = booked.get();
+        if (current + seats > capacity) {
+          return false;
+        }
+        if (booked.compareAndSet(current, current + seats)) {
+          pending.addAndGet(seats);
+          return true;
+        }
+      }
+    }
+
+    private boolean release(int seats) {
+      while (true) {
+        int current = booked.get();
+        if (current < seats) {
+          return false;
+        }
+        if (booked.compareAndSet(current, current - seats)) {
+          pending.addAndGet(-seats);
+          return true;
+        }
+      }
+    }
+
+    // Undo a release whose transaction rolled back
+    private void restore(int seats) {
+      booked.addAndGet(seats);
+      pending.addAndGet(seats);
+    }
+  }
+}
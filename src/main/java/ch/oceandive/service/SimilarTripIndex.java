@@ -0,0 +1,291 @@
+package ch.oceandive.service;
+
+import ch.oceandive.event.TripChangedEvent;
+import ch.oceandive.model.Trip;
+import ch.oceandive.repository.BookingRepo;
+import ch.oceandive.service.TripCatalog.CatalogTrip;
+import ch.oceandive.service.TripCatalog.View;
+import ch.oceandive.utils.BookingStatus;
+import ch.oceandive.utils.InvertedIndex;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Precomputed "similar trips" of every published trip, so a trip detail page gets its
+ * recommendations with one map lookup.
+ * <p>
+ * Trips are scored pairwise by shared location words, certification level, price, start date and
+ * the number of premium users who booked both. The best {@link #MAX_SIMILAR} of each trip are
+ * kept as an immutable id list that is swapped in with a single volatile write.
+ * <p>
+ * An admin write only recomputes the changed trip and the trips whose list it enters or leaves,
+ * after the catalog swapped in its new snapshot. The full recomputation, which also reloads the
+ * booked-together counts, runs at startup and on a fixed interval in the background.
+ */
+@Component
+public class SimilarTripIndex {
+
+  private static final Logger logger = LoggerFactory.getLogger(SimilarTripIndex.class);
+
+  // Similar trips kept per trip, the most one request returns
+  static final int MAX_SIMILAR = 12;
+  private static final float LOCATION_WEIGHT = 4f;
+  private static final float CERTIFICATION_WEIGHT = 1.5f;
+  private static final float PRICE_WEIGHT = 1f;
+  private static final float DATE_WEIGHT = 1f;
+  private static final float BOOKED_TOGETHER_WEIGHT = 2f;
+  // Start dates this many days apart score half of the same start date
+  private static final float DATE_HALF_LIFE_DAYS = 30f;
+
+  private final TripCatalog catalog;
+  private final BookingRepo bookingRepo;
+  private final TransactionTemplate readTransaction;
+  private final ReentrantLock updateLock = new ReentrantLock();
+  // Premium users who booked both trips, by trip id pair; written under the update lock
+  private Map<Long, Map<Long, Integer>> bookedTogether = Map.of();
+  private volatile Map<Long, Neighbours> neighbours = Map.of();
+
+  public SimilarTripIndex(TripCatalog catalog, BookingRepo bookingRepo,
+      PlatformTransactionManager transactionManager) {
+    this.catalog = catalog;
+    this.bookingRepo = bookingRepo;
+    // Own transaction: recomputations also run from after-commit callbacks of admin writes
+    this.readTransaction = new TransactionTemplate(transactionManager);
+    this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.readTransaction.setReadOnly(true);
+  }
+
+  /**
+   * The trips most similar to the given one, best first. Trips without a precomputed list (not
+   * published, or not computed yet) fall back to the catalog's location and certification match.
+   *
+   * @param limit maximum number of trips, at most {@link #MAX_SIMILAR} are precomputed
+   */
+  <T> List<T> similar(Trip trip, int limit, View<T> view) {
+    Neighbours list = trip.getId() == null ? null : neighbours.get(trip.getId());
+    if (list == null) {
+      return catalog.similar(trip.getId(), trip.getLocation(), trip.getMinCertificationRequired(), limit, view);
+    }
+    return catalog.byIds(list.ids(), limit, view);
+  }
+
+  /**
+   * Same as {@link #similar(Trip, int, View)} for a published trip given by id, without loading
+   * the trip itself.
+   *
+   * @return the similar trips, empty if no published trip has this id
+   */
+  <T> Optional<List<T>> similar(Long tripId, int limit, View<T> view) {
+    return catalog.trip(tripId).map(trip -> {
+      Neighbours list = neighbours.get(trip.id());
+      return list == null
+          ? catalog.similar(trip.id(), trip.location(), trip.certification(), limit, view)
+          : catalog.byIds(list.ids(), limit, view);
+    });
+  }
+
+  // ===== MAINTENANCE =====
+
+  // Compute the lists once the catalog has its first snapshot
+  @EventListener(ApplicationReadyEvent.class)
+  @Order(2)
+  public void warmUp() {
+    recomputeAll();
+  }
+
+  // Runs after the catalog swapped in the snapshot with the change
+  @TransactionalEventListener(fallbackExecution = true)
+  @Order(10)
+  public void onTripChanged(TripChangedEvent event) {
+    if (event.tripId() != null) {
+      recompute(event.tripId());
+    } else {
+      recomputeAll();
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${app.catalog.similar-trips.refresh-interval-ms:900000}",
+      initialDelayString = "${app.catalog.similar-trips.refresh-interval-ms:900000}")
+  public void refresh() {
+    recomputeAll();
+  }
+
+  // Reload the booked-together counts and recompute every list
+  public void recomputeAll() {
+    updateLock.lock();
+    try {
+      long started = System.nanoTime();
+      List<Object[]> rows = readTransaction.execute(status ->
+          bookingRepo.countTripsBookedTogether(BookingStatus.seatHoldingStatuses()));
+      bookedTogether = pairCounts(rows == null ? List.of() : rows);
+
+      List<Features> trips = features(catalog.trips());
+      Map<Long, Neighbours> next = new HashMap<>();
+      for (Features trip : trips) {
+        next.put(trip.id(), neighboursOf(trip, trips));
+      }
+      neighbours = Map.copyOf(next);
+      logger.debug("Similar trips computed for {} trips in {} ms", trips.size(),
+          (System.nanoTime() - started) / 1_000_000);
+    } finally {
+      updateLock.unlock();
+    }
+  }
+
+  /**
+   * Recompute the list of one trip, and of the other trips whose list contains it or that it now
+   * enters. A trip that is no longer published just leaves every list.
+   */
+  public void recompute(long tripId) {
+    updateLock.lock();
+    try {
+      List<Features> trips = features(catalog.trips());
+      Features changed = trips.stream().filter(trip -> trip.id() == tripId).findFirst().orElse(null);
+      Map<Long, Neighbours> next = new HashMap<>();
+      if (changed != null) {
+        next.put(tripId, neighboursOf(changed, trips));
+      }
+      int recomputed = 0;
+      for (Features trip : trips) {
+        if (trip.id() == tripId) {
+          continue;
+        }
+        Neighbours list = neighbours.get(trip.id());
+        if (list == null || list.contains(tripId) || (changed != null && list.admits(score(trip, changed)))) {
+          list = neighboursOf(trip, trips);
+          recomputed++;
+        }
+        next.put(trip.id(), list);
+      }
+      neighbours = Map.copyOf(next);
+      logger.debug("Similar trips of trip {} recomputed, {} other lists updated", tripId, recomputed);
+    } finally {
+      updateLock.unlock();
+    }
+  }
+
+  // The best MAX_SIMILAR other trips with a positive score, best first
+  private Neighbours neighboursOf(Features trip, List<Features> trips) {
+    List<Scored> scored = new ArrayList<>();
+    for (Features other : trips) {
+      if (other.id() != trip.id()) {
+        float score = score(trip, other);
+        if (score > 0) {
+          scored.add(new Scored(other.id(), score));
+        }
+      }
+    }
+    scored.sort(Comparator.comparingDouble(Scored::score).reversed().thenComparingLong(Scored::id));
+    int count = Math.min(MAX_SIMILAR, scored.size());
+    long[] ids = new long[count];
+    float[] scores = new float[count];
+    for (int i = 0; i < count; i++) {
+      ids[i] = scored.get(i).id();
+      scores[i] = scored.get(i).score();
+    }
+    return new Neighbours(ids, scores);
+  }
+
+  /**
+   * Similarity of two trips, 0 if they share neither a location word nor the certification level
+   * nor a customer (price and dates alone do not make a recommendation).
+   */
+  private float score(Features a, Features b) {
+    float location = jaccard(a.locationWords(), b.locationWords());
+    int levels = Math.abs(a.certification() - b.certification());
+    int together = bookedTogether(a.id(), b.id());
+    if (location == 0 && levels != 0 && together == 0) {
+      return 0;
+    }
+    float score = LOCATION_WEIGHT * location
+        + (levels == 0 ? CERTIFICATION_WEIGHT : levels == 1 ? CERTIFICATION_WEIGHT / 2 : 0)
+        + DATE_WEIGHT / (1 + Math.abs(a.startDay() - b.startDay()) / DATE_HALF_LIFE_DAYS)
+        + BOOKED_TOGETHER_WEIGHT * (float) Math.log1p(together);
+    if (!Double.isNaN(a.price()) && !Double.isNaN(b.price())) {
+      double max = Math.max(a.price(), b.price());
+      score += max <= 0 ? PRICE_WEIGHT : PRICE_WEIGHT * (float) (1 - Math.abs(a.price() - b.price()) / max);
+    }
+    return score;
+  }
+
+  private int bookedTogether(long a, long b) {
+    Map<Long, Integer> counts = bookedTogether.get(Math.min(a, b));
+    return counts == null ? 0 : counts.getOrDefault(Math.max(a, b), 0);
+  }
+
+  private static float jaccard(Set<String> a, Set<String> b) {
+    if (a.isEmpty() || b.isEmpty()) {
+      return 0;
+    }
+    int shared = 0;
+    for (String word : a) {
+      if (b.contains(word)) {
+        shared++;
+      }
+    }
+    return shared == 0 ? 0 : (float) shared / (a.size() + b.size() - shared);
+  }
+
+  private static List<Features> features(List<CatalogTrip> trips) {
+    return trips.stream().map(Features::of).toList();
+  }
+
+  // {lowerId, higherId, users} rows, as lowerId -> higherId -> users
+  private static Map<Long, Map<Long, Integer>> pairCounts(List<Object[]> rows) {
+    Map<Long, Map<Long, Integer>> counts = new HashMap<>();
+    for (Object[] row : rows) {
+      counts.computeIfAbsent(((Number) row[0]).longValue(), id -> new HashMap<>())
+          .put(((Number) row[1]).longValue(), ((Number) row[2]).intValue());
+    }
+    return counts;
+  }
+
+  // The scored values of a trip, price is NaN without a price
+  private record Features(long id, Set<String> locationWords, int certification, double price, long startDay) {
+
+    static Features of(CatalogTrip trip) {
+      return new Features(trip.id(), new HashSet<>(InvertedIndex.tokenize(trip.location())),
+          trip.certification().ordinal(), trip.price() == null ? Double.NaN : trip.price().doubleValue(),
+          trip.startDate().toEpochDay());
+    }
+  }
+
+  private record Scored(long id, float score) {
+  }
+
+  // Similar trip ids with their scores, best first
+  private record Neighbours(long[] ids, float[] scores) {
+
+    boolean contains(long id) {
+      for (long candidate : ids) {
+        if (candidate == id) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    // Whether a trip with this score would enter the list
+    boolean admits(float score) {
+      return score > 0 && (ids.length < MAX_SIMILAR || score > scores[scores.length - 1]);
+    }
+  }
+}
@@ -0,0 +1,108 @@
+package ch.oceandive.service;
+
+import ch.oceandive.event.CourseChangedEvent;
+import ch.oceandive.model.Course;
+import ch.oceandive.repository.CourseRepo;
+import ch.oceandive.utils.PublicationStatus;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Slug to id map of the published courses, so a course detail page resolves its slug without a
+ * query and an unknown slug is answered without touching the database. Published trips resolve
+ * through the {@link TripCatalog}.
+ * <p>
+ * Loaded at startup and on the catalog refresh interval; a course write only reloads that course.
+ * Writers serialize on a lock and swap in an immutable map.
+ */
+@Component
+public class SlugRegistry {
+
+  private static final Logger logger = LoggerFactory.getLogger(SlugRegistry.class);
+
+  private final CourseRepo courseRepo;
+  private final TransactionTemplate readTransaction;
+  private final ReentrantLock updateLock = new ReentrantLock();
+  // Null until the first load
+  private volatile Map<String, Long> courseIds;
+
+  public SlugRegistry(CourseRepo courseRepo, PlatformTransactionManager transactionManager) {
+    this.courseRepo = courseRepo;
+    // Own transaction: reloads also run from after-commit callbacks of admin writes
+    this.readTransaction = new TransactionTemplate(transactionManager);
+    this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.readTransaction.setReadOnly(true);
+  }
+
+  public boolean isLoaded() {
+    return courseIds != null;
+  }
+
+  // Id of the published course with this slug, null if there is none (or nothing is loaded yet)
+  public Long courseId(String slug) {
+    Map<String, Long> ids = courseIds;
+    return ids == null || slug == null ? null : ids.get(slug);
+  }
+
+  // ===== MAINTENANCE =====
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    reload();
+  }
+
+  // Safety net for changes that bypass the course service (other instances, manual SQL)
+  @Scheduled(fixedDelayString = "${app.catalog.refresh-interval-ms:300000}",
+      initialDelayString = "${app.catalog.refresh-interval-ms:300000}")
+  public void refresh() {
+    reload();
+  }
+
+  // Created, renamed, (un)published or deleted: replace the entry of that course only
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onCourseChanged(CourseChangedEvent event) {
+    if (event.courseId() == null || courseIds == null) {
+      reload();
+      return;
+    }
+    updateLock.lock();
+    try {
+      Course course = readTransaction.execute(status -> courseRepo.findById(event.courseId()).orElse(null));
+      Map<String, Long> next = new HashMap<>(courseIds);
+      next.values().remove(event.courseId());
+      if (course != null && course.getStatus() == PublicationStatus.PUBLISHED && course.getSlug() != null) {
+        next.put(course.getSlug(), course.getId());
+      }
+      courseIds = Map.copyOf(next);
+    } finally {
+      updateLock.unlock();
+    }
+  }
+
+  public void reload() {
+    updateLock.lock();
+    try {
+      List<Object[]> rows = readTransaction.execute(status -> courseRepo.findSlugIds(PublicationStatus.PUBLISHED));
+      Map<String, Long> next = new HashMap<>();
+      for (Object[] row : rows == null ? List.<Object[]>of() : rows) {
+        next.put((String) row[0], ((Number) row[1]).longValue());
+      }
+      courseIds = Map.copyOf(next);
+      logger.debug("Slug registry loaded with {} published courses", next.size());
+    } finally {
+      updateLock.unlock();
+    }
+  }
+}
@@ -0,0 +1,952 @@
+package ch.oceandive.service;
+
+import ch.oceandive.dto.CalendarDay;
+import ch.oceandive.dto.TripCalendar;
+import ch.oceandive.dto.TripCard;
+import ch.oceandive.dto.TripFacets;
+import ch.oceandive.dto.TripSearchCriteria;
+import ch.oceandive.dto.TripSearchResult;
+import ch.oceandive.event.SeatsFlushedEvent;
+import ch.oceandive.event.SeatsReleasedEvent;
+import ch.oceandive.event.SeatsReservedEvent;
+import ch.oceandive.event.TripChangedEvent;
+import ch.oceandive.model.Trip;
+import ch.oceandive.repository.TripRepo;
+import ch.oceandive.utils.BookingType;
+import ch.oceandive.utils.CompressedBitmap;
+import ch.oceandive.utils.DiveCertification;
+import ch.oceandive.utils.InvertedIndex;
+import ch.oceandive.utils.InvertedIndex.Hits;
+import ch.oceandive.utils.PublicationStatus;
+import ch.oceandive.utils.RadixTrie;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Read-only, in-memory copy of the published trip catalog that answers the public trip queries
+ * without touching the database.
+ * <p>
+ * The catalog is an immutable snapshot of compact {@link CatalogTrip} records plus index arrays
+ * pre-sorted by start date, end date, price and certification level, and primitive columns of the
+ * facet values for the faceted search. Admin writes publish a
+ * {@link TripChangedEvent}; once their transaction committed a new snapshot is built and swapped
+ * in with a single volatile write, so readers always see either the old or the new catalog.
+ * <p>
+ * Booked seats are the only values that change between admin writes. They live next to the
+ * snapshot in an {@link AtomicIntegerArray} and are adjusted from the committed
+ * {@link SeatsReservedEvent}s and {@link SeatsReleasedEvent}s. Every rebuild (and the periodic
+ * refresh) reloads them from the database, which also picks up changes made outside this instance.
+ * <p>
+ * The availability calendar and the date-window queries run on an {@link Availability} index:
+ * compressed bitmaps of the trip slots running on each day, open to each certification level and
+ * with seats left, so they are answered by bitmap intersections.
+ * <p>
+ * Every change a reader could see (new snapshot, booked seats, flushed booking counts) bumps
+ * {@link #version()} afterwards, the HTTP layer derives its ETags from it.
+ * <p>
+ * Queries build their results through a {@link View}: fresh, detached {@link Trip} copies
+ * ({@link #DETAIL}, callers may modify them freely) or the lean {@link TripCard}s of the list
+ * endpoints ({@link #CARD}).
+ */
+@Component
+public class TripCatalog {
+
+  private static final Logger logger = LoggerFactory.getLogger(TripCatalog.class);
+
+  private static final int CERTIFICATION_LEVELS = DiveCertification.values().length;
+  // Upper limits of the price bands of the faceted search, the last band is open-ended
+  private static final int[] PRICE_BAND_LIMITS = {500, 1000, 2000, 5000};
+  private static final long NO_PRICE = Long.MIN_VALUE;
+  private static final int FACET_LOCATION = 1;
+  private static final int FACET_CERTIFICATION = 1 << 1;
+  private static final int FACET_PRICE = 1 << 2;
+  private static final int FACET_MONTH = 1 << 3;
+  private static final int ALL_FACETS = FACET_LOCATION | FACET_CERTIFICATION | FACET_PRICE | FACET_MONTH;
+  // Destination suggestions kept per trie node, the most one autocomplete request returns
+  static final int MAX_DESTINATION_SUGGESTIONS = 10;
+
+  // Detached trip copies, for pages that show a whole trip
+  static final View<Trip> DETAIL = CatalogTrip::toTrip;
+  // List cards, for the list endpoints
+  static final View<TripCard> CARD = CatalogTrip::toCard;
+
+  private final TripRepo tripRepo;
+  private final SeatInventory seatInventory;
+  private final CatalogSearchIndex searchIndex;
+  private final TransactionTemplate readTransaction;
+  private final ReentrantLock rebuildLock = new ReentrantLock();
+  private final AtomicLong version = new AtomicLong();
+  private volatile long lastModified = System.currentTimeMillis();
+  private volatile Snapshot snapshot;
+
+  public TripCatalog(TripRepo tripRepo, SeatInventory seatInventory, CatalogSearchIndex searchIndex,
+      PlatformTransactionManager transactionManager) {
+    this.tripRepo = tripRepo;
+    this.seatInventory = seatInventory;
+    this.searchIndex = searchIndex;
+    // Own transaction: rebuilds also run from after-commit callbacks of admin writes
+    this.readTransaction = new TransactionTemplate(transactionManager);
+    this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.readTransaction.setReadOnly(true);
+  }
+
+  // ===== QUERIES =====
+
+  // Published trips in display order
+  public <T> List<T> published(View<T> view) {
+    Snapshot s = current();
+    return s.collect(s.byDisplayOrder, Integer.MAX_VALUE, slot -> true, view);
+  }
+
+  public Optional<Trip> bySlug(String slug) {
+    Snapshot s = current();
+    Integer slot = slug == null ? null : s.slotBySlug.get(slug);
+    return slot == null ? Optional.empty() : Optional.of(s.view(slot, DETAIL));
+  }
+
+  public Optional<Trip> byId(Long id) {
+    Snapshot s = current();
+    Integer slot = id == null ? null : s.slotById.get(id);
+    return slot == null ? Optional.empty() : Optional.of(s.view(slot, DETAIL));
+  }
+
+  // Trips starting after the given day, by start date
+  public <T> List<T> upcoming(LocalDate today, View<T> view) {
+    Snapshot s = current();
+    return s.collect(s.byStartDate, s.startIndex(today, false), s.trips.length, slot -> true, view);
+  }
+
+  // Trips with seats left starting after the given day, by start date
+  public <T> List<T> availableUpcoming(LocalDate today, View<T> view) {
+    Snapshot s = current();
+    return s.collect(s.byStartDate, s.startIndex(today, false), s.trips.length, s::hasSeatsLeft, view);
+  }
+
+  // Trips with seats left, in display order
+  public <T> List<T> available(View<T> view) {
+    Snapshot s = current();
+    return s.collect(s.byDisplayOrder, Integer.MAX_VALUE, s::hasSeatsLeft, view);
+  }
+
+  // Trips running on the given day, by start date
+  public <T> List<T> active(LocalDate today, View<T> view) {
+    Snapshot s = current();
+    return s.collect(s.byStartDate(s.availability.runningOn(today)), Integer.MAX_VALUE, slot -> true, view);
+  }
+
+  /**
+   * Trips with seats left running on at least one day within [from, to] that a diver with the
+   * certification may join (any trip without certification), by start date.
+   */
+  public <T> List<T> availableBetween(LocalDate from, LocalDate to, DiveCertification certification,
+      View<T> view) {
+    if (from == null || to == null) {
+      return new ArrayList<>();
+    }
+    Snapshot s = current();
+    Availability availability = s.availability;
+    CompressedBitmap slots = availability.runningBetween(from, to).and(availability.open.get());
+    if (certification != null) {
+      slots = slots.and(availability.certifiedFor[certification.ordinal()]);
+    }
+    return s.collect(s.byStartDate(slots), Integer.MAX_VALUE, slot -> true, view);
+  }
+
+  /**
+   * Availability calendar of one month: per day the trips running that day that a diver with the
+   * certification may join (all trips without certification), and how many of them have seats
+   * left. Every count is the cardinality of a bitmap intersection.
+   */
+  public TripCalendar calendar(YearMonth month, DiveCertification certification) {
+    Availability availability = current().availability;
+    CompressedBitmap open = availability.open.get();
+    CompressedBitmap eligible = certification == null ? null : availability.certifiedFor[certification.ordinal()];
+    CompressedBitmap availableInMonth = CompressedBitmap.EMPTY;
+    List<CalendarDay> days = new ArrayList<>(month.lengthOfMonth());
+    for (LocalDate day = month.atDay(1); !day.isAfter(month.atEndOfMonth()); day = day.plusDays(1)) {
+      CompressedBitmap running = availability.runningOn(day);
+      if (eligible != null) {
+        running = running.and(eligible);
+      }
+      CompressedBitmap available = running.and(open);
+      availableInMonth = availableInMonth.or(available);
+      days.add(new CalendarDay(day, running.cardinality(), available.cardinality()));
+    }
+    return new TripCalendar(month, certification, availableInMonth.cardinality(), days);
+  }
+
+  // Trips that ended before the given day, most recent first
+  public <T> List<T> past(LocalDate today, int limit, View<T> view) {
+    Snapshot s = current();
+    int end = s.endIndex(today);
+    List<T> trips = new ArrayList<>(Math.max(0, Math.min(end, limit)));
+    for (int i = end - 1; i >= 0 && trips.size() < limit; i--) {
+      trips.add(s.view(s.byEndDate[i], view));
+    }
+    return trips;
+  }
+
+  // Trips starting within [from, to], by start date
+  public <T> List<T> startingBetween(LocalDate from, LocalDate to, View<T> view) {
+    if (from == null || to == null) {
+      return new ArrayList<>();
+    }
+    Snapshot s = current();
+    return s.collect(s.byStartDate, s.startIndex(from, true), s.startIndex(to, false), slot -> true, view);
+  }
+
+  // Trips whose location matches the text (full-text, prefix per word), best match first
+  public <T> List<T> locationMatching(String location, View<T> view) {
+    Snapshot s = current();
+    return s.collect(s.slotsOf(searchIndex.searchTripLocations(location, Integer.MAX_VALUE)),
+        Integer.MAX_VALUE, slot -> true, view);
+  }
+
+  // Trips a diver with the given certification may join, by start date
+  public <T> List<T> forCertification(DiveCertification certification, View<T> view) {
+    if (certification == null) {
+      return new ArrayList<>();
+    }
+    Snapshot s = current();
+    return s.collect(s.byCertification[certification.ordinal()], Integer.MAX_VALUE, slot -> true, view);
+  }
+
+  // Trips priced within [min, max], cheapest first
+  public <T> List<T> priceRange(BigDecimal min, BigDecimal max, View<T> view) {
+    if (min == null || max == null) {
+      return new ArrayList<>();
+    }
+    Snapshot s = current();
+    return s.collect(s.byPrice, s.priceIndex(min, true), s.priceIndex(max, false), slot -> true, view);
+  }
+
+  // Featured trips in display order
+  public <T> List<T> featured(int limit, View<T> view) {
+    Snapshot s = current();
+    return s.collect(s.byDisplayOrder, limit, slot -> s.trips[slot].featured(), view);
+  }
+
+  // Most recently created trips first, only the returned ones are turned into views
+  public <T> List<T> newest(int limit, View<T> view) {
+    Snapshot s = current();
+    return IntStream.range(0, s.trips.length).boxed()
+        .sorted(Comparator.comparing((Integer slot) -> s.trips[slot].createdAt(),
+                Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(slot -> s.trips[slot].id(), Comparator.reverseOrder()))
+        .limit(limit)
+        .map(slot -> s.view(slot, view))
+        .toList();
+  }
+
+  // Number of published trips
+  public int size() {
+    return current().trips.length;
+  }
+
+  /**
+   * Search by text, start date range, certification, availability and price; every criterion is
+   * optional. Without search text the results are ordered by start date and the start date bounds
+   * are resolved by binary search on the start date index. With search text the full-text index decides the candidates and their
+   * order (best match first), the other criteria only filter them.
+   */
+  public <T> List<T> search(String text, LocalDate startDate, LocalDate endDate,
+      DiveCertification maxCertification, boolean availableOnly, BigDecimal minPrice, BigDecimal maxPrice,
+      View<T> view) {
+    Snapshot s = current();
+    int[] order;
+    int from;
+    int to;
+    if (text == null || InvertedIndex.tokenize(text).isEmpty()) {
+      order = s.byStartDate;
+      from = startDate == null ? 0 : s.startIndex(startDate, true);
+      to = endDate == null ? s.trips.length : s.startIndex(endDate, false);
+    } else {
+      order = s.slotsOf(searchIndex.searchTrips(text, Integer.MAX_VALUE));
+      from = 0;
+      to = order.length;
+    }
+    return s.collect(order, from, to, slot -> {
+      CatalogTrip trip = s.trips[slot];
+      return (startDate == null || !trip.startDate().isBefore(startDate))
+          && (endDate == null || !trip.startDate().isAfter(endDate))
+          && (maxCertification == null || trip.certification().ordinal() <= maxCertification.ordinal())
+          && (!availableOnly || s.hasSeatsLeft(slot))
+          && (minPrice == null || (trip.price() != null && trip.price().compareTo(minPrice) >= 0))
+          && (maxPrice == null || (trip.price() != null && trip.price().compareTo(maxPrice) <= 0));
+    }, view);
+  }
+
+  /**
+   * Faceted search: one page of the matching trips plus counts per location, certification level,
+   * price band and start month, computed in a single pass over the snapshot columns. Each facet is
+   * counted with all other filters applied but not its own, so a trip that fails exactly one facet
+   * filter still counts for that facet. Ordered like {@link #search}.
+   */
+  public <T> TripSearchResult<T> facetedSearch(TripSearchCriteria criteria, int page, int size, View<T> view) {
+    if (page < 0 || size < 1) {
+      throw new IllegalArgumentException("Page must not be negative and size must be at least one");
+    }
+    Snapshot s = current();
+    Columns columns = s.columns;
+    int[] order = criteria.text() == null || InvertedIndex.tokenize(criteria.text()).isEmpty()
+        ? s.byStartDate
+        : s.slotsOf(searchIndex.searchTrips(criteria.text(), Integer.MAX_VALUE));
+
+    // Filters in column form, an unknown location gets a negative code and matches nothing
+    boolean locationFiltered = criteria.location() != null;
+    int location = locationFiltered ? Collections.binarySearch(s.locations, criteria.location()) : -1;
+    int maxCertification = criteria.certification() == null
+        ? Integer.MAX_VALUE : criteria.certification().ordinal();
+    boolean priceFiltered = criteria.minPrice() != null || criteria.maxPrice() != null;
+    long minCents = criteria.minPrice() == null ? Long.MIN_VALUE : toCents(criteria.minPrice(), RoundingMode.CEILING);
+    long maxCents = criteria.maxPrice() == null ? Long.MAX_VALUE : toCents(criteria.maxPrice(), RoundingMode.FLOOR);
+    long fromDay = criteria.startDate() == null ? Long.MIN_VALUE : criteria.startDate().toEpochDay();
+    long toDay = criteria.endDate() == null ? Long.MAX_VALUE : criteria.endDate().toEpochDay();
+
+    int[] locationCounts = new int[s.locations.size()];
+    int[] certificationCounts = new int[CERTIFICATION_LEVELS];
+    int[] priceBandCounts = new int[PRICE_BAND_LIMITS.length + 1];
+    int[] monthCounts = new int[columns.months.size()];
+    int[] matches = new int[order.length];
+    int matchCount = 0;
+    for (int slot : order) {
+      if (criteria.availableOnly() && !s.hasSeatsLeft(slot)) {
+        continue;
+      }
+      int failed = 0;
+      if (locationFiltered && columns.location[slot] != location) {
+        failed |= FACET_LOCATION;
+      }
+      if (columns.certification[slot] > maxCertification) {
+        failed |= FACET_CERTIFICATION;
+      }
+      long cents = columns.priceCents[slot];
+      if (priceFiltered && (cents == NO_PRICE || cents < minCents || cents > maxCents)) {
+        failed |= FACET_PRICE;
+      }
+      if (columns.startDay[slot] < fromDay || columns.startDay[slot] > toDay) {
+        failed |= FACET_MONTH;
+      }
+      if (failed == 0) {
+        matches[matchCount++] = slot;
+      } else if (Integer.bitCount(failed) > 1) {
+        continue;
+      }
+      // Matching trips count for every facet, trips failing one facet filter only for that facet
+      int counted = failed == 0 ? ALL_FACETS : failed;
+      if ((counted & FACET_LOCATION) != 0) {
+        locationCounts[columns.location[slot]]++;
+      }
+      if ((counted & FACET_CERTIFICATION) != 0) {
+        certificationCounts[columns.certification[slot]]++;
+      }
+      if ((counted & FACET_PRICE) != 0 && columns.priceBand[slot] >= 0) {
+        priceBandCounts[columns.priceBand[slot]]++;
+      }
+      if ((counted & FACET_MONTH) != 0) {
+        monthCounts[columns.startMonth[slot]]++;
+      }
+    }
+
+    List<T> trips = new ArrayList<>();
+    long first = (long) page * size;
+    for (long i = first; i < Math.min(matchCount, first + size); i++) {
+      trips.add(s.view(matches[(int) i], view));
+    }
+    TripFacets facets = new TripFacets(locationFacet(s.locations, locationCounts),
+        certificationFacet(certificationCounts), priceBandFacet(priceBandCounts),
+        monthFacet(columns.months, monthCounts));
+    return new TripSearchResult<>(trips, page, size, matchCount, (matchCount + size - 1) / size, facets);
+  }
+
+  // Other trips at a matching location or with the same certification level, by start date
+  public <T> List<T> similar(Long tripId, String location, DiveCertification certification, int limit,
+      View<T> view) {
+    Snapshot s = current();
+    String key = location == null ? null : location.toLowerCase(Locale.ROOT);
+    return s.collect(s.byStartDate, limit, slot -> {
+      CatalogTrip trip = s.trips[slot];
+      return trip.id() != (tripId == null ? -1 : tripId)
+          && ((key != null && trip.locationKey().contains(key)) || trip.certification() == certification);
+    }, view);
+  }
+
+  // The trips with the given ids in that order, ids no longer published are skipped
+  <T> List<T> byIds(long[] ids, int limit, View<T> view) {
+    Snapshot s = current();
+    List<T> result = new ArrayList<>();
+    for (int i = 0; i < ids.length && result.size() < limit; i++) {
+      Integer slot = s.slotById.get(ids[i]);
+      if (slot != null) {
+        result.add(s.view(slot, view));
+      }
+    }
+    return result;
+  }
+
+  // The published trip with this id, empty if there is none
+  Optional<CatalogTrip> trip(Long id) {
+    Snapshot s = current();
+    Integer slot = id == null ? null : s.slotById.get(id);
+    return slot == null ? Optional.empty() : Optional.of(s.trips[slot]);
+  }
+
+  // Every published trip, in display order
+  List<CatalogTrip> trips() {
+    return List.of(current().trips);
+  }
+
+  // Bumped after every visible change of the trips, see changed()
+  public long version() {
+    return version.get();
+  }
+
+  // When version() last changed, in epoch milliseconds
+  public long lastModified() {
+    return lastModified;
+  }
+
+  /**
+   * Version of one published trip: its entity version and booked seats, null if the slug is not
+   * a published trip.
+   */
+  public String tripVersion(String slug) {
+    Snapshot s = current();
+    Integer slot = slug == null ? null : s.slotBySlug.get(slug);
+    return slot == null ? null : s.trips[slot].id() + "." + s.trips[slot].version() + "." + s.booked.get(slot);
+  }
+
+  // Same as tripVersion(String), by id
+  public String tripVersion(Long id) {
+    Snapshot s = current();
+    Integer slot = id == null ? null : s.slotById.get(id);
+    return slot == null ? null : s.trips[slot].id() + "." + s.trips[slot].version() + "." + s.booked.get(slot);
+  }
+
+  public List<String> distinctLocations() {
+    return new ArrayList<>(current().locations);
+  }
+
+  /**
+   * Destinations starting with the prefix (case and accent insensitive), most popular first.
+   * Popularity is the number of trips plus their booked seats when the snapshot was built.
+   */
+  public List<String> suggestDestinations(String prefix, int limit) {
+    return current().destinations.suggest(prefix, Math.min(limit, MAX_DESTINATION_SUGGESTIONS));
+  }
+
+  // Locations with their number of trips ({location, count}), most trips first
+  public List<Object[]> popularDestinations() {
+    List<Object[]> rows = new ArrayList<>();
+    current().tripsPerLocation.forEach((location, count) -> rows.add(new Object[]{location, count}));
+    return rows;
+  }
+
+  // ===== MAINTENANCE =====
+
+  // Build the first snapshot once the seat inventory is loaded
+  @EventListener(ApplicationReadyEvent.class)
+  @Order(1)
+  public void warmUp() {
+    rebuild();
+  }
+
+  // Admin writes: swap in a new snapshot once the change is committed, before the listeners
+  // that read it (similar trips)
+  @TransactionalEventListener(fallbackExecution = true)
+  @Order(0)
+  public void onTripChanged(TripChangedEvent event) {
+    rebuild();
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  @Order(0)
+  public void onSeatsReserved(SeatsReservedEvent event) {
+    adjustBooked(event.type(), event.itemId(), event.seats());
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  @Order(0)
+  public void onSeatsReleased(SeatsReleasedEvent event) {
+    adjustBooked(event.type(), event.itemId(), -event.seats());
+  }
+
+  // The stored booking counts of the database-backed trip endpoints changed
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSeatsFlushed(SeatsFlushedEvent event) {
+    if (event.trips()) {
+      changed();
+    }
+  }
+
+  // Safety net for changes that bypass the trip service (other instances, manual SQL)
+  @Scheduled(fixedDelayString = "${app.catalog.refresh-interval-ms:300000}",
+      initialDelayString = "${app.catalog.refresh-interval-ms:300000}")
+  public void refresh() {
+    rebuild();
+  }
+
+  /**
+   * Load the published trips and atomically replace the current snapshot. Rebuilds are
+   * serialized, so a slow rebuild can never overwrite the result of a newer one.
+   */
+  public void rebuild() {
+    rebuildLock.lock();
+    try {
+      long started = System.nanoTime();
+      List<Trip> trips = readTransaction.execute(status ->
+          tripRepo.findByStatusOrderByDisplayOrderAsc(PublicationStatus.PUBLISHED));
+      snapshot = build(trips == null ? List.of() : trips);
+      changed();
+      logger.debug("Trip catalog rebuilt with {} trips in {} ms", snapshot.trips.length,
+          (System.nanoTime() - started) / 1_000_000);
+    } finally {
+      rebuildLock.unlock();
+    }
+  }
+
+  private Snapshot current() {
+    Snapshot s = snapshot;
+    if (s == null) {
+      rebuild();
+      s = snapshot;
+    }
+    return s;
+  }
+
+  private void adjustBooked(BookingType type, Long itemId, int delta) {
+    Snapshot s = snapshot;
+    if (type != BookingType.TRIP || s == null) {
+      return;
+    }
+    Integer slot = s.slotById.get(itemId);
+    if (slot != null) {
+      s.booked.accumulateAndGet(slot, delta, (booked, change) -> Math.max(0, booked + change));
+      // Reads the count inside the update, so a racing change of the same trip retries with it
+      s.availability.open.updateAndGet(open -> s.hasSeatsLeft(slot) ? open.with(slot) : open.without(slot));
+      changed();
+    }
+  }
+
+  // After the change is visible, never before: a reader that sees the new version reads new data
+  private void changed() {
+    lastModified = System.currentTimeMillis();
+    version.incrementAndGet();
+  }
+
+  private Snapshot build(List<Trip> source) {
+    CatalogTrip[] trips = source.stream()
+        .map(CatalogTrip::of)
+        .sorted(Comparator.comparingInt(CatalogTrip::displayOrder)
+            .thenComparing(CatalogTrip::startDate)
+            .thenComparingLong(CatalogTrip::id))
+        .toArray(CatalogTrip[]::new);
+
+    AtomicIntegerArray booked = new AtomicIntegerArray(trips.length);
+    Map<Long, Integer> slotById = new HashMap<>();
+    Map<String, Integer> slotBySlug = new HashMap<>();
+    for (int slot = 0; slot < trips.length; slot++) {
+      CatalogTrip trip = trips[slot];
+      // In-memory seat counters are ahead of the stored count by up to one flush interval
+      Integer inMemory = seatInventory.bookedSeats(BookingType.TRIP, trip.id());
+      booked.set(slot, inMemory != null ? inMemory : trip.storedBookings());
+      slotById.put(trip.id(), slot);
+      if (trip.slug() != null) {
+        slotBySlug.put(trip.slug(), slot);
+      }
+    }
+
+    Comparator<Integer> byStart = Comparator.comparing((Integer slot) -> trips[slot].startDate())
+        .thenComparingInt(slot -> slot);
+    int[] byStartDate = sortedSlots(trips.length, slot -> true, byStart);
+    int[] byEndDate = sortedSlots(trips.length, slot -> true,
+        Comparator.comparing((Integer slot) -> trips[slot].endDate()).thenComparingInt(slot -> slot));
+    int[] byPrice = sortedSlots(trips.length, slot -> trips[slot].price() != null,
+        Comparator.comparing((Integer slot) -> trips[slot].price()).thenComparing(byStart));
+
+    // One start date ordered list per level: the trips a diver with that certification may join
+    int[][] byCertification = new int[CERTIFICATION_LEVELS][];
+    for (int level = 0; level < CERTIFICATION_LEVELS; level++) {
+      int maxLevel = level;
+      byCertification[level] = Arrays.stream(byStartDate)
+          .filter(slot -> trips[slot].certification().ordinal() <= maxLevel)
+          .toArray();
+    }
+
+    TreeSet<String> locations = new TreeSet<>();
+    Map<String, Long> counts = new HashMap<>();
+    // Never written after the build, so readers can share it without locking
+    RadixTrie destinations = new RadixTrie(MAX_DESTINATION_SUGGESTIONS);
+    for (int slot = 0; slot < trips.length; slot++) {
+      CatalogTrip trip = trips[slot];
+      locations.add(trip.location());
+      counts.merge(trip.location(), 1L, Long::sum);
+      destinations.add(trip.location(), 1L + booked.get(slot));
+    }
+    Map<String, Long> tripsPerLocation = new LinkedHashMap<>();
+    counts.entrySet().stream()
+        .sorted(Map.Entry.<String, Long>comparingByValue().reversed()
+            .thenComparing(Map.Entry.<String, Long>comparingByKey()))
+        .forEachOrdered(entry -> tripsPerLocation.put(entry.getKey(), entry.getValue()));
+
+    List<String> locationList = List.copyOf(locations);
+    return new Snapshot(trips, booked, Map.copyOf(slotById), Map.copyOf(slotBySlug),
+        IntStream.range(0, trips.length).toArray(), byStartDate, byEndDate, byPrice, byCertification,
+        locationList, Collections.unmodifiableMap(tripsPerLocation), destinations,
+        Columns.of(trips, locationList), Availability.of(trips, booked, byCertification));
+  }
+
+  // Non-zero location counts, most trips first
+  private static Map<String, Integer> locationFacet(List<String> locations, int[] counts) {
+    Map<String, Integer> facet = new LinkedHashMap<>();
+    IntStream.range(0, counts.length).filter(code -> counts[code] > 0).boxed()
+        .sorted(Comparator.comparingInt((Integer code) -> counts[code]).reversed().thenComparing(code -> code))
+        .forEachOrdered(code -> facet.put(locations.get(code), counts[code]));
+    return facet;
+  }
+
+  private static Map<DiveCertification, Integer> certificationFacet(int[] counts) {
+    Map<DiveCertification, Integer> facet = new EnumMap<>(DiveCertification.class);
+    for (DiveCertification level : DiveCertification.values()) {
+      if (counts[level.ordinal()] > 0) {
+        facet.put(level, counts[level.ordinal()]);
+      }
+    }
+    return facet;
+  }
+
+  private static Map<String, Integer> priceBandFacet(int[] counts) {
+    Map<String, Integer> facet = new LinkedHashMap<>();
+    for (int band = 0; band < counts.length; band++) {
+      if (counts[band] > 0) {
+        facet.put(priceBandLabel(band), counts[band]);
+      }
+    }
+    return facet;
+  }
+
+  private static Map<YearMonth, Integer> monthFacet(List<YearMonth> months, int[] counts) {
+    Map<YearMonth, Integer> facet = new LinkedHashMap<>();
+    for (int code = 0; code < counts.length; code++) {
+      if (counts[code] > 0) {
+        facet.put(months.get(code), counts[code]);
+      }
+    }
+    return facet;
+  }
+
+  // Index of the band the price falls into, -1 without a price
+  private static int priceBand(BigDecimal price) {
+    if (price == null) {
+      return -1;
+    }
+    int band = 0;
+    while (band < PRICE_BAND_LIMITS.length && price.compareTo(BigDecimal.valueOf(PRICE_BAND_LIMITS[band])) >= 0) {
+      band++;
+    }
+    return band;
+  }
+
+  // "0-500", "500-1000", ..., "5000+"
+  private static String priceBandLabel(int band) {
+    int lower = band == 0 ? 0 : PRICE_BAND_LIMITS[band - 1];
+    return band == PRICE_BAND_LIMITS.length ? lower + "+" : lower + "-" + PRICE_BAND_LIMITS[band];
+  }
+
+  private static long toCents(BigDecimal amount, RoundingMode rounding) {
+    return amount.movePointRight(2).setScale(0, rounding).longValue();
+  }
+
+  private static int[] sortedSlots(int size, IntPredicate include, Comparator<Integer> order) {
+    return IntStream.range(0, size).filter(include).boxed().sorted(order).mapToInt(Integer::intValue).toArray();
+  }
+
+  /**
+   * Immutable copy of the catalog fields of a published trip. The stored booking count is only
+   * the starting value of the snapshot's live seat counter.
+   */
+  record CatalogTrip(long id, long version, String location, String locationKey, String description,
+                     String shortDescription, LocalDate startDate, LocalDate endDate, String imageUrl,
+                     int capacity, int storedBookings, DiveCertification certification, BigDecimal price,
+                     boolean featured, int displayOrder, String slug, LocalDateTime createdAt,
+                     LocalDateTime updatedAt) {
+
+    static CatalogTrip of(Trip trip) {
+      return new CatalogTrip(trip.getId(), trip.getVersion() == null ? 0 : trip.getVersion(), trip.getLocation(),
+          trip.getLocation().toLowerCase(Locale.ROOT), trip.getDescription(), trip.getShortDescription(), trip.getStartDate(), trip.getEndDate(),
+          trip.getImageUrl(), trip.getCapacity(), trip.getCurrentBookings() == null ? 0 : trip.getCurrentBookings(),
+          trip.getMinCertificationRequired(), trip.getPrice(), Boolean.TRUE.equals(trip.getFeatured()),
+          trip.getDisplayOrder() == null ? 0 : trip.getDisplayOrder(), trip.getSlug(), trip.getCreatedAt(),
+          trip.getUpdatedAt());
+    }
+
+    Trip toTrip(int booked) {
+      Trip trip = new Trip();
+      trip.setId(id);
+      trip.setLocation(location);
+      trip.setDescription(description);
+      trip.setStartDate(startDate);
+      trip.setEndDate(endDate);
+      trip.setImageUrl(imageUrl);
+      trip.setCapacity(capacity);
+      trip.setCurrentBookings(booked);
+      trip.setMinCertificationRequired(certification);
+      trip.setCreatedAt(createdAt);
+      trip.setShortDescription(shortDescription)
+          .setPrice(price)
+          .setStatus(PublicationStatus.PUBLISHED)
+          .setFeatured(featured)
+          .setDisplayOrder(displayOrder)
+          .setSlug(slug)
+          .setUpdatedAt(updatedAt);
+      return trip;
+    }
+
+    TripCard toCard(int booked) {
+      return new TripCard(id, slug, location, shortDescription, startDate, endDate, price, certification,
+          capacity, booked, Math.max(0, capacity - booked), featured, displayOrder);
+    }
+  }
+
+  // How a query hands out the catalog trips it selected
+  @FunctionalInterface
+  interface View<T> {
+
+    T of(CatalogTrip trip, int booked);
+  }
+
+  /**
+   * Bitmap index of the trip slots for the availability calendar: the trips running on each day
+   * from the first start date to the last end date, the trips open to each certification level
+   * (required level at most that one) and the trips with seats left. The last one follows the
+   * booked seats, it is replaced copy-on-write whenever a trip fills up or frees a seat.
+   */
+  private record Availability(long firstDay, CompressedBitmap[] runningOn, CompressedBitmap[] certifiedFor,
+                              AtomicReference<CompressedBitmap> open) {
+
+    static Availability of(CatalogTrip[] trips, AtomicIntegerArray booked, int[][] byCertification) {
+      long firstDay = Long.MAX_VALUE;
+      long lastDay = Long.MIN_VALUE;
+      for (CatalogTrip trip : trips) {
+        firstDay = Math.min(firstDay, trip.startDate().toEpochDay());
+        lastDay = Math.max(lastDay, lastDay(trip));
+      }
+      int days = trips.length == 0 ? 0 : (int) (lastDay - firstDay + 1);
+
+      // Slots per day, in slot order
+      int[] counts = new int[days];
+      for (CatalogTrip trip : trips) {
+        for (long day = trip.startDate().toEpochDay(); day <= lastDay(trip); day++) {
+          counts[(int) (day - firstDay)]++;
+        }
+      }
+      int[][] slotsPerDay = new int[days][];
+      for (int day = 0; day < days; day++) {
+        slotsPerDay[day] = new int[counts[day]];
+        counts[day] = 0;
+      }
+      int[] open = new int[trips.length];
+      int openCount = 0;
+      for (int slot = 0; slot < trips.length; slot++) {
+        CatalogTrip trip = trips[slot];
+        for (long day = trip.startDate().toEpochDay(); day <= lastDay(trip); day++) {
+          int index = (int) (day - firstDay);
+          slotsPerDay[index][counts[index]++] = slot;
+        }
+        if (booked.get(slot) < trip.capacity()) {
+          open[openCount++] = slot;
+        }
+      }
+
+      CompressedBitmap[] runningOn = new CompressedBitmap[days];
+      for (int day = 0; day < days; day++) {
+        runningOn[day] = CompressedBitmap.of(slotsPerDay[day]);
+      }
+      CompressedBitmap[] certifiedFor = new CompressedBitmap[byCertification.length];
+      for (int level = 0; level < byCertification.length; level++) {
+        certifiedFor[level] = CompressedBitmap.of(byCertification[level]);
+      }
+      return new Availability(firstDay, runningOn, certifiedFor,
+          new AtomicReference<>(CompressedBitmap.of(Arrays.copyOf(open, openCount))));
+    }
+
+    // A trip ending before its start runs on its start date only
+    private static long lastDay(CatalogTrip trip) {
+      return Math.max(trip.startDate().toEpochDay(), trip.endDate().toEpochDay());
+    }
+
+    CompressedBitmap runningOn(LocalDate date) {
+      long index = date.toEpochDay() - firstDay;
+      return index < 0 || index >= runningOn.length ? CompressedBitmap.EMPTY : runningOn[(int) index];
+    }
+
+    // Trips running on at least one day within [from, to]
+    CompressedBitmap runningBetween(LocalDate from, LocalDate to) {
+      long first = Math.max(0, from.toEpochDay() - firstDay);
+      long last = Math.min(runningOn.length - 1L, to.toEpochDay() - firstDay);
+      List<CompressedBitmap> days = new ArrayList<>();
+      for (long index = first; index <= last; index++) {
+        days.add(runningOn[(int) index]);
+      }
+      return CompressedBitmap.union(days);
+    }
+  }
+
+  /**
+   * Facet and filter values of every slot as primitive columns: dictionary codes for location and
+   * start month, certification ordinal, price band, start day and price in cents. A faceted search
+   * reads only these arrays.
+   */
+  private record Columns(int[] location, byte[] certification, byte[] priceBand, int[] startMonth,
+                         long[] startDay, long[] priceCents, List<YearMonth> months) {
+
+    static Columns of(CatalogTrip[] trips, List<String> locations) {
+      List<YearMonth> months = Arrays.stream(trips).map(trip -> YearMonth.from(trip.startDate()))
+          .distinct().sorted().toList();
+      int size = trips.length;
+      Columns columns = new Columns(new int[size], new byte[size], new byte[size], new int[size],
+          new long[size], new long[size], months);
+      for (int slot = 0; slot < size; slot++) {
+        CatalogTrip trip = trips[slot];
+        columns.location[slot] = Collections.binarySearch(locations, trip.location());
+        columns.certification[slot] = (byte) trip.certification().ordinal();
+        columns.priceBand[slot] = (byte) TripCatalog.priceBand(trip.price());
+        columns.startMonth[slot] = Collections.binarySearch(months, YearMonth.from(trip.startDate()));
+        columns.startDay[slot] = trip.startDate().toEpochDay();
+        columns.priceCents[slot] = trip.price() == null ? NO_PRICE : toCents(trip.price(), RoundingMode.HALF_UP);
+      }
+      return columns;
+    }
+  }
+
+  // One published catalog: trips in display order, index arrays hold slots into that array
+  private record Snapshot(CatalogTrip[] trips, AtomicIntegerArray booked, Map<Long, Integer> slotById,
+                          Map<String, Integer> slotBySlug, int[] byDisplayOrder, int[] byStartDate,
+                          int[] byEndDate, int[] byPrice, int[][] byCertification, List<String> locations,
+                          Map<String, Long> tripsPerLocation, RadixTrie destinations, Columns columns,
+                          Availability availability) {
+
+    <T> T view(int slot, View<T> view) {
+      return view.of(trips[slot], booked.get(slot));
+    }
+
+    // Slots of the search hits in rank order, hits not in this snapshot are skipped
+    int[] slotsOf(Hits hits) {
+      return hits.hits().stream()
+          .map(hit -> slotById.get(hit.id()))
+          .filter(Objects::nonNull)
+          .mapToInt(Integer::intValue)
+          .toArray();
+    }
+
+    boolean hasSeatsLeft(int slot) {
+      return booked.get(slot) < trips[slot].capacity();
+    }
+
+    // The slots ordered by start date
+    int[] byStartDate(CompressedBitmap slots) {
+      return Arrays.stream(slots.toArray()).boxed()
+          .sorted(Comparator.comparing((Integer slot) -> trips[slot].startDate()).thenComparingInt(slot -> slot))
+          .mapToInt(Integer::intValue)
+          .toArray();
+    }
+
+    <T> List<T> collect(int[] order, int limit, IntPredicate filter, View<T> view) {
+      return collect(order, 0, order.length, limit, filter, view);
+    }
+
+    <T> List<T> collect(int[] order, int from, int to, IntPredicate filter, View<T> view) {
+      return collect(order, from, to, Integer.MAX_VALUE, filter, view);
+    }
+
+    <T> List<T> collect(int[] order, int from, int to, int limit, IntPredicate filter, View<T> view) {
+      List<T> result = new ArrayList<>();
+      for (int i = from; i < to && result.size() < limit; i++) {
+        if (filter.test(order[i])) {
+          result.add(view(order[i], view));
+        }
+      }
+      return result;
+    }
+
+    // First position in byStartDate whose start date is >= date (inclusive) or > date
+    int startIndex(LocalDate date, boolean inclusive) {
+      int low = 0;
+      int high = byStartDate.length;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        int cmp = trips[byStartDate[mid]].startDate().compareTo(date);
+        if (cmp < 0 || (!inclusive && cmp == 0)) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+
+    // First position in byEndDate whose end date is >= date
+    int endIndex(LocalDate date) {
+      int low = 0;
+      int high = byEndDate.length;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (trips[byEndDate[mid]].endDate().isBefore(date)) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+
+    // First position in byPrice whose price is >= price (inclusive) or > price
+    int priceIndex(BigDecimal price, boolean inclusive) {
+      int low = 0;
+      int high = byPrice.length;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        int cmp = trips[byPrice[mid]].price().compareTo(price);
+        if (cmp < 0 || (!inclusive && cmp == 0)) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+  }
+}
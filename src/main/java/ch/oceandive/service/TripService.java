@@ -1,27 +1,52 @@
 package ch.oceandive.service;
 
+import ch.oceandive.dto.BulkActionReport;
+import ch.oceandive.dto.BulkActionReport.Outcome;
+import ch.oceandive.dto.KeysetPage;
+import ch.oceandive.dto.SeatAvailability;
+import ch.oceandive.dto.TripCalendar;
+import ch.oceandive.dto.TripCard;
 import ch.oceandive.dto.TripDTO;
+import ch.oceandive.dto.TripSearchCriteria;
+import ch.oceandive.dto.TripSearchResult;
+import ch.oceandive.event.TripChangedEvent;
 import ch.oceandive.exceptionHandler.ResourceNotFoundException;
+import ch.oceandive.utils.BookingType;
+import ch.oceandive.utils.BulkAction;
+import ch.oceandive.utils.PageCursor;
 import ch.oceandive.utils.PublicationStatus;
+import ch.oceandive.utils.SlugAllocator;
 import ch.oceandive.utils.DiveCertification;
 import ch.oceandive.model.Trip;
 import ch.oceandive.repository.TripRepo;
 import java.util.ArrayList;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Objects;
+import java.util.Optional;
 
+/**
+ * Trip management. Public catalog queries are answered by the in-memory {@link TripCatalog},
+ * admin writes go to the database and publish a {@link TripChangedEvent} to rebuild it.
+ */
 @Service
 @Transactional(readOnly = true)
 public class TripService {
@@ -30,10 +55,27 @@ public class TripService {
 
     private final TripRepo tripRepo;
     private final CertificationValidationService certificationValidator;
-
-    public TripService(TripRepo tripRepo, CertificationValidationService certificationValidator) {
+    private final SeatInventory seatInventory;
+    private final WriteRetryExecutor writeRetry;
+    private final TripCatalog catalog;
+    private final SimilarTripIndex similarTrips;
+    private final TripStatistics statistics;
+    private final WaitlistService waitlistService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public TripService(TripRepo tripRepo, CertificationValidationService certificationValidator,
+        SeatInventory seatInventory, WriteRetryExecutor writeRetry, TripCatalog catalog,
+        SimilarTripIndex similarTrips, TripStatistics statistics, WaitlistService waitlistService,
+        ApplicationEventPublisher eventPublisher) {
         this.tripRepo = tripRepo;
         this.certificationValidator = certificationValidator;
+        this.seatInventory = seatInventory;
+        this.writeRetry = writeRetry;
+        this.catalog = catalog;
+        this.similarTrips = similarTrips;
+        this.statistics = statistics;
+        this.waitlistService = waitlistService;
+        this.eventPublisher = eventPublisher;
     }
 
     // ===== BASIC CRUD OPERATIONS =====
@@ -42,8 +84,10 @@ public class TripService {
      * Get all trips.
      * @return List of all trips
      */
+    // Catalog queries run without a transaction, so they never borrow a database connection
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<Trip> getAllTrips() {
-        return tripRepo.findByStatusOrderByDisplayOrderAsc(PublicationStatus.PUBLISHED);
+        return catalog.published(TripCatalog.DETAIL);
     }
 
     /**
@@ -66,14 +110,48 @@ public class TripService {
     }
 
     /**
-     * Get a trip by slug.
+     * Get a trip by ID for display. Published trips come from the catalog, unpublished ones (admin
+     * preview) are read from the database when includeUnpublished is set.
+     * @param id the trip ID
+     * @param includeUnpublished whether drafts and archived trips are found too (admin only)
+     * @return The trip, a detached copy when it comes from the catalog
+     * @throws ResourceNotFoundException if the trip is not found
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Trip getTripById(Long id, boolean includeUnpublished) {
+        Optional<Trip> trip = catalog.byId(id);
+        if (trip.isEmpty() && includeUnpublished) {
+            trip = tripRepo.findById(id);
+        }
+        return trip.orElseThrow(() -> new ResourceNotFoundException("Trip not found with id: " + id));
+    }
+
+    /**
+     * Get a published trip by slug, from the catalog: an unknown slug is answered without a query.
      * @param slug the trip slug
      * @return The trip
-     * @throws ResourceNotFoundException if the trip is not found
+     * @throws ResourceNotFoundException if there is no published trip with this slug
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Trip getTripBySlug(String slug) {
-        return tripRepo.findBySlug(slug)
-            .orElseThrow(() -> new ResourceNotFoundException("Trip not found with slug: " + slug));
+        return getTripBySlug(slug, false);
+    }
+
+    /**
+     * Get a trip by slug. Published trips come from the catalog, unpublished ones (admin preview)
+     * are read from the database when includeUnpublished is set.
+     * @param slug the trip slug
+     * @param includeUnpublished whether drafts and archived trips are found too (admin only)
+     * @return The trip
+     * @throws ResourceNotFoundException if the trip is not found
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Trip getTripBySlug(String slug, boolean includeUnpublished) {
+        Optional<Trip> trip = catalog.bySlug(slug);
+        if (trip.isEmpty() && includeUnpublished) {
+            trip = tripRepo.findBySlug(slug);
+        }
+        return trip.orElseThrow(() -> new ResourceNotFoundException("Trip not found with slug: " + slug));
     }
 
     /**
@@ -85,6 +163,36 @@ public class TripService {
         return tripRepo.getAllTrips(pageable);
     }
 
+    /**
+     * Get all trips one keyset page at a time, in the order of {@link #getAllTrips(Pageable)}.
+     * Deep pages cost the same as the first one, and the count is only run on request.
+     * @param cursor nextCursor of the previous page, null for the first page
+     * @param size page size
+     * @param withTotal also count the listed trips
+     * @param includeUnpublished list drafts and archived trips too (admin only)
+     * @return Page of trips with the cursor of the next page
+     * @throws IllegalArgumentException if the cursor is not one of ours
+     */
+    public KeysetPage<Trip> getAllTrips(String cursor, int size, boolean withTotal, boolean includeUnpublished) {
+        int pageSize = Math.max(1, size);
+        // One extra row tells whether there is a next page
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        PublicationStatus status = includeUnpublished ? null : PublicationStatus.PUBLISHED;
+        List<Trip> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = tripRepo.findFirstTrips(status, limit);
+        } else {
+            TripPosition after = TripPosition.of(cursor);
+            rows = tripRepo.findTripsAfter(status, after.displayOrder(), after.startDate(), after.id(), limit);
+        }
+        return KeysetPage.of(rows, pageSize, this::cursorAfter, withTotal ? countTrips(status) : null);
+    }
+
+    // Cursor of the trip list position right after the given trip
+    public String cursorAfter(Trip trip) {
+        return PageCursor.encode(trip.getDisplayOrder(), trip.getStartDate(), trip.getId());
+    }
+
     /**
      * Create a new trip.
      * @param trip the trip to create
@@ -105,7 +213,14 @@ public class TripService {
             trip.setStatus(PublicationStatus.PUBLISHED);
         }
 
+        // Trips to the same location share a base slug: take the lowest free "-n" suffix
+        if (trip.getSlug() == null || trip.getSlug().isEmpty()) {
+            trip.setSlug(trip.generateSlug(trip.getLocation() + " " + trip.getStartDate()));
+        }
+        trip.setSlug(SlugAllocator.firstFree(trip.getSlug(), tripRepo.findSlugsWithBase(trip.getSlug(), null)));
+
         Trip savedTrip = tripRepo.save(trip);
+        eventPublisher.publishEvent(new TripChangedEvent(savedTrip.getId()));
         logger.info("Trip created successfully with ID: {}", savedTrip.getId());
 
         return savedTrip;
@@ -129,22 +244,28 @@ public class TripService {
      * @return The updated trip
      * @throws ResourceNotFoundException if the trip is not found
      */
-    @Transactional
+    // Runs in its own transaction per attempt: a concurrent booking bumps the trip version, the
+    // edit is then re-applied to the fresh row instead of overwriting the booking count
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Trip updateTrip(Long id, Trip tripDetails) {
         logger.info("Updating trip with ID: {}", id);
 
-        Trip trip = getTripById(id);
-
         // Validate trip data
         validateTripData(tripDetails);
 
-        // Update fields
-        updateTripFields(trip, tripDetails);
+        return writeRetry.execute("trip", () -> {
+            Trip trip = getTripById(id);
 
-        Trip updatedTrip = tripRepo.save(trip);
-        logger.info("Trip updated successfully: {}", updatedTrip.getLocation());
+            // Update fields
+            updateTripFields(trip, tripDetails);
 
-        return updatedTrip;
+            Trip updatedTrip = tripRepo.saveAndFlush(trip);
+            seatInventory.refresh(BookingType.TRIP, id);
+            eventPublisher.publishEvent(new TripChangedEvent(id));
+            logger.info("Trip updated successfully: {}", updatedTrip.getLocation());
+
+            return updatedTrip;
+        });
     }
 
     /**
@@ -153,7 +274,7 @@ public class TripService {
      * @param tripDTO the updated trip DTO
      * @return The updated trip
      */
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Trip updateTrip(Long id, TripDTO tripDTO) {
         Trip tripDetails = tripDTO.toEntity();
         return updateTrip(id, tripDetails);
@@ -176,6 +297,9 @@ public class TripService {
         }
 
         tripRepo.delete(trip);
+        seatInventory.evict(BookingType.TRIP, id);
+        waitlistService.closeQueues(BookingType.TRIP, List.of(id));
+        eventPublisher.publishEvent(new TripChangedEvent(id));
         logger.info("Trip deleted successfully: {}", trip.getLocation());
     }
 
@@ -192,29 +316,127 @@ public class TripService {
         trip.setStatus(PublicationStatus.ARCHIVED);
 
         Trip archivedTrip = tripRepo.save(trip);
+        eventPublisher.publishEvent(new TripChangedEvent(id));
         logger.info("Trip archived successfully: {}", archivedTrip.getLocation());
 
         return archivedTrip;
     }
 
+    // ===== BULK ADMIN OPERATIONS =====
+
+    /**
+     * Apply a bulk action to the selected trips in one transaction: one query reads their state
+     * and one set-based statement changes the ones that need it. Trips with bookings are not deleted.
+     * @param action the action, anything but {@link BulkAction#REORDER}
+     * @param ids the selected trip IDs
+     * @return The outcome per trip ID
+     */
+    @Transactional
+    public BulkActionReport bulkAction(BulkAction action, Collection<Long> ids) {
+        List<Long> selected = BulkActions.selection(ids);
+        Map<Long, Outcome> outcomes = BulkActions.plan(action, selected, tripRepo.findBulkStates(selected),
+            id -> Objects.requireNonNullElse(seatInventory.bookedSeats(BookingType.TRIP, id), 0));
+        List<Long> targets = BulkActions.applied(outcomes);
+
+        if (!targets.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            int changed = switch (action) {
+                case FEATURE, UNFEATURE -> tripRepo.updateFeatured(targets, action == BulkAction.FEATURE, now);
+                case DELETE -> tripRepo.deleteUnbooked(targets);
+                default -> tripRepo.updateStatus(targets, action.getTargetStatus(), now);
+            };
+            if (action == BulkAction.DELETE) {
+                // Trips booked since the state query are still there
+                if (changed < targets.size()) {
+                    tripRepo.findBulkStates(targets).forEach(row ->
+                        outcomes.put(((Number) row[0]).longValue(), Outcome.HAS_BOOKINGS));
+                }
+                List<Long> deleted = BulkActions.applied(outcomes);
+                deleted.forEach(id -> seatInventory.evict(BookingType.TRIP, id));
+                waitlistService.closeQueues(BookingType.TRIP, deleted);
+            }
+            // One event for the whole batch: the listeners reload once instead of once per trip
+            eventPublisher.publishEvent(new TripChangedEvent(targets.size() == 1 ? targets.get(0) : null));
+        }
+
+        BulkActionReport report = new BulkActionReport(action, outcomes);
+        logger.info("Bulk action {} on {} trips: {}", action, selected.size(), report.summary("trips"));
+        return report;
+    }
+
+    /**
+     * Rewrite the display order of the given trips to their position in the list (1, 2, ...).
+     * The changed trips are written in one JDBC batch; trips not in the list keep their order.
+     * @param orderedIds trip IDs in their new order
+     * @return The outcome per trip ID
+     */
+    // Versioned entity updates, so a booking racing the reorder is retried instead of overwritten
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkActionReport reorderTrips(List<Long> orderedIds) {
+        List<Long> selected = BulkActions.selection(orderedIds);
+        return writeRetry.execute("trip", () -> {
+            Map<Long, Trip> tripsById = new HashMap<>();
+            tripRepo.findAllById(selected).forEach(trip -> tripsById.put(trip.getId(), trip));
+
+            Map<Long, Outcome> outcomes = new LinkedHashMap<>();
+            int position = 1;
+            for (Long id : selected) {
+                Trip trip = tripsById.get(id);
+                if (trip == null) {
+                    outcomes.put(id, Outcome.NOT_FOUND);
+                    continue;
+                }
+                if (trip.getDisplayOrder() != null && trip.getDisplayOrder() == position) {
+                    outcomes.put(id, Outcome.UNCHANGED);
+                } else {
+                    trip.setDisplayOrder(position);
+                    outcomes.put(id, Outcome.APPLIED);
+                }
+                position++;
+            }
+            tripRepo.flush();
+
+            List<Long> moved = BulkActions.applied(outcomes);
+            if (!moved.isEmpty()) {
+                eventPublisher.publishEvent(new TripChangedEvent(moved.size() == 1 ? moved.get(0) : null));
+            }
+            logger.info("Reordered trips: {} of {} moved", moved.size(), selected.size());
+            return new BulkActionReport(BulkAction.REORDER, outcomes);
+        });
+    }
+
     // ===== SEARCH AND FILTERING =====
 
     /**
      * Search trips by multiple criteria.
-     * @param location location filter (partial match)
+     * @param location search text, matched against location and descriptions (full-text)
      * @param startDate minimum start date
      * @param endDate maximum end date
      * @param minCertification minimum certification level
      * @param availableOnly only include trips with available spots
      * @param minPrice minimum price
      * @param maxPrice maximum price
-     * @return List of matching trips
+     * @return List of matching trips, best match first with search text, by start date without
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<Trip> searchTrips(String location, LocalDate startDate, LocalDate endDate,
         DiveCertification minCertification, boolean availableOnly, BigDecimal minPrice, BigDecimal maxPrice) {
 
-        return tripRepo.searchTrips(location, startDate, endDate, minCertification,
-            availableOnly, minPrice, maxPrice);
+        return catalog.search(location, startDate, endDate, minCertification,
+            availableOnly, minPrice, maxPrice, TripCatalog.DETAIL);
+    }
+
+    /**
+     * Faceted trip search: one page of matching trips plus trip counts per location, certification
+     * level, price band and start month, all from one pass over the catalog.
+     * @param criteria the filters, every one optional
+     * @param page zero-based page number
+     * @param size page size
+     * @return the page and the facet counts
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public TripSearchResult<Trip> searchTripsFaceted(TripSearchCriteria criteria, int page, int size) {
+        return catalog.facetedSearch(criteria, page, size, TripCatalog.DETAIL);
     }
 
     /**
@@ -223,33 +445,37 @@ public class TripService {
      * @param endDate the end of the date range
      * @return List of trips starting between the given dates
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<Trip> getTripsByStartDateBetween(LocalDate startDate, LocalDate endDate) {
-        return tripRepo.findByStartDateBetween(startDate, endDate);
+        return catalog.startingBetween(startDate, endDate, TripCatalog.DETAIL);
     }
 
     /**
-     * Get trips by location (case-insensitive partial match).
+     * Get trips by location (full-text: case and accent insensitive, words match as prefixes).
      * @param location the location to search for
-     * @return List of trips with matching location
+     * @return List of trips with matching location, best match first
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<Trip> getTripsByLocation(String location) {
-        return tripRepo.findByLocationContaining(location);
+        return catalog.locationMatching(location, TripCatalog.DETAIL);
     }
 
     /**
      * Get trips that are not fully booked.
      * @return List of trips that are not fully booked
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<Trip> getAvailableTrips() {
-        return tripRepo.findAvailableTrips();
+        return catalog.available(TripCatalog.DETAIL);
     }
 
     /**
      * Get available upcoming trips.
      * @return List of available upcoming trips
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<Trip> getAvailableUpcomingTrips() {
-        return tripRepo.findAvailableUpcomingTrips();
+        return catalog.availableUpcoming(LocalDate.now(), TripCatalog.DETAIL);
     }
 
     /**
@@ -257,24 +483,27 @@ public class TripService {
      * @param certification the user's certification level
      * @return List of trips the user can join
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<Trip> getTripsForCertificationLevel(DiveCertification certification) {
-        return tripRepo.findTripsForCertificationLevel(certification);
+        return catalog.forCertification(certification, TripCatalog.DETAIL);
     }
 
     /**
      * Get active trips (currently ongoing).
      * @return List of active trips
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<Trip> getActiveTrips() {
-        return tripRepo.findActiveTrips();
+        return catalog.active(LocalDate.now(), TripCatalog.DETAIL);
     }
 
     /**
-     * Get past trips.
+     * Get past published trips, most recently ended first.
      * @return List of past trips
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<Trip> getPastTrips() {
-        return tripRepo.findPastTrips();
+        return catalog.past(LocalDate.now(), Integer.MAX_VALUE, TripCatalog.DETAIL);
     }
 
     /**
@@ -283,20 +512,158 @@ public class TripService {
      * @param maxPrice maximum price
      * @return List of trips within price range
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<Trip> getTripsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
-        return tripRepo.findTripsByPriceRange(minPrice, maxPrice);
+        return catalog.priceRange(minPrice, maxPrice, TripCatalog.DETAIL);
     }
 
     /**
-     * Get similar trips based on location and certification.
+     * Get similar trips (location, certification, price, dates and trips booked together),
+     * precomputed in the background.
      * @param trip the reference trip
      * @param limit maximum number of similar trips to return
-     * @return List of similar trips
+     * @return List of similar trips, most similar first
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<Trip> getSimilarTrips(Trip trip, int limit) {
-        Pageable pageable = PageRequest.of(0, limit);
-        return tripRepo.findSimilarTrips(trip.getId(), trip.getLocation(),
-            trip.getMinCertificationRequired(), pageable);
+        return similarTrips.similar(trip, limit, TripCatalog.DETAIL);
+    }
+
+    // ===== LIST CARDS =====
+    // The list endpoints return TripCards: catalog lists build them straight from the snapshot,
+    // database lists select only the card columns.
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<TripCard> getAllTripCards() {
+        return catalog.published(TripCatalog.CARD);
+    }
+
+    public List<TripCard> getAllTripCardsIncludingUnpublished() {
+        return tripRepo.findAllCards();
+    }
+
+    // Offset page of cards, published trips only unless includeUnpublished (admin only)
+    public Page<TripCard> getAllTripCards(Pageable pageable, boolean includeUnpublished) {
+        return tripRepo.getAllTripCards(includeUnpublished ? null : PublicationStatus.PUBLISHED, pageable);
+    }
+
+    // Keyset pages of cards, same order, cursors and status filter as getAllTrips(cursor, size, withTotal, includeUnpublished)
+    public KeysetPage<TripCard> getAllTripCards(String cursor, int size, boolean withTotal, boolean includeUnpublished) {
+        int pageSize = Math.max(1, size);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        PublicationStatus status = includeUnpublished ? null : PublicationStatus.PUBLISHED;
+        List<TripCard> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = tripRepo.findFirstTripCards(status, limit);
+        } else {
+            TripPosition after = TripPosition.of(cursor);
+            rows = tripRepo.findTripCardsAfter(status, after.displayOrder(), after.startDate(), after.id(), limit);
+        }
+        return KeysetPage.of(rows, pageSize,
+            card -> PageCursor.encode(card.displayOrder(), card.startDate(), card.id()),
+            withTotal ? countTrips(status) : null);
+    }
+
+    // Trips in the status, all trips for null
+    private long countTrips(PublicationStatus status) {
+        return status == null ? tripRepo.count() : tripRepo.countByStatus(status);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<TripCard> searchTripCards(String location, LocalDate startDate, LocalDate endDate,
+        DiveCertification minCertification, boolean availableOnly, BigDecimal minPrice, BigDecimal maxPrice) {
+        return catalog.search(location, startDate, endDate, minCertification, availableOnly, minPrice,
+            maxPrice, TripCatalog.CARD);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public TripSearchResult<TripCard> searchTripCardsFaceted(TripSearchCriteria criteria, int page, int size) {
+        return catalog.facetedSearch(criteria, page, size, TripCatalog.CARD);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<TripCard> getUpcomingTripCards() {
+        return catalog.upcoming(LocalDate.now(), TripCatalog.CARD);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<TripCard> getAvailableTripCards(boolean upcomingOnly) {
+        return upcomingOnly
+            ? catalog.availableUpcoming(LocalDate.now(), TripCatalog.CARD)
+            : catalog.available(TripCatalog.CARD);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<TripCard> getFeaturedTripCards(int limit) {
+        return catalog.featured(limit, TripCatalog.CARD);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<TripCard> getTripCardsByLocation(String location) {
+        return catalog.locationMatching(location, TripCatalog.CARD);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<TripCard> getTripCardsByStartDateBetween(LocalDate startDate, LocalDate endDate) {
+        return catalog.startingBetween(startDate, endDate, TripCatalog.CARD);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<TripCard> getTripCardsForCertificationLevel(DiveCertification certification) {
+        return catalog.forCertification(certification, TripCatalog.CARD);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<TripCard> getTripCardsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        return catalog.priceRange(minPrice, maxPrice, TripCatalog.CARD);
+    }
+
+    /**
+     * Cards of the trips similar to a published trip, from the catalog and the precomputed lists.
+     * @param id the reference trip ID
+     * @param limit maximum number of similar trips to return
+     * @return List of similar trips, most similar first
+     * @throws ResourceNotFoundException if there is no published trip with this id
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<TripCard> getSimilarTripCards(Long id, int limit) {
+        return similarTrips.similar(id, limit, TripCatalog.CARD)
+            .orElseThrow(() -> new ResourceNotFoundException("Trip not found with id: " + id));
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<TripCard> getActiveTripCards() {
+        return catalog.active(LocalDate.now(), TripCatalog.CARD);
+    }
+
+    /**
+     * Availability calendar of a month, served from the catalog's bitmap index.
+     * @param month the month to show
+     * @param certification the diver's level, null to count every trip
+     * @return trips running and trips with seats left per day
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public TripCalendar getTripCalendar(YearMonth month, DiveCertification certification) {
+        return catalog.calendar(month, certification);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<TripCard> getAvailableTripCardsBetween(LocalDate from, LocalDate to,
+        DiveCertification certification) {
+        return catalog.availableBetween(from, to, certification, TripCatalog.CARD);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<TripCard> getPastTripCards(int limit) {
+        return catalog.past(LocalDate.now(), limit, TripCatalog.CARD);
+    }
+
+    public List<TripCard> getMostBookedTripCards(int limit) {
+        return tripRepo.findMostBookedTripCards(PageRequest.of(0, limit));
+    }
+
+    public List<TripCard> getTripCardsWithLowBookings() {
+        return tripRepo.findTripCardsWithLowBookings();
     }
 
     // ===== BOOKING MANAGEMENT =====
@@ -323,7 +690,7 @@ public class TripService {
      * @return The updated trip
      * @throws IllegalStateException if the trip is fully booked or user lacks required certification
      */
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Trip bookTripWithCertification(Long tripId, DiveCertification userCertification) {
         if (!canBookTripWithCertification(tripId, userCertification)) {
             throw new IllegalStateException("User does not have required certification for this trip");
@@ -339,25 +706,24 @@ public class TripService {
      * @throws ResourceNotFoundException if the trip is not found
      * @throws IllegalStateException if the trip is fully booked
      */
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Trip bookTrip(Long tripId) {
-        Trip trip = getTripById(tripId);
-
-        if (trip.isFullyBooked()) {
-            throw new IllegalStateException("Trip is fully booked");
-        }
-
-        if (trip.isPastTrip()) {
-            throw new IllegalStateException("Cannot book a trip that has already ended");
-        }
-
-        trip.incrementBookings();
-        Trip updatedTrip = tripRepo.save(trip);
+        return writeRetry.execute("trip", () -> {
+            // Atomic check-and-reserve: no read-check-write window between concurrent bookings
+            if (!seatInventory.reserve(BookingType.TRIP, tripId, 1)) {
+                Trip trip = getTripById(tripId);
+                if (trip.isPastTrip()) {
+                    throw new IllegalStateException("Cannot book a trip that has already ended");
+                }
+                throw new IllegalStateException("Trip is fully booked");
+            }
 
-        logger.info("Booking added to trip: {} (Current bookings: {}/{})",
-            trip.getLocation(), trip.getCurrentBookings(), trip.getCapacity());
+            Trip updatedTrip = getTripById(tripId);
+            logger.info("Booking added to trip: {} (Current bookings: {}/{})",
+                updatedTrip.getLocation(), updatedTrip.getCurrentBookings(), updatedTrip.getCapacity());
 
-        return updatedTrip;
+            return updatedTrip;
+        });
     }
 
     /**
@@ -366,63 +732,57 @@ public class TripService {
      * @return The updated trip
      * @throws ResourceNotFoundException if the trip is not found
      */
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Trip cancelBooking(Long tripId) {
-        Trip trip = getTripById(tripId);
+        return writeRetry.execute("trip", () -> {
+            boolean released = seatInventory.release(BookingType.TRIP, tripId, 1);
+            Trip trip = getTripById(tripId);
 
-        if (trip.getCurrentBookings() > 0) {
-            trip.setCurrentBookings(trip.getCurrentBookings() - 1);
-            Trip updatedTrip = tripRepo.save(trip);
-
-            logger.info("Booking cancelled for trip: {} (Current bookings: {}/{})",
-                trip.getLocation(), trip.getCurrentBookings(), trip.getCapacity());
+            if (released) {
+                logger.info("Booking cancelled for trip: {} (Current bookings: {}/{})",
+                    trip.getLocation(), trip.getCurrentBookings(), trip.getCapacity());
+            }
 
-            return updatedTrip;
-        }
+            return trip;
+        });
+    }
 
-        return trip;
+    /**
+     * Seat availability of a trip, including seats currently on hold.
+     * @param tripId the trip ID
+     * @return capacity, booked, held and available seats
+     * @throws ResourceNotFoundException if the trip is not found
+     */
+    public SeatAvailability getTripAvailability(Long tripId) {
+        return seatInventory.availability(BookingType.TRIP, tripId);
     }
 
     // ===== ANALYTICS AND STATISTICS =====
     /**
-     * Get comprehensive trip statistics.
+     * Get comprehensive trip statistics, from the running totals of {@link TripStatistics}.
      * @return Map containing various trip statistics
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Map<String, Object> getTripStatistics() {
-        List<Trip> allTrips = getAllTrips();
-        List<Trip> availableTrips = getAvailableTrips();
-        List<Trip> upcomingTrips = getUpcomingTrips();
-
-        Integer totalCapacity = tripRepo.getTotalCapacity();
-        Integer totalBookings = tripRepo.getTotalBookings();
-
-        totalCapacity = totalCapacity != null ? totalCapacity : 0;
-        totalBookings = totalBookings != null ? totalBookings : 0;
-
-        int availableSpots = totalCapacity - totalBookings;
-        double utilizationRate = totalCapacity > 0 ? (totalBookings * 100.0) / totalCapacity : 0.0;
-
+        TripStatistics.Totals totals = statistics.totals();
         return Map.of(
-            "totalTrips", allTrips.size(),
-            "availableTrips", availableTrips.size(),
-            "upcomingTrips", upcomingTrips.size(),
-            "totalCapacity", totalCapacity,
-            "totalBookings", totalBookings,
-            "availableSpots", availableSpots,
-            "utilizationRate", Math.round(utilizationRate * 100.0) / 100.0,
-            "averagePrice", tripRepo.getAveragePrice()
+            "totalTrips", totals.trips(),
+            "availableTrips", totals.availableTrips(),
+            "upcomingTrips", statistics.upcomingTrips(LocalDate.now()),
+            "totalCapacity", totals.capacity(),
+            "totalBookings", totals.booked(),
+            "availableSpots", totals.availableSpots(),
+            "utilizationRate", totals.utilizationRate(),
+            "averagePrice", totals.averagePrice()
         );
     }
     /**
      * Get trip distribution by certification level.
      * @return Map of certification levels to trip counts
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Map<DiveCertification, Long> getTripsByCertificationLevel() {
-        return getAllTrips().stream()
-            .collect(Collectors.groupingBy(
-                Trip::getMinCertificationRequired,
-                Collectors.counting()
-            ));
+        return statistics.totals().tripsPerCertification();
     }
     /**
      * Get trips with low booking rates (less than 50% capacity).
@@ -435,8 +795,9 @@ public class TripService {
      * Get popular destinations.
      * @return List of popular destinations with trip counts
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<Object[]> getPopularDestinations() {
-        return tripRepo.findPopularDestinations();
+        return catalog.popularDestinations();
     }
     /**
      * Get most booked trips.
@@ -467,14 +828,11 @@ public class TripService {
      * @param limit maximum number of trips to return
      * @return List of featured trips
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<Trip> getFeaturedTrips(int limit) {
         try {
             logger.info("TripService.getFeaturedTrips called with limit: {}", limit);
-            List<Trip> featuredTrips = tripRepo.findByFeaturedTrueAndStatusOrderByDisplayOrderAsc(
-                PublicationStatus.PUBLISHED);
-            List<Trip> limitedTrips = featuredTrips.stream()
-                .limit(limit)
-                .collect(Collectors.toList());
+            List<Trip> limitedTrips = catalog.featured(limit, TripCatalog.DETAIL);
             logger.info("TripService.getFeaturedTrips returning {} trips", limitedTrips.size()); // For debugging
             for (Trip trip : limitedTrips) {
                 logger.info("Featured Trip: ID={}, Location={}, Featured={}, Status={}",
@@ -487,15 +845,32 @@ public class TripService {
         }
     }
 
+    /**
+     * Get the most recently created published trips, for the homepage when none are featured.
+     * @param limit maximum number of trips to return
+     * @return List of trips, newest first
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<Trip> getNewestTrips(int limit) {
+        return catalog.newest(limit, TripCatalog.DETAIL);
+    }
+
+    // Number of published trips, from the catalog
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public long getPublishedTripCount() {
+        return catalog.size();
+    }
+
     /**
      * Get upcoming published trips.
      * FIXED: Uses safe repository method that exists.
      * @return List of upcoming trips
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<Trip> getUpcomingTrips() {
         try {
             logger.info("TripService.getUpcomingTrips called");
-            List<Trip> upcomingTrips = tripRepo.findUpcomingTrips();
+            List<Trip> upcomingTrips = catalog.upcoming(LocalDate.now(), TripCatalog.DETAIL);
             logger.info("TripService.getUpcomingTrips returning {} trips", upcomingTrips.size());
             return upcomingTrips;
         } catch (Exception e) {
@@ -507,8 +882,20 @@ public class TripService {
      * Get distinct locations for filter dropdown.
      * @return List of distinct locations
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<String> getDistinctLocations() {
-        return tripRepo.findDistinctLocations();
+        return catalog.distinctLocations();
+    }
+
+    /**
+     * Autocomplete trip destinations, served from the catalog without a query per keystroke.
+     * @param prefix what the user typed so far, case and accent insensitive
+     * @param limit maximum number of suggestions
+     * @return matching destinations, most popular first
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<String> suggestDestinations(String prefix, int limit) {
+        return catalog.suggestDestinations(prefix, limit);
     }
 
 
@@ -580,9 +967,12 @@ public class TripService {
         if (tripDetails.getImageUrl() != null) {
             trip.setImageUrl(tripDetails.getImageUrl());
         }
-        // Handle capacity change - ensure it's not less than current bookings
+        // Handle capacity change - ensure it's not less than current bookings, counting the seats
+        // the seat inventory booked since its last flush
         if (tripDetails.getCapacity() != null) {
-            if (tripDetails.getCapacity() < trip.getCurrentBookings()) {
+            Integer inMemory = seatInventory.bookedSeats(BookingType.TRIP, trip.getId());
+            int booked = inMemory != null ? inMemory : trip.getCurrentBookings();
+            if (tripDetails.getCapacity() < booked) {
                 throw new IllegalArgumentException("Cannot reduce capacity below current number of bookings");
             }
             trip.setCapacity(tripDetails.getCapacity());
@@ -602,8 +992,19 @@ public class TripService {
         if (tripDetails.getDisplayOrder() != null) {
             trip.setDisplayOrder(tripDetails.getDisplayOrder());
         }
+        // An admin-chosen slug taken by another trip gets the lowest free "-n" suffix
         if (tripDetails.getSlug() != null) {
-            trip.setSlug(tripDetails.getSlug());
+            trip.setSlug(SlugAllocator.firstFree(tripDetails.getSlug(),
+                tripRepo.findSlugsWithBase(tripDetails.getSlug(), trip.getId())));
+        }
+    }
+
+    // Sort key of a trip in the trip list
+    private record TripPosition(int displayOrder, LocalDate startDate, long id) {
+
+        static TripPosition of(String cursor) {
+            return PageCursor.decode(cursor, 3, keys -> new TripPosition(
+                Integer.parseInt(keys[0]), LocalDate.parse(keys[1]), Long.parseLong(keys[2])));
         }
     }
-}
\ No newline at end of file
+}
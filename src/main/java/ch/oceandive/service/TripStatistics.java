@@ -0,0 +1,309 @@
+package ch.oceandive.service;
+
+import ch.oceandive.event.SeatsReleasedEvent;
+import ch.oceandive.event.SeatsReservedEvent;
+import ch.oceandive.event.TripChangedEvent;
+import ch.oceandive.model.Trip;
+import ch.oceandive.repository.TripRepo;
+import ch.oceandive.utils.BookingType;
+import ch.oceandive.utils.DiveCertification;
+import ch.oceandive.utils.PublicationStatus;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Running totals of the published trips: trip, capacity and seat counts, trips with seats left,
+ * trips per certification level, price sum and trips starting per day.
+ * <p>
+ * Loaded from the database at startup and on the catalog refresh interval. In between, an admin
+ * write only reloads the changed trip and moves its share of the totals, and booked or cancelled
+ * seats update the seat count of their trip, so the statistics are read without touching the
+ * database or iterating over trips. Writers serialize on a lock and publish an immutable
+ * {@link Totals}.
+ * <p>
+ * Seat events set the trip's current count instead of adding their change: a reload that ran
+ * between the booking's commit and its after-commit event has already counted the seats.
+ */
+@Component
+public class TripStatistics {
+
+  private static final Logger logger = LoggerFactory.getLogger(TripStatistics.class);
+
+  private static final int CERTIFICATION_LEVELS = DiveCertification.values().length;
+
+  private final TripRepo tripRepo;
+  private final SeatInventory seatInventory;
+  private final TransactionTemplate readTransaction;
+  private final ReentrantLock updateLock = new ReentrantLock();
+  // Share of each published trip in the totals, and trips per start date; written under the lock
+  private final Map<Long, Contribution> contributions = new HashMap<>();
+  private final NavigableMap<LocalDate, Integer> tripsStarting = new TreeMap<>();
+  private Working working = new Working();
+  private long generation;
+  private volatile Totals totals = Totals.EMPTY;
+  // Upcoming trip count of one day, recounted once the day or the published trips change
+  private volatile Upcoming upcoming = new Upcoming(LocalDate.MIN, -1, 0);
+
+  public TripStatistics(TripRepo tripRepo, SeatInventory seatInventory,
+      PlatformTransactionManager transactionManager) {
+    this.tripRepo = tripRepo;
+    this.seatInventory = seatInventory;
+    // Own transaction: reloads also run from after-commit callbacks of admin writes
+    this.readTransaction = new TransactionTemplate(transactionManager);
+    this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.readTransaction.setReadOnly(true);
+  }
+
+  public Totals totals() {
+    return totals;
+  }
+
+  // Published trips starting after the given day
+  public int upcomingTrips(LocalDate today) {
+    Upcoming cached = upcoming;
+    if (cached.day().equals(today) && cached.generation() == totals.generation()) {
+      return cached.count();
+    }
+    updateLock.lock();
+    try {
+      int count = tripsStarting.tailMap(today, false).values().stream().mapToInt(Integer::intValue).sum();
+      upcoming = new Upcoming(today, generation, count);
+      return count;
+    } finally {
+      updateLock.unlock();
+    }
+  }
+
+  // ===== MAINTENANCE =====
+
+  // Load once the seat inventory is loaded
+  @EventListener(ApplicationReadyEvent.class)
+  @Order(1)
+  public void warmUp() {
+    reload();
+  }
+
+  // Safety net for changes that bypass the trip service (other instances, manual SQL)
+  @Scheduled(fixedDelayString = "${app.catalog.refresh-interval-ms:300000}",
+      initialDelayString = "${app.catalog.refresh-interval-ms:300000}")
+  public void refresh() {
+    reload();
+  }
+
+  // Created, edited, archived or deleted: swap the trip's old share for its new one
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onTripChanged(TripChangedEvent event) {
+    if (event.tripId() == null) {
+      reload();
+      return;
+    }
+    updateLock.lock();
+    try {
+      Trip trip = readTransaction.execute(status -> tripRepo.findById(event.tripId()).orElse(null));
+      remove(contributions.remove(event.tripId()));
+      if (trip != null && trip.getStatus() == PublicationStatus.PUBLISHED) {
+        Contribution added = Contribution.of(trip, seatInventory.bookedSeats(BookingType.TRIP, trip.getId()));
+        contributions.put(trip.getId(), added);
+        add(added);
+      }
+      publish();
+    } finally {
+      updateLock.unlock();
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSeatsReserved(SeatsReservedEvent event) {
+    updateBooked(event.type(), event.itemId());
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSeatsReleased(SeatsReleasedEvent event) {
+    updateBooked(event.type(), event.itemId());
+  }
+
+  // Recount everything from the published trips
+  public void reload() {
+    updateLock.lock();
+    try {
+      long started = System.nanoTime();
+      List<Trip> trips = readTransaction.execute(status ->
+          tripRepo.findByStatusOrderByDisplayOrderAsc(PublicationStatus.PUBLISHED));
+      contributions.clear();
+      tripsStarting.clear();
+      working = new Working();
+      for (Trip trip : trips == null ? List.<Trip>of() : trips) {
+        Contribution contribution = Contribution.of(trip, seatInventory.bookedSeats(BookingType.TRIP, trip.getId()));
+        contributions.put(trip.getId(), contribution);
+        add(contribution);
+      }
+      publish();
+      logger.debug("Trip statistics loaded for {} trips in {} ms", contributions.size(),
+          (System.nanoTime() - started) / 1_000_000);
+    } finally {
+      updateLock.unlock();
+    }
+  }
+
+  // The in-memory counter when the seat inventory is enabled, otherwise the committed stored count
+  private void updateBooked(BookingType type, Long tripId) {
+    if (type != BookingType.TRIP) {
+      return;
+    }
+    updateLock.lock();
+    try {
+      Contribution old = contributions.get(tripId);
+      if (old == null) {
+        return;
+      }
+      Integer booked = seatInventory.bookedSeats(BookingType.TRIP, tripId);
+      if (booked == null) {
+        booked = readTransaction.execute(status -> tripRepo.findCurrentBookings(tripId));
+      }
+      if (booked == null) {
+        return; // deleted, the trip change event removes its share
+      }
+      Contribution changed = old.withBooked(Math.max(0, booked));
+      contributions.put(tripId, changed);
+      working.booked += changed.booked() - old.booked();
+      working.withSeatsLeft += (changed.hasSeatsLeft() ? 1 : 0) - (old.hasSeatsLeft() ? 1 : 0);
+      totals = working.toTotals(generation);
+    } finally {
+      updateLock.unlock();
+    }
+  }
+
+  // ===== RUNNING TOTALS, under the update lock =====
+
+  private void add(Contribution contribution) {
+    working.apply(contribution, 1);
+    tripsStarting.merge(contribution.startDate(), 1, Integer::sum);
+  }
+
+  private void remove(Contribution contribution) {
+    if (contribution != null) {
+      working.apply(contribution, -1);
+      tripsStarting.computeIfPresent(contribution.startDate(), (day, count) -> count == 1 ? null : count - 1);
+    }
+  }
+
+  // The published trips changed: new totals, and the upcoming count is recounted on next read
+  private void publish() {
+    generation++;
+    totals = working.toTotals(generation);
+  }
+
+  // Mutable sums behind the published totals
+  private static final class Working {
+
+    private int trips;
+    private int withSeatsLeft;
+    private long capacity;
+    private long booked;
+    private long priceCents;
+    private int priced;
+    private final int[] perCertification = new int[CERTIFICATION_LEVELS];
+
+    // Adds (sign 1) or removes (sign -1) one trip
+    void apply(Contribution trip, int sign) {
+      trips += sign;
+      withSeatsLeft += trip.hasSeatsLeft() ? sign : 0;
+      capacity += (long) sign * trip.capacity();
+      booked += (long) sign * trip.booked();
+      if (trip.priceCents() >= 0) {
+        priceCents += sign * trip.priceCents();
+        priced += sign;
+      }
+      if (trip.certification() >= 0) {
+        perCertification[trip.certification()] += sign;
+      }
+    }
+
+    Totals toTotals(long generation) {
+      return new Totals(generation, trips, withSeatsLeft, capacity, booked, priceCents, priced,
+          perCertification.clone());
+    }
+  }
+
+  /**
+   * Totals of the published trips at one point in time.
+   *
+   * @param availableTrips trips with seats left
+   * @param booked booked seats, including the ones not flushed to the trips yet
+   */
+  public record Totals(long generation, int trips, int availableTrips, long capacity, long booked,
+                       long priceCents, int priced, int[] perCertification) {
+
+    static final Totals EMPTY = new Totals(0, 0, 0, 0, 0, 0, 0, new int[CERTIFICATION_LEVELS]);
+
+    public long availableSpots() {
+      return capacity - booked;
+    }
+
+    // Booked share of the capacity in percent, two decimals
+    public double utilizationRate() {
+      return capacity > 0 ? Math.round(booked * 10_000.0 / capacity) / 100.0 : 0.0;
+    }
+
+    // Average of the trips with a price, zero without any
+    public BigDecimal averagePrice() {
+      return priced == 0 ? BigDecimal.ZERO
+          : BigDecimal.valueOf(priceCents).divide(BigDecimal.valueOf(100L * priced), 2, RoundingMode.HALF_UP);
+    }
+
+    // Levels with at least one trip
+    public Map<DiveCertification, Long> tripsPerCertification() {
+      Map<DiveCertification, Long> counts = new EnumMap<>(DiveCertification.class);
+      for (DiveCertification level : DiveCertification.values()) {
+        if (perCertification[level.ordinal()] > 0) {
+          counts.put(level, (long) perCertification[level.ordinal()]);
+        }
+      }
+      return counts;
+    }
+  }
+
+  // What one published trip adds to the totals; price and certification are -1 when not set
+  private record Contribution(int capacity, int booked, int certification, long priceCents, LocalDate startDate) {
+
+    static Contribution of(Trip trip, Integer inMemoryBooked) {
+      // In-memory seat counters are ahead of the stored count by up to one flush interval
+      int booked = inMemoryBooked != null ? inMemoryBooked
+          : trip.getCurrentBookings() == null ? 0 : trip.getCurrentBookings();
+      return new Contribution(trip.getCapacity() == null ? 0 : trip.getCapacity(), booked,
+          trip.getMinCertificationRequired() == null ? -1 : trip.getMinCertificationRequired().ordinal(),
+          trip.getPrice() == null ? -1 : trip.getPrice().movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact(),
+          trip.getStartDate());
+    }
+
+    boolean hasSeatsLeft() {
+      return booked < capacity;
+    }
+
+    Contribution withBooked(int booked) {
+      return new Contribution(capacity, booked, certification, priceCents, startDate);
+    }
+  }
+
+  private record Upcoming(LocalDate day, long generation, int count) {
+  }
+}
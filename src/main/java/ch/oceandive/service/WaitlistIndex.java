@@ -0,0 +1,148 @@
+package ch.oceandive.service;
+
+import ch.oceandive.repository.WaitlistRepo;
+import ch.oceandive.utils.BookingType;
+import ch.oceandive.utils.FenwickTree;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-memory rank index over the waiting entries of each waitlist.
+ * <p>
+ * Every queue keeps a Fenwick tree over the positions of its waiting entries, so "how many people
+ * are ahead of me" is O(log n) instead of a COUNT over the queue. Queues are loaded lazily from
+ * the database and only updated after the changing transaction committed, which makes the index
+ * trail the table but never run ahead of it. Like the seat inventory this assumes a single
+ * application instance; the unique (type, item, position) constraint rejects a clash otherwise.
+ * Queues are guarded by a {@link ReentrantLock} rather than a monitor because loading a queue
+ * runs a query, which would pin the carrier thread of a virtual thread inside {@code synchronized}.
+ */
+@Component
+public class WaitlistIndex {
+
+  private final WaitlistRepo waitlistRepo;
+  private final Map<QueueKey, Queue> queues = new ConcurrentHashMap<>();
+
+  public WaitlistIndex(WaitlistRepo waitlistRepo) {
+    this.waitlistRepo = waitlistRepo;
+  }
+
+  // Next free position at the tail of the queue
+  public long nextPosition(BookingType type, Long itemId) {
+    Queue queue = queue(type, itemId);
+    queue.lock.lock();
+    try {
+      return ++queue.lastPosition;
+    } finally {
+      queue.lock.unlock();
+    }
+  }
+
+  // 1-based rank of a waiting entry among the entries still waiting
+  public int rank(BookingType type, Long itemId, long position) {
+    Queue queue = queue(type, itemId);
+    queue.lock.lock();
+    try {
+      return queue.tree.countBefore(toIndex(position)) + 1;
+    } finally {
+      queue.lock.unlock();
+    }
+  }
+
+  // Number of entries waiting in the queue
+  public int waitingCount(BookingType type, Long itemId) {
+    Queue queue = queue(type, itemId);
+    queue.lock.lock();
+    try {
+      return queue.tree.size();
+    } finally {
+      queue.lock.unlock();
+    }
+  }
+
+  // Record a new waiting entry once the joining transaction committed
+  public void addAfterCommit(BookingType type, Long itemId, long position) {
+    afterCommit(() -> update(type, itemId, position, true));
+  }
+
+  // Drop a promoted or cancelled entry once the transaction committed
+  public void removeAfterCommit(BookingType type, Long itemId, long position) {
+    afterCommit(() -> update(type, itemId, position, false));
+  }
+
+  // Forget the queues of deleted trips or courses once the deleting transaction committed
+  public void evictAfterCommit(BookingType type, Collection<Long> itemIds) {
+    afterCommit(() -> itemIds.forEach(itemId -> queues.remove(new QueueKey(type, itemId))));
+  }
+
+  private void update(BookingType type, Long itemId, long position, boolean waiting) {
+    Queue queue = queues.get(new QueueKey(type, itemId));
+    if (queue == null) {
+      return; // not loaded yet, the next load reads the committed rows
+    }
+    queue.lock.lock();
+    try {
+      if (!queue.loaded) {
+        return;
+      } else if (waiting) {
+        queue.tree.add(toIndex(position));
+      } else {
+        queue.tree.remove(toIndex(position));
+      }
+    } finally {
+      queue.lock.unlock();
+    }
+  }
+
+  private Queue queue(BookingType type, Long itemId) {
+    Queue queue = queues.computeIfAbsent(new QueueKey(type, itemId), key -> new Queue());
+    queue.lock.lock();
+    try {
+      if (!queue.loaded) {
+        List<Long> positions = waitlistRepo.findWaitingPositions(type, itemId);
+        queue.tree = new FenwickTree(Math.max(16, positions.size()));
+        positions.forEach(position -> queue.tree.add(toIndex(position)));
+        queue.lastPosition = Math.max(queue.lastPosition, waitlistRepo.findMaxPosition(type, itemId));
+        queue.loaded = true;
+      }
+    } finally {
+      queue.lock.unlock();
+    }
+    return queue;
+  }
+
+  private static int toIndex(long position) {
+    return Math.toIntExact(position);
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
+  }
+
+  private record QueueKey(BookingType type, Long itemId) {
+  }
+
+  // Guarded by its lock
+  private static final class Queue {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private FenwickTree tree;
+    private long lastPosition;
+    private boolean loaded;
+  }
+}
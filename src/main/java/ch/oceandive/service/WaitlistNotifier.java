@@ -0,0 +1,69 @@
+package ch.oceandive.service;
+
+import ch.oceandive.event.WaitlistPromotedEvent;
+import ch.oceandive.model.PremiumUser;
+import ch.oceandive.repository.PremiumUserRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Tells users that they moved from a waitlist into a booking. Runs on the async executor after
+ * the promoting transaction committed, so a slow mail server never holds up a cancellation and
+ * no mail is sent for a promotion that was rolled back.
+ */
+@Service
+public class WaitlistNotifier {
+
+  private static final Logger logger = LoggerFactory.getLogger(WaitlistNotifier.class);
+
+  private final PremiumUserRepo premiumUserRepo;
+  private final JavaMailSender mailSender;
+
+  public WaitlistNotifier(PremiumUserRepo premiumUserRepo,
+      @Autowired(required = false) JavaMailSender mailSender) {
+    this.premiumUserRepo = premiumUserRepo;
+    this.mailSender = mailSender;
+  }
+
+  @Async
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onPromoted(WaitlistPromotedEvent event) {
+    if (mailSender == null) {
+      return;
+    }
+    PremiumUser user = premiumUserRepo.findById(event.premiumUserId()).orElse(null);
+    if (user == null) {
+      return;
+    }
+    try {
+      SimpleMailMessage message = new SimpleMailMessage();
+      message.setTo(user.getEmail());
+      message.setSubject("OceanDive - A seat opened up for you");
+      message.setText(buildEmailContent(user.getFirstName(), event));
+      mailSender.send(message);
+      logger.info("Waitlist promotion email sent to: {}", user.getEmail());
+    } catch (Exception e) {
+      logger.error("Failed to send waitlist promotion email to {}: {}", user.getEmail(), e.getMessage());
+    }
+  }
+
+  private String buildEmailContent(String firstName, WaitlistPromotedEvent event) {
+    return String.format("""
+            Hi %s,
+            
+            Good news: a seat opened up on the %s you were waiting for, and it is now booked for you.
+            
+            Your booking reference is %s.
+            If you can no longer join, please cancel the booking so the seat goes to the next diver.
+            
+            Best regards,
+            The OceanDive Team
+            """, firstName, event.type().getDisplayName().toLowerCase(), event.bookingReference());
+  }
+}
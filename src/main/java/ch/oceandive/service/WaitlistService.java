@@ -0,0 +1,200 @@
+package ch.oceandive.service;
+
+import ch.oceandive.event.SeatsReleasedEvent;
+import ch.oceandive.event.WaitlistPromotedEvent;
+import ch.oceandive.exceptionHandler.BusinessRuleViolationException;
+import ch.oceandive.exceptionHandler.ResourceNotFoundException;
+import ch.oceandive.model.Booking;
+import ch.oceandive.model.Course;
+import ch.oceandive.model.PremiumUser;
+import ch.oceandive.model.Trip;
+import ch.oceandive.model.WaitlistEntry;
+import ch.oceandive.repository.WaitlistRepo;
+import ch.oceandive.utils.BookingType;
+import ch.oceandive.utils.WaitlistStatus;
+import ch.oceandive.validation.ValidationResult;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * FIFO waitlists for fully booked trips and courses.
+ * <p>
+ * Instead of retrying a full trip, a premium user joins its waitlist. Whenever seats are
+ * released, the entries at the head of the queue are promoted into confirmed bookings inside the
+ * releasing transaction, so a cancellation and the promotion it causes commit or roll back
+ * together. Notifications are sent after commit by {@link WaitlistNotifier}.
+ */
+@Service
+@Transactional(readOnly = true)
+public class WaitlistService {
+
+  private static final Logger logger = LoggerFactory.getLogger(WaitlistService.class);
+
+  private final WaitlistRepo waitlistRepo;
+  private final WaitlistIndex waitlistIndex;
+  private final SeatInventory seatInventory;
+  private final BookingService bookingService;
+  private final CertificationValidationService certificationValidator;
+  private final ApplicationEventPublisher eventPublisher;
+
+  public WaitlistService(WaitlistRepo waitlistRepo, WaitlistIndex waitlistIndex, SeatInventory seatInventory,
+      BookingService bookingService, CertificationValidationService certificationValidator,
+      ApplicationEventPublisher eventPublisher) {
+    this.waitlistRepo = waitlistRepo;
+    this.waitlistIndex = waitlistIndex;
+    this.seatInventory = seatInventory;
+    this.bookingService = bookingService;
+    this.certificationValidator = certificationValidator;
+    this.eventPublisher = eventPublisher;
+  }
+
+  /**
+   * Join the waitlist of a fully booked trip. Joining twice returns the existing entry.
+   *
+   * @throws BusinessRuleViolationException if the trip has free seats, has ended or the user is not certified
+   */
+  @Transactional
+  public WaitlistEntry joinTrip(Trip trip, PremiumUser user) {
+    if (trip.isPastTrip()) {
+      throw new BusinessRuleViolationException("Cannot join the waitlist of a trip that has already ended.");
+    }
+    requireCertification(certificationValidator.validateTripBooking(user.getDiveCertification(), trip),
+        "User does not have the required certification level for this trip.");
+    return join(BookingType.TRIP, trip.getId(), user);
+  }
+
+  /**
+   * Join the waitlist of a fully booked course. Joining twice returns the existing entry.
+   *
+   * @throws BusinessRuleViolationException if the course has free seats or the user is not certified
+   */
+  @Transactional
+  public WaitlistEntry joinCourse(Course course, PremiumUser user) {
+    requireCertification(certificationValidator.validateCourseEnrollment(user.getDiveCertification(), course),
+        "User does not have the required certification level for this course.");
+    return join(BookingType.COURSE, course.getId(), user);
+  }
+
+  /**
+   * Leave a waitlist. Leaving twice, or after being promoted, is a no-op.
+   */
+  @Transactional
+  public WaitlistEntry leave(Long entryId) {
+    WaitlistEntry entry = getEntry(entryId);
+    if (waitlistRepo.transition(entryId, WaitlistStatus.WAITING, WaitlistStatus.CANCELLED) > 0) {
+      waitlistIndex.removeAfterCommit(entry.getType(), entry.getItemId(), entry.getPosition());
+      logger.info("Waitlist entry {} left the {} {} queue", entryId, entry.getType().getDisplayName(),
+          entry.getItemId());
+    }
+    return getEntry(entryId);
+  }
+
+  /**
+   * Close the waitlists of deleted trips or courses: their waiting entries are cancelled, and the
+   * queues are dropped from the index once the deleting transaction committed.
+   */
+  @Transactional
+  public void closeQueues(BookingType type, Collection<Long> itemIds) {
+    if (itemIds.isEmpty()) {
+      return;
+    }
+    int cancelled = waitlistRepo.cancelWaiting(type, itemIds);
+    waitlistIndex.evictAfterCommit(type, List.copyOf(itemIds));
+    if (cancelled > 0) {
+      logger.info("Cancelled {} waiting entries of {} deleted {}(s)", cancelled, itemIds.size(),
+          type.getDisplayName());
+    }
+  }
+
+  public WaitlistEntry getEntry(Long entryId) {
+    return waitlistRepo.findById(entryId)
+        .orElseThrow(() -> ResourceNotFoundException.create("Waitlist entry", "id", entryId));
+  }
+
+  public List<WaitlistEntry> getWaitingEntriesForUser(PremiumUser user) {
+    return waitlistRepo.findByPremiumUserIdAndStatusOrderByCreatedAtDesc(user.getId(), WaitlistStatus.WAITING);
+  }
+
+  // 1-based place in the queue of a waiting entry, or null once it left the queue
+  public Integer getPosition(WaitlistEntry entry) {
+    if (entry.getStatus() != WaitlistStatus.WAITING) {
+      return null;
+    }
+    return waitlistIndex.rank(entry.getType(), entry.getItemId(), entry.getPosition());
+  }
+
+  public int getWaitingCount(BookingType type, Long itemId) {
+    return waitlistIndex.waitingCount(type, itemId);
+  }
+
+  // Hand released seats to the head of the queue, inside the transaction that released them
+  @EventListener
+  @Transactional
+  public void onSeatsReleased(SeatsReleasedEvent event) {
+    for (int seat = 0; seat < event.seats(); seat++) {
+      if (!promoteHead(event.type(), event.itemId())) {
+        return;
+      }
+    }
+  }
+
+  private WaitlistEntry join(BookingType type, Long itemId, PremiumUser user) {
+    Optional<WaitlistEntry> existing = waitlistRepo.findFirstByTypeAndItemIdAndPremiumUserIdAndStatus(
+        type, itemId, user.getId(), WaitlistStatus.WAITING);
+    if (existing.isPresent()) {
+      return existing.get();
+    }
+    if (!seatInventory.availability(type, itemId).fullyBooked()) {
+      throw new BusinessRuleViolationException(type.getDisplayName() + " still has free seats, book it directly.");
+    }
+
+    long position = waitlistIndex.nextPosition(type, itemId);
+    WaitlistEntry entry = waitlistRepo.save(new WaitlistEntry(type, itemId, position, user.getId()));
+    waitlistIndex.addAfterCommit(type, itemId, position);
+    logger.info("User {} joined the {} {} waitlist at position {}", user.getUsername(), type.getDisplayName(),
+        itemId, position);
+    return entry;
+  }
+
+  // Promote the first waiting entry into a booking, returns false when the queue is empty or no seat is left
+  private boolean promoteHead(BookingType type, Long itemId) {
+    while (true) {
+      Optional<WaitlistEntry> head = waitlistRepo.findFirstByTypeAndItemIdAndStatusOrderByPositionAsc(
+          type, itemId, WaitlistStatus.WAITING);
+      if (head.isEmpty()) {
+        return false;
+      }
+      WaitlistEntry entry = head.get();
+      // Claim the entry first, so a concurrent leave or promotion cannot hand it a second seat
+      if (waitlistRepo.transition(entry.getId(), WaitlistStatus.WAITING, WaitlistStatus.PROMOTED) == 0) {
+        continue;
+      }
+      Optional<Booking> booking = bookingService.bookFromWaitlist(type, itemId, entry.getPremiumUserId());
+      if (booking.isEmpty()) {
+        waitlistRepo.transition(entry.getId(), WaitlistStatus.PROMOTED, WaitlistStatus.WAITING);
+        return false;
+      }
+      String reference = booking.get().getReference();
+      waitlistRepo.recordBooking(entry.getId(), reference);
+      waitlistIndex.removeAfterCommit(type, itemId, entry.getPosition());
+      eventPublisher.publishEvent(
+          new WaitlistPromotedEvent(entry.getId(), type, itemId, entry.getPremiumUserId(), reference));
+      logger.info("Waitlist entry {} promoted to booking {}", entry.getId(), reference);
+      return true;
+    }
+  }
+
+  private void requireCertification(ValidationResult result, String defaultMessage) {
+    if (!result.isValid()) {
+      String message = result.getFirstMessage();
+      throw new BusinessRuleViolationException(message == null || message.isEmpty() ? defaultMessage : message);
+    }
+  }
+}
@@ -0,0 +1,108 @@
+package ch.oceandive.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs a trip or course write in its own transaction and retries it when it loses a race.
+ * <p>
+ * Trips and courses are versioned, so an admin edit that read a row before a booking changed it
+ * fails with an optimistic locking error instead of overwriting the booking count. Such failures,
+ * and lock timeouts or deadlocks on hot rows, are retried after a randomized exponential backoff
+ * ("full jitter"), so competing writers do not collide again in lockstep. Each attempt re-reads
+ * the row. Conflicts, retries and exhausted retries are counted per entity type:
+ * {@code oceandive.write.conflicts}, {@code oceandive.write.retries} and
+ * {@code oceandive.write.retries.exhausted}, tagged with {@code entity}.
+ */
+@Component
+public class WriteRetryExecutor {
+
+  private static final Logger logger = LoggerFactory.getLogger(WriteRetryExecutor.class);
+
+  private final TransactionTemplate transactionTemplate;
+  private final MeterRegistry meterRegistry;
+  private final int maxAttempts;
+  private final long initialBackoffMs;
+  private final long maxBackoffMs;
+  private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+  public WriteRetryExecutor(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+      @Value("${app.write-retry.max-attempts:4}") int maxAttempts,
+      @Value("${app.write-retry.initial-backoff-ms:20}") long initialBackoffMs,
+      @Value("${app.write-retry.max-backoff-ms:500}") long maxBackoffMs) {
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.meterRegistry = meterRegistry;
+    this.maxAttempts = Math.max(1, maxAttempts);
+    this.initialBackoffMs = Math.max(1, initialBackoffMs);
+    this.maxBackoffMs = Math.max(this.initialBackoffMs, maxBackoffMs);
+  }
+
+  /**
+   * Run the write, retrying on concurrency conflicts. Inside an existing transaction the write
+   * cannot be retried on its own, so it runs once and the conflict goes to the caller.
+   *
+   * @param entity metrics tag, e.g. "trip" or "course"
+   * @throws ConcurrencyFailureException if the last attempt still conflicted
+   */
+  public <T> T execute(String entity, Supplier<T> write) {
+    if (TransactionSynchronizationManager.isActualTransactionActive()) {
+      try {
+        return write.get();
+      } catch (ConcurrencyFailureException | OptimisticLockException e) {
+        increment("oceandive.write.conflicts", entity);
+        throw e;
+      }
+    }
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return transactionTemplate.execute(status -> write.get());
+      } catch (ConcurrencyFailureException | OptimisticLockException e) {
+        increment("oceandive.write.conflicts", entity);
+        if (attempt >= maxAttempts) {
+          increment("oceandive.write.retries.exhausted", entity);
+          logger.warn("Giving up {} write after {} conflicting attempts", entity, attempt);
+          throw e;
+        }
+        increment("oceandive.write.retries", entity);
+        Duration backoff = backoff(attempt);
+        logger.debug("Concurrent {} write conflict (attempt {}), retrying in {} ms", entity, attempt,
+            backoff.toMillis());
+        sleep(backoff);
+      }
+    }
+  }
+
+  // Random delay in [0, min(cap, initial * 2^(attempt - 1))]
+  Duration backoff(int attempt) {
+    long ceiling = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 20));
+    return Duration.ofMillis(ThreadLocalRandom.current().nextLong(ceiling + 1));
+  }
+
+  private void increment(String name, String entity) {
+    counters.computeIfAbsent(name + ":" + entity,
+        key -> Counter.builder(name).tag("entity", entity).register(meterRegistry)).increment();
+  }
+
+  private static void sleep(Duration backoff) {
+    try {
+      Thread.sleep(backoff);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting to retry a write", e);
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package ch.oceandive.utils;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free generator for unique, time-ordered booking ids (Snowflake layout).
+ * <p>
+ * 41 bits of milliseconds since 2024-01-01, 10 bits of node id and 12 bits of sequence. The
+ * timestamp and sequence are packed in a single AtomicLong and advanced with CAS, so ids are
+ * strictly increasing per node and unique across nodes as long as every node has its own id.
+ */
+public class BookingReferenceGenerator {
+
+  private static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+  private static final int NODE_BITS = 10;
+  private static final int SEQUENCE_BITS = 12;
+  private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+  public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+  // Crockford base32: no I, L, O or U, so references are easy to read out over the phone
+  private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+  private static final int ENCODED_LENGTH = 13; // 13 * 5 bits >= 63 bits
+
+  private final long nodeId;
+  // Packed (timestamp << SEQUENCE_BITS) | sequence of the last issued id
+  private final AtomicLong state = new AtomicLong();
+
+  public BookingReferenceGenerator(int nodeId) {
+    if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+      throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID);
+    }
+    this.nodeId = nodeId;
+  }
+
+  // Next unique id. If the clock stands still or goes backwards the last timestamp is reused,
+  // and a full sequence borrows the next millisecond, so ids never repeat or go backwards.
+  public long nextId() {
+    while (true) {
+      long last = state.get();
+      long lastTimestamp = last >>> SEQUENCE_BITS;
+      long now = System.currentTimeMillis() - EPOCH;
+      long next;
+      if (now > lastTimestamp) {
+        next = now << SEQUENCE_BITS;
+      } else if ((last & SEQUENCE_MASK) < SEQUENCE_MASK) {
+        next = last + 1;
+      } else {
+        next = (lastTimestamp + 1) << SEQUENCE_BITS;
+      }
+      if (state.compareAndSet(last, next)) {
+        long timestamp = next >>> SEQUENCE_BITS;
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | (next & SEQUENCE_MASK);
+      }
+    }
+  }
+
+  // Next reference for the given booking type, e.g. TR-01HZX3K7QP9AB
+  public String nextReference(BookingType type) {
+    return encode(type.getReferencePrefix(), nextId());
+  }
+
+  static String encode(String prefix, long id) {
+    char[] chars = new char[prefix.length() + 1 + ENCODED_LENGTH];
+    prefix.getChars(0, prefix.length(), chars, 0);
+    chars[prefix.length()] = '-';
+    for (int i = chars.length - 1; i > prefix.length(); i--) {
+      chars[i] = ALPHABET[(int) (id & 31)];
+      id >>>= 5;
+    }
+    return new String(chars);
+  }
+}
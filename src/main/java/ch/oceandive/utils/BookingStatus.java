@@ -0,0 +1,34 @@
+package ch.oceandive.utils;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Enum for the lifecycle of a booking
+ */
+public enum BookingStatus {
+  HELD("Held"),
+  CONFIRMED("Confirmed"),
+  CANCELLED("Cancelled"),
+  EXPIRED("Expired");
+
+  private final String displayName;
+
+  BookingStatus(String displayName) {
+    this.displayName = displayName;
+  }
+
+  public String getDisplayName() {
+    return displayName;
+  }
+
+  // Whether the booking currently occupies seats
+  public boolean holdsSeats() {
+    return this == HELD || this == CONFIRMED;
+  }
+
+  // All statuses that occupy seats, for ledger queries
+  public static List<BookingStatus> seatHoldingStatuses() {
+    return Arrays.stream(values()).filter(BookingStatus::holdsSeats).toList();
+  }
+}
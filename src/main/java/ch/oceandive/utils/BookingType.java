@@ -0,0 +1,26 @@
+package ch.oceandive.utils;
+
+/**
+ * Enum for the kind of item a booking reserves seats on
+ */
+public enum BookingType {
+  TRIP("Trip", "TR"),
+  COURSE("Course", "CO");
+
+  private final String displayName;
+  private final String referencePrefix;
+
+  BookingType(String displayName, String referencePrefix) {
+    this.displayName = displayName;
+    this.referencePrefix = referencePrefix;
+  }
+
+  public String getDisplayName() {
+    return displayName;
+  }
+
+  // Short prefix used in booking references, e.g. TR-01HZX3K7QP9AB
+  public String getReferencePrefix() {
+    return referencePrefix;
+  }
+}
@@ -0,0 +1,44 @@
+package ch.oceandive.utils;
+
+/**
+ * Enum for the actions an admin applies to several selected trips or courses at once
+ */
+public enum BulkAction {
+  PUBLISH("published", PublicationStatus.PUBLISHED),
+  UNPUBLISH("unpublished", PublicationStatus.DRAFT),
+  ARCHIVE("archived", PublicationStatus.ARCHIVED),
+  FEATURE("featured", null),
+  UNFEATURE("removed from featured", null),
+  DELETE("deleted", null),
+  REORDER("reordered", null);
+
+  private final String pastTense;
+  private final PublicationStatus targetStatus;
+
+  BulkAction(String pastTense, PublicationStatus targetStatus) {
+    this.pastTense = pastTense;
+    this.targetStatus = targetStatus;
+  }
+
+  // For messages, e.g. "3 trips published"
+  public String getPastTense() {
+    return pastTense;
+  }
+
+  // Status the action sets, null for the actions that do not change the status
+  public PublicationStatus getTargetStatus() {
+    return targetStatus;
+  }
+
+  // Convert the action parameter of the admin forms, e.g. "publish" or "un-feature"
+  public static BulkAction fromString(String value) {
+    if (value == null || value.trim().isEmpty()) {
+      throw new IllegalArgumentException("Bulk action is required");
+    }
+    try {
+      return BulkAction.valueOf(value.trim().replace("-", "").replace("_", "").toUpperCase());
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Unknown bulk action: " + value);
+    }
+  }
+}
@@ -0,0 +1,389 @@
+package ch.oceandive.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable compressed set of non-negative ints, organised like a Roaring bitmap.
+ * <p>
+ * Values are split into chunks of 65536 by their high 16 bits. A chunk with at most 4096 values
+ * stores them as a sorted {@code char[]} of their low bits, a denser chunk as a 65536 bit
+ * {@code long[]}; empty chunks are not stored. Intersections, unions and differences work chunk by
+ * chunk with merges or word-wise bit operations, so a sparse set of a few trip slots costs a few
+ * bytes and intersecting two sets never touches a value that only one of them holds.
+ */
+public final class CompressedBitmap {
+
+  public static final CompressedBitmap EMPTY = new CompressedBitmap(new char[0], new Container[0]);
+
+  // Largest chunk stored as an array, above it the 8 KB bitmap is smaller
+  private static final int ARRAY_MAX = 4096;
+  private static final int WORDS = 1024;
+
+  private final char[] keys;
+  private final Container[] containers;
+  private final int cardinality;
+
+  private CompressedBitmap(char[] keys, Container[] containers) {
+    this.keys = keys;
+    this.containers = containers;
+    int count = 0;
+    for (Container container : containers) {
+      count += container.cardinality();
+    }
+    this.cardinality = count;
+  }
+
+  // Set of the given values, in any order and with duplicates
+  public static CompressedBitmap of(int... values) {
+    if (values.length == 0) {
+      return EMPTY;
+    }
+    int[] sorted = values.clone();
+    Arrays.sort(sorted);
+    if (sorted[0] < 0) {
+      throw new IllegalArgumentException("Values must not be negative");
+    }
+    List<Character> keys = new ArrayList<>();
+    List<Container> containers = new ArrayList<>();
+    int start = 0;
+    while (start < sorted.length) {
+      int high = sorted[start] >>> 16;
+      int end = start;
+      char[] low = new char[0];
+      int count = 0;
+      while (end < sorted.length && sorted[end] >>> 16 == high) {
+        if (count == 0 || low[count - 1] != (char) sorted[end]) {
+          if (count == low.length) {
+            low = Arrays.copyOf(low, Math.max(4, count * 2));
+          }
+          low[count++] = (char) sorted[end];
+        }
+        end++;
+      }
+      keys.add((char) high);
+      containers.add(count <= ARRAY_MAX ? new ArrayContainer(Arrays.copyOf(low, count)) : bitmapOf(low, count));
+      start = end;
+    }
+    char[] keyArray = new char[keys.size()];
+    for (int i = 0; i < keyArray.length; i++) {
+      keyArray[i] = keys.get(i);
+    }
+    return new CompressedBitmap(keyArray, containers.toArray(Container[]::new));
+  }
+
+  // Union of all the given sets
+  public static CompressedBitmap union(List<CompressedBitmap> bitmaps) {
+    CompressedBitmap union = EMPTY;
+    for (CompressedBitmap bitmap : bitmaps) {
+      union = union.or(bitmap);
+    }
+    return union;
+  }
+
+  public int cardinality() {
+    return cardinality;
+  }
+
+  public boolean isEmpty() {
+    return cardinality == 0;
+  }
+
+  public boolean contains(int value) {
+    if (value < 0) {
+      return false;
+    }
+    int index = Arrays.binarySearch(keys, (char) (value >>> 16));
+    return index >= 0 && containers[index].contains((char) value);
+  }
+
+  public CompressedBitmap with(int value) {
+    return contains(value) ? this : or(of(value));
+  }
+
+  public CompressedBitmap without(int value) {
+    return contains(value) ? andNot(of(value)) : this;
+  }
+
+  // Values in both sets
+  public CompressedBitmap and(CompressedBitmap other) {
+    Merge merge = new Merge(Math.min(keys.length, other.keys.length));
+    int i = 0;
+    int j = 0;
+    while (i < keys.length && j < other.keys.length) {
+      if (keys[i] < other.keys[j]) {
+        i++;
+      } else if (keys[i] > other.keys[j]) {
+        j++;
+      } else {
+        merge.add(keys[i], containers[i++].and(other.containers[j++]));
+      }
+    }
+    return merge.result();
+  }
+
+  // Values in either set
+  public CompressedBitmap or(CompressedBitmap other) {
+    Merge merge = new Merge(keys.length + other.keys.length);
+    int i = 0;
+    int j = 0;
+    while (i < keys.length || j < other.keys.length) {
+      if (j == other.keys.length || (i < keys.length && keys[i] < other.keys[j])) {
+        merge.add(keys[i], containers[i++]);
+      } else if (i == keys.length || keys[i] > other.keys[j]) {
+        merge.add(other.keys[j], other.containers[j++]);
+      } else {
+        merge.add(keys[i], containers[i++].or(other.containers[j++]));
+      }
+    }
+    return merge.result();
+  }
+
+  // Values in this set but not in the other
+  public CompressedBitmap andNot(CompressedBitmap other) {
+    Merge merge = new Merge(keys.length);
+    int j = 0;
+    for (int i = 0; i < keys.length; i++) {
+      while (j < other.keys.length && other.keys[j] < keys[i]) {
+        j++;
+      }
+      boolean shared = j < other.keys.length && other.keys[j] == keys[i];
+      merge.add(keys[i], shared ? containers[i].andNot(other.containers[j]) : containers[i]);
+    }
+    return merge.result();
+  }
+
+  // Calls the action for every value in ascending order
+  public void forEach(IntConsumer action) {
+    for (int i = 0; i < keys.length; i++) {
+      containers[i].forEach(keys[i] << 16, action);
+    }
+  }
+
+  public int[] toArray() {
+    int[] values = new int[cardinality];
+    int[] position = {0};
+    forEach(value -> values[position[0]++] = value);
+    return values;
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(toArray());
+  }
+
+  private static BitmapContainer bitmapOf(char[] low, int count) {
+    long[] words = new long[WORDS];
+    for (int i = 0; i < count; i++) {
+      words[low[i] >>> 6] |= 1L << low[i];
+    }
+    return new BitmapContainer(words, count);
+  }
+
+  // Smallest container for the words, null if no bit is set
+  private static Container compress(long[] words) {
+    int count = 0;
+    for (long word : words) {
+      count += Long.bitCount(word);
+    }
+    if (count == 0) {
+      return null;
+    }
+    if (count > ARRAY_MAX) {
+      return new BitmapContainer(words, count);
+    }
+    char[] low = new char[count];
+    int position = 0;
+    for (int w = 0; w < WORDS; w++) {
+      long word = words[w];
+      while (word != 0) {
+        low[position++] = (char) ((w << 6) + Long.numberOfTrailingZeros(word));
+        word &= word - 1;
+      }
+    }
+    return new ArrayContainer(low);
+  }
+
+  // Collects the non-empty result chunks of a set operation
+  private static final class Merge {
+
+    private final char[] keys;
+    private final Container[] containers;
+    private int size;
+
+    private Merge(int capacity) {
+      keys = new char[capacity];
+      containers = new Container[capacity];
+    }
+
+    void add(char key, Container container) {
+      if (container != null) {
+        keys[size] = key;
+        containers[size++] = container;
+      }
+    }
+
+    CompressedBitmap result() {
+      return size == 0 ? EMPTY : new CompressedBitmap(Arrays.copyOf(keys, size), Arrays.copyOf(containers, size));
+    }
+  }
+
+  // The low 16 bits of the values of one chunk; set operations return null for an empty chunk
+  private sealed interface Container permits ArrayContainer, BitmapContainer {
+
+    int cardinality();
+
+    boolean contains(char low);
+
+    long[] words();
+
+    void forEach(int high, IntConsumer action);
+
+    default Container and(Container other) {
+      if (other instanceof ArrayContainer) {
+        return other.and(this);
+      }
+      long[] words = words();
+      long[] otherWords = other.words();
+      for (int w = 0; w < WORDS; w++) {
+        words[w] &= otherWords[w];
+      }
+      return compress(words);
+    }
+
+    default Container or(Container other) {
+      long[] words = words();
+      long[] otherWords = other.words();
+      for (int w = 0; w < WORDS; w++) {
+        words[w] |= otherWords[w];
+      }
+      return compress(words);
+    }
+
+    default Container andNot(Container other) {
+      long[] words = words();
+      long[] otherWords = other.words();
+      for (int w = 0; w < WORDS; w++) {
+        words[w] &= ~otherWords[w];
+      }
+      return compress(words);
+    }
+  }
+
+  private record ArrayContainer(char[] values) implements Container {
+
+    @Override
+    public int cardinality() {
+      return values.length;
+    }
+
+    @Override
+    public boolean contains(char low) {
+      return Arrays.binarySearch(values, low) >= 0;
+    }
+
+    // A fresh bitmap copy of the values
+    @Override
+    public long[] words() {
+      return bitmapOf(values, values.length).words();
+    }
+
+    @Override
+    public void forEach(int high, IntConsumer action) {
+      for (char low : values) {
+        action.accept(high | low);
+      }
+    }
+
+    // Two arrays intersect and subtract by merging, without expanding to bitmaps
+    @Override
+    public Container and(Container other) {
+      if (other instanceof ArrayContainer(char[] otherValues)) {
+        char[] result = new char[Math.min(values.length, otherValues.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < values.length && j < otherValues.length) {
+          if (values[i] < otherValues[j]) {
+            i++;
+          } else if (values[i] > otherValues[j]) {
+            j++;
+          } else {
+            result[count++] = values[i++];
+            j++;
+          }
+        }
+        return count == 0 ? null : new ArrayContainer(Arrays.copyOf(result, count));
+      }
+      return filter(other, true);
+    }
+
+    @Override
+    public Container andNot(Container other) {
+      return filter(other, false);
+    }
+
+    @Override
+    public Container or(Container other) {
+      if (other instanceof ArrayContainer(char[] otherValues)
+          && values.length + otherValues.length <= ARRAY_MAX) {
+        char[] result = new char[values.length + otherValues.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < values.length || j < otherValues.length) {
+          char next;
+          if (j == otherValues.length || (i < values.length && values[i] < otherValues[j])) {
+            next = values[i++];
+          } else if (i == values.length || values[i] > otherValues[j]) {
+            next = otherValues[j++];
+          } else {
+            next = values[i++];
+            j++;
+          }
+          result[count++] = next;
+        }
+        return new ArrayContainer(Arrays.copyOf(result, count));
+      }
+      return Container.super.or(other);
+    }
+
+    // The values the other container does (keep = true) or does not hold
+    private Container filter(Container other, boolean keep) {
+      char[] result = new char[values.length];
+      int count = 0;
+      for (char low : values) {
+        if (other.contains(low) == keep) {
+          result[count++] = low;
+        }
+      }
+      return count == 0 ? null : new ArrayContainer(Arrays.copyOf(result, count));
+    }
+  }
+
+  private record BitmapContainer(long[] bits, int cardinality) implements Container {
+
+    @Override
+    public boolean contains(char low) {
+      return (bits[low >>> 6] & (1L << low)) != 0;
+    }
+
+    @Override
+    public long[] words() {
+      return bits.clone();
+    }
+
+    @Override
+    public void forEach(int high, IntConsumer action) {
+      for (int w = 0; w < WORDS; w++) {
+        long word = bits[w];
+        while (word != 0) {
+          action.accept(high | ((w << 6) + Long.numberOfTrailingZeros(word)));
+          word &= word - 1;
+        }
+      }
+    }
+  }
+}
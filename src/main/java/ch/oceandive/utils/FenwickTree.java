@@ -0,0 +1,97 @@
+package ch.oceandive.utils;
+
+import java.util.BitSet;
+
+/**
+ * Growable Fenwick (binary indexed) tree over non-negative positions that are either present
+ * or absent. Adding, removing and ranking a position are O(log n), so "how many entries are
+ * ahead of me" stays cheap on long queues. Not thread-safe; callers synchronize.
+ */
+public class FenwickTree {
+
+  private long[] tree;
+  private final BitSet present = new BitSet();
+  private int size;
+
+  public FenwickTree(int initialCapacity) {
+    this.tree = new long[Math.max(16, initialCapacity) + 1];
+  }
+
+  // Mark a position as present, returns false if it already was
+  public boolean add(int position) {
+    if (present.get(position)) {
+      return false;
+    }
+    ensureCapacity(position);
+    present.set(position);
+    update(position, 1);
+    size++;
+    return true;
+  }
+
+  // Mark a position as absent, returns false if it was not present
+  public boolean remove(int position) {
+    if (!present.get(position)) {
+      return false;
+    }
+    present.clear(position);
+    update(position, -1);
+    size--;
+    return true;
+  }
+
+  public boolean contains(int position) {
+    return present.get(position);
+  }
+
+  // Number of present positions strictly lower than the given one
+  public int countBefore(int position) {
+    return (int) prefixSum(Math.min(position, tree.length - 1));
+  }
+
+  public int size() {
+    return size;
+  }
+
+  // Sum of positions [0, end)
+  private long prefixSum(int end) {
+    long sum = 0;
+    for (int i = end; i > 0; i -= i & -i) {
+      sum += tree[i];
+    }
+    return sum;
+  }
+
+  // Internal indices are 1-based: position p lives at index p + 1
+  private void update(int position, long delta) {
+    for (int i = position + 1; i < tree.length; i += i & -i) {
+      tree[i] += delta;
+    }
+  }
+
+  // Doubling keeps growth amortized O(1); the tree is rebuilt from the presence bits in O(n)
+  private void ensureCapacity(int position) {
+    if (position + 1 < tree.length) {
+      return;
+    }
+    int capacity = tree.length;
+    while (position + 1 >= capacity) {
+      capacity *= 2;
+    }
+    tree = new long[capacity];
+    for (int p = present.nextSetBit(0); p >= 0; p = present.nextSetBit(p + 1)) {
+      tree[p + 1] += 1;
+    }
+    for (int i = 1; i < tree.length; i++) {
+      int parent = i + (i & -i);
+      if (parent < tree.length) {
+        tree[parent] += tree[i];
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "FenwickTree{size=" + size + ", capacity=" + (tree.length - 1) + ", present=" + present + "}";
+  }
+}
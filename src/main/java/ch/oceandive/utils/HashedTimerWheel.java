@@ -0,0 +1,186 @@
+package ch.oceandive.utils;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hashed timer wheel (Varghese &amp; Lauck) for large numbers of timeouts with a coarse resolution.
+ * <p>
+ * Scheduling and cancelling are O(1): new timeouts go into a lock-free queue, and a single worker
+ * thread moves them into the wheel bucket of their deadline once per tick. Each tick the worker
+ * only visits one bucket, so expiring tens of thousands of holds never scans all of them. Expired
+ * tasks run on the given executor so a slow task cannot stall the wheel.
+ */
+public class HashedTimerWheel implements AutoCloseable {
+
+  private static final Logger logger = LoggerFactory.getLogger(HashedTimerWheel.class);
+
+  private final long tickNanos;
+  private final int mask;
+  private final ArrayDeque<WheelTimeout>[] wheel;
+  private final Queue<WheelTimeout> incoming = new ConcurrentLinkedQueue<>();
+  private final Executor executor;
+  private final Thread worker;
+  private final long startNanos;
+  private volatile boolean running = true;
+  private long tick;
+
+  /**
+   * @param tickDuration resolution of the wheel, timeouts fire at most one tick late
+   * @param wheelSize    number of buckets, rounded up to a power of two
+   * @param executor     runs the expired tasks
+   * @param name         name of the worker thread
+   */
+  @SuppressWarnings("unchecked")
+  public HashedTimerWheel(Duration tickDuration, int wheelSize, Executor executor, String name) {
+    if (tickDuration.isZero() || tickDuration.isNegative()) {
+      throw new IllegalArgumentException("Tick duration must be positive");
+    }
+    int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+    this.tickNanos = tickDuration.toNanos();
+    this.mask = size - 1;
+    this.wheel = new ArrayDeque[size];
+    for (int i = 0; i < size; i++) {
+      wheel[i] = new ArrayDeque<>();
+    }
+    this.executor = executor;
+    this.startNanos = System.nanoTime();
+    this.worker = new Thread(this::run, name);
+    this.worker.setDaemon(true);
+    this.worker.start();
+  }
+
+  // Run the task once the delay has passed, a zero or negative delay fires on the next tick
+  public Timeout schedule(Runnable task, Duration delay) {
+    if (!running) {
+      throw new IllegalStateException("Timer wheel is stopped");
+    }
+    long deadline = System.nanoTime() - startNanos + Math.max(0, delay.toNanos());
+    WheelTimeout timeout = new WheelTimeout(task, deadline);
+    incoming.add(timeout);
+    return timeout;
+  }
+
+  // Number of timeouts not yet fired or cancelled (approximate, for monitoring)
+  public int pendingCount() {
+    int count = incoming.size();
+    for (ArrayDeque<WheelTimeout> bucket : wheel) {
+      count += bucket.size();
+    }
+    return count;
+  }
+
+  @Override
+  public void close() {
+    running = false;
+    worker.interrupt();
+  }
+
+  private void run() {
+    while (running) {
+      long deadline = (tick + 1) * tickNanos;
+      long sleep = deadline - (System.nanoTime() - startNanos);
+      if (sleep > 0) {
+        LockSupport.parkNanos(this, sleep);
+        if (System.nanoTime() - startNanos < deadline) {
+          continue; // spurious wake-up or interrupt
+        }
+      }
+      transferIncoming();
+      expireBucket(wheel[(int) (tick & mask)]);
+      tick++;
+    }
+  }
+
+  // Only the worker touches the buckets, so they need no synchronization
+  private void transferIncoming() {
+    WheelTimeout timeout;
+    while ((timeout = incoming.poll()) != null) {
+      if (timeout.isCancelled()) {
+        continue;
+      }
+      long targetTick = Math.max(timeout.deadline / tickNanos, tick);
+      timeout.remainingRounds = (targetTick - tick) / wheel.length;
+      wheel[(int) (targetTick & mask)].add(timeout);
+    }
+  }
+
+  private void expireBucket(ArrayDeque<WheelTimeout> bucket) {
+    Iterator<WheelTimeout> iterator = bucket.iterator();
+    while (iterator.hasNext()) {
+      WheelTimeout timeout = iterator.next();
+      if (timeout.isCancelled()) {
+        iterator.remove();
+      } else if (timeout.remainingRounds <= 0) {
+        iterator.remove();
+        timeout.expire();
+      } else {
+        timeout.remainingRounds--;
+      }
+    }
+  }
+
+  // Handle to a scheduled task
+  public interface Timeout {
+
+    // Cancel the task, returns false if it already fired or was cancelled
+    boolean cancel();
+
+    boolean isCancelled();
+
+    boolean isExpired();
+  }
+
+  private final class WheelTimeout implements Timeout {
+
+    private static final int PENDING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    private final Runnable task;
+    private final long deadline;
+    private final AtomicInteger state = new AtomicInteger(PENDING);
+    private long remainingRounds;
+
+    private WheelTimeout(Runnable task, long deadline) {
+      this.task = task;
+      this.deadline = deadline;
+    }
+
+    @Override
+    public boolean cancel() {
+      // The bucket entry is dropped lazily when the worker next visits it
+      return state.compareAndSet(PENDING, CANCELLED);
+    }
+
+    @Override
+    public boolean isCancelled() {
+      return state.get() == CANCELLED;
+    }
+
+    @Override
+    public boolean isExpired() {
+      return state.get() == EXPIRED;
+    }
+
+    private void expire() {
+      if (!state.compareAndSet(PENDING, EXPIRED)) {
+        return;
+      }
+      try {
+        executor.execute(task);
+      } catch (RuntimeException e) {
+        logger.error("Failed to run expired timer task", e);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,328 @@
+package ch.oceandive.utils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.function.LongPredicate;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory full-text index over documents made of a few weighted text fields (for example
+ * name, short description, description).
+ * <p>
+ * Text is split into lowercase tokens with accents folded away ("Curaçao" finds "curacao").
+ * Terms are kept sorted, so every query token is matched as a prefix of the indexed terms:
+ * "mal" finds "Maldives". All query tokens must match (AND). Documents are ranked by a BM25-like
+ * score: rare terms and matches in heavier fields count more, exact term matches beat prefix
+ * matches. Documents can be added, replaced and removed one at a time.
+ * <p>
+ * Posting lists are parallel primitive arrays (document slot, weight, field bits) and a query
+ * scores into flat per-slot arrays, walking the tokens from the most selective one, so the query
+ * path neither boxes nor chases pointers per document.
+ * <p>
+ * Not thread-safe; callers synchronize.
+ */
+public class InvertedIndex {
+
+  private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+  private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+  // Term frequency saturation (BM25 k1)
+  private static final double SATURATION = 1.2;
+  private static final double PREFIX_MATCH_FACTOR = 0.5;
+  private static final int MAX_QUERY_TOKENS = 16;
+  private static final Comparator<Hit> RANKING = Comparator.comparingDouble(Hit::score).reversed()
+      .thenComparing(Comparator.comparingLong(Hit::id).reversed());
+
+  private final float[] fieldWeights;
+  private final TreeMap<String, PostingList> postings = new TreeMap<>();
+  private final Map<Long, Integer> slotById = new HashMap<>();
+  private Document[] documents = new Document[64];
+  private int slots;
+  private int[] freeSlots = new int[16];
+  private int freeCount;
+
+  /**
+   * @param fieldWeights weight of every field, in the order the field values are passed to {@link #put}
+   */
+  public InvertedIndex(float... fieldWeights) {
+    if (fieldWeights.length == 0 || fieldWeights.length > Integer.SIZE) {
+      throw new IllegalArgumentException("Between 1 and 32 fields are supported");
+    }
+    this.fieldWeights = fieldWeights.clone();
+  }
+
+  // Lowercase, accent-free form of the text ("Curaçao" -> "curacao")
+  public static String fold(String text) {
+    return DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+        .toLowerCase(Locale.ROOT);
+  }
+
+  // Lowercase, accent-free tokens of the text, in order of appearance
+  public static List<String> tokenize(String text) {
+    List<String> tokens = new ArrayList<>();
+    if (text == null || text.isEmpty()) {
+      return tokens;
+    }
+    for (String token : SEPARATORS.split(fold(text))) {
+      if (!token.isEmpty()) {
+        tokens.add(token);
+      }
+    }
+    return tokens;
+  }
+
+  // Bit mask selecting the given fields (by position) for a search
+  public static int fields(int... positions) {
+    int mask = 0;
+    for (int position : positions) {
+      mask |= 1 << position;
+    }
+    return mask;
+  }
+
+  /**
+   * Index a document, replacing an earlier version with the same id.
+   *
+   * @param fieldValues one value per field, null values are skipped
+   */
+  public void put(long id, String... fieldValues) {
+    remove(id);
+    Map<String, TermStats> terms = new HashMap<>();
+    for (int field = 0; field < Math.min(fieldValues.length, fieldWeights.length); field++) {
+      for (String token : tokenize(fieldValues[field])) {
+        TermStats term = terms.computeIfAbsent(token, t -> new TermStats());
+        term.weight += fieldWeights[field];
+        term.fields |= 1 << field;
+      }
+    }
+    // Reuse the slots of removed documents so the per-query arrays stay as small as the index
+    int slot = freeCount > 0 ? freeSlots[--freeCount] : slots++;
+    if (slot == documents.length) {
+      documents = Arrays.copyOf(documents, documents.length * 2);
+    }
+    documents[slot] = new Document(id, terms.keySet().toArray(String[]::new));
+    slotById.put(id, slot);
+    terms.forEach((term, stats) ->
+        postings.computeIfAbsent(term, t -> new PostingList()).add(slot, stats.weight, stats.fields));
+  }
+
+  // Drop a document, returns false if it was not indexed
+  public boolean remove(long id) {
+    Integer slot = slotById.remove(id);
+    if (slot == null) {
+      return false;
+    }
+    for (String term : documents[slot].terms()) {
+      PostingList docs = postings.get(term);
+      if (docs != null && docs.remove(slot) && docs.size == 0) {
+        postings.remove(term);
+      }
+    }
+    documents[slot] = null;
+    if (freeCount == freeSlots.length) {
+      freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+    }
+    freeSlots[freeCount++] = slot;
+    return true;
+  }
+
+  public void clear() {
+    postings.clear();
+    slotById.clear();
+    freeCount = 0;
+    documents = new Document[64];
+    slots = 0;
+  }
+
+  public int size() {
+    return slotById.size();
+  }
+
+  /**
+   * Documents matching every token of the query, best match first (ties: higher id first).
+   *
+   * @param fieldMask fields a token has to occur in, see {@link #fields}; -1 for all fields
+   * @param filter    only documents accepted by the filter are returned, may be null
+   * @param limit     maximum number of hits to rank and return
+   * @return the best hits and the total number of matching documents, empty when the query has no tokens
+   */
+  public Hits search(String query, int fieldMask, LongPredicate filter, int limit) {
+    List<String> tokens = tokenize(query).stream().distinct().limit(MAX_QUERY_TOKENS).toList();
+    if (tokens.isEmpty() || slotById.isEmpty()) {
+      return new Hits(List.of(), 0);
+    }
+    // Most selective token first: it decides the candidates, the others can only drop them
+    List<TokenMatches> ranges = tokens.stream()
+        .map(token -> new TokenMatches(token, prefixRange(token)))
+        .sorted(Comparator.comparingLong(TokenMatches::postings))
+        .toList();
+    long fewest = ranges.get(0).postings();
+    if (fewest == 0) {
+      return new Hits(List.of(), 0);
+    }
+
+    // The first token's documents are the candidates: an open-addressing table maps their slots
+    // to positions in the score arrays, so the work stays proportional to the matches, not the index
+    int capacity = Integer.highestOneBit((int) Math.min(fewest, slots) * 2 - 1) << 1;
+    int[] table = new int[capacity];
+    int[] candidates = new int[(int) Math.min(fewest, slots)];
+    float[] scores = new float[candidates.length];
+    float[] tokenScores = new float[candidates.length];
+    byte[] matched = new byte[candidates.length];
+    int candidateCount = 0;
+    for (int t = 0; t < ranges.size(); t++) {
+      TokenMatches token = ranges.get(t);
+      for (Map.Entry<String, PostingList> match : token.terms().entrySet()) {
+        PostingList docs = match.getValue();
+        double idf = idf(docs.size);
+        float factor = (float) (match.getKey().equals(token.token()) ? 1.0 : PREFIX_MATCH_FACTOR);
+        for (int i = 0; i < docs.size; i++) {
+          if ((docs.fields[i] & fieldMask) == 0) {
+            continue;
+          }
+          int slot = docs.slots[i];
+          // Table entries hold candidate position + 1, 0 marks a free bucket
+          int bucket = (slot * 0x9E3779B9) & (capacity - 1);
+          while (table[bucket] != 0 && candidates[table[bucket] - 1] != slot) {
+            bucket = (bucket + 1) & (capacity - 1);
+          }
+          int candidate;
+          if (table[bucket] != 0) {
+            candidate = table[bucket] - 1;
+          } else if (t == 0) {
+            candidate = candidateCount++;
+            candidates[candidate] = slot;
+            table[bucket] = candidateCount;
+          } else {
+            continue;
+          }
+          float score = (float) (idf * saturate(docs.weights[i])) * factor;
+          if (matched[candidate] == t) {
+            // First term of this token in the document
+            matched[candidate] = (byte) (t + 1);
+            tokenScores[candidate] = score;
+            scores[candidate] += score;
+          } else if (matched[candidate] == t + 1 && score > tokenScores[candidate]) {
+            scores[candidate] += score - tokenScores[candidate];
+            tokenScores[candidate] = score;
+          }
+        }
+      }
+    }
+    int total = 0;
+    // Min-heap of the best hits so far, the worst one is dropped when it grows past the limit
+    PriorityQueue<Hit> top = new PriorityQueue<>(Math.max(1, Math.min(limit, candidateCount)) + 1,
+        RANKING.reversed());
+    for (int c = 0; c < candidateCount; c++) {
+      if (matched[c] != ranges.size()) {
+        continue;
+      }
+      long id = documents[candidates[c]].id();
+      if (filter != null && !filter.test(id)) {
+        continue;
+      }
+      total++;
+      if (limit <= 0) {
+        continue;
+      }
+      Hit worst = top.size() < limit ? null : top.peek();
+      if (worst == null || scores[c] > worst.score() || (scores[c] == worst.score() && id > worst.id())) {
+        top.offer(new Hit(id, scores[c]));
+        if (top.size() > limit) {
+          top.poll();
+        }
+      }
+    }
+    List<Hit> hits = new ArrayList<>(top);
+    hits.sort(RANKING);
+    return new Hits(hits, total);
+  }
+
+  private NavigableMap<String, PostingList> prefixRange(String token) {
+    return postings.subMap(token, true, token + Character.MAX_VALUE, false);
+  }
+
+  private double idf(int documentFrequency) {
+    return Math.log(1 + (slotById.size() - documentFrequency + 0.5) / (documentFrequency + 0.5));
+  }
+
+  private static double saturate(float weight) {
+    return weight * (SATURATION + 1) / (weight + SATURATION);
+  }
+
+  public record Hit(long id, double score) {
+  }
+
+  // Best hits of a search, total counts every match accepted by the filter
+  public record Hits(List<Hit> hits, int total) {
+
+    public List<Long> ids() {
+      return hits.stream().map(Hit::id).toList();
+    }
+  }
+
+  // Terms starting with one query token
+  private record TokenMatches(String token, NavigableMap<String, PostingList> terms) {
+
+    private long postings() {
+      long count = 0;
+      for (PostingList docs : terms.values()) {
+        count += docs.size;
+      }
+      return count;
+    }
+  }
+
+  // Indexed document: external id and its distinct terms (to clean up the postings on removal)
+  private record Document(long id, String[] terms) {
+  }
+
+  // Summed field weights and field bits of a term while a document is tokenized
+  private static final class TermStats {
+
+    private float weight;
+    private int fields;
+  }
+
+  // Documents containing one term, with the term's summed field weight and field bits per document
+  private static final class PostingList {
+
+    private int[] slots = new int[4];
+    private float[] weights = new float[4];
+    private int[] fields = new int[4];
+    private int size;
+
+    private void add(int slot, float weight, int fieldBits) {
+      if (size == slots.length) {
+        slots = Arrays.copyOf(slots, size * 2);
+        weights = Arrays.copyOf(weights, size * 2);
+        fields = Arrays.copyOf(fields, size * 2);
+      }
+      slots[size] = slot;
+      weights[size] = weight;
+      fields[size] = fieldBits;
+      size++;
+    }
+
+    private boolean remove(int slot) {
+      for (int i = 0; i < size; i++) {
+        if (slots[i] == slot) {
+          size--;
+          slots[i] = slots[size];
+          weights[i] = weights[size];
+          fields[i] = fields[size];
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package ch.oceandive.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.StringJoiner;
+import java.util.function.Function;
+
+/**
+ * Opaque continuation tokens for keyset (seek) pagination.
+ * <p>
+ * A cursor holds the sort key of the last row of a page, for example (displayOrder, startDate,
+ * id) of a trip. The next page is read with {@code WHERE key > cursor ORDER BY key LIMIT n}, so
+ * deep pages cost the same as the first one and no {@code OFFSET} rows are skipped. The key is
+ * URL-safe base64 encoded with a version prefix so clients treat it as opaque and the format can
+ * change later.
+ */
+public final class PageCursor {
+
+  private static final String VERSION = "1";
+  private static final String SEPARATOR = "|";
+
+  private PageCursor() {
+  }
+
+  // Token for the given key values, in sort order; values must not contain '|'
+  public static String encode(Object... keys) {
+    StringJoiner joined = new StringJoiner(SEPARATOR).add(VERSION);
+    for (Object key : keys) {
+      joined.add(String.valueOf(key));
+    }
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(joined.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Parse a token created by {@link #encode}.
+   *
+   * @param keyCount number of key values the token must hold
+   * @param parser   turns the key values into the caller's position type
+   * @throws IllegalArgumentException if the token is malformed or was made for another listing
+   */
+  public static <T> T decode(String cursor, int keyCount, Function<String[], T> parser) {
+    try {
+      String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      String[] parts = decoded.split("\\" + SEPARATOR, -1);
+      if (parts.length != keyCount + 1 || !VERSION.equals(parts[0])) {
+        throw new IllegalArgumentException("Invalid page cursor");
+      }
+      String[] keys = new String[keyCount];
+      System.arraycopy(parts, 1, keys, 0, keyCount);
+      return parser.apply(keys);
+    } catch (RuntimeException e) {
+      // Bad base64, numbers or dates all mean the client sent a token we did not issue
+      throw new IllegalArgumentException("Invalid page cursor", e);
+    }
+  }
+}
@@ -0,0 +1,286 @@
+package ch.oceandive.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Weighted typeahead over short strings (locations, dive sites), backed by a compressed prefix
+ * (radix) trie.
+ * <p>
+ * Keys are case and accent insensitive ("cura" finds "Curaçao"). Every node keeps the best
+ * {@code topK} values of its subtree, ranked by weight, so a suggestion walks the prefix and
+ * copies that list: the cost depends on the prefix length, not on the number of values. Writes
+ * refresh the lists on the path from the changed value to the root.
+ * <p>
+ * Reads do not modify the trie, so a trie that is no longer written may be shared between
+ * threads. Otherwise it is not thread-safe; callers synchronize.
+ */
+public class RadixTrie {
+
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+  private static final Node[] NO_CHILDREN = new Node[0];
+  private static final Entry[] NO_ENTRIES = new Entry[0];
+  // Heaviest first, then alphabetical
+  private static final Comparator<Entry> RANKING = Comparator.comparingLong(Entry::weight).reversed()
+      .thenComparing(Entry::value, String.CASE_INSENSITIVE_ORDER);
+
+  private final int topK;
+  private final Node root = new Node("");
+  private int size;
+
+  /**
+   * @param topK suggestions kept per node, the most a single {@link #suggest} returns
+   */
+  public RadixTrie(int topK) {
+    if (topK < 1) {
+      throw new IllegalArgumentException("topK must be at least 1");
+    }
+    this.topK = topK;
+  }
+
+  // Lookup key of a value: folded case and accents, single spaces
+  public static String normalize(String value) {
+    return value == null ? "" : WHITESPACE.matcher(InvertedIndex.fold(value).trim()).replaceAll(" ");
+  }
+
+  public int size() {
+    return size;
+  }
+
+  // Weight of the value, 0 if absent
+  public long weight(String value) {
+    String key = normalize(value);
+    Node node = root;
+    int offset = 0;
+    while (offset < key.length()) {
+      Node child = child(node, key.charAt(offset));
+      if (child == null || !key.startsWith(child.label, offset)) {
+        return 0;
+      }
+      offset += child.label.length();
+      node = child;
+    }
+    return node.entry == null ? 0 : node.entry.weight();
+  }
+
+  /**
+   * Set the weight of a value, a weight of zero or less removes it. Values with the same key
+   * share one entry, which keeps the spelling it was first added with.
+   */
+  public void put(String value, long weight) {
+    String key = normalize(value);
+    if (!key.isEmpty()) {
+      set(root, key, 0, value.trim(), weight);
+    }
+  }
+
+  // Change the weight of a value by delta (adding it if absent), returns the new weight
+  public long add(String value, long delta) {
+    long weight = Math.max(0, weight(value) + delta);
+    put(value, weight);
+    return weight;
+  }
+
+  public void remove(String value) {
+    put(value, 0);
+  }
+
+  /**
+   * The heaviest values whose key starts with the prefix, heaviest first.
+   *
+   * @param limit maximum number of suggestions, at most {@code topK} are returned
+   */
+  public List<String> suggest(String prefix, int limit) {
+    String key = normalize(prefix);
+    Node node = root;
+    int offset = 0;
+    while (offset < key.length()) {
+      Node child = child(node, key.charAt(offset));
+      if (child == null) {
+        return List.of();
+      }
+      int common = commonPrefix(child.label, key, offset);
+      if (offset + common == key.length()) {
+        // The prefix ends on this edge, everything below the child matches
+        node = child;
+        break;
+      }
+      if (common < child.label.length()) {
+        return List.of();
+      }
+      offset += common;
+      node = child;
+    }
+    int count = Math.min(Math.max(0, limit), node.top.length);
+    List<String> suggestions = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      suggestions.add(node.top[i].value());
+    }
+    return suggestions;
+  }
+
+  // All values in key order
+  public List<String> values() {
+    List<String> values = new ArrayList<>(size);
+    collect(root, values);
+    return values;
+  }
+
+  private void collect(Node node, List<String> values) {
+    if (node.entry != null) {
+      values.add(node.entry.value());
+    }
+    for (Node child : node.children) {
+      collect(child, values);
+    }
+  }
+
+  // Set the weight below node for key[offset..], returns whether anything changed
+  private boolean set(Node node, String key, int offset, String value, long weight) {
+    if (offset == key.length()) {
+      if (weight <= 0) {
+        if (node.entry == null) {
+          return false;
+        }
+        node.entry = null;
+        size--;
+      } else {
+        if (node.entry == null) {
+          size++;
+        }
+        node.entry = new Entry(node.entry == null ? value : node.entry.value(), weight);
+      }
+      refreshTop(node);
+      return true;
+    }
+
+    int index = childIndex(node, key.charAt(offset));
+    if (index < 0) {
+      if (weight <= 0) {
+        return false;
+      }
+      Node leaf = new Node(key.substring(offset));
+      leaf.entry = new Entry(value, weight);
+      leaf.top = new Entry[]{leaf.entry};
+      size++;
+      insertChild(node, -index - 1, leaf);
+      refreshTop(node);
+      return true;
+    }
+
+    Node child = node.children[index];
+    int common = commonPrefix(child.label, key, offset);
+    if (common < child.label.length()) {
+      if (weight <= 0) {
+        return false;
+      }
+      // Split the edge: the shared part becomes a new node above the old child
+      Node middle = new Node(child.label.substring(0, common));
+      child.label = child.label.substring(common);
+      middle.children = new Node[]{child};
+      middle.top = child.top;
+      node.children[index] = middle;
+      child = middle;
+    }
+    if (!set(child, key, offset + common, value, weight)) {
+      return false;
+    }
+    if (weight <= 0) {
+      compact(node, index);
+    }
+    refreshTop(node);
+    return true;
+  }
+
+  // Drop an empty child, or merge a valueless child into its only grandchild
+  private static void compact(Node parent, int index) {
+    Node child = parent.children[index];
+    if (child.entry != null || child.children.length > 1) {
+      return;
+    }
+    if (child.children.length == 0) {
+      Node[] children = new Node[parent.children.length - 1];
+      System.arraycopy(parent.children, 0, children, 0, index);
+      System.arraycopy(parent.children, index + 1, children, index, children.length - index);
+      parent.children = children.length == 0 ? NO_CHILDREN : children;
+    } else {
+      Node grandchild = child.children[0];
+      grandchild.label = child.label + grandchild.label;
+      parent.children[index] = grandchild;
+    }
+  }
+
+  // Best topK of the node's own value and its children's lists
+  private void refreshTop(Node node) {
+    List<Entry> candidates = new ArrayList<>();
+    if (node.entry != null) {
+      candidates.add(node.entry);
+    }
+    for (Node child : node.children) {
+      candidates.addAll(Arrays.asList(child.top));
+    }
+    candidates.sort(RANKING);
+    node.top = candidates.isEmpty()
+        ? NO_ENTRIES
+        : candidates.subList(0, Math.min(topK, candidates.size())).toArray(Entry[]::new);
+  }
+
+  private static Node child(Node node, char first) {
+    int index = childIndex(node, first);
+    return index < 0 ? null : node.children[index];
+  }
+
+  // Binary search by first label character, (-(insertion point) - 1) if absent
+  private static int childIndex(Node node, char first) {
+    int low = 0;
+    int high = node.children.length - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      char c = node.children[mid].label.charAt(0);
+      if (c < first) {
+        low = mid + 1;
+      } else if (c > first) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -(low + 1);
+  }
+
+  private static void insertChild(Node node, int position, Node child) {
+    Node[] children = new Node[node.children.length + 1];
+    System.arraycopy(node.children, 0, children, 0, position);
+    children[position] = child;
+    System.arraycopy(node.children, position, children, position + 1, node.children.length - position);
+    node.children = children;
+  }
+
+  private static int commonPrefix(String label, String key, int offset) {
+    int max = Math.min(label.length(), key.length() - offset);
+    int i = 0;
+    while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+      i++;
+    }
+    return i;
+  }
+
+  private record Entry(String value, long weight) {
+  }
+
+  // Edge label into this node, children sorted by the first label character
+  private static final class Node {
+
+    private String label;
+    private Node[] children = NO_CHILDREN;
+    private Entry entry;
+    private Entry[] top = NO_ENTRIES;
+
+    private Node(String label) {
+      this.label = label;
+    }
+  }
+}
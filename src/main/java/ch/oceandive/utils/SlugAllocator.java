@@ -0,0 +1,55 @@
+package ch.oceandive.utils;
+
+import java.util.BitSet;
+import java.util.Collection;
+
+/**
+ * Picks a free slug from the slugs already taken by a base slug and its numbered variants
+ * ("reef", "reef-1", "reef-2", ...), as loaded with one prefix query.
+ */
+public final class SlugAllocator {
+
+  private SlugAllocator() {
+  }
+
+  /**
+   * The base slug if it is free, otherwise the base with the lowest free suffix from 1 on. Taken
+   * slugs that are neither the base nor a numbered variant of it are ignored.
+   */
+  public static String firstFree(String base, Collection<String> taken) {
+    // n taken slugs leave one of the suffixes 1..n+1 free, larger suffixes cannot be the lowest free one
+    int maxSuffix = taken.size() + 1;
+    BitSet used = new BitSet(maxSuffix + 1);
+    String prefix = base + "-";
+    for (String slug : taken) {
+      if (slug.equals(base)) {
+        used.set(0);
+      } else if (slug.startsWith(prefix)) {
+        int suffix = suffix(slug, prefix.length());
+        if (suffix > 0 && suffix <= maxSuffix) {
+          used.set(suffix);
+        }
+      }
+    }
+    if (!used.get(0)) {
+      return base;
+    }
+    return prefix + used.nextClearBit(1);
+  }
+
+  // The number after the prefix, -1 if the rest is not a plain positive number
+  private static int suffix(String slug, int start) {
+    if (start == slug.length() || slug.length() - start > 9 || slug.charAt(start) == '0') {
+      return -1;
+    }
+    int value = 0;
+    for (int i = start; i < slug.length(); i++) {
+      char c = slug.charAt(i);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+      value = value * 10 + (c - '0');
+    }
+    return value;
+  }
+}
@@ -0,0 +1,20 @@
+package ch.oceandive.utils;
+
+/**
+ * Enum for the lifecycle of a waitlist entry
+ */
+public enum WaitlistStatus {
+  WAITING("Waiting"),
+  PROMOTED("Promoted"),
+  CANCELLED("Cancelled");
+
+  private final String displayName;
+
+  WaitlistStatus(String displayName) {
+    this.displayName = displayName;
+  }
+
+  public String getDisplayName() {
+    return displayName;
+  }
+}
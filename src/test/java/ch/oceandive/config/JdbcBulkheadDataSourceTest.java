@@ -0,0 +1,148 @@
+package ch.oceandive.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+// Permits of the JDBC bulkhead: taken per thread, returned on close, and bounded by the acquire timeout
+class JdbcBulkheadDataSourceTest {
+
+  private static final Duration SHORT_TIMEOUT = Duration.ofMillis(100);
+
+  private final AtomicInteger closed = new AtomicInteger();
+
+  @Test
+  void closeReturnsThePermitOnce() throws Exception {
+    JdbcBulkheadDataSource bulkhead = new JdbcBulkheadDataSource(target(), 2, SHORT_TIMEOUT);
+
+    Connection connection = bulkhead.getConnection();
+    assertEquals(1, bulkhead.getActiveConnections());
+
+    connection.close();
+    connection.close();
+    assertEquals(0, bulkhead.getActiveConnections());
+    assertEquals(2, closed.get(), "close is still passed to the pooled connection");
+
+    // Closing twice must not hand out a permit that was never taken
+    Connection first = bulkhead.getConnection();
+    Connection second = runOnOtherThread(bulkhead);
+    assertEquals(2, bulkhead.getActiveConnections());
+    assertThrows(SQLTransientConnectionException.class, () -> runOnOtherThread(bulkhead));
+    first.close();
+    second.close();
+    assertEquals(0, bulkhead.getActiveConnections());
+  }
+
+  @Test
+  void waitingLongerThanTheTimeoutFails() throws Exception {
+    JdbcBulkheadDataSource bulkhead = new JdbcBulkheadDataSource(target(), 1, SHORT_TIMEOUT);
+    Connection held = runOnOtherThread(bulkhead);
+
+    long start = System.nanoTime();
+    SQLTransientConnectionException e =
+        assertThrows(SQLTransientConnectionException.class, bulkhead::getConnection);
+    long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    assertTrue(waitedMs >= SHORT_TIMEOUT.toMillis(), "waited " + waitedMs + " ms");
+    assertNotNull(e.getMessage());
+    assertEquals(1, bulkhead.getActiveConnections(), "the failed attempt holds no permit");
+
+    held.close();
+    try (Connection connection = bulkhead.getConnection()) {
+      assertEquals(1, bulkhead.getActiveConnections());
+    }
+    assertEquals(0, bulkhead.getActiveConnections());
+  }
+
+  @Test
+  void nestedConnectionOfTheSameThreadNeedsNoSecondPermit() throws Exception {
+    // Like an after-commit listener reading in its own transaction while the write still holds its connection
+    JdbcBulkheadDataSource bulkhead = new JdbcBulkheadDataSource(target(), 1, SHORT_TIMEOUT);
+
+    try (Connection outer = bulkhead.getConnection()) {
+      try (Connection inner = bulkhead.getConnection()) {
+        assertEquals(1, bulkhead.getActiveConnections());
+      }
+      assertEquals(1, bulkhead.getActiveConnections(), "the outer connection keeps the permit");
+    }
+    assertEquals(0, bulkhead.getActiveConnections());
+  }
+
+  @Test
+  void failingPoolReturnsThePermit() {
+    DataSource failing = (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(),
+        new Class<?>[]{DataSource.class}, (proxy, method, args) -> {
+          throw new SQLException("pool exhausted");
+        });
+    JdbcBulkheadDataSource bulkhead = new JdbcBulkheadDataSource(failing, 1, SHORT_TIMEOUT);
+
+    assertThrows(SQLException.class, bulkhead::getConnection);
+    assertThrows(SQLException.class, bulkhead::getConnection);
+    assertEquals(0, bulkhead.getActiveConnections());
+  }
+
+  @Test
+  void permitsDefaultToThePoolSizeAndNeverBelowTwo() {
+    assertEquals(10, VirtualThreadConfig.jdbcPermits(new MockEnvironment()));
+    assertEquals(5, VirtualThreadConfig.jdbcPermits(
+        new MockEnvironment().withProperty("spring.datasource.hikari.maximum-pool-size", "5")));
+    assertEquals(2, VirtualThreadConfig.jdbcPermits(
+        new MockEnvironment().withProperty("spring.datasource.hikari.maximum-pool-size", "1")));
+    assertEquals(3, VirtualThreadConfig.jdbcPermits(new MockEnvironment()
+        .withProperty("spring.datasource.hikari.maximum-pool-size", "5")
+        .withProperty("app.virtual-threads.jdbc-permits", "3")));
+    assertEquals(2, VirtualThreadConfig.jdbcPermits(
+        new MockEnvironment().withProperty("app.virtual-threads.jdbc-permits", "1")));
+  }
+
+  // Borrows a connection on a thread of its own, which keeps it open after returning
+  private static Connection runOnOtherThread(JdbcBulkheadDataSource bulkhead) throws Exception {
+    CompletableFuture<Connection> connection = new CompletableFuture<>();
+    Thread.ofPlatform().start(() -> {
+      try {
+        connection.complete(bulkhead.getConnection());
+      } catch (SQLException e) {
+        connection.completeExceptionally(e);
+      }
+    });
+    try {
+      return connection.get();
+    } catch (ExecutionException e) {
+      throw (Exception) e.getCause();
+    }
+  }
+
+  private DataSource target() {
+    return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(),
+        new Class<?>[]{DataSource.class}, (proxy, method, args) -> {
+          if (method.getName().equals("getConnection")) {
+            return connection();
+          }
+          throw new UnsupportedOperationException(method.getName());
+        });
+  }
+
+  private Connection connection() {
+    return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+        new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+          if (method.getName().equals("close")) {
+            closed.incrementAndGet();
+          }
+          return null;
+        });
+  }
+}
@@ -0,0 +1,85 @@
+package ch.oceandive.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+import ch.oceandive.model.Trip;
+import ch.oceandive.repository.TripRepo;
+import ch.oceandive.service.TripService;
+import ch.oceandive.utils.DiveCertification;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+// Admin edits complete behind the JDBC bulkhead with the default permits, although the after-commit
+// catalog rebuilds read on a second connection while the edit still holds its own
+@SpringBootTest(properties = {"spring.threads.virtual.enabled=true",
+    "spring.datasource.hikari.maximum-pool-size=3",
+    "app.virtual-threads.jdbc-acquire-timeout-ms=5000"})
+@ActiveProfiles("test")
+class VirtualThreadConfigTest {
+
+  private static final int EDITORS = 8;
+
+  @Autowired
+  private DataSource dataSource;
+
+  @Autowired
+  private TripService tripService;
+
+  @Autowired
+  private TripRepo tripRepo;
+
+  @Test
+  void adminTripUpdateCompletesWithTheDefaultPermits() throws Exception {
+    JdbcBulkheadDataSource bulkhead = assertInstanceOf(JdbcBulkheadDataSource.class, dataSource);
+    assertEquals(3, bulkhead.getMaxPermits(), "the permits follow the pool size");
+
+    Trip trip = tripRepo.save(newTrip("single"));
+    tripService.updateTrip(trip.getId(), edited(trip, "Edited once"));
+    assertEquals("Edited once", tripService.getTripBySlug(trip.getSlug()).getDescription());
+
+    // More editors than permits, each on a virtual thread of its own and editing a trip of its own
+    List<Trip> trips = new ArrayList<>();
+    for (int i = 0; i < EDITORS; i++) {
+      trips.add(tripRepo.save(newTrip("editor-" + i)));
+    }
+    List<Future<Trip>> edits = new ArrayList<>();
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (Trip editorTrip : trips) {
+        edits.add(executor.submit(() -> tripService.updateTrip(editorTrip.getId(), edited(editorTrip, "Edited"))));
+      }
+      for (Future<Trip> edit : edits) {
+        edit.get(30, TimeUnit.SECONDS);
+      }
+    }
+
+    for (Trip editorTrip : trips) {
+      assertEquals("Edited", tripService.getTripBySlug(editorTrip.getSlug()).getDescription());
+    }
+    assertEquals(0, bulkhead.getActiveConnections(), "every permit is returned");
+  }
+
+  private static Trip newTrip(String label) {
+    Trip trip = new Trip("Virtual Reef " + label, "Trip used by the virtual thread test",
+        LocalDate.now().plusDays(30), LocalDate.now().plusDays(33), null, 10,
+        DiveCertification.OPEN_WATER, new BigDecimal("450.00"));
+    trip.setSlug("virtual-reef-" + label + "-" + System.nanoTime());
+    return trip;
+  }
+
+  private static Trip edited(Trip trip, String description) {
+    return new Trip(trip.getLocation(), description, trip.getStartDate(), trip.getEndDate(), null,
+        trip.getCapacity(), trip.getMinCertificationRequired(), trip.getPrice());
+  }
+}
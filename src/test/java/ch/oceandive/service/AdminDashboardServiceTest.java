@@ -0,0 +1,79 @@
+package ch.oceandive.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import ch.oceandive.dto.DashboardSnapshot;
+import ch.oceandive.event.CourseChangedEvent;
+import ch.oceandive.model.Course;
+import ch.oceandive.repository.CourseRepo;
+import ch.oceandive.utils.DiveCertification;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+
+// Dashboard snapshots are shared within the TTL, and an edit never leaves an older snapshot cached
+@SpringBootTest
+@ActiveProfiles("test")
+class AdminDashboardServiceTest {
+
+  private static final int ROUNDS = 50;
+
+  @Autowired
+  private AdminDashboardService dashboardService;
+
+  @Autowired
+  private CourseRepo courseRepo;
+
+  @Autowired
+  private ApplicationEventPublisher eventPublisher;
+
+  @Test
+  void editDropsTheCachedSnapshot() {
+    DashboardSnapshot first = dashboardService.getSnapshot();
+    assertSame(first, dashboardService.getSnapshot(), "within the TTL the snapshot is shared");
+
+    Course course = courseRepo.save(newCourse("drop"));
+    eventPublisher.publishEvent(new CourseChangedEvent(course.getId()));
+
+    DashboardSnapshot second = dashboardService.getSnapshot();
+    assertNotSame(first, second);
+    assertEquals(courseRepo.count(), second.totalCourses());
+  }
+
+  @Test
+  void snapshotLoadedDuringAnEditIsNotCached() throws Exception {
+    for (int round = 0; round < ROUNDS; round++) {
+      // A reader keeps reloading while the course is saved and the edit event fires
+      AtomicBoolean stop = new AtomicBoolean();
+      Thread reader = Thread.ofPlatform().start(() -> {
+        while (!stop.get()) {
+          dashboardService.getSnapshot();
+        }
+      });
+      try {
+        Course course = courseRepo.save(newCourse("race-" + round));
+        eventPublisher.publishEvent(new CourseChangedEvent(course.getId()));
+      } finally {
+        stop.set(true);
+        reader.join();
+      }
+
+      assertEquals(courseRepo.count(), dashboardService.getSnapshot().totalCourses(), "round " + round);
+    }
+  }
+
+  private Course newCourse(String label) {
+    Course course = new Course("Dashboard Course " + label, "Course used by the dashboard test",
+        LocalDate.now().plusDays(30), LocalDate.now().plusDays(32), null, 8,
+        DiveCertification.OPEN_WATER, new BigDecimal("300.00"));
+    course.setSlug("dashboard-course-" + label + "-" + System.nanoTime());
+    return course;
+  }
+}
@@ -0,0 +1,95 @@
+package ch.oceandive.service;
+
+import static ch.oceandive.service.TestFixtures.newGuest;
+import static ch.oceandive.service.TestFixtures.newTrip;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import ch.oceandive.exceptionHandler.DuplicateResourceException;
+import ch.oceandive.model.Booking;
+import ch.oceandive.model.GuestUser;
+import ch.oceandive.model.Trip;
+import ch.oceandive.repository.GuestUserRepo;
+import ch.oceandive.repository.TripRepo;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+// A repeated Idempotency-Key replays the original booking instead of booking another seat
+@SpringBootTest
+@ActiveProfiles("test")
+class BookingIdempotencyTest {
+
+  private static final int RETRIES = 8;
+
+  @Autowired
+  private BookingService bookingService;
+
+  @Autowired
+  private TripRepo tripRepo;
+
+  @Autowired
+  private GuestUserRepo guestUserRepo;
+
+  @Test
+  void repeatedKeyReplaysTheOriginalBooking() {
+    Trip trip = tripRepo.save(newTrip("replay"));
+    GuestUser guest = guestUserRepo.save(newGuest("replay"));
+    String key = UUID.randomUUID().toString();
+
+    Booking first = bookingService.bookTrip(trip, guest, key);
+    Booking replay = bookingService.bookTrip(trip, guest, key);
+
+    assertEquals(first.getId(), replay.getId());
+    assertEquals(first.getReference(), replay.getReference());
+    assertEquals(1, tripRepo.findById(trip.getId()).orElseThrow().getCurrentBookings(), "one seat only");
+  }
+
+  @Test
+  void concurrentRetriesWithTheSameKeyBookOneSeat() throws Exception {
+    Trip trip = tripRepo.save(newTrip("concurrent"));
+    GuestUser guest = guestUserRepo.save(newGuest("concurrent"));
+    String key = UUID.randomUUID().toString();
+    Set<String> references = ConcurrentHashMap.newKeySet();
+
+    // All retries pass the lookup before the first insert; the losers hit the unique key and replay
+    ConcurrentAttempts.Result result = ConcurrentAttempts.run(RETRIES, RETRIES,
+        () -> references.add(bookingService.bookTrip(trip, guest, key).getReference()));
+
+    assertEquals(RETRIES, result.successes(), "every retry gets the booking, none fails");
+    assertEquals(1, references.size());
+    assertEquals(1, tripRepo.findById(trip.getId()).orElseThrow().getCurrentBookings(), "one seat only");
+  }
+
+  @Test
+  void keyOfAnotherBookingIsRejected() {
+    Trip trip = tripRepo.save(newTrip("reuse"));
+    Trip otherTrip = tripRepo.save(newTrip("reuse-other"));
+    GuestUser guest = guestUserRepo.save(newGuest("reuse"));
+    GuestUser otherGuest = guestUserRepo.save(newGuest("reuse-other"));
+    String key = UUID.randomUUID().toString();
+    bookingService.bookTrip(trip, guest, key);
+
+    assertThrows(DuplicateResourceException.class, () -> bookingService.bookTrip(otherTrip, guest, key));
+    assertThrows(DuplicateResourceException.class, () -> bookingService.bookTrip(trip, otherGuest, key));
+    assertEquals(0, tripRepo.findById(otherTrip.getId()).orElseThrow().getCurrentBookings());
+    assertEquals(1, tripRepo.findById(trip.getId()).orElseThrow().getCurrentBookings());
+  }
+
+  @Test
+  void bookingsWithoutKeyGetTheirOwnReference() {
+    Trip trip = tripRepo.save(newTrip("no-key"));
+    GuestUser guest = guestUserRepo.save(newGuest("no-key"));
+
+    Booking first = bookingService.bookTrip(trip, guest, null);
+    Booking second = bookingService.bookTrip(trip, guest, null);
+
+    assertNotEquals(first.getReference(), second.getReference());
+    assertEquals(2, tripRepo.findById(trip.getId()).orElseThrow().getCurrentBookings());
+  }
+}
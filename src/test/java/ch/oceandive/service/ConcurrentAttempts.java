@@ -0,0 +1,58 @@
+package ch.oceandive.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs the same booking attempt many times on a thread pool, all released at once, and counts the outcomes.
+final class ConcurrentAttempts {
+
+  private ConcurrentAttempts() {
+  }
+
+  /**
+   * An attempt that throws IllegalStateException counts as rejected (fully booked), any other
+   * RuntimeException as an error.
+   */
+  static Result run(int attempts, int threads, Runnable attempt) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicInteger successes = new AtomicInteger();
+    AtomicInteger rejections = new AtomicInteger();
+    AtomicInteger errors = new AtomicInteger();
+    List<Future<?>> futures = new ArrayList<>(attempts);
+    try {
+      for (int i = 0; i < attempts; i++) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          try {
+            attempt.run();
+            successes.incrementAndGet();
+          } catch (IllegalStateException e) {
+            rejections.incrementAndGet();
+          } catch (RuntimeException e) {
+            errors.incrementAndGet();
+          }
+          return null;
+        }));
+      }
+      long began = System.nanoTime();
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get(60, TimeUnit.SECONDS);
+      }
+      long elapsed = Math.max(1, System.nanoTime() - began);
+      return new Result(successes.get(), rejections.get(), errors.get(), attempts * 1_000_000_000L / elapsed);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  record Result(int successes, int rejections, int errors, long throughput) {
+  }
+}
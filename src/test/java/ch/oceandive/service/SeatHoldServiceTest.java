@@ -0,0 +1,110 @@
+package ch.oceandive.service;
+
+import static ch.oceandive.service.TestFixtures.newGuest;
+import static ch.oceandive.service.TestFixtures.newTrip;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import ch.oceandive.exceptionHandler.BusinessRuleViolationException;
+import ch.oceandive.model.Booking;
+import ch.oceandive.model.Trip;
+import ch.oceandive.repository.BookingRepo;
+import ch.oceandive.repository.GuestUserRepo;
+import ch.oceandive.repository.TripRepo;
+import ch.oceandive.utils.BookingStatus;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+// Confirm, release and timer-driven expiry of seat holds; only one of them wins for a hold
+@SpringBootTest
+@ActiveProfiles("test")
+class SeatHoldServiceTest {
+
+  // The timer wheel ticks once a second
+  private static final long EXPIRY_WAIT_MILLIS = 5_000;
+
+  @Autowired
+  private BookingService bookingService;
+
+  @Autowired
+  private SeatHoldService seatHoldService;
+
+  @Autowired
+  private BookingRepo bookingRepo;
+
+  @Autowired
+  private TripRepo tripRepo;
+
+  @Autowired
+  private GuestUserRepo guestUserRepo;
+
+  @Test
+  void confirmTurnsTheHoldIntoABooking() {
+    Trip trip = tripRepo.save(newTrip("confirm"));
+    Booking hold = bookingService.holdTrip(trip, guestUserRepo.save(newGuest("confirm")), null);
+    assertEquals(BookingStatus.HELD, hold.getStatus());
+    assertEquals(1, bookedSeats(trip), "a hold reserves its seat");
+
+    Booking confirmed = seatHoldService.confirm(hold.getReference());
+    Booking again = seatHoldService.confirm(hold.getReference());
+
+    assertEquals(BookingStatus.CONFIRMED, confirmed.getStatus());
+    assertEquals(BookingStatus.CONFIRMED, again.getStatus(), "confirming twice returns the booking");
+    assertEquals(1, bookedSeats(trip));
+  }
+
+  @Test
+  void releasedHoldCannotBeConfirmed() {
+    Trip trip = tripRepo.save(newTrip("release"));
+    Booking hold = bookingService.holdTrip(trip, guestUserRepo.save(newGuest("release")), null);
+
+    bookingService.cancelBooking(hold.getReference());
+
+    assertThrows(BusinessRuleViolationException.class, () -> seatHoldService.confirm(hold.getReference()));
+    assertEquals(0, bookedSeats(trip));
+  }
+
+  @Test
+  void expiredHoldReleasesItsSeat() throws Exception {
+    Trip trip = tripRepo.save(newTrip("expire"));
+    Booking hold = bookingService.holdTrip(trip, guestUserRepo.save(newGuest("expire")), null);
+    // Move the expiry into the past and re-arm the timer, instead of waiting the configured minutes
+    Booking stored = bookingRepo.findByReference(hold.getReference()).orElseThrow();
+    stored.setExpiresAt(LocalDateTime.now().minusSeconds(1));
+    seatHoldService.track(bookingRepo.save(stored));
+
+    long deadline = System.currentTimeMillis() + EXPIRY_WAIT_MILLIS;
+    while (status(hold) == BookingStatus.HELD && System.currentTimeMillis() < deadline) {
+      Thread.sleep(50);
+    }
+
+    assertEquals(BookingStatus.EXPIRED, status(hold));
+    assertEquals(0, bookedSeats(trip), "the seat of an expired hold is released");
+    assertThrows(BusinessRuleViolationException.class, () -> seatHoldService.confirm(hold.getReference()));
+  }
+
+  @Test
+  void expiredButNotYetSweptHoldCannotBeConfirmed() {
+    Trip trip = tripRepo.save(newTrip("late"));
+    Booking hold = bookingService.holdTrip(trip, guestUserRepo.save(newGuest("late")), null);
+    Booking stored = bookingRepo.findByReference(hold.getReference()).orElseThrow();
+    stored.setExpiresAt(LocalDateTime.now().minusSeconds(1));
+    bookingRepo.save(stored);
+
+    // The confirm checks the expiry itself, whether or not the timer fired yet
+    assertThrows(BusinessRuleViolationException.class, () -> seatHoldService.confirm(hold.getReference()));
+    assertTrue(status(hold) != BookingStatus.CONFIRMED);
+  }
+
+  private BookingStatus status(Booking booking) {
+    return bookingRepo.findByReference(booking.getReference()).orElseThrow().getStatus();
+  }
+
+  private int bookedSeats(Trip trip) {
+    return tripRepo.findById(trip.getId()).orElseThrow().getCurrentBookings();
+  }
+}
@@ -0,0 +1,46 @@
+package ch.oceandive.service;
+
+import static ch.oceandive.service.TestFixtures.newTrip;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import ch.oceandive.repository.TripRepo;
+import ch.oceandive.utils.BookingType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+// Same contention as TripBookingConcurrencyTest, but served by the in-memory seat inventory
+@SpringBootTest(properties = "app.booking.seat-inventory.enabled=true")
+@ActiveProfiles("test")
+class SeatInventoryConcurrencyTest {
+
+  private static final int CAPACITY = 50;
+  private static final int ATTEMPTS = 4000;
+  private static final int THREADS = 32;
+
+  @Autowired
+  private TripService tripService;
+
+  @Autowired
+  private TripRepo tripRepo;
+
+  @Autowired
+  private SeatInventory seatInventory;
+
+  @Test
+  void inMemoryCountersNeverOverbookAndFlushToDatabase() throws Exception {
+    Long tripId = tripRepo.save(newTrip("inventory", CAPACITY)).getId();
+
+    ConcurrentAttempts.Result result =
+        ConcurrentAttempts.run(ATTEMPTS, THREADS, () -> tripService.bookTrip(tripId));
+
+    assertEquals(CAPACITY, result.successes());
+    assertEquals(ATTEMPTS - CAPACITY, result.rejections());
+    assertEquals(0, result.errors());
+    assertEquals(CAPACITY, seatInventory.bookedSeats(BookingType.TRIP, tripId));
+
+    seatInventory.flush();
+    assertEquals(CAPACITY, tripRepo.findById(tripId).orElseThrow().getCurrentBookings());
+  }
+}
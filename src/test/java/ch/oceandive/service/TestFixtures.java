@@ -0,0 +1,34 @@
+package ch.oceandive.service;
+
+import ch.oceandive.model.GuestUser;
+import ch.oceandive.model.Trip;
+import ch.oceandive.utils.DiveCertification;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Unsaved trips and guests for the service tests; names, slugs and emails are unique per call.
+final class TestFixtures {
+
+  static final int DEFAULT_CAPACITY = 10;
+
+  private TestFixtures() {
+  }
+
+  static Trip newTrip(String label) {
+    return newTrip(label, DEFAULT_CAPACITY);
+  }
+
+  // A published trip a month ahead, open to every certification
+  static Trip newTrip(String label, int capacity) {
+    Trip trip = new Trip("Test Reef " + label, "Trip used by the service tests",
+        LocalDate.now().plusDays(30), LocalDate.now().plusDays(33), null, capacity,
+        DiveCertification.OPEN_WATER, new BigDecimal("450.00"));
+    trip.setSlug("test-reef-" + label + "-" + System.nanoTime());
+    return trip;
+  }
+
+  static GuestUser newGuest(String label) {
+    return new GuestUser("Guest", label, label + "-" + System.nanoTime() + "@oceandive.test",
+        "+41790000000", DiveCertification.ADVANCED_OPEN_WATER, "GUEST");
+  }
+}
@@ -0,0 +1,95 @@
+package ch.oceandive.service;
+
+import static ch.oceandive.service.TestFixtures.newTrip;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import ch.oceandive.model.Trip;
+import ch.oceandive.repository.TripRepo;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Fires thousands of parallel bookings at a single trip and checks that the guarded UPDATE never oversells.
+@SpringBootTest
+@ActiveProfiles("test")
+class TripBookingConcurrencyTest {
+
+  private static final Logger logger = LoggerFactory.getLogger(TripBookingConcurrencyTest.class);
+  private static final int CAPACITY = 50;
+  private static final int ATTEMPTS = 4000;
+  private static final int THREADS = 32;
+
+  @Autowired
+  private TripService tripService;
+
+  @Autowired
+  private TripRepo tripRepo;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Test
+  void parallelBookingsNeverOverbook() throws Exception {
+    Trip trip = tripRepo.save(newTrip("atomic", CAPACITY));
+
+    ConcurrentAttempts.Result result = run(() -> tripService.bookTrip(trip.getId()));
+    Trip reloaded = tripRepo.findById(trip.getId()).orElseThrow();
+
+    assertEquals(CAPACITY, result.successes(), "exactly the capacity must be booked");
+    assertEquals(ATTEMPTS - CAPACITY, result.rejections(), "every other attempt must be rejected");
+    assertEquals(0, result.errors(), "no unexpected failures");
+    assertEquals(CAPACITY, reloaded.getCurrentBookings());
+  }
+
+  @Test
+  void guardedUpdateComparedToReadCheckSave() throws Exception {
+    Trip legacyTrip = tripRepo.save(newTrip("legacy", CAPACITY));
+    Trip atomicTrip = tripRepo.save(newTrip("guarded", CAPACITY));
+    TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+    // The previous booking path: load, check isFullyBooked(), increment, save. The version check
+    // rejects a save based on a stale read (and H2 may time out on the row lock), the attempt then
+    // starts over with a fresh read
+    ConcurrentAttempts.Result legacy = run(() -> {
+      while (true) {
+        try {
+          tx.executeWithoutResult(status -> {
+            Trip trip = tripRepo.findById(legacyTrip.getId()).orElseThrow();
+            if (trip.isFullyBooked()) {
+              throw new IllegalStateException("Trip is fully booked");
+            }
+            trip.incrementBookings();
+            tripRepo.save(trip);
+          });
+          return;
+        } catch (ConcurrencyFailureException e) {
+          // Lost the race, read again
+        }
+      }
+    });
+    ConcurrentAttempts.Result atomic = run(() -> tripService.bookTrip(atomicTrip.getId()));
+
+    logger.info("read-check-save: {} ops/s, guarded update: {} ops/s (capacity {})",
+        legacy.throughput(), atomic.throughput(), CAPACITY);
+
+    // Throughput is machine dependent, so it is only reported; correctness is asserted for both
+    for (ConcurrentAttempts.Result result : List.of(legacy, atomic)) {
+      assertEquals(CAPACITY, result.successes(), "exactly the capacity must be booked");
+      assertEquals(ATTEMPTS - CAPACITY, result.rejections(), "every other attempt must be rejected");
+      assertEquals(0, result.errors(), "no unexpected failures");
+    }
+    assertEquals(CAPACITY, tripRepo.findById(legacyTrip.getId()).orElseThrow().getCurrentBookings());
+    assertEquals(CAPACITY, tripRepo.findById(atomicTrip.getId()).orElseThrow().getCurrentBookings());
+  }
+
+  private ConcurrentAttempts.Result run(Runnable booking) throws Exception {
+    return ConcurrentAttempts.run(ATTEMPTS, THREADS, booking);
+  }
+}
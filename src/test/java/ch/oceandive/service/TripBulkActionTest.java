@@ -0,0 +1,108 @@
+package ch.oceandive.service;
+
+import static ch.oceandive.service.TestFixtures.newTrip;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import ch.oceandive.dto.BulkActionReport.Outcome;
+import ch.oceandive.dto.BulkActionReport;
+import ch.oceandive.model.Trip;
+import ch.oceandive.repository.TripRepo;
+import ch.oceandive.utils.BulkAction;
+import ch.oceandive.utils.PublicationStatus;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+// Bulk actions and reordering of trips, with bookings both stored and held by the in-memory seat inventory.
+// The inventory does not flush during the test, so its bookings stay in memory only.
+@SpringBootTest(properties = {"app.booking.seat-inventory.enabled=true",
+    "app.booking.seat-inventory.flush-interval-ms=3600000"})
+@ActiveProfiles("test")
+class TripBulkActionTest {
+
+  private static final long MISSING_ID = Long.MAX_VALUE;
+
+  @Autowired
+  private TripService tripService;
+
+  @Autowired
+  private TripRepo tripRepo;
+
+  @Test
+  void deleteSkipsTripsWithStoredOrInMemoryBookings() {
+    Trip free = tripRepo.save(newTrip("free"));
+    Trip stored = newTrip("stored");
+    stored.setCurrentBookings(2);
+    stored = tripRepo.save(stored);
+    Trip inMemory = tripRepo.save(newTrip("in-memory"));
+    // Booked through the seat inventory: the stored count stays 0 until the next flush
+    tripService.bookTrip(inMemory.getId());
+    assertEquals(0, tripRepo.findById(inMemory.getId()).orElseThrow().getCurrentBookings());
+
+    BulkActionReport report = tripService.bulkAction(BulkAction.DELETE,
+        List.of(free.getId(), stored.getId(), inMemory.getId()));
+
+    assertEquals(Outcome.APPLIED, report.outcomes().get(free.getId()));
+    assertEquals(Outcome.HAS_BOOKINGS, report.outcomes().get(stored.getId()));
+    assertEquals(Outcome.HAS_BOOKINGS, report.outcomes().get(inMemory.getId()));
+    assertFalse(tripRepo.existsById(free.getId()));
+    assertTrue(tripRepo.existsById(stored.getId()));
+    assertTrue(tripRepo.existsById(inMemory.getId()));
+  }
+
+  @Test
+  void publishReportsUnchangedAndNotFoundTrips() {
+    Trip draft = newTrip("draft");
+    draft.setStatus(PublicationStatus.DRAFT);
+    draft = tripRepo.save(draft);
+    Trip published = tripRepo.save(newTrip("published"));
+
+    BulkActionReport report = tripService.bulkAction(BulkAction.PUBLISH,
+        List.of(draft.getId(), published.getId(), MISSING_ID));
+
+    assertEquals(List.of(draft.getId(), published.getId(), MISSING_ID), List.copyOf(report.outcomes().keySet()));
+    assertEquals(Outcome.APPLIED, report.outcomes().get(draft.getId()));
+    assertEquals(Outcome.UNCHANGED, report.outcomes().get(published.getId()));
+    assertEquals(Outcome.NOT_FOUND, report.outcomes().get(MISSING_ID));
+    assertEquals(PublicationStatus.PUBLISHED, tripRepo.findById(draft.getId()).orElseThrow().getStatus());
+  }
+
+  @Test
+  void reorderWritesPositionsOneToN() {
+    Trip first = newTrip("first");
+    first.setDisplayOrder(7);
+    first = tripRepo.save(first);
+    Trip second = newTrip("second");
+    second.setDisplayOrder(2);
+    second = tripRepo.save(second);
+    Trip third = newTrip("third");
+    third.setDisplayOrder(3);
+    third = tripRepo.save(third);
+
+    BulkActionReport report = tripService.reorderTrips(
+        List.of(third.getId(), MISSING_ID, second.getId(), first.getId()));
+
+    assertEquals(1, tripRepo.findById(third.getId()).orElseThrow().getDisplayOrder());
+    assertEquals(2, tripRepo.findById(second.getId()).orElseThrow().getDisplayOrder());
+    assertEquals(3, tripRepo.findById(first.getId()).orElseThrow().getDisplayOrder());
+    assertEquals(Outcome.APPLIED, report.outcomes().get(third.getId()));
+    assertEquals(Outcome.NOT_FOUND, report.outcomes().get(MISSING_ID));
+    // Already at position 2
+    assertEquals(Outcome.UNCHANGED, report.outcomes().get(second.getId()));
+    assertEquals(Outcome.APPLIED, report.outcomes().get(first.getId()));
+  }
+
+  @Test
+  void reorderIsRejectedAsBulkAction() {
+    Trip trip = tripRepo.save(newTrip("reorder"));
+
+    assertThrows(IllegalArgumentException.class,
+        () -> tripService.bulkAction(BulkAction.REORDER, List.of(trip.getId())));
+    assertEquals(0, tripRepo.findById(trip.getId()).orElseThrow().getDisplayOrder());
+  }
+}
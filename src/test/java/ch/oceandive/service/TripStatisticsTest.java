@@ -0,0 +1,56 @@
+package ch.oceandive.service;
+
+import static ch.oceandive.service.TestFixtures.newGuest;
+import static ch.oceandive.service.TestFixtures.newTrip;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import ch.oceandive.event.SeatsReservedEvent;
+import ch.oceandive.model.Booking;
+import ch.oceandive.model.Trip;
+import ch.oceandive.repository.GuestUserRepo;
+import ch.oceandive.repository.TripRepo;
+import ch.oceandive.utils.BookingType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+
+// Seat events never count a booking twice, also when a reload already read the committed seats
+@SpringBootTest
+@ActiveProfiles("test")
+class TripStatisticsTest {
+
+  @Autowired
+  private TripStatistics tripStatistics;
+
+  @Autowired
+  private BookingService bookingService;
+
+  @Autowired
+  private TripRepo tripRepo;
+
+  @Autowired
+  private GuestUserRepo guestUserRepo;
+
+  @Autowired
+  private ApplicationEventPublisher eventPublisher;
+
+  @Test
+  void seatEventAfterAReloadIsNotCountedTwice() {
+    Trip trip = tripRepo.save(newTrip("statistics"));
+    tripStatistics.reload();
+    long before = tripStatistics.totals().booked();
+
+    Booking booking = bookingService.bookTrip(trip, guestUserRepo.save(newGuest("statistics")), null);
+    assertEquals(before + 1, tripStatistics.totals().booked());
+
+    // A reload between the commit and the after-commit event already sees the seat
+    tripStatistics.reload();
+    eventPublisher.publishEvent(new SeatsReservedEvent(BookingType.TRIP, trip.getId(), 1));
+    assertEquals(before + 1, tripStatistics.totals().booked());
+
+    bookingService.cancelBooking(booking.getReference());
+    assertEquals(before, tripStatistics.totals().booked());
+  }
+}
@@ -0,0 +1,125 @@
+package ch.oceandive.service;
+
+import static ch.oceandive.service.TestFixtures.newGuest;
+import static ch.oceandive.service.TestFixtures.newTrip;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import ch.oceandive.model.Booking;
+import ch.oceandive.model.GuestUser;
+import ch.oceandive.model.PremiumUser;
+import ch.oceandive.model.Trip;
+import ch.oceandive.model.WaitlistEntry;
+import ch.oceandive.repository.GuestUserRepo;
+import ch.oceandive.repository.PremiumUserRepo;
+import ch.oceandive.repository.TripRepo;
+import ch.oceandive.repository.WaitlistRepo;
+import ch.oceandive.utils.BookingStatus;
+import ch.oceandive.utils.BookingType;
+import ch.oceandive.utils.BulkAction;
+import ch.oceandive.utils.DiveCertification;
+import ch.oceandive.utils.WaitlistStatus;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+// Released seats go to the head of the waitlist, and the ranks of the others move up. Deleting a trip closes its waitlist
+@SpringBootTest
+@ActiveProfiles("test")
+class WaitlistPromotionTest {
+
+  private static final int CAPACITY = 2;
+
+  @Autowired
+  private WaitlistService waitlistService;
+
+  @Autowired
+  private BookingService bookingService;
+
+  @Autowired
+  private TripRepo tripRepo;
+
+  @Autowired
+  private GuestUserRepo guestUserRepo;
+
+  @Autowired
+  private PremiumUserRepo premiumUserRepo;
+
+  @Autowired
+  private WaitlistRepo waitlistRepo;
+
+  @Autowired
+  private TripService tripService;
+
+  @Test
+  void releasedSeatsPromoteTheHeadOfTheQueue() {
+    Trip trip = tripRepo.save(newTrip("waitlist", CAPACITY));
+    GuestUser guest = guestUserRepo.save(newGuest("waitlist"));
+    Booking first = bookingService.bookTrip(trip, guest, null);
+    Booking second = bookingService.bookTrip(trip, guest, null);
+
+    WaitlistEntry head = waitlistService.joinTrip(trip, premiumUser("head"));
+    WaitlistEntry middle = waitlistService.joinTrip(trip, premiumUser("middle"));
+    WaitlistEntry tail = waitlistService.joinTrip(trip, premiumUser("tail"));
+    assertEquals(1, waitlistService.getPosition(head));
+    assertEquals(2, waitlistService.getPosition(middle));
+    assertEquals(3, waitlistService.getPosition(tail));
+
+    bookingService.cancelBooking(first.getReference());
+
+    WaitlistEntry promoted = waitlistService.getEntry(head.getId());
+    assertEquals(WaitlistStatus.PROMOTED, promoted.getStatus());
+    assertNotNull(promoted.getBookingReference());
+    assertEquals(BookingStatus.CONFIRMED, bookingService.getBookingByReference(promoted.getBookingReference()).getStatus());
+    assertNull(waitlistService.getPosition(promoted));
+    assertEquals(1, waitlistService.getPosition(waitlistService.getEntry(middle.getId())));
+    assertEquals(2, waitlistService.getPosition(waitlistService.getEntry(tail.getId())));
+    assertEquals(CAPACITY, bookedSeats(trip), "the freed seat is taken by the promoted entry");
+
+    // Leaving skips the entry: the next released seat goes to the tail
+    waitlistService.leave(middle.getId());
+    assertEquals(1, waitlistService.getPosition(waitlistService.getEntry(tail.getId())));
+
+    bookingService.cancelBooking(second.getReference());
+
+    assertEquals(WaitlistStatus.CANCELLED, waitlistService.getEntry(middle.getId()).getStatus());
+    assertEquals(WaitlistStatus.PROMOTED, waitlistService.getEntry(tail.getId()).getStatus());
+    assertEquals(0, waitlistService.getWaitingCount(BookingType.TRIP, trip.getId()));
+    assertEquals(CAPACITY, bookedSeats(trip));
+  }
+
+  @Test
+  void deletedTripsCancelTheirWaitlists() {
+    Trip single = tripRepo.save(newTrip("waitlist-delete", CAPACITY));
+    Trip bulk = tripRepo.save(newTrip("waitlist-bulk-delete", CAPACITY));
+    // Stored directly: joining needs a full trip, and a trip with bookings cannot be deleted
+    WaitlistEntry singleEntry = waitlistRepo.save(
+        new WaitlistEntry(BookingType.TRIP, single.getId(), 1L, premiumUser("single").getId()));
+    WaitlistEntry bulkEntry = waitlistRepo.save(
+        new WaitlistEntry(BookingType.TRIP, bulk.getId(), 1L, premiumUser("bulk").getId()));
+    assertEquals(1, waitlistService.getWaitingCount(BookingType.TRIP, single.getId()));
+    assertEquals(1, waitlistService.getWaitingCount(BookingType.TRIP, bulk.getId()));
+
+    tripService.deleteTrip(single.getId());
+    tripService.bulkAction(BulkAction.DELETE, List.of(bulk.getId()));
+
+    assertEquals(WaitlistStatus.CANCELLED, waitlistService.getEntry(singleEntry.getId()).getStatus());
+    assertEquals(WaitlistStatus.CANCELLED, waitlistService.getEntry(bulkEntry.getId()).getStatus());
+    // The queues were evicted, so they reload from the table instead of keeping the old entries
+    assertEquals(0, waitlistService.getWaitingCount(BookingType.TRIP, single.getId()));
+    assertEquals(0, waitlistService.getWaitingCount(BookingType.TRIP, bulk.getId()));
+  }
+
+  private int bookedSeats(Trip trip) {
+    return tripRepo.findById(trip.getId()).orElseThrow().getCurrentBookings();
+  }
+
+  private PremiumUser premiumUser(String label) {
+    String username = "waitlist-" + label + "-" + System.nanoTime();
+    return premiumUserRepo.save(new PremiumUser("Premium", label, username + "@oceandive.test", "+41790000003",
+        DiveCertification.ADVANCED_OPEN_WATER, username, "Diver#2024", "PREMIUM"));
+  }
+}
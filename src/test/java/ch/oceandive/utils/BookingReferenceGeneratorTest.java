@@ -0,0 +1,96 @@
+package ch.oceandive.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+// Uniqueness, ordering and format of the Snowflake-style booking references
+class BookingReferenceGeneratorTest {
+
+  private static final int THREADS = 8;
+  private static final int IDS_PER_THREAD = 50_000;
+
+  @Test
+  void idsAreUniqueAcrossThreads() throws Exception {
+    BookingReferenceGenerator generator = new BookingReferenceGenerator(1);
+    Set<Long> ids = ConcurrentHashMap.newKeySet();
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+    try {
+      for (int t = 0; t < THREADS; t++) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          for (int i = 0; i < IDS_PER_THREAD; i++) {
+            ids.add(generator.nextId());
+          }
+          return null;
+        }));
+      }
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get(60, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(THREADS * IDS_PER_THREAD, ids.size(), "no id may be issued twice");
+  }
+
+  @Test
+  void idsIncreaseOnOneNode() {
+    BookingReferenceGenerator generator = new BookingReferenceGenerator(7);
+    long previous = generator.nextId();
+    // More ids than fit into one millisecond, so the sequence overflows into the next one
+    for (int i = 0; i < 20_000; i++) {
+      long next = generator.nextId();
+      assertTrue(next > previous, "ids must be strictly increasing");
+      previous = next;
+    }
+  }
+
+  @Test
+  void nodesNeverIssueTheSameId() {
+    BookingReferenceGenerator first = new BookingReferenceGenerator(1);
+    BookingReferenceGenerator second = new BookingReferenceGenerator(2);
+    Set<Long> ids = ConcurrentHashMap.newKeySet();
+    for (int i = 0; i < 10_000; i++) {
+      assertTrue(ids.add(first.nextId()));
+      assertTrue(ids.add(second.nextId()));
+    }
+  }
+
+  @Test
+  void referencesUseThePrefixAndCrockfordBase32() {
+    BookingReferenceGenerator generator = new BookingReferenceGenerator(0);
+
+    String trip = generator.nextReference(BookingType.TRIP);
+    String course = generator.nextReference(BookingType.COURSE);
+
+    assertTrue(trip.matches("TR-[0-9A-HJKMNP-TV-Z]{13}"), trip);
+    assertTrue(course.matches("CO-[0-9A-HJKMNP-TV-Z]{13}"), course);
+    assertNotEquals(trip.substring(3), course.substring(3));
+    // Fixed width, so references sort like their ids
+    assertEquals("TR-000000000000V", BookingReferenceGenerator.encode("TR", 27));
+  }
+
+  @Test
+  void rejectsNodeIdsOutOfRange() {
+    assertThrows(IllegalArgumentException.class, () -> new BookingReferenceGenerator(-1));
+    assertThrows(IllegalArgumentException.class,
+        () -> new BookingReferenceGenerator(BookingReferenceGenerator.MAX_NODE_ID + 1));
+  }
+}
@@ -0,0 +1,121 @@
+package ch.oceandive.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+// Set operations and counts of the compressed bitmap, across sparse and dense chunks
+class CompressedBitmapTest {
+
+  // Values spread over three 65536 chunks
+  private static final int MAX_VALUE = 3 * 65_536;
+
+  @Test
+  void ofSortsAndDropsDuplicates() {
+    CompressedBitmap bitmap = CompressedBitmap.of(70_000, 3, 1, 3, 65_536);
+
+    assertArrayEquals(new int[]{1, 3, 65_536, 70_000}, bitmap.toArray());
+    assertEquals(4, bitmap.cardinality());
+    assertTrue(bitmap.contains(65_536));
+    assertFalse(bitmap.contains(2));
+    assertFalse(bitmap.contains(-1));
+    assertSame(CompressedBitmap.EMPTY, CompressedBitmap.of());
+    assertThrows(IllegalArgumentException.class, () -> CompressedBitmap.of(4, -2));
+  }
+
+  @Test
+  void andOrAndNotOfSparseSets() {
+    CompressedBitmap odd = CompressedBitmap.of(1, 3, 5, 7, 100_001);
+    CompressedBitmap small = CompressedBitmap.of(1, 2, 3, 4, 100_000);
+
+    assertArrayEquals(new int[]{1, 3}, odd.and(small).toArray());
+    assertArrayEquals(new int[]{1, 2, 3, 4, 5, 7, 100_000, 100_001}, odd.or(small).toArray());
+    assertArrayEquals(new int[]{5, 7, 100_001}, odd.andNot(small).toArray());
+    assertTrue(odd.and(CompressedBitmap.of(2, 4)).isEmpty());
+    assertSame(CompressedBitmap.EMPTY, odd.andNot(odd));
+  }
+
+  @Test
+  void denseChunksCombineWithSparseOnes() {
+    // 10,000 values in one chunk are stored as a bitmap, the others as arrays
+    int[] evens = new int[10_000];
+    for (int i = 0; i < evens.length; i++) {
+      evens[i] = 2 * i;
+    }
+    CompressedBitmap dense = CompressedBitmap.of(evens);
+    CompressedBitmap sparse = CompressedBitmap.of(0, 1, 2, 19_998, 19_999, 20_000);
+
+    assertArrayEquals(new int[]{0, 2, 19_998}, dense.and(sparse).toArray());
+    assertArrayEquals(new int[]{0, 2, 19_998}, sparse.and(dense).toArray());
+    assertEquals(10_003, dense.or(sparse).cardinality());
+    assertArrayEquals(new int[]{1, 19_999, 20_000}, sparse.andNot(dense).toArray());
+    assertEquals(9_997, dense.andNot(sparse).cardinality());
+    // Removing almost everything shrinks the chunk back to an array
+    CompressedBitmap rest = dense.andNot(CompressedBitmap.of(Arrays.copyOf(evens, 9_998)));
+    assertArrayEquals(new int[]{19_996, 19_998}, rest.toArray());
+  }
+
+  @Test
+  void withAndWithoutReturnTheSameSetWhenNothingChanges() {
+    CompressedBitmap bitmap = CompressedBitmap.of(5, 9);
+
+    assertSame(bitmap, bitmap.with(5));
+    assertSame(bitmap, bitmap.without(6));
+    assertArrayEquals(new int[]{5, 6, 9}, bitmap.with(6).toArray());
+    assertArrayEquals(new int[]{9}, bitmap.without(5).toArray());
+    assertArrayEquals(new int[]{5, 9}, bitmap.toArray(), "bitmaps are immutable");
+  }
+
+  @Test
+  void unionOfManySets() {
+    CompressedBitmap union = CompressedBitmap.union(List.of(
+        CompressedBitmap.of(1), CompressedBitmap.EMPTY, CompressedBitmap.of(70_000, 1), CompressedBitmap.of(2)));
+
+    assertArrayEquals(new int[]{1, 2, 70_000}, union.toArray());
+    assertSame(CompressedBitmap.EMPTY, CompressedBitmap.union(List.of()));
+  }
+
+  @Test
+  void matchesBitSetForRandomSets() {
+    Random random = new Random(3);
+    for (int round = 0; round < 40; round++) {
+      // Densities on both sides of the array/bitmap threshold
+      BitSet first = randomSet(random, random.nextInt(2) == 0 ? 500 : 20_000);
+      BitSet second = randomSet(random, random.nextInt(2) == 0 ? 500 : 20_000);
+      CompressedBitmap a = CompressedBitmap.of(first.stream().toArray());
+      CompressedBitmap b = CompressedBitmap.of(second.stream().toArray());
+
+      BitSet and = (BitSet) first.clone();
+      and.and(second);
+      BitSet or = (BitSet) first.clone();
+      or.or(second);
+      BitSet andNot = (BitSet) first.clone();
+      andNot.andNot(second);
+
+      assertArrayEquals(and.stream().toArray(), a.and(b).toArray());
+      assertArrayEquals(or.stream().toArray(), a.or(b).toArray());
+      assertArrayEquals(andNot.stream().toArray(), a.andNot(b).toArray());
+      assertEquals(and.cardinality(), a.and(b).cardinality());
+      assertEquals(or.cardinality(), a.or(b).cardinality());
+      int probe = random.nextInt(MAX_VALUE);
+      assertEquals(first.get(probe), a.contains(probe));
+    }
+  }
+
+  private static BitSet randomSet(Random random, int valuesPerChunk) {
+    BitSet set = new BitSet(MAX_VALUE);
+    for (int i = 0; i < 3 * valuesPerChunk; i++) {
+      set.set(random.nextInt(MAX_VALUE));
+    }
+    return set;
+  }
+}
@@ -0,0 +1,74 @@
+package ch.oceandive.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+
+// Ranks of the Fenwick tree against a sorted set, including growth past the initial capacity
+class FenwickTreeTest {
+
+  @Test
+  void countsPresentPositionsBefore() {
+    FenwickTree tree = new FenwickTree(16);
+    tree.add(3);
+    tree.add(7);
+    tree.add(8);
+
+    assertEquals(0, tree.countBefore(0));
+    assertEquals(0, tree.countBefore(3));
+    assertEquals(1, tree.countBefore(4));
+    assertEquals(2, tree.countBefore(8));
+    assertEquals(3, tree.countBefore(9));
+    assertEquals(3, tree.countBefore(1_000_000), "positions past the capacity count everything");
+    assertEquals(3, tree.size());
+  }
+
+  @Test
+  void addAndRemoveReportChanges() {
+    FenwickTree tree = new FenwickTree(16);
+
+    assertTrue(tree.add(5));
+    assertFalse(tree.add(5), "already present");
+    assertTrue(tree.contains(5));
+    assertTrue(tree.remove(5));
+    assertFalse(tree.remove(5), "already absent");
+    assertFalse(tree.contains(5));
+    assertEquals(0, tree.size());
+    assertEquals(0, tree.countBefore(6));
+  }
+
+  @Test
+  void growsPastTheInitialCapacity() {
+    FenwickTree tree = new FenwickTree(16);
+    for (int position = 0; position < 1_000; position += 3) {
+      tree.add(position);
+    }
+
+    assertEquals(334, tree.size());
+    assertEquals(167, tree.countBefore(500));
+    assertEquals(334, tree.countBefore(1_000));
+  }
+
+  @Test
+  void matchesASortedSetUnderRandomChanges() {
+    FenwickTree tree = new FenwickTree(16);
+    TreeSet<Integer> expected = new TreeSet<>();
+    Random random = new Random(42);
+
+    for (int i = 0; i < 20_000; i++) {
+      int position = random.nextInt(5_000);
+      if (random.nextInt(3) == 0) {
+        assertEquals(expected.remove(position), tree.remove(position));
+      } else {
+        assertEquals(expected.add(position), tree.add(position));
+      }
+      int probe = random.nextInt(5_100);
+      assertEquals(expected.headSet(probe).size(), tree.countBefore(probe), "rank of " + probe);
+    }
+    assertEquals(expected.size(), tree.size());
+  }
+}
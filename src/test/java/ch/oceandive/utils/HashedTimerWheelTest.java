@@ -0,0 +1,121 @@
+package ch.oceandive.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+// Firing, cancelling and multi-round timeouts of the hashed timer wheel
+class HashedTimerWheelTest {
+
+  private static final Duration TICK = Duration.ofMillis(10);
+
+  private HashedTimerWheel wheel;
+
+  @AfterEach
+  void closeWheel() {
+    if (wheel != null) {
+      wheel.close();
+    }
+  }
+
+  @Test
+  void firesNotBeforeTheDelay() throws Exception {
+    wheel = new HashedTimerWheel(TICK, 64, Runnable::run, "test-wheel");
+    CountDownLatch fired = new CountDownLatch(1);
+    AtomicLong firedAfter = new AtomicLong();
+    long scheduled = System.nanoTime();
+
+    HashedTimerWheel.Timeout timeout = wheel.schedule(() -> {
+      firedAfter.set(System.nanoTime() - scheduled);
+      fired.countDown();
+    }, Duration.ofMillis(50));
+
+    assertTrue(fired.await(2, TimeUnit.SECONDS), "timeout must fire");
+    assertTrue(firedAfter.get() >= Duration.ofMillis(50).toNanos(), "fired early");
+    assertTrue(timeout.isExpired());
+    assertFalse(timeout.cancel(), "a fired timeout cannot be cancelled");
+  }
+
+  @Test
+  void cancelledTimeoutNeverFires() throws Exception {
+    wheel = new HashedTimerWheel(TICK, 64, Runnable::run, "test-wheel");
+    AtomicBoolean fired = new AtomicBoolean();
+
+    HashedTimerWheel.Timeout timeout = wheel.schedule(() -> fired.set(true), Duration.ofMillis(30));
+    assertTrue(timeout.cancel());
+    assertFalse(timeout.cancel(), "cancelling twice");
+
+    Thread.sleep(150);
+    assertFalse(fired.get());
+    assertTrue(timeout.isCancelled());
+    assertFalse(timeout.isExpired());
+  }
+
+  @Test
+  void delaysLongerThanOneRoundWaitForTheirRound() throws Exception {
+    // 4 buckets of 10 ms: one round is 40 ms, the timeout needs 3 rounds and a bit
+    wheel = new HashedTimerWheel(TICK, 4, Runnable::run, "test-wheel");
+    CountDownLatch fired = new CountDownLatch(1);
+    AtomicLong firedAfter = new AtomicLong();
+    long scheduled = System.nanoTime();
+
+    wheel.schedule(() -> {
+      firedAfter.set(System.nanoTime() - scheduled);
+      fired.countDown();
+    }, Duration.ofMillis(130));
+
+    assertTrue(fired.await(2, TimeUnit.SECONDS), "timeout must fire");
+    assertTrue(firedAfter.get() >= Duration.ofMillis(130).toNanos(), "fired in an earlier round");
+  }
+
+  @Test
+  void manyTimeoutsAllFireOnce() throws Exception {
+    wheel = new HashedTimerWheel(TICK, 16, Runnable::run, "test-wheel");
+    int count = 10_000;
+    CountDownLatch fired = new CountDownLatch(count);
+    AtomicLong runs = new AtomicLong();
+
+    for (int i = 0; i < count; i++) {
+      wheel.schedule(() -> {
+        runs.incrementAndGet();
+        fired.countDown();
+      }, Duration.ofMillis(ThreadLocalRandom.current().nextInt(0, 300)));
+    }
+
+    assertTrue(fired.await(5, TimeUnit.SECONDS), "all timeouts must fire");
+    Thread.sleep(50);
+    assertEquals(count, runs.get());
+    assertEquals(0, wheel.pendingCount());
+  }
+
+  @Test
+  void zeroDelayFiresOnTheNextTick() throws Exception {
+    wheel = new HashedTimerWheel(TICK, 8, Runnable::run, "test-wheel");
+    CountDownLatch fired = new CountDownLatch(1);
+
+    wheel.schedule(fired::countDown, Duration.ZERO);
+    wheel.schedule(fired::countDown, Duration.ofSeconds(-5));
+
+    assertTrue(fired.await(1, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void rejectsWorkAfterClose() {
+    wheel = new HashedTimerWheel(TICK, 8, Runnable::run, "test-wheel");
+    wheel.close();
+
+    assertThrows(IllegalStateException.class, () -> wheel.schedule(() -> { }, Duration.ofMillis(10)));
+    assertThrows(IllegalArgumentException.class,
+        () -> new HashedTimerWheel(Duration.ZERO, 8, Runnable::run, "test-wheel"));
+  }
+}
@@ -0,0 +1,137 @@
+package ch.oceandive.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import ch.oceandive.utils.InvertedIndex.Hits;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+// Matching, BM25-style ranking and updates of the full-text index
+class InvertedIndexTest {
+
+  private static final int NAME = 0;
+  private static final int DESCRIPTION = 1;
+
+  private final InvertedIndex index = new InvertedIndex(3f, 1f);
+
+  @Test
+  void matchesFoldedPrefixesOfEveryToken() {
+    index.put(1, "Curaçao Reef", "Shallow reef with turtles");
+    index.put(2, "Maldives Manta", "Night dive with mantas");
+    index.put(3, "Red Sea Wrecks", "Wreck dive with turtles");
+
+    assertEquals(List.of(1L), index.search("curacao", -1, null, 10).ids());
+    assertEquals(List.of(2L), index.search("MAL", -1, null, 10).ids());
+    // Every token has to match
+    assertEquals(List.of(3L), index.search("turtles wreck", -1, null, 10).ids());
+    assertEquals(0, index.search("turtles manta", -1, null, 10).total());
+    assertEquals(0, index.search(" ,. ", -1, null, 10).total());
+  }
+
+  @Test
+  void heavierFieldsAndRarerTermsRankFirst() {
+    index.put(1, "Coral Garden", "Reef dive");
+    index.put(2, "Blue Hole", "Coral walls and a reef");
+    index.put(3, "Shark Point", "Reef sharks on the reef");
+
+    // "coral" in the name outweighs "coral" in the description
+    assertEquals(List.of(1L, 2L), index.search("coral", -1, null, 10).ids());
+    // "reef" is in every document, "shark" only in one: the rare term decides
+    assertEquals(3L, index.search("reef shark", -1, null, 10).ids().get(0));
+    Hits common = index.search("reef", -1, null, 10);
+    Hits rare = index.search("shark", -1, null, 10);
+    assertTrue(rare.hits().get(0).score() > common.hits().get(0).score());
+  }
+
+  @Test
+  void exactMatchesBeatPrefixMatches() {
+    index.put(1, "Mantas", null);
+    index.put(2, "Manta", null);
+
+    Hits hits = index.search("manta", -1, null, 10);
+
+    assertEquals(List.of(2L, 1L), hits.ids());
+    assertTrue(hits.hits().get(0).score() > hits.hits().get(1).score());
+  }
+
+  @Test
+  void equalScoresRankHigherIdsFirst() {
+    index.put(4, "Wreck", null);
+    index.put(9, "Wreck", null);
+    index.put(6, "Wreck", null);
+
+    assertEquals(List.of(9L, 6L, 4L), index.search("wreck", -1, null, 10).ids());
+  }
+
+  @Test
+  void fieldMaskFilterAndLimitNarrowTheHits() {
+    index.put(1, "Night Dive", "Lights and mantas");
+    index.put(2, "Manta Night", "Mantas at the cleaning station");
+    index.put(3, "Reef", "Mantas and night dive");
+
+    assertEquals(List.of(2L, 1L), index.search("night", InvertedIndex.fields(NAME), null, 10).ids());
+    assertEquals(List.of(3L), index.search("night", InvertedIndex.fields(DESCRIPTION), null, 10).ids());
+
+    Hits filtered = index.search("mantas", -1, id -> id != 2, 10);
+    assertEquals(2, filtered.total());
+    assertFalse(filtered.ids().contains(2L));
+
+    Hits limited = index.search("mantas", -1, null, 1);
+    assertEquals(1, limited.hits().size());
+    assertEquals(3, limited.total(), "the total counts matches past the limit");
+    assertEquals(0, index.search("mantas", -1, null, 0).hits().size());
+  }
+
+  @Test
+  void putReplacesAndRemoveDropsADocument() {
+    index.put(1, "Blue Hole", null);
+    index.put(2, "Blue Corner", null);
+
+    index.put(1, "Green Hole", null);
+    assertEquals(List.of(2L), index.search("blue", -1, null, 10).ids());
+    assertEquals(List.of(1L), index.search("green", -1, null, 10).ids());
+
+    assertTrue(index.remove(2));
+    assertFalse(index.remove(2));
+    assertEquals(0, index.search("blue", -1, null, 10).total());
+    assertEquals(1, index.size());
+
+    // The freed slot is reused by the next document
+    index.put(3, "Blue Lagoon", null);
+    assertEquals(List.of(3L), index.search("blue", -1, null, 10).ids());
+    assertEquals(2, index.size());
+  }
+
+  @Test
+  void limitedSearchReturnsTheTopOfTheFullRanking() {
+    String[] words = {"reef", "wreck", "manta", "shark", "coral", "cave", "night", "drift"};
+    Random random = new Random(7);
+    for (long id = 0; id < 500; id++) {
+      index.put(id, sentence(words, random, 2), sentence(words, random, 6));
+    }
+    for (int i = 0; i < 10; i++) {
+      index.remove(random.nextInt(500));
+    }
+
+    for (String query : List.of("reef", "wre", "manta shark", "c n")) {
+      Hits all = index.search(query, -1, null, Integer.MAX_VALUE);
+      Hits top = index.search(query, -1, null, 10);
+      assertEquals(all.total(), top.total(), query);
+      assertEquals(all.ids().subList(0, Math.min(10, all.ids().size())), top.ids(), query);
+      for (int h = 1; h < all.hits().size(); h++) {
+        assertTrue(all.hits().get(h - 1).score() >= all.hits().get(h).score(), query);
+      }
+    }
+  }
+
+  private static String sentence(String[] words, Random random, int length) {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < length; i++) {
+      text.append(words[random.nextInt(words.length)]).append(' ');
+    }
+    return text.toString();
+  }
+}
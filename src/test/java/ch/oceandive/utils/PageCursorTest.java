@@ -0,0 +1,116 @@
+package ch.oceandive.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import ch.oceandive.dto.KeysetPage;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+// Round trips of keyset cursors, rejection of tokens we did not issue, and paging a listing with them
+class PageCursorTest {
+
+  private record Position(LocalDateTime createdAt, long id) {
+  }
+
+  @Test
+  void decodeReturnsTheEncodedKeys() {
+    LocalDateTime createdAt = LocalDateTime.of(2024, 5, 17, 9, 30, 15, 123_000_000);
+
+    String cursor = PageCursor.encode(createdAt, 42L);
+    Position position = PageCursor.decode(cursor, 2, PageCursorTest::position);
+
+    assertEquals(new Position(createdAt, 42L), position);
+    assertTrue(cursor.matches("[A-Za-z0-9_-]+"), "cursors are URL-safe without padding: " + cursor);
+  }
+
+  @Test
+  void rejectsMalformedTokens() {
+    assertInvalid("not base64 at all!");
+    assertInvalid("");
+    assertInvalid(token("1|2024-05-17T09:30|x"));
+    assertInvalid(token("1|yesterday|42"));
+  }
+
+  @Test
+  void rejectsTokensOfAnotherListingOrVersion() {
+    // One key, but the course listing expects two
+    assertInvalid(PageCursor.encode(42L));
+    assertInvalid(PageCursor.encode(LocalDateTime.now(), 42L, "extra"));
+    assertInvalid(token("2|2024-05-17T09:30|42"));
+  }
+
+  @Test
+  void rejectsEditedTokens() {
+    String cursor = PageCursor.encode(LocalDateTime.of(2024, 5, 17, 9, 30), 42L);
+    // Drop the tail, or swap a character for one outside the base64 alphabet
+    assertInvalid(cursor.substring(0, cursor.length() - 4));
+    assertInvalid(cursor.substring(0, 5) + "*" + cursor.substring(6));
+    // Re-encoded by hand with an injected separator
+    assertInvalid(token("1|2024-05-17T09:30|42|43"));
+  }
+
+  @Test
+  void cursorsWalkEveryRowExactlyOnce() {
+    List<Position> rows = new ArrayList<>();
+    LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+    for (long id = 1; id <= 23; id++) {
+      // Rows share timestamps, so the id has to break the ties
+      rows.add(new Position(start.plusHours(id / 3), id));
+    }
+
+    List<Position> seen = new ArrayList<>();
+    String cursor = null;
+    int pages = 0;
+    do {
+      KeysetPage<Position> page = KeysetPage.of(readAfter(rows, cursor, 5 + 1), 5,
+          row -> PageCursor.encode(row.createdAt(), row.id()), null);
+      seen.addAll(page.content());
+      cursor = page.nextCursor();
+      assertEquals(cursor != null, page.hasNext());
+      pages++;
+    } while (cursor != null);
+
+    assertEquals(rows, seen);
+    assertEquals(5, pages);
+  }
+
+  @Test
+  void lastPageHasNoCursor() {
+    KeysetPage<String> page = KeysetPage.of(List.of("a", "b"), 2, row -> PageCursor.encode(row), 2L);
+
+    assertFalse(page.hasNext());
+    assertNull(page.nextCursor());
+    assertEquals(2L, page.totalElements());
+  }
+
+  // What WHERE (createdAt, id) > cursor ORDER BY createdAt, id LIMIT n returns for the sorted rows
+  private static List<Position> readAfter(List<Position> rows, String cursor, int limit) {
+    Position after = cursor == null ? null : PageCursor.decode(cursor, 2, PageCursorTest::position);
+    return rows.stream()
+        .filter(row -> after == null || row.createdAt().isAfter(after.createdAt())
+            || row.createdAt().equals(after.createdAt()) && row.id() > after.id())
+        .limit(limit)
+        .toList();
+  }
+
+  private static Position position(String[] keys) {
+    return new Position(LocalDateTime.parse(keys[0]), Long.parseLong(keys[1]));
+  }
+
+  private static String token(String raw) {
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static void assertInvalid(String cursor) {
+    assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(cursor, 2, PageCursorTest::position),
+        cursor);
+  }
+}
@@ -0,0 +1,149 @@
+package ch.oceandive.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+// Top-k suggestions of the radix trie, also after weight changes, edge splits and removals
+class RadixTrieTest {
+
+  @Test
+  void suggestsTheHeaviestValuesForAPrefix() {
+    RadixTrie trie = new RadixTrie(3);
+    trie.put("Maldives", 50);
+    trie.put("Malta", 20);
+    trie.put("Malaysia", 35);
+    trie.put("Mexico", 40);
+    trie.put("Marsa Alam", 10);
+
+    assertEquals(List.of("Maldives", "Malaysia", "Malta"), trie.suggest("mal", 10));
+    assertEquals(List.of("Maldives", "Mexico"), trie.suggest("M", 2));
+    assertEquals(List.of("Marsa Alam"), trie.suggest("mars", 10));
+    assertEquals(List.of(), trie.suggest("malx", 10));
+    assertEquals(List.of(), trie.suggest("z", 10));
+    // The empty prefix returns the overall top-k
+    assertEquals(List.of("Maldives", "Mexico", "Malaysia"), trie.suggest("", 10));
+  }
+
+  @Test
+  void keysIgnoreCaseAccentsAndSpacing() {
+    RadixTrie trie = new RadixTrie(5);
+    trie.put("Curaçao", 5);
+    trie.put("  CURACAO ", 7);
+    trie.put("Blue   Hole", 3);
+
+    assertEquals(2, trie.size());
+    assertEquals(7, trie.weight("curacao"));
+    assertEquals(List.of("Curaçao"), trie.suggest("CURA", 5), "the first spelling is kept");
+    assertEquals(List.of("Blue   Hole"), trie.suggest("blue h", 5));
+  }
+
+  @Test
+  void weightChangesReorderTheSuggestions() {
+    RadixTrie trie = new RadixTrie(2);
+    trie.put("Red Sea", 10);
+    trie.put("Reunion", 8);
+    trie.put("Raja Ampat", 5);
+
+    assertEquals(List.of("Red Sea", "Reunion"), trie.suggest("r", 5));
+
+    assertEquals(15, trie.add("Raja Ampat", 10));
+    assertEquals(List.of("Raja Ampat", "Red Sea"), trie.suggest("r", 5));
+
+    trie.add("Red Sea", -10);
+    assertEquals(0, trie.weight("Red Sea"));
+    assertEquals(List.of("Raja Ampat", "Reunion"), trie.suggest("r", 5));
+    assertEquals(List.of("Reunion"), trie.suggest("re", 5));
+  }
+
+  @Test
+  void equalWeightsRankAlphabetically() {
+    RadixTrie trie = new RadixTrie(5);
+    trie.put("palau", 1);
+    trie.put("Palawan", 1);
+    trie.put("Panama", 1);
+
+    assertEquals(List.of("palau", "Palawan", "Panama"), trie.suggest("pa", 5));
+  }
+
+  @Test
+  void removalMergesEdgesBackTogether() {
+    RadixTrie trie = new RadixTrie(4);
+    trie.put("dive", 1);
+    trie.put("diver", 2);
+    trie.put("diving", 3);
+
+    trie.remove("dive");
+    trie.remove("diving");
+    trie.remove("unknown");
+
+    assertEquals(1, trie.size());
+    assertEquals(List.of("diver"), trie.values());
+    assertEquals(List.of("diver"), trie.suggest("div", 5));
+    assertEquals(List.of(), trie.suggest("divi", 5));
+
+    trie.remove("diver");
+    assertEquals(0, trie.size());
+    assertEquals(List.of(), trie.suggest("", 5));
+  }
+
+  @Test
+  void matchesABruteForceRankingUnderRandomWrites() {
+    int topK = 4;
+    RadixTrie trie = new RadixTrie(topK);
+    Map<String, Long> expected = new HashMap<>();
+    Random random = new Random(11);
+    String alphabet = "abc";
+    for (int i = 0; i < 5_000; i++) {
+      String value = randomWord(random, alphabet, 1 + random.nextInt(5));
+      long weight = random.nextInt(4) == 0 ? 0 : 1 + random.nextInt(20);
+      trie.put(value, weight);
+      if (weight == 0) {
+        expected.remove(value);
+      } else {
+        expected.put(value, weight);
+      }
+
+      if (i % 50 == 0) {
+        assertEquals(expected.size(), trie.size());
+        for (int length = 0; length <= 3; length++) {
+          String prefix = randomWord(random, alphabet, length);
+          assertEquals(bruteForce(expected, prefix, topK), trie.suggest(prefix, topK), prefix);
+        }
+      }
+    }
+    assertEquals(expected.keySet().stream().sorted().toList(), trie.values());
+  }
+
+  @Test
+  void rejectsTopKBelowOne() {
+    assertThrows(IllegalArgumentException.class, () -> new RadixTrie(0));
+  }
+
+  private static List<String> bruteForce(Map<String, Long> weights, String prefix, int limit) {
+    List<Map.Entry<String, Long>> matches = new ArrayList<>();
+    for (Map.Entry<String, Long> entry : weights.entrySet()) {
+      if (entry.getKey().startsWith(prefix)) {
+        matches.add(entry);
+      }
+    }
+    matches.sort(Comparator.comparing((Map.Entry<String, Long> entry) -> entry.getValue()).reversed()
+        .thenComparing(Map.Entry::getKey));
+    return matches.stream().limit(limit).map(Map.Entry::getKey).toList();
+  }
+
+  private static String randomWord(Random random, String alphabet, int length) {
+    StringBuilder word = new StringBuilder();
+    for (int i = 0; i < length; i++) {
+      word.append(alphabet.charAt(random.nextInt(alphabet.length())));
+    }
+    return word.toString();
+  }
+}
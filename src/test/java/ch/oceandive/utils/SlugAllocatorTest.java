@@ -0,0 +1,39 @@
+package ch.oceandive.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+// The lowest free slug among a base slug and its numbered variants
+class SlugAllocatorTest {
+
+  @Test
+  void baseSlugWhileItIsFree() {
+    assertEquals("reef", SlugAllocator.firstFree("reef", List.of()));
+    assertEquals("reef", SlugAllocator.firstFree("reef", List.of("reef-1", "reef-2")));
+  }
+
+  @Test
+  void lowestFreeSuffixFromOne() {
+    assertEquals("reef-1", SlugAllocator.firstFree("reef", List.of("reef")));
+    assertEquals("reef-2", SlugAllocator.firstFree("reef", List.of("reef", "reef-1", "reef-3")));
+    assertEquals("reef-3", SlugAllocator.firstFree("reef", List.of("reef-2", "reef", "reef-1")));
+  }
+
+  @Test
+  void otherSlugsWithThePrefixAreIgnored() {
+    assertEquals("reef-1", SlugAllocator.firstFree("reef",
+        List.of("reef", "reef-north", "reef-01", "reef-", "reef-1x", "reef-1234567890")));
+  }
+
+  @Test
+  void largeSuffixesDoNotGrowTheSearch() {
+    assertEquals("reef-1", SlugAllocator.firstFree("reef", List.of("reef", "reef-999999999")));
+    List<String> taken = new ArrayList<>(List.of("reef", "reef-999999999"));
+    IntStream.rangeClosed(1, 1000).forEach(i -> taken.add("reef-" + i));
+    assertEquals("reef-1001", SlugAllocator.firstFree("reef", taken));
+  }
+}